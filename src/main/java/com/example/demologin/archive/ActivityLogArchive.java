@@ -0,0 +1,436 @@
+package com.example.demologin.archive;
+
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.utils.ActivityLogCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for activity logs moved out of the database. Each archived day is one or more parts on local
+ * disk: {@code YYYY-MM-DD-N.ndjson.gz} holds the rows as NDJSON, sorted by (userId, timestamp) and cut into
+ * blocks that are each a complete gzip member, so the file as a whole is still an ordinary gzip file.
+ * {@code YYYY-MM-DD-N.idx} is the sparse index: one line per block with its byte range, row count and
+ * userId / timestamp bounds. Queries skip whole days by name and whole blocks by index, and only inflate the
+ * blocks that may hold matching rows.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogArchive {
+
+    private static final Pattern INDEX_NAME = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})-(\\d+)\\.idx");
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    // Newest first, ties broken by id, matching the database listing order
+    public static final Comparator<UserActivityLogResponse> NEWEST_FIRST = Comparator
+            .comparing(UserActivityLogResponse::getTimestamp)
+            .thenComparing(UserActivityLogResponse::getId)
+            .reversed();
+
+    private final ObjectMapper objectMapper;
+
+    // Index files never change once written
+    private final Map<Path, List<BlockIndex>> indexCache = new ConcurrentHashMap<>();
+
+    @Value("${activity-log.archive.dir:data/activity-archive}")
+    private String directory;
+
+    @Value("${activity-log.archive.block-size:1000}")
+    private int blockSize;
+
+    /** Filter on archived rows; null fields are not filtered on, the time bounds are inclusive. */
+    public record Query(Long userId, LocalDateTime from, LocalDateTime to) {
+
+        public static Query byUser(Long userId) {
+            return new Query(userId, null, null);
+        }
+
+        public static Query between(LocalDateTime from, LocalDateTime to) {
+            return new Query(null, from, to);
+        }
+    }
+
+    record BlockIndex(long offset, int length, int count, Long minUserId, Long maxUserId,
+                      LocalDateTime minTimestamp, LocalDateTime maxTimestamp) {
+    }
+
+    /**
+     * Start a new part for {@code day}. Rows must be appended in (userId, timestamp) order; the part becomes
+     * visible to queries only on {@link PartWriter#commit()}.
+     */
+    public PartWriter startPart(LocalDate day) throws IOException {
+        Path root = Files.createDirectories(Path.of(directory));
+        List<Path> parts = listParts().getOrDefault(day, List.of());
+        String stem = day + "-" + parts.size();
+        return new PartWriter(root.resolve(stem + DATA_SUFFIX), root.resolve(stem + INDEX_SUFFIX));
+    }
+
+    /** Ids already archived for {@code day}, so a run interrupted before its delete does not archive rows twice. */
+    public Set<Long> archivedIds(LocalDate day) throws IOException {
+        Set<Long> ids = new HashSet<>();
+        for (Path index : listParts().getOrDefault(day, List.of())) {
+            for (BlockIndex block : readIndex(index)) {
+                for (UserActivityLogResponse row : readBlock(dataPath(index), block)) {
+                    ids.add(row.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Deletes every archived day before {@code day}, each part's index before its data so it leaves queries
+     * first; returns the number of rows deleted.
+     */
+    public long deleteDaysBefore(LocalDate day) throws IOException {
+        long rows = 0;
+        for (List<Path> parts : listParts().headMap(day, false).values()) {
+            for (Path index : parts) {
+                for (BlockIndex block : readIndex(index)) {
+                    rows += block.count();
+                }
+                Files.delete(index);
+                indexCache.remove(index);
+                Files.deleteIfExists(dataPath(index));
+            }
+        }
+        return rows;
+    }
+
+    public long count(Query query) {
+        long rows = 0;
+        try {
+            for (List<Path> parts : candidateDays(query, null).values()) {
+                rows += countDay(parts, query, null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read activity log archive", e);
+        }
+        return rows;
+    }
+
+    /**
+     * Archived rows matching {@code query} that sort after {@code before} (all rows when null), newest first,
+     * skipping {@code offset} rows and returning at most {@code limit}.
+     */
+    public List<UserActivityLogResponse> find(Query query, ActivityLogCursor before, long offset, int limit) {
+        List<UserActivityLogResponse> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        try {
+            for (Map.Entry<LocalDate, List<Path>> day : candidateDays(query, before).entrySet()) {
+                if (offset > 0) {
+                    long rows = countDay(day.getValue(), query, before);
+                    if (offset >= rows) {
+                        offset -= rows;
+                        continue;
+                    }
+                }
+                List<UserActivityLogResponse> rows = readDay(day.getValue(), query, before);
+                rows.sort(NEWEST_FIRST);
+                int from = (int) offset;
+                int to = Math.min(rows.size(), from + limit - result.size());
+                result.addAll(rows.subList(from, to));
+                offset = 0;
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read activity log archive", e);
+        }
+        return result;
+    }
+
+    // Blocks entirely inside the filter are counted from the index alone
+    private long countDay(List<Path> parts, Query query, ActivityLogCursor before) throws IOException {
+        long rows = 0;
+        for (Path index : parts) {
+            for (BlockIndex block : readIndex(index)) {
+                if (!mayMatch(block, query, before)) {
+                    continue;
+                }
+                if (fullyMatches(block, query, before)) {
+                    rows += block.count();
+                } else {
+                    rows += readBlock(dataPath(index), block).stream().filter(row -> matches(row, query, before)).count();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private List<UserActivityLogResponse> readDay(List<Path> parts, Query query, ActivityLogCursor before) throws IOException {
+        List<UserActivityLogResponse> rows = new ArrayList<>();
+        for (Path index : parts) {
+            for (BlockIndex block : readIndex(index)) {
+                if (mayMatch(block, query, before)) {
+                    for (UserActivityLogResponse row : readBlock(dataPath(index), block)) {
+                        if (matches(row, query, before)) {
+                            rows.add(row);
+                        }
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Archived days that can hold matching rows, newest first
+    private NavigableMap<LocalDate, List<Path>> candidateDays(Query query, ActivityLogCursor before) throws IOException {
+        NavigableMap<LocalDate, List<Path>> days = listParts().descendingMap();
+        LocalDate newest = query.to() != null ? query.to().toLocalDate() : null;
+        if (before != null && (newest == null || before.timestamp().toLocalDate().isBefore(newest))) {
+            newest = before.timestamp().toLocalDate();
+        }
+        LocalDate oldest = query.from() != null ? query.from().toLocalDate() : null;
+        if (newest != null && oldest != null) {
+            return newest.isBefore(oldest) ? new TreeMap<>() : days.subMap(newest, true, oldest, true);
+        }
+        if (newest != null) {
+            return days.tailMap(newest, true);
+        }
+        return oldest != null ? days.headMap(oldest, true) : days;
+    }
+
+    private NavigableMap<LocalDate, List<Path>> listParts() throws IOException {
+        NavigableMap<LocalDate, List<Path>> days = new TreeMap<>();
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) {
+            return days;
+        }
+        try (Stream<Path> files = Files.list(root)) {
+            files.forEach(file -> {
+                Matcher matcher = INDEX_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    days.computeIfAbsent(LocalDate.parse(matcher.group(1)), day -> new ArrayList<>()).add(file);
+                }
+            });
+        }
+        days.values().forEach(parts -> parts.sort(Comparator.naturalOrder()));
+        return days;
+    }
+
+    private List<BlockIndex> readIndex(Path index) throws IOException {
+        List<BlockIndex> blocks = indexCache.get(index);
+        if (blocks != null) {
+            return blocks;
+        }
+        blocks = new ArrayList<>();
+        for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                blocks.add(objectMapper.readValue(line, BlockIndex.class));
+            }
+        }
+        indexCache.put(index, List.copyOf(blocks));
+        return blocks;
+    }
+
+    private List<UserActivityLogResponse> readBlock(Path data, BlockIndex block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+                    throw new IOException("Truncated activity log archive " + data);
+                }
+            }
+        }
+        List<UserActivityLogResponse> rows = new ArrayList<>(block.count());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(objectMapper.readValue(line, UserActivityLogResponse.class));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static boolean mayMatch(BlockIndex block, Query query, ActivityLogCursor before) {
+        if (query.userId() != null && (block.minUserId() == null
+                || query.userId() < block.minUserId() || query.userId() > block.maxUserId())) {
+            return false;
+        }
+        if (query.from() != null && block.maxTimestamp().isBefore(query.from())) {
+            return false;
+        }
+        if (query.to() != null && block.minTimestamp().isAfter(query.to())) {
+            return false;
+        }
+        return before == null || !block.minTimestamp().isAfter(before.timestamp());
+    }
+
+    private static boolean fullyMatches(BlockIndex block, Query query, ActivityLogCursor before) {
+        if (query.userId() != null && !(query.userId().equals(block.minUserId()) && query.userId().equals(block.maxUserId()))) {
+            return false;
+        }
+        if (query.from() != null && block.minTimestamp().isBefore(query.from())) {
+            return false;
+        }
+        if (query.to() != null && block.maxTimestamp().isAfter(query.to())) {
+            return false;
+        }
+        return before == null || block.maxTimestamp().isBefore(before.timestamp());
+    }
+
+    private static boolean matches(UserActivityLogResponse row, Query query, ActivityLogCursor before) {
+        if (query.userId() != null && !query.userId().equals(row.getUserId())) {
+            return false;
+        }
+        if (query.from() != null && row.getTimestamp().isBefore(query.from())) {
+            return false;
+        }
+        if (query.to() != null && row.getTimestamp().isAfter(query.to())) {
+            return false;
+        }
+        return before == null || row.getTimestamp().isBefore(before.timestamp())
+                || (row.getTimestamp().equals(before.timestamp()) && row.getId() < before.id());
+    }
+
+    private static Path dataPath(Path index) {
+        String name = index.getFileName().toString();
+        return index.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + DATA_SUFFIX);
+    }
+
+    /** Writes one part to temporary files and moves them into place on commit. */
+    public final class PartWriter implements Closeable {
+
+        private final Path data;
+        private final Path index;
+        private final Path dataTemp;
+        private final Path indexTemp;
+        private final OutputStream dataOut;
+        private final List<BlockIndex> blocks = new ArrayList<>();
+
+        private ByteArrayOutputStream block = new ByteArrayOutputStream();
+        private Writer blockWriter;
+        private long offset;
+        private int count;
+        private long rows;
+        private Long minUserId;
+        private Long maxUserId;
+        private LocalDateTime minTimestamp;
+        private LocalDateTime maxTimestamp;
+        private boolean committed;
+
+        private PartWriter(Path data, Path index) throws IOException {
+            this.data = data;
+            this.index = index;
+            this.dataTemp = data.resolveSibling(data.getFileName() + ".tmp");
+            this.indexTemp = index.resolveSibling(index.getFileName() + ".tmp");
+            this.dataOut = Files.newOutputStream(dataTemp);
+        }
+
+        public void append(UserActivityLogResponse row) throws IOException {
+            if (blockWriter == null) {
+                block = new ByteArrayOutputStream();
+                blockWriter = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(block), StandardCharsets.UTF_8));
+            }
+            blockWriter.write(objectMapper.writeValueAsString(row));
+            blockWriter.write('\n');
+            count++;
+            rows++;
+            if (row.getUserId() != null) {
+                minUserId = minUserId == null ? row.getUserId() : Math.min(minUserId, row.getUserId());
+                maxUserId = maxUserId == null ? row.getUserId() : Math.max(maxUserId, row.getUserId());
+            }
+            if (minTimestamp == null || row.getTimestamp().isBefore(minTimestamp)) {
+                minTimestamp = row.getTimestamp();
+            }
+            if (maxTimestamp == null || row.getTimestamp().isAfter(maxTimestamp)) {
+                maxTimestamp = row.getTimestamp();
+            }
+            if (count >= blockSize) {
+                finishBlock();
+            }
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        public void commit() throws IOException {
+            finishBlock();
+            dataOut.close();
+            try (Writer writer = Files.newBufferedWriter(indexTemp, StandardCharsets.UTF_8)) {
+                for (BlockIndex entry : blocks) {
+                    writer.write(objectMapper.writeValueAsString(entry));
+                    writer.write('\n');
+                }
+            }
+            // Data first: the index is what makes a part visible
+            Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTemp, index, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            log.info("Archived {} activity logs to {} ({} blocks)", rows, data.getFileName(), blocks.size());
+        }
+
+        private void finishBlock() throws IOException {
+            if (blockWriter == null) {
+                return;
+            }
+            blockWriter.close();
+            byte[] bytes = block.toByteArray();
+            dataOut.write(bytes);
+            blocks.add(new BlockIndex(offset, bytes.length, count, minUserId, maxUserId, minTimestamp, maxTimestamp));
+            offset += bytes.length;
+            blockWriter = null;
+            count = 0;
+            minUserId = null;
+            maxUserId = null;
+            minTimestamp = null;
+            maxTimestamp = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                dataOut.close();
+                Files.deleteIfExists(dataTemp);
+                Files.deleteIfExists(indexTemp);
+            }
+        }
+    }
+}
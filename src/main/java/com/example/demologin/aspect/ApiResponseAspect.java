@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
 
 @Aspect
 @Component
@@ -23,6 +24,11 @@ public class ApiResponseAspect {
 
         HttpStatus status = detectStatus(method);
 
+        // Async handlers are wrapped once their result is ready
+        if (result instanceof CompletionStage<?> stage) {
+            return stage.thenApply(value -> new ResponseObject(status.value(), apiResponse.message(), value));
+        }
+
         // Nếu method trả void hoặc null -> tự wrap luôn
         Object data = (method.getReturnType().equals(Void.TYPE) || result == null) ? null : result;
 
@@ -2,24 +2,35 @@ package com.example.demologin.aspect;
 
 import com.example.demologin.annotation.UserActivity;
 import com.example.demologin.entity.UserActivityLog;
-import com.example.demologin.entity.User;
+import com.example.demologin.enums.ActivityType;
 import com.example.demologin.exception.exceptions.InvalidPrincipalTypeException;
 import com.example.demologin.exception.exceptions.UserActivityLoggingException;
 import com.example.demologin.exception.exceptions.UserNotAuthenticatedException;
 import com.example.demologin.repository.UserActivityLogRepository;
-import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.AuthPrincipalService;
+import com.example.demologin.service.ActivityLiveTailService;
+import com.example.demologin.service.ActivityLogPolicyService;
+import com.example.demologin.service.ActivitySketchService;
+import com.example.demologin.service.UserLoginProfileService;
 import com.example.demologin.utils.*;
+import com.example.demologin.wal.ActivityEventWal;
 import com.example.demologin.dto.request.login.LoginRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Aspect
 @Component
@@ -28,19 +39,31 @@ import java.util.Optional;
 public class UserActivityAspect {
 
     private final UserActivityLogRepository userActivityLogRepository;
-    private final UserRepository userRepository;
+    private final AuthPrincipalService authPrincipalService;
     private final AccountUtils accountUtils;
     private final IpUtilsWrapper ipUtils;
-    private final UserAgentUtil userAgentUtil;
-    private final LocationUtil locationUtil;
+    private final ActivityEventWal activityEventWal;
+    private final ActivityLiveTailService activityLiveTailService;
+    private final ActivityLogPolicyService activityLogPolicyService;
+    private final ActivitySketchService activitySketchService;
+    private final UserLoginProfileService userLoginProfileService;
 
-    @AfterReturning(value = "@annotation(userActivity)", returning = "result")
+    private static final String ASYNC_HANDLER = "execution(java.util.concurrent.CompletableFuture *(..))";
+
+    @AfterReturning(value = "@annotation(userActivity) && !" + ASYNC_HANDLER, returning = "result")
     public void logUserActivity(JoinPoint joinPoint, UserActivity userActivity, Object result) {
         try {
-            User currentUser = getCurrentUserOrFromLoginAttempt(joinPoint, userActivity, result);
-            UserActivityLog activityLog = createOrUpdateActivityLog(joinPoint, userActivity, currentUser);
+            AuthPrincipal currentUser = getCurrentUserOrFromLoginAttempt(joinPoint, userActivity, result);
+            // Sampled-out and counter-only events stop here, before any client details are collected
+            Long userId = userActivity.logUserId() && currentUser != null ? currentUser.getUserId() : null;
+            activitySketchService.recordActivity(userId);
+            if (!activityLogPolicyService.admit(userActivity.activityType(), userId, ipUtils.getClientIpAddress())) {
+                return;
+            }
+            UserActivityLog activityLog = createActivityLog(joinPoint, userActivity, currentUser);
+            flagNewDevice(activityLog);
 
-            userActivityLogRepository.save(activityLog);
+            record(activityLog);
             logActivitySuccess(userActivity, activityLog);
         } catch (Exception e) {
             log.error("Failed to log user activity for method {}: {}",
@@ -49,7 +72,44 @@ public class UserActivityAspect {
         }
     }
 
-    private User getCurrentUserOrFromLoginAttempt(JoinPoint joinPoint, UserActivity userActivity, Object result) {
+    // Failed calls write no log row; only the client IP is counted for the failing IP stats
+    @AfterThrowing(value = "@annotation(userActivity) && !" + ASYNC_HANDLER, throwing = "error")
+    public void countFailedActivity(UserActivity userActivity, Throwable error) {
+        try {
+            activitySketchService.recordFailure(ipUtils.getClientIpAddress());
+        } catch (Exception e) {
+            log.debug("Failed to count failed {}: {}", userActivity.activityType(), e.getMessage());
+        }
+    }
+
+    // Async handlers are logged when their future completes, with the request bound to the completing thread;
+    // the response is only sent after that, so the request is still in use
+    @Around("@annotation(userActivity) && " + ASYNC_HANDLER)
+    public Object logAsyncUserActivity(ProceedingJoinPoint joinPoint, UserActivity userActivity) throws Throwable {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        CompletableFuture<?> future;
+        try {
+            future = (CompletableFuture<?>) joinPoint.proceed();
+        } catch (Throwable error) {
+            countFailedActivity(userActivity, error);
+            throw error;
+        }
+        return future.whenComplete((result, error) -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                if (error == null) {
+                    logUserActivity(joinPoint, userActivity, result);
+                } else {
+                    countFailedActivity(userActivity, error);
+                }
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        });
+    }
+
+    private AuthPrincipal getCurrentUserOrFromLoginAttempt(JoinPoint joinPoint, UserActivity userActivity, Object result) {
         // For login attempts, try to get user from request first
         if ("LOGIN_ATTEMPT".equals(userActivity.activityType().name())) {
             try {
@@ -61,13 +121,13 @@ public class UserActivityAspect {
 
         // For other activities, get authenticated user
         try {
-            return accountUtils.getCurrentUser();
+            return accountUtils.getCurrentPrincipal();
         } catch (UserNotAuthenticatedException | InvalidPrincipalTypeException e) {
             return null;
         }
     }
 
-    private User extractUserFromLoginRequest(JoinPoint joinPoint) throws UserActivityLoggingException {
+    private AuthPrincipal extractUserFromLoginRequest(JoinPoint joinPoint) throws UserActivityLoggingException {
         LoginRequest loginRequest = Arrays.stream(joinPoint.getArgs())
                 .filter(arg -> arg instanceof LoginRequest)
                 .map(arg -> (LoginRequest) arg)
@@ -81,28 +141,46 @@ public class UserActivityAspect {
             throw new UserActivityLoggingException("Invalid username for login attempt");
         }
 
-        if (EmailUtils.isValidEmail(username)) {
-            return userRepository.findByEmail(username)
-                    .orElseThrow(() -> new UserActivityLoggingException("User not found with email: " + username));
-        }
-
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserActivityLoggingException("User not found with username: " + username));
+        // The login projection is enough for a log row; the entity with its EAGER roles is not loaded
+        return authPrincipalService.findByLogin(username)
+                .orElseThrow(() -> new UserActivityLoggingException("User not found with login: " + username));
     }
 
-    private UserActivityLog createOrUpdateActivityLog(JoinPoint joinPoint, UserActivity userActivity, User currentUser) {
+    private UserActivityLog createActivityLog(JoinPoint joinPoint, UserActivity userActivity, AuthPrincipal currentUser) {
         ClientInfo clientInfo = getClientInfo();
-        UserAgentUtil.DeviceInfo deviceInfo = userAgentUtil.parseUserAgent(clientInfo.userAgent());
-        LocationUtil.LocationInfo locationInfo = locationUtil.getLocationFromIP(clientInfo.ipForLocation());
 
         Long userId = userActivity.logUserId() && currentUser != null ? currentUser.getUserId() : null;
         String fullName = userActivity.logUserId() && currentUser != null ? currentUser.getFullName() : null;
         String status = "SUCCESS";
         String details = getDetails(userActivity, joinPoint);
 
-        return findExistingActivityLog(userId, userActivity, clientInfo)
-                .map(existingLog -> updateExistingLog(existingLog, fullName, details, deviceInfo, locationInfo))
-                .orElseGet(() -> createNewActivityLog(userActivity, userId, fullName, status, details, clientInfo, deviceInfo, locationInfo));
+        // Repeats from the same IP and user agent are folded into the previous row by ActivityEventReplayer
+        return createNewActivityLog(userActivity, userId, fullName, status, details, clientInfo);
+    }
+
+    // Checked against the user's cached login profile, so the flag costs no history query
+    private void flagNewDevice(UserActivityLog activityLog) {
+        if (activityLog.getUserId() == null || (activityLog.getActivityType() != ActivityType.LOGIN_ATTEMPT
+                && activityLog.getActivityType() != ActivityType.LOGIN_SUCCESS)) {
+            return;
+        }
+        try {
+            activityLog.setNewDevice(userLoginProfileService.recordDevice(
+                    activityLog.getUserId(), activityLog.getUserAgent(), activityLog.getTimestamp()));
+        } catch (Exception e) {
+            log.warn("Could not check login profile of user {}: {}", activityLog.getUserId(), e.getMessage());
+        }
+    }
+
+    // Buffer locally so the request never waits on the database; write directly only if the buffer is unusable
+    private void record(UserActivityLog activityLog) {
+        try {
+            activityEventWal.append(activityLog);
+        } catch (Exception e) {
+            log.warn("Activity event buffer unavailable, writing directly: {}", e.getMessage());
+            userActivityLogRepository.save(activityLog);
+        }
+        activityLiveTailService.publish(activityLog);
     }
 
     private void saveFailedLogEntry(JoinPoint joinPoint, UserActivity userActivity, String error) {
@@ -118,7 +196,7 @@ public class UserActivityAspect {
                     .userAgent(clientInfo.userAgent())
                     .build();
 
-            userActivityLogRepository.save(activityLog);
+            record(activityLog);
             log.debug("Saved failed activity log for {}", userActivity.activityType());
         } catch (Exception e) {
             log.error("Failed to save error log entry: {}", e.getMessage());
@@ -129,12 +207,11 @@ public class UserActivityAspect {
         String rawIp = ipUtils.getClientIpAddress();
         String clientIp = formatIpAddress(rawIp);
         String userAgent = ipUtils.getUserAgent();
-        String ipForLocation = getIpForLocation(clientIp);
 
-        return new ClientInfo(clientIp, userAgent, ipForLocation);
+        return new ClientInfo(clientIp, userAgent);
     }
 
-    private record ClientInfo(String clientIp, String userAgent, String ipForLocation) {}
+    private record ClientInfo(String clientIp, String userAgent) {}
 
     private String formatIpAddress(String rawIp) {
         if (rawIp == null) return "unknown";
@@ -144,43 +221,15 @@ public class UserActivityAspect {
         return rawIp;
     }
 
-    private String getIpForLocation(String clientIp) {
-        if (clientIp.contains("(localhost)")) {
-            return clientIp.substring(0, clientIp.indexOf(" (localhost)"));
-        }
-        return clientIp.equals("127.0.0.1") || clientIp.equals("::1") ? "8.8.8.8" : clientIp;
-    }
-
     private String getDetails(UserActivity userActivity, JoinPoint joinPoint) {
         return userActivity.details().isEmpty()
                 ? String.format("%s - %s", userActivity.activityType(), joinPoint.getSignature().getName())
                 : userActivity.details();
     }
 
-    private Optional<UserActivityLog> findExistingActivityLog(Long userId, UserActivity userActivity, ClientInfo clientInfo) {
-        if (userId == null) return Optional.empty();
-
-        return Optional.ofNullable(
-                userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(
-                        userId, userActivity.activityType(), clientInfo.clientIp(), clientInfo.userAgent())
-        );
-    }
-
-    private UserActivityLog updateExistingLog(UserActivityLog existingLog, String fullName, String details,
-                                              UserAgentUtil.DeviceInfo deviceInfo, LocationUtil.LocationInfo locationInfo) {
-        existingLog.setTimestamp(LocalDateTime.now());
-        existingLog.setFullName(fullName);
-        existingLog.setDetails(details);
-        updateDeviceInfo(existingLog, deviceInfo);
-        updateLocationInfo(existingLog, locationInfo);
-
-        log.debug("Updated existing user activity log for user {} from {}", fullName, existingLog.getIpAddress());
-        return existingLog;
-    }
-
     private UserActivityLog createNewActivityLog(UserActivity userActivity, Long userId, String fullName, String status,
-                                                 String details, ClientInfo clientInfo, UserAgentUtil.DeviceInfo deviceInfo,
-                                                 LocationUtil.LocationInfo locationInfo) {
+                                                 String details, ClientInfo clientInfo) {
+        // Device and location are filled in later by ActivityLogEnrichmentService
         UserActivityLog activityLog = UserActivityLog.builder()
                 .activityType(userActivity.activityType())
                 .userId(userId)
@@ -190,41 +239,18 @@ public class UserActivityAspect {
                 .details(details)
                 .ipAddress(clientInfo.clientIp())
                 .userAgent(clientInfo.userAgent())
-                .browser(deviceInfo.getBrowser())
-                .browserVersion(deviceInfo.getBrowserVersion())
-                .operatingSystem(deviceInfo.getOperatingSystem())
-                .device(deviceInfo.getDevice())
-                .deviceType(deviceInfo.getDeviceType())
-                .city(locationInfo.getCity())
-                .region(locationInfo.getRegion())
-                .country(locationInfo.getCountry())
-                .countryCode(locationInfo.getCountryCode())
+                .enrichmentPending(true)
                 .build();
 
         log.debug("Created new user activity log for user {} from {}", fullName, clientInfo.clientIp());
         return activityLog;
     }
 
-    private void updateDeviceInfo(UserActivityLog log, UserAgentUtil.DeviceInfo deviceInfo) {
-        log.setBrowser(deviceInfo.getBrowser());
-        log.setBrowserVersion(deviceInfo.getBrowserVersion());
-        log.setOperatingSystem(deviceInfo.getOperatingSystem());
-        log.setDevice(deviceInfo.getDevice());
-        log.setDeviceType(deviceInfo.getDeviceType());
-    }
-
-    private void updateLocationInfo(UserActivityLog log, LocationUtil.LocationInfo locationInfo) {
-        log.setCity(locationInfo.getCity());
-        log.setRegion(locationInfo.getRegion());
-        log.setCountry(locationInfo.getCountry());
-        log.setCountryCode(locationInfo.getCountryCode());
-    }
-
     private void logActivitySuccess(UserActivity userActivity, UserActivityLog activityLog) {
         log.debug("User activity logged: {} for user {} from {} using {}",
                 userActivity.activityType(),
                 activityLog.getFullName() != null ? activityLog.getFullName() : "anonymous",
-                LocationUtil.formatLocationInfo(locationUtil.getLocationFromIP(activityLog.getIpAddress())),
-                UserAgentUtil.formatDeviceInfo(userAgentUtil.parseUserAgent(activityLog.getUserAgent())));
+                activityLog.getIpAddress(),
+                activityLog.getUserAgent());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.example.demologin.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.LongSupplier;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} holding at most {@code maxEntries} entries, each for
+ * {@code timeToLiveMillis} after it was written; the least recently used entry goes first when full. Used instead
+ * of the unbounded ConcurrentMapCache for caches keyed by client input, such as IP addresses.
+ */
+public class BoundedExpiringCache extends AbstractValueAdaptingCache {
+
+    private record Entry(Object value, long expiresAtMillis) {
+    }
+
+    private final String name;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Object, Entry> entries;
+
+    public BoundedExpiringCache(String name, int maxEntries, long timeToLiveMillis) {
+        this(name, maxEntries, timeToLiveMillis, System::currentTimeMillis);
+    }
+
+    BoundedExpiringCache(String name, int maxEntries, long timeToLiveMillis, LongSupplier clock) {
+        super(false);
+        this.name = name;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.clock = clock;
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (clock.getAsLong() >= entry.expiresAtMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (T) fromStoreValue(cached);
+        }
+        // Loaded outside the lock: two callers may both load, the later put wins
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        synchronized (entries) {
+            entries.put(key, new Entry(toStoreValue(value), clock.getAsLong() + timeToLiveMillis));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demologin.config;
+
+import com.example.demologin.cache.BoundedExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * The application's caches, each bounded in size and entry lifetime. Defining the CacheManager here replaces
+ * Boot's spring.cache.type=simple manager, whose ConcurrentMapCaches grow without limit.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String IP_LOCATIONS = "ipLocations";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.ip-locations.max-entries:10000}") int ipLocationsMaxEntries,
+                                     @Value("${cache.ip-locations.ttl-minutes:1440}") long ipLocationsTtlMinutes) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new BoundedExpiringCache(IP_LOCATIONS, ipLocationsMaxEntries, ipLocationsTtlMinutes * 60_000)));
+        return cacheManager;
+    }
+}
@@ -1,9 +1,9 @@
 package com.example.demologin.config;
 
 import com.example.demologin.dto.response.ResponseObject;
-import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.InvalidTokenException;
 import com.example.demologin.exception.exceptions.UnauthorizedException;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.TokenService;
 import com.example.demologin.utils.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -59,17 +59,17 @@ public class Filter extends OncePerRequestFilter {
                 throw new InvalidTokenException("Authentication token is invalid!");
             }
 
-            User user = tokenService.getUserByToken(token);
-            if (user == null) {
+            AuthPrincipal principal = tokenService.getPrincipalByToken(token);
+            if (principal == null) {
                 throw new UnauthorizedException("User not found for the provided token!");
             }
 
-            if (!jwtUtil.validateTokenWithJtiCheck(token, user)) {
+            if (!jwtUtil.validateTokenWithJtiCheck(token, principal)) {
                 throw new InvalidTokenException("Authentication token is invalid or revoked!");
             }
 
             UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(user, token, user.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
 
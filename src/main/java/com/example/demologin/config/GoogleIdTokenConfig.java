@@ -0,0 +1,39 @@
+package com.example.demologin.config;
+
+import com.example.demologin.security.CachedGoogleIdTokenVerifier;
+import com.example.demologin.security.GooglePublicKeysCache;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.Clock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * One verifier and one key cache for the whole application, instead of a verifier, transport and JSON factory
+ * per Google login. GooglePublicKeysRefresher keeps the keys fresh, so verifying a token is CPU-only in steady state.
+ */
+@Configuration
+public class GoogleIdTokenConfig {
+
+    @Bean
+    public GooglePublicKeysCache googlePublicKeysCache(
+            @Value("${google.id-token.certs-url:https://www.googleapis.com/oauth2/v1/certs}") String certsUrl,
+            @Value("${google.id-token.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${google.id-token.read-timeout-ms:3000}") int readTimeoutMs,
+            @Value("${google.id-token.retry-backoff-ms:30000}") long retryBackoffMs) {
+        return new GooglePublicKeysCache(new NetHttpTransport(), GsonFactory.getDefaultInstance(), certsUrl, Clock.SYSTEM,
+                connectTimeoutMs, readTimeoutMs, retryBackoffMs);
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysCache googlePublicKeysCache,
+            @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId) {
+        GoogleIdTokenVerifier.Builder builder = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setAudience(List.of(clientId));
+        return new CachedGoogleIdTokenVerifier(builder, googlePublicKeysCache);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demologin.config;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id assigned from a pooled hi/lo allocation table, named after the entity table with an {@code _ids} suffix,
+ * instead of an IDENTITY column, so Hibernate knows ids before the INSERT and can batch inserts.
+ * See {@link PooledIdGenerator}.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledId {
+}
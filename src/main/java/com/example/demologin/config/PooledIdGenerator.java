@@ -0,0 +1,37 @@
+package com.example.demologin.config;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Table-backed pooled-lo generator behind {@link PooledId}: each node reserves a block of ids (Hibernate setting
+ * {@value #ALLOCATION_SIZE_SETTING}, default 50) per round trip to the allocation table and hands them out from
+ * memory. The table is used on every database, including ones with
+ * sequences, so MySQL and PostgreSQL behave the same. Ids are unique but only roughly ordered across nodes.
+ */
+public class PooledIdGenerator extends SequenceStyleGenerator {
+
+    // Hibernate setting, passed through spring.jpa.properties
+    public static final String ALLOCATION_SIZE_SETTING = "demo.id.allocation_size";
+
+    public static final String TABLE_SUFFIX = "_ids";
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        parameters.setProperty(SEQUENCE_PARAM, parameters.getProperty(TABLE) + TABLE_SUFFIX);
+        parameters.setProperty(FORCE_TBL_PARAM, "true");
+        parameters.setProperty(INCREMENT_PARAM, Integer.toString(allocationSize));
+        parameters.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
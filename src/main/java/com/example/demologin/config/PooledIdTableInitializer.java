@@ -0,0 +1,47 @@
+package com.example.demologin.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves each {@link PooledId} allocation table past the largest id already in its entity table, so databases that
+ * were filled through IDENTITY columns keep working. Runs after schema update and before the scheduled writers
+ * start; it only ever raises next_val, so it is safe while other nodes allocate.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PooledIdTableInitializer {
+
+    // Allocation table -> entity table
+    static final Map<String, String> TABLES = Map.of(
+            "user_activity_logs_ids", "user_activity_logs",
+            "refresh_token_ids", "refresh_token",
+            "email_otp_ids", "email_otp");
+
+    private final JdbcTemplate jdbcTemplate;
+    // Only to order this after Hibernate has created or updated the schema
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignWithExistingIds() {
+        TABLES.forEach(this::align);
+    }
+
+    void align(String allocationTable, String entityTable) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + entityTable, Long.class);
+        long next = (maxId != null ? maxId : 0) + 1;
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + allocationTable, Integer.class);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("INSERT INTO " + allocationTable + " (next_val) VALUES (?)", next);
+        } else if (jdbcTemplate.update("UPDATE " + allocationTable + " SET next_val = ? WHERE next_val < ?", next, next) > 0) {
+            log.info("Advanced id allocation table {} to {}", allocationTable, next);
+        }
+    }
+}
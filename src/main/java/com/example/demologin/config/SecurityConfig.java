@@ -1,12 +1,17 @@
 package com.example.demologin.config;
 
+import com.example.demologin.security.BCryptCalibration;
+import com.example.demologin.security.BoundedPasswordEncoder;
+import com.example.demologin.security.CostAwareBCryptPasswordEncoder;
 import com.example.demologin.service.AuthenticationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -16,12 +21,15 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsUtils;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class SecurityConfig {
@@ -38,9 +46,30 @@ public class SecurityConfig {
         this.filter = filter;
         this.publicEndpointHandlerMapping = publicEndpointHandlerMapping;
     }
+    // Hashing runs on its own bounded pool so login bursts cannot take every request thread
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password-hashing.threads:0}") int threads,
+                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-hashing.bcrypt-strength:0}") int bcryptStrength,
+                                           @Value("${security.password-hashing.target-verify-ms:250}") long targetVerifyMs,
+                                           @Value("${security.password-hashing.min-strength:10}") int minStrength,
+                                           @Value("${security.password-hashing.max-strength:16}") int maxStrength,
+                                           MeterRegistry meterRegistry) {
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : BCryptCalibration.calibrate(Duration.ofMillis(targetVerifyMs), minStrength, maxStrength);
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder(strength), threads, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * New hashes are written as {bcrypt} at the calibrated cost. Hashes without an id prefix, or with a lower
+     * cost, still verify and are rewritten on the next successful login (see AuthenticationServiceImpl#updatePassword).
+     */
+    static PasswordEncoder delegatingPasswordEncoder(int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new CostAwareBCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
 
     @Bean
@@ -22,6 +22,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @AllArgsConstructor
 @RequestMapping("api")
@@ -71,8 +73,8 @@ import org.springframework.web.bind.annotation.*;
     @UserActivity(activityType = ActivityType.LOGIN_ATTEMPT, details = "Google OAuth login attempt")
     @Operation(summary = "Google OAuth login", 
                description = "Authenticate user with Google OAuth token")
-    public Object loginWithGoogle(@RequestBody GoogleLoginRequest request) {
-        return authenticationService.authenticateWithGoogle(request);
+    public CompletableFuture<?> loginWithGoogle(@RequestBody GoogleLoginRequest request) {
+        return authenticationService.authenticateWithGoogleAsync(request);
     }
 
     @SecuredEndpoint("USER_TOKEN_MANAGEMENT")
@@ -91,7 +93,7 @@ import org.springframework.web.bind.annotation.*;
     @UserActivity(activityType = ActivityType.LOGIN_ATTEMPT, details = "Facebook OAuth login attempt")
     @Operation(summary = "Facebook OAuth login", 
                description = "Authenticate user with Facebook OAuth token")
-    public Object loginWithFacebook(@RequestBody FacebookLoginRequest request) {
-        return authenticationService.authenticateWithFacebook(request);
+    public CompletableFuture<?> loginWithFacebook(@RequestBody FacebookLoginRequest request) {
+        return authenticationService.authenticateWithFacebookAsync(request);
     }
 }
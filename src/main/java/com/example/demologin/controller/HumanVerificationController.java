@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api")
 public class HumanVerificationController {
@@ -21,12 +23,13 @@ public class HumanVerificationController {
 
     @PostMapping(value = "/verify-human", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @PublicEndpoint
-    public ResponseEntity<VerifyTokenResponse> verifyHuman(@RequestBody VerifyTokenRequest request) {
-        VerifyTokenResponse response = humanVerificationService.verifyHuman(request);
-        if (response.getVerifyToken() != null) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
+    public CompletableFuture<ResponseEntity<VerifyTokenResponse>> verifyHuman(@RequestBody VerifyTokenRequest request) {
+        return humanVerificationService.verifyHumanAsync(request).thenApply(response -> {
+            if (response.getVerifyToken() != null) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+        });
     }
 }
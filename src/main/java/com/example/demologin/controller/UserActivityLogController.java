@@ -4,14 +4,27 @@ import com.example.demologin.annotation.ApiResponse;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.enums.ExportFormat;
+import com.example.demologin.service.ActivityLiveTailService;
+import com.example.demologin.service.ActivityLogExportService;
+import com.example.demologin.service.ActivitySketchService;
+import com.example.demologin.service.ActivityStatsService;
 import com.example.demologin.service.UserActivityLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -22,6 +35,10 @@ import java.time.LocalDateTime;
     public class UserActivityLogController {
 
     private final UserActivityLogService userActivityLogService;
+    private final ActivityLogExportService activityLogExportService;
+    private final ActivityStatsService activityStatsService;
+    private final ActivityLiveTailService activityLiveTailService;
+    private final ActivitySketchService activitySketchService;
 
     @GetMapping
     @PageResponse
@@ -35,6 +52,28 @@ import java.time.LocalDateTime;
         return userActivityLogService.getAllActivityLogs(page, size);
     }
 
+    @GetMapping(params = "cursor")
+    @ApiResponse(message = "Activity logs retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get all user activity logs (cursor)", description = "Keyset pagination, newest first; pass an empty cursor for the first page and nextCursor afterwards")
+    public Object getAllActivityLogsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return userActivityLogService.getAllActivityLogsAfter(cursor, size);
+    }
+
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Live activity tail", description = "Server-Sent Events stream of new activity events as they are recorded, optionally filtered by activity type and user ID; served from memory without database queries")
+    public SseEmitter streamLiveActivity(
+            @Parameter(description = "Activity type") @RequestParam(required = false) ActivityType activityType,
+            @Parameter(description = "User ID") @RequestParam(required = false) Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        return activityLiveTailService.subscribe(activityType, userId, lastEventId);
+    }
+
     @GetMapping("/{id}")
     @ApiResponse(message = "Activity log retrieved successfully")
     @SecuredEndpoint("LOG_VIEW_ACTIVITY")
@@ -58,6 +97,18 @@ import java.time.LocalDateTime;
         return userActivityLogService.getActivityLogsByUserId(userId, page, size);
     }
 
+    @GetMapping(value = "/user/{userId}", params = "cursor")
+    @ApiResponse(message = "User activity logs retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get activity logs by user ID (cursor)", description = "Keyset pagination of a user's activity logs, newest first")
+    public Object getActivityLogsByUserIdByCursor(
+            @Parameter(description = "User ID") @PathVariable Long userId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return userActivityLogService.getActivityLogsByUserIdAfter(userId, cursor, size);
+    }
+
     @GetMapping("/type/{actionType}")
     @PageResponse
     @ApiResponse(message = "Activity logs by type retrieved successfully")
@@ -71,6 +122,18 @@ import java.time.LocalDateTime;
         return userActivityLogService.getActivityLogsByType(actionType, page, size);
     }
 
+    @GetMapping(value = "/type/{actionType}", params = "cursor")
+    @ApiResponse(message = "Activity logs by type retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get activity logs by action type (cursor)", description = "Keyset pagination of activity logs filtered by action type, newest first")
+    public Object getActivityLogsByActionTypeByCursor(
+            @Parameter(description = "Action type") @PathVariable String actionType,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return userActivityLogService.getActivityLogsByTypeAfter(actionType, cursor, size);
+    }
+
     @GetMapping("/date-range")
     @PageResponse
     @ApiResponse(message = "Activity logs by date range retrieved successfully")
@@ -87,6 +150,31 @@ import java.time.LocalDateTime;
         return userActivityLogService.getActivityLogsByDateRange(startDateTime, endDateTime, page, size);
     }
 
+    @GetMapping(value = "/date-range", params = "cursor")
+    @ApiResponse(message = "Activity logs by date range retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get activity logs by date range (cursor)", description = "Keyset pagination of activity logs within a date range, newest first")
+    public Object getActivityLogsByDateRangeByCursor(
+            @Parameter(description = "Start date (YYYY-MM-DD)") @RequestParam String startDate,
+            @Parameter(description = "End date (YYYY-MM-DD)") @RequestParam String endDate,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        LocalDateTime startDateTime = LocalDate.parse(startDate).atStartOfDay();
+        LocalDateTime endDateTime = LocalDate.parse(endDate).atTime(23, 59, 59);
+        return userActivityLogService.getActivityLogsByDateRangeAfter(startDateTime, endDateTime, cursor, size);
+    }
+
+    @GetMapping("/filter")
+    @PageResponse
+    @ApiResponse(message = "Filtered activity logs retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Filter activity logs", description = "Combine any of userId/username, activityType, status, startTime/endTime, ipAddress and countryCode; only supplied filters are applied")
+    public Object filterActivityLogs(@ModelAttribute UserActivityLogFilterRequest filter) {
+
+        return userActivityLogService.filterActivityLogs(filter);
+    }
+
     @PostMapping("/export")
     @PageResponse
     @ApiResponse(message = "Activity logs exported successfully")
@@ -100,6 +188,21 @@ import java.time.LocalDateTime;
         return userActivityLogService.exportActivityLogs(request, page, size);
     }
 
+    @PostMapping("/export/stream")
+    @SecuredEndpoint("ADMIN_ACTIVITY_LOG_EXPORT")
+    @Operation(summary = "Stream activity log export", description = "Stream every matching activity log as CSV or NDJSON (optionally gzipped) in a single response")
+    public void streamActivityLogExport(
+            @Valid @RequestBody UserActivityLogExportRequest request,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat format = request.getFormat() != null ? request.getFormat() : ExportFormat.CSV;
+        String fileName = "activity-logs-" + request.getStartDate() + "-to-" + request.getEndDate()
+                + "." + format.getFileExtension() + (request.isGzip() ? ".gz" : "");
+        response.setContentType(request.isGzip() ? "application/gzip" : format.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        activityLogExportService.exportActivityLogs(request, response.getOutputStream());
+    }
+
     @GetMapping("/my-login-history")
     @PageResponse
     @ApiResponse(message = "Login history retrieved successfully")
@@ -112,6 +215,52 @@ import java.time.LocalDateTime;
         return userActivityLogService.getMyLoginHistory(page, size);
     }
 
+    @GetMapping(value = "/my-login-history", params = "cursor")
+    @ApiResponse(message = "Login history retrieved successfully")
+    @SecuredEndpoint("USER_VIEW_OWN_LOGIN_HISTORY")
+    @Operation(summary = "Get my login history (cursor)", description = "Keyset pagination of the current user's login history, newest first")
+    public Object getMyLoginHistoryByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return userActivityLogService.getMyLoginHistoryAfter(cursor, size);
+    }
+
+    @GetMapping("/stats")
+    @ApiResponse(message = "Activity statistics retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get activity statistics", description = "Event counts by activity type and status in a time range, summed from hourly rollups")
+    public Object getActivityStats(
+            @Parameter(description = "From (inclusive, ISO date-time)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "To (exclusive, ISO date-time)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        return activityStatsService.getActivityStats(from, to);
+    }
+
+    @GetMapping("/stats/security")
+    @ApiResponse(message = "Security statistics retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get security statistics", description = "Top failing IPs, distinct users and logins by country in a time range, merged from hourly streaming sketches")
+    public Object getSecurityStats(
+            @Parameter(description = "From (inclusive, ISO date-time)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "To (exclusive, ISO date-time)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Number of top IPs and countries") @RequestParam(defaultValue = "10") int limit) {
+
+        return activitySketchService.getSecurityStats(from, to, limit);
+    }
+
+    @GetMapping("/stats/user/{userId}")
+    @ApiResponse(message = "User activity statistics retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get user activity statistics", description = "Daily event counts for a user, summed from daily rollups")
+    public Object getUserActivityStats(
+            @Parameter(description = "User ID") @PathVariable Long userId,
+            @Parameter(description = "Start date (YYYY-MM-DD)") @RequestParam String startDate,
+            @Parameter(description = "End date (YYYY-MM-DD)") @RequestParam String endDate) {
+
+        return activityStatsService.getUserActivityStats(userId, LocalDate.parse(startDate), LocalDate.parse(endDate));
+    }
+
     @DeleteMapping("/{id}")
     @ApiResponse(message = "Activity log deleted successfully")
     @SecuredEndpoint("LOG_DELETE")
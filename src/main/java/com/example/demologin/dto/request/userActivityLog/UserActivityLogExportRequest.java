@@ -1,5 +1,7 @@
 package com.example.demologin.dto.request.userActivityLog;
 
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.enums.ExportFormat;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,4 +21,13 @@ public class UserActivityLogExportRequest {
     
     @NotNull(message = "End date is required")
     private LocalDate endDate;
+
+    // Optional filters
+    private Long userId;
+    private ActivityType activityType;
+    private String status;
+
+    // Streaming export output
+    private ExportFormat format = ExportFormat.CSV;
+    private boolean gzip;
 }
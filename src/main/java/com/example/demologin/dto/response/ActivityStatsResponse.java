@@ -0,0 +1,37 @@
+package com.example.demologin.dto.response;
+
+import com.example.demologin.enums.ActivityType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityStatsResponse {
+
+    @JsonProperty("from")
+    private LocalDateTime from;
+
+    @JsonProperty("to")
+    private LocalDateTime to;
+
+    @JsonProperty("total")
+    private long total;
+
+    @JsonProperty("byType")
+    private Map<ActivityType, Long> byType;
+
+    @JsonProperty("byStatus")
+    private Map<String, Long> byStatus;
+
+    // activityType -> status -> count
+    @JsonProperty("byTypeAndStatus")
+    private Map<ActivityType, Map<String, Long>> byTypeAndStatus;
+}
@@ -0,0 +1,54 @@
+package com.example.demologin.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SecurityStatsResponse {
+
+    @JsonProperty("from")
+    private LocalDateTime from;
+
+    @JsonProperty("to")
+    private LocalDateTime to;
+
+    // Estimated, about 1.6% standard error
+    @JsonProperty("distinctUsers")
+    private long distinctUsers;
+
+    @JsonProperty("distinctUsersByHour")
+    private Map<LocalDateTime, Long> distinctUsersByHour;
+
+    @JsonProperty("topFailingIps")
+    private List<HeavyHitter> topFailingIps;
+
+    @JsonProperty("loginsByCountry")
+    private List<HeavyHitter> loginsByCountry;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeavyHitter {
+
+        @JsonProperty("value")
+        private String value;
+
+        @JsonProperty("count")
+        private long count;
+
+        // The count may exceed the true count by at most this much
+        @JsonProperty("maxOvercount")
+        private long maxOvercount;
+    }
+}
@@ -77,4 +77,10 @@ public class UserActivityLogResponse {
 
     @JsonProperty("location")
     private String location;
+
+    @JsonProperty("newDevice")
+    private Boolean newDevice;
+
+    @JsonProperty("newCountry")
+    private Boolean newCountry;
 }
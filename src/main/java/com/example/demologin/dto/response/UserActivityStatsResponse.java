@@ -0,0 +1,32 @@
+package com.example.demologin.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityStatsResponse {
+
+    @JsonProperty("userId")
+    private Long userId;
+
+    @JsonProperty("from")
+    private LocalDate from;
+
+    @JsonProperty("to")
+    private LocalDate to;
+
+    @JsonProperty("total")
+    private long total;
+
+    @JsonProperty("daily")
+    private Map<LocalDate, Long> daily;
+}
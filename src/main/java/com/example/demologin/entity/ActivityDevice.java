@@ -0,0 +1,36 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Dimension: one row per distinct parsed device (browser, version, OS, device, type)
+@Entity
+@Table(name = "activity_devices", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_device_fingerprint", columnNames = "fingerprint")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivityDevice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the attribute values, so uniqueness does not need an index over every column
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(length = 100)
+    private String browser;
+
+    @Column(length = 50)
+    private String browserVersion;
+
+    @Column(length = 100)
+    private String operatingSystem;
+
+    @Column(length = 100)
+    private String device;
+
+    @Column(length = 20)
+    private String deviceType;
+}
@@ -0,0 +1,34 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Dimension: one row per distinct resolved location
+@Entity
+@Table(name = "activity_locations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_location_fingerprint", columnNames = "fingerprint")
+}, indexes = {
+        @Index(name = "idx_activity_location_country_code", columnList = "countryCode")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivityLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(length = 100)
+    private String city;
+
+    @Column(length = 100)
+    private String region;
+
+    @Column(length = 100)
+    private String country;
+
+    @Column(length = 10)
+    private String countryCode;
+}
@@ -0,0 +1,33 @@
+package com.example.demologin.entity;
+
+import com.example.demologin.enums.SketchMetric;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Snapshot of one hourly streaming sketch, serialized by HyperLogLog / SpaceSaving
+@Entity
+@Table(name = "activity_sketches", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_sketches_bucket", columnNames = {"bucketStart", "metric"})
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivitySketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private SketchMetric metric;
+
+    @Column(nullable = false, length = 1_000_000)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
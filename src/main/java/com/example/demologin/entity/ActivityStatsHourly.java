@@ -0,0 +1,33 @@
+package com.example.demologin.entity;
+
+import com.example.demologin.enums.ActivityType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Rollup: number of activity log rows per hour x activity type x status
+@Entity
+@Table(name = "activity_stats_hourly", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_stats_hourly_bucket", columnNames = {"bucketStart", "activityType", "status"})
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivityStatsHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private ActivityType activityType;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private long eventCount;
+}
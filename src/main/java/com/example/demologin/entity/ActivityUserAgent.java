@@ -0,0 +1,27 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Dimension: one row per distinct User-Agent header, pointing at the device it parses to
+@Entity
+@Table(name = "activity_user_agents", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_user_agent_fingerprint", columnNames = "fingerprint")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ActivityUserAgent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the header; the header itself is too long to index
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(length = 1000)
+    private String userAgent;
+
+    @Column(nullable = false)
+    private Long deviceId;
+}
@@ -1,5 +1,6 @@
 package com.example.demologin.entity;
 
+import com.example.demologin.config.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 @Builder
 public class EmailOtp {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -1,5 +1,6 @@
 package com.example.demologin.entity;
 
+import com.example.demologin.config.PooledId;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -14,7 +15,7 @@ import java.time.LocalDateTime;
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private long id;
 
     @ManyToOne
@@ -1,17 +1,30 @@
 package com.example.demologin.entity;
 
+import com.example.demologin.config.PooledId;
 import com.example.demologin.enums.ActivityType;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_activity_logs")
+@Table(name = "user_activity_logs", indexes = {
+        @Index(name = "idx_activity_log_enrichment_pending", columnList = "enrichmentPending"),
+        // Keyset pagination: each list endpoint seeks on (timestamp DESC, id DESC) behind its filter columns
+        @Index(name = "idx_activity_log_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_activity_log_user_timestamp_id", columnList = "userId, timestamp, id"),
+        @Index(name = "idx_activity_log_type_timestamp_id", columnList = "activityType, timestamp, id"),
+        @Index(name = "idx_activity_log_user_type_timestamp_id", columnList = "userId, activityType, timestamp, id"),
+        // Combined filter endpoint: equality column first, then the time range
+        @Index(name = "idx_activity_log_status_timestamp", columnList = "status, timestamp"),
+        @Index(name = "idx_activity_log_ip_timestamp", columnList = "ipAddress, timestamp"),
+        @Index(name = "idx_activity_log_location_timestamp", columnList = "locationId, timestamp")
+})
+@EntityListeners(UserActivityLogListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class UserActivityLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -38,6 +51,15 @@ public class UserActivityLog {
     @Column(length = 45)
     private String ipAddress;
 
+    // Dictionary-encoded dimensions, see ActivityLogDimensionService
+    @Column
+    private Long userAgentId;
+
+    @Column
+    private Long locationId;
+
+    // Legacy denormalized columns. New rows only carry userAgent until it is interned; rows written before the
+    // dimension tables existed are moved over and cleared by ActivityLogDimensionService.migrateLegacyLogs
     @Column(length = 1000)
     private String userAgent;
 
@@ -70,6 +92,18 @@ public class UserActivityLog {
     @Column(length = 10)
     private String countryCode;
 
+    // True while device/location columns are still waiting for background enrichment
+    @Column
+    private Boolean enrichmentPending;
+
+    // Login anomaly flags from UserLoginProfileService: newDevice is set when the row is written, newCountry
+    // once enrichment has resolved the location (only true is stored)
+    @Column
+    private Boolean newDevice;
+
+    @Column
+    private Boolean newCountry;
+
     // Add pre-persist method to ensure required fields are set
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,22 @@
+package com.example.demologin.entity;
+
+import com.example.demologin.service.ActivityStatsService;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Feeds every inserted activity log row into the stats rollups, whichever code path saved it.
+ * Instantiated by Hibernate through Spring's bean container while the EntityManagerFactory is being built, so the
+ * stats service (which needs repositories, and so that factory) is looked up on first use rather than injected.
+ */
+@RequiredArgsConstructor
+public class UserActivityLogListener {
+
+    private final ObjectProvider<ActivityStatsService> activityStatsService;
+
+    @PostPersist
+    public void afterInsert(UserActivityLog activityLog) {
+        activityStatsService.getObject().recordEvent(activityLog);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Rollup: number of activity log rows per user per day
+@Entity
+@Table(name = "user_activity_stats_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_activity_stats_daily_bucket", columnNames = {"userId", "bucketDate"})
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UserActivityStatsDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private long eventCount;
+}
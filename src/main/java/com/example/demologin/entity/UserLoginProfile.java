@@ -0,0 +1,30 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Compact login history of one user, maintained by UserLoginProfileService
+@Entity
+@Table(name = "user_login_profiles")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UserLoginProfile {
+
+    @Id
+    private Long userId;
+
+    // Recently seen country codes as CODE:lastSeenEpochSecond, comma separated
+    @Column(nullable = false, length = 500)
+    private String countries;
+
+    // Recently seen device fingerprint hashes as HASH:lastSeenEpochSecond, comma separated
+    @Column(nullable = false, length = 1000)
+    private String devices;
+
+    @Column
+    private LocalDateTime lastLoginAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
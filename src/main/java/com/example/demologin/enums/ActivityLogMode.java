@@ -0,0 +1,13 @@
+package com.example.demologin.enums;
+
+// How events of one ActivityType are recorded, see ActivityLogPolicyService
+public enum ActivityLogMode {
+    // Write a row for every event
+    ALWAYS,
+    // Write a row for a random fraction of events
+    SAMPLED,
+    // Write a row for the first event per user in each time window
+    FIRST_PER_WINDOW,
+    // Write no rows, only count the events
+    COUNTERS_ONLY
+}
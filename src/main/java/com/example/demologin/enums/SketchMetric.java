@@ -0,0 +1,11 @@
+package com.example.demologin.enums;
+
+// Streaming summaries kept per hour by ActivitySketchService
+public enum SketchMetric {
+    // Space-Saving: client IPs of failed @UserActivity calls
+    FAILING_IPS,
+    // HyperLogLog: distinct user ids with any activity
+    DISTINCT_USERS,
+    // Space-Saving: country codes of successful logins
+    LOGIN_COUNTRIES
+}
@@ -0,0 +1,7 @@
+package com.example.demologin.exception.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
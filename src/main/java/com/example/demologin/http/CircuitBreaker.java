@@ -0,0 +1,143 @@
+package com.example.demologin.http;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the last {@code windowSize} calls. Opens once at least {@code minimumCalls}
+ * have been recorded and either the failure rate or the rate of calls slower than {@code slowCallDuration} reaches
+ * its threshold; while open every call is refused at once. After {@code openDuration} it lets
+ * {@code halfOpenProbes} calls through and closes again only if they stay under both thresholds.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public record Settings(int windowSize, int minimumCalls, float failureRateThreshold, float slowCallRateThreshold,
+                           Duration slowCallDuration, Duration openDuration, int halfOpenProbes) {
+    }
+
+    public record Snapshot(State state, float failureRate, float slowCallRate, int bufferedCalls, long notPermittedCalls) {
+    }
+
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private State state = State.CLOSED;
+    private byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int probesStarted;
+    private long notPermittedCalls;
+
+    public CircuitBreaker(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    CircuitBreaker(Settings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.outcomes = new byte[settings.windowSize()];
+    }
+
+    /**
+     * Whether a call may go ahead; every permitted call must be followed by exactly one {@link #record}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= settings.openDuration().toNanos()) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && probesStarted < settings.halfOpenProbes()) {
+            probesStarted++;
+            return true;
+        }
+        notPermittedCalls++;
+        return false;
+    }
+
+    /**
+     * Releases a permission without recording an outcome, for calls that never reached the remote.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized void record(long durationNanos, boolean failed) {
+        byte outcome = (byte) ((failed ? FAILED : 0) | (durationNanos >= settings.slowCallDuration().toNanos() ? SLOW : 0));
+        if (state == State.OPEN) {
+            return;
+        }
+        if (recorded == outcomes.length) {
+            remove(outcomes[next]);
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        if ((outcome & FAILED) != 0) {
+            failures++;
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls++;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (recorded >= settings.halfOpenProbes()) {
+                transitionTo(overThreshold() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= settings.minimumCalls() && overThreshold()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, rate(failures), rate(slowCalls), recorded, notPermittedCalls);
+    }
+
+    private boolean overThreshold() {
+        return rate(failures) >= settings.failureRateThreshold() || rate(slowCalls) >= settings.slowCallRateThreshold();
+    }
+
+    private float rate(int count) {
+        return recorded == 0 ? -1 : count * 100f / recorded;
+    }
+
+    private void remove(byte outcome) {
+        if ((outcome & FAILED) != 0) {
+            failures--;
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls--;
+        }
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        // Each state judges only its own calls: half-open its probes, closed a fresh window
+        outcomes = new byte[newState == State.HALF_OPEN ? settings.halfOpenProbes() : settings.windowSize()];
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesStarted = 0;
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demologin.http;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/circuitbreakers}: state, failure and slow-call rates of each remote's circuit breaker.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+@RequiredArgsConstructor
+public class CircuitBreakersEndpoint {
+
+    private final OutboundHttpClients outboundHttpClients;
+
+    @ReadOperation
+    public Map<String, CircuitBreaker.Snapshot> circuitBreakers() {
+        Map<String, CircuitBreaker.Snapshot> snapshots = new TreeMap<>();
+        for (OutboundHttpClient client : outboundHttpClients.all()) {
+            snapshots.put(client.getName(), client.getCircuitBreaker().snapshot());
+        }
+        return snapshots;
+    }
+
+    // Unknown remotes answer 404 rather than creating a client
+    @ReadOperation
+    public CircuitBreaker.Snapshot circuitBreaker(@Selector String remote) {
+        return outboundHttpClients.all().stream()
+                .filter(client -> client.getName().equals(remote))
+                .map(client -> client.getCircuitBreaker().snapshot())
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demologin.http;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * A call to a remote host was refused without being sent because the host's circuit breaker is open.
+ */
+public class OutboundCircuitOpenException extends ResourceAccessException {
+
+    public OutboundCircuitOpenException(String remote) {
+        super("Circuit breaker for " + remote + " is open");
+    }
+}
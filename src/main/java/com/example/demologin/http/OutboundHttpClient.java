@@ -0,0 +1,240 @@
+package com.example.demologin.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The client for one remote host. Its JDK HttpClient keeps connections alive and reuses them across requests
+ * (multiplexed over HTTP/2 where the host supports it); every request is bounded by the host's timeouts and
+ * concurrency cap, passes the host's {@link CircuitBreaker}, and is timed under {@code http.outbound.requests}
+ * with the remote's name. Connection errors, timeouts and 5xx responses count as failures for the breaker.
+ */
+public class OutboundHttpClient {
+
+    public record Settings(Duration connectTimeout, Duration readTimeout, int maxConcurrent, Duration acquireTimeout,
+                           CircuitBreaker.Settings circuitBreaker) {
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private final String name;
+    private final Settings settings;
+    private final HttpClient httpClient;
+    private final RestClient restClient;
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Counter limitRejected;
+    private final Counter circuitRejected;
+
+    public OutboundHttpClient(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(settings.maxConcurrent());
+        this.circuitBreaker = new CircuitBreaker(settings.circuitBreaker());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(settings.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.readTimeout());
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .requestInterceptor(new LimitingInterceptor())
+                .build();
+
+        Gauge.builder("http.outbound.in-flight", permits, semaphore -> settings.maxConcurrent() - semaphore.availablePermits())
+                .description("Requests to the remote currently in flight")
+                .tag("remote", name)
+                .register(meterRegistry);
+        this.limitRejected = rejectedCounter("concurrency-limit");
+        this.circuitRejected = rejectedCounter("circuit-open");
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("http.outbound.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .description("1 for the circuit breaker's current state")
+                    .tags("remote", name, "state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public RestClient restClient() {
+        return restClient;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Sends without holding the calling thread; the future completes on the HttpClient's own threads. The breaker,
+     * the concurrency cap (without waiting for a permit), the read timeout and the metrics apply as for
+     * {@link #restClient()}. A refused call returns an already failed future, and connection errors and timeouts
+     * fail it with {@link ResourceAccessException}.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            circuitRejected.increment();
+            return CompletableFuture.failedFuture(new OutboundCircuitOpenException(name));
+        }
+        if (!permits.tryAcquire()) {
+            circuitBreaker.release();
+            limitRejected.increment();
+            return CompletableFuture.failedFuture(new OutboundHttpLimitException(name));
+        }
+        HttpRequest timed = request.timeout().isPresent() ? request
+                : HttpRequest.newBuilder(request, (header, value) -> true).timeout(settings.readTimeout()).build();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = httpClient.sendAsync(timed, bodyHandler);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.handle((result, error) -> {
+            permits.release();
+            long elapsed = System.nanoTime() - start;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            circuitBreaker.record(elapsed, cause != null || result.statusCode() >= 500);
+            timer(request.method(), cause != null ? "IO_ERROR" : outcome(HttpStatusCode.valueOf(result.statusCode())))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (cause != null) {
+                // Without the query string, which may carry credentials such as access tokens
+                String target = request.uri().getScheme() + "://" + request.uri().getRawAuthority() + request.uri().getRawPath();
+                String reason = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                throw new ResourceAccessException("I/O error on " + request.method() + " request for \"" + target + "\": "
+                        + reason, cause instanceof IOException io ? io : new IOException(cause));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * {@link #sendAsync} for a JSON object body. 4xx and 5xx answers fail the future with
+     * {@link HttpClientErrorException} or {@link HttpServerErrorException}, as {@link RestClient#retrieve()} does.
+     */
+    public CompletableFuture<Map<String, Object>> sendAsyncForJson(HttpRequest request) {
+        return sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+            if (status.isError()) {
+                String statusText = request.method() + " " + request.uri().getHost();
+                throw status.is4xxClientError()
+                        ? HttpClientErrorException.create(status, statusText, null, response.body(), StandardCharsets.UTF_8)
+                        : HttpServerErrorException.create(status, statusText, null, response.body(), StandardCharsets.UTF_8);
+            }
+            try {
+                return JSON.readValue(response.body(), JSON_OBJECT);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable JSON from " + name, e);
+            }
+        });
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(settings.acquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                limitRejected.increment();
+                throw new OutboundHttpLimitException(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutboundHttpLimitException(name);
+        }
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder("http.outbound.rejected")
+                .description("Requests not sent because of the concurrency cap or an open circuit")
+                .tags("remote", name, "reason", reason)
+                .register(meterRegistry);
+    }
+
+    private Timer timer(String method, String outcome) {
+        return Timer.builder("http.outbound.requests")
+                .description("Latency of requests to remote hosts, up to the response headers")
+                .tags("remote", name, "method", method, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (status.is3xxRedirection()) {
+            return "REDIRECTION";
+        }
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    private class LimitingInterceptor implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(org.springframework.http.HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                circuitRejected.increment();
+                throw new OutboundCircuitOpenException(name);
+            }
+            try {
+                acquire();
+            } catch (OutboundHttpLimitException e) {
+                circuitBreaker.release();
+                throw e;
+            }
+            long start = System.nanoTime();
+            String outcome = "IO_ERROR";
+            boolean failed = true;
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                outcome = outcome(response.getStatusCode());
+                failed = response.getStatusCode().is5xxServerError();
+                return response;
+            } catch (CancellationException e) {
+                // The read timeout cancels the exchange; Spring lets the bare cancellation through when it wins the race
+                throw new HttpTimeoutException("Request to " + name + " timed out");
+            } finally {
+                permits.release();
+                long elapsed = System.nanoTime() - start;
+                circuitBreaker.record(elapsed, failed);
+                timer(request.getMethod().name(), outcome).record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demologin.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared outbound HTTP: one pooled, instrumented {@link OutboundHttpClient} per remote host, created on first use.
+ * Settings come from {@code outbound-http.remotes.<name>.*}, falling back to {@code outbound-http.defaults.*}.
+ */
+@Component
+public class OutboundHttpClients {
+
+    public static final String GOOGLE = "google";
+    public static final String FACEBOOK = "facebook";
+    public static final String TURNSTILE = "turnstile";
+    public static final String IP_API = "ip-api";
+    public static final String IPAPI_CO = "ipapi-co";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, OutboundHttpClient> clients = new ConcurrentHashMap<>();
+
+    public OutboundHttpClients(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public OutboundHttpClient get(String remote) {
+        return clients.computeIfAbsent(remote, name -> new OutboundHttpClient(name, settings(name), meterRegistry));
+    }
+
+    public RestClient restClient(String remote) {
+        return get(remote).restClient();
+    }
+
+    // Remotes called so far
+    public Collection<OutboundHttpClient> all() {
+        return clients.values();
+    }
+
+    private OutboundHttpClient.Settings settings(String remote) {
+        return new OutboundHttpClient.Settings(
+                Duration.ofMillis(setting(remote, "connect-timeout-ms", 2000)),
+                Duration.ofMillis(setting(remote, "read-timeout-ms", 5000)),
+                (int) setting(remote, "max-concurrent", 50),
+                Duration.ofMillis(setting(remote, "acquire-timeout-ms", 100)),
+                new CircuitBreaker.Settings(
+                        (int) setting(remote, "circuit.window-size", 20),
+                        (int) setting(remote, "circuit.minimum-calls", 10),
+                        setting(remote, "circuit.failure-rate-threshold", 50),
+                        setting(remote, "circuit.slow-call-rate-threshold", 50),
+                        Duration.ofMillis(setting(remote, "circuit.slow-call-duration-ms", 2000)),
+                        Duration.ofMillis(setting(remote, "circuit.open-duration-ms", 30000)),
+                        (int) setting(remote, "circuit.half-open-probes", 3)));
+    }
+
+    private long setting(String remote, String key, long fallback) {
+        Long value = environment.getProperty("outbound-http.remotes." + remote + "." + key, Long.class);
+        return value != null ? value : environment.getProperty("outbound-http.defaults." + key, Long.class, fallback);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demologin.http;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * A call to a remote host was not sent because that host's concurrency cap stayed full for the acquire timeout.
+ * Extends the RestClient I/O failure type so callers handle it like the remote being unreachable.
+ */
+public class OutboundHttpLimitException extends ResourceAccessException {
+
+    public OutboundHttpLimitException(String remote) {
+        super("Too many concurrent requests to " + remote);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demologin.initializer;
 
 import com.example.demologin.initializer.components.DefaultUserInitializer;
 import com.example.demologin.initializer.components.PermissionRoleInitializer;
+import com.example.demologin.service.RolePermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -15,7 +16,7 @@ import org.springframework.stereotype.Component;
  * in the correct order to ensure system integrity and proper dependencies.
  * 
  * Execution Order:
- * 1. PermissionRoleInitializer - Creates permissions and roles
+ * 1. PermissionRoleInitializer - Creates permissions and roles, then reloads the RBAC cache
  * 2. DefaultUserInitializer - Creates default users with assigned roles
  * 3. Future initializers can be added here with proper ordering
  */
@@ -27,6 +28,7 @@ public class MainDataInitializer implements CommandLineRunner {
 
     private final PermissionRoleInitializer permissionRoleInitializer;
     private final DefaultUserInitializer defaultUserInitializer;
+    private final RolePermissionService rolePermissionService;
 
     @Override
     public void run(String... args) throws Exception {
@@ -36,6 +38,8 @@ public class MainDataInitializer implements CommandLineRunner {
             // Step 1: Initialize Permissions and Roles
             log.info("📋 Step 1: Initializing Permissions and Roles...");
             permissionRoleInitializer.initializePermissionsAndRoles();
+            // The RBAC cache may have been loaded before the roles existed; tokens issued from it would carry no roles
+            rolePermissionService.refreshRoles();
             log.info("✅ Permissions and Roles initialization completed");
             
             // Step 2: Initialize Default Users
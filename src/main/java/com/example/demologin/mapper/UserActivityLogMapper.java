@@ -1,14 +1,22 @@
 package com.example.demologin.mapper;
 
 import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.User;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
 import com.example.demologin.utils.LocationUtil;
 import com.example.demologin.utils.UserAgentUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -16,8 +24,15 @@ import java.util.stream.Collectors;
 public class UserActivityLogMapper {
 
     private final UserRepository userRepository;
+    private final ActivityLogDimensionService activityLogDimensionService;
 
     public UserActivityLogResponse toResponse(UserActivityLog log) {
+        return toResponse(log, userId -> userRepository.findById(userId)
+                .map(User::getFullName)
+                .orElse(null));
+    }
+
+    private UserActivityLogResponse toResponse(UserActivityLog log, Function<Long, String> fullNames) {
         UserActivityLogResponse response = new UserActivityLogResponse();
         response.setId(log.getId());
         response.setActivityType(log.getActivityType());
@@ -26,58 +41,85 @@ public class UserActivityLogMapper {
         response.setStatus(log.getStatus());
         response.setDetails(log.getDetails());
         response.setIpAddress(log.getIpAddress());
-        response.setUserAgent(log.getUserAgent());
+        response.setNewDevice(log.getNewDevice());
+        response.setNewCountry(log.getNewCountry());
         
         // Set user information if userId exists
         if (log.getUserId() != null) {
-            userRepository.findById(log.getUserId())
-                .ifPresent(user -> response.setFullName(user.getFullName()));
+            response.setFullName(fullNames.apply(log.getUserId()));
         } else {
             response.setFullName(log.getFullName());
         }
         
-        // Set device and browser information
-        response.setBrowser(log.getBrowser());
-        response.setBrowserVersion(log.getBrowserVersion());
-        response.setOperatingSystem(log.getOperatingSystem());
-        response.setDevice(log.getDevice());
-        response.setDeviceType(log.getDeviceType());
-        
-        // Set location information
-        response.setCity(log.getCity());
-        response.setRegion(log.getRegion());
-        response.setCountry(log.getCountry());
-        response.setCountryCode(log.getCountryCode());
-        
-        // Format device info for display
-        if (log.getBrowser() != null && log.getOperatingSystem() != null) {
-            UserAgentUtil.DeviceInfo deviceInfo = new UserAgentUtil.DeviceInfo(
-                log.getBrowser(), 
-                log.getBrowserVersion(), 
-                log.getOperatingSystem(), 
-                log.getDevice(), 
-                log.getDeviceType()
-            );
+        // Rehydrate device and location from the dimension dictionary; rows not migrated yet carry the strings
+        ActivityLogDimensionService.UserAgentEntry userAgent = activityLogDimensionService.getUserAgent(log.getUserAgentId());
+        UserAgentUtil.DeviceInfo deviceInfo = null;
+        if (userAgent != null) {
+            response.setUserAgent(userAgent.userAgent());
+            deviceInfo = userAgent.device();
+        } else {
+            response.setUserAgent(log.getUserAgent());
+            if (log.getBrowser() != null && log.getOperatingSystem() != null) {
+                deviceInfo = new UserAgentUtil.DeviceInfo(log.getBrowser(), log.getBrowserVersion(),
+                        log.getOperatingSystem(), log.getDevice(), log.getDeviceType());
+            }
+        }
+        if (deviceInfo != null) {
+            response.setBrowser(deviceInfo.getBrowser());
+            response.setBrowserVersion(deviceInfo.getBrowserVersion());
+            response.setOperatingSystem(deviceInfo.getOperatingSystem());
+            response.setDevice(deviceInfo.getDevice());
+            response.setDeviceType(deviceInfo.getDeviceType());
             response.setDeviceInfo(UserAgentUtil.formatDeviceInfo(deviceInfo));
         }
-        
-        // Format location for display
-        if (log.getCity() != null && log.getCountry() != null) {
-            LocationUtil.LocationInfo locationInfo = new LocationUtil.LocationInfo(
-                log.getCity(), 
-                log.getRegion(), 
-                log.getCountry(), 
-                log.getCountryCode()
-            );
-            response.setLocation(LocationUtil.formatLocationInfo(locationInfo));
+
+        LocationUtil.LocationInfo locationInfo = log.getLocationId() != null
+                ? activityLogDimensionService.getLocation(log.getLocationId())
+                : new LocationUtil.LocationInfo(log.getCity(), log.getRegion(), log.getCountry(), log.getCountryCode());
+        if (locationInfo != null) {
+            response.setCity(locationInfo.getCity());
+            response.setRegion(locationInfo.getRegion());
+            response.setCountry(locationInfo.getCountry());
+            response.setCountryCode(locationInfo.getCountryCode());
+            if (locationInfo.getCity() != null && locationInfo.getCountry() != null) {
+                response.setLocation(LocationUtil.formatLocationInfo(locationInfo));
+            }
         }
-        
+
         return response;
     }
 
+    /**
+     * Map a whole page at once: the names of all distinct users on it are resolved with a single query, and
+     * dimensions missing from the dictionary cache with one query per dimension table.
+     */
     public List<UserActivityLogResponse> toResponseList(List<UserActivityLog> logs) {
+        Map<Long, String> fullNames = findFullNames(logs);
+        activityLogDimensionService.preload(
+                logs.stream().map(UserActivityLog::getUserAgentId).toList(),
+                logs.stream().map(UserActivityLog::getLocationId).toList());
         return logs.stream()
-                .map(this::toResponse)
+                .map(log -> toResponse(log, fullNames::get))
                 .collect(Collectors.toList());
     }
+
+    public Page<UserActivityLogResponse> toResponsePage(Page<UserActivityLog> logs) {
+        return new PageImpl<>(toResponseList(logs.getContent()), logs.getPageable(), logs.getTotalElements());
+    }
+
+    private Map<Long, String> findFullNames(List<UserActivityLog> logs) {
+        List<Long> userIds = logs.stream()
+                .map(UserActivityLog::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, String> fullNames = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return fullNames;
+        }
+        for (Object[] row : userRepository.findFullNamesByUserIdIn(userIds)) {
+            fullNames.put((Long) row[0], (String) row[1]);
+        }
+        return fullNames;
+    }
 }
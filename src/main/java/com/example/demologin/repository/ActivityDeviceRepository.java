@@ -0,0 +1,11 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.ActivityDevice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ActivityDeviceRepository extends JpaRepository<ActivityDevice, Long> {
+
+    Optional<ActivityDevice> findByFingerprint(String fingerprint);
+}
@@ -0,0 +1,11 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.ActivityLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ActivityLocationRepository extends JpaRepository<ActivityLocation, Long> {
+
+    Optional<ActivityLocation> findByFingerprint(String fingerprint);
+}
@@ -0,0 +1,142 @@
+package com.example.demologin.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Month partitions of user_activity_logs on MySQL (RANGE COLUMNS partitions named pYYYYMM plus a pmax catch-all)
+ * and PostgreSQL (declarative child tables named user_activity_logs_pYYYYMM plus a default partition).
+ *
+ * Partitioning is opt-in: the table is converted once with the scripts in resources/db/partitioning. On any other
+ * database, or while the table is not partitioned, {@link #isPartitioned()} is false and retention falls back to
+ * chunked deletes.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityLogPartitionRepository {
+
+    public static final String TABLE = "user_activity_logs";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("p(\\d{6})$");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    enum Dialect { MYSQL, POSTGRESQL, OTHER }
+
+    public record MonthPartition(String name, YearMonth month) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Dialect dialect;
+
+    public boolean isPartitioned() {
+        Integer partitions = switch (dialect()) {
+            case MYSQL -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                    Integer.class, TABLE);
+            case POSTGRESQL -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                    "WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+                    Integer.class, TABLE);
+            case OTHER -> 0;
+        };
+        return partitions != null && partitions > 0;
+    }
+
+    /** Month partitions, oldest first; the catch-all / default partition is not listed. */
+    public List<MonthPartition> findMonthPartitions() {
+        List<String> names = switch (dialect()) {
+            case MYSQL -> jdbcTemplate.queryForList(
+                    "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                    String.class, TABLE);
+            case POSTGRESQL -> jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i " +
+                    "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                    "WHERE p.relname = ? AND pg_table_is_visible(p.oid)",
+                    String.class, TABLE);
+            case OTHER -> List.of();
+        };
+        return names.stream()
+                .map(ActivityLogPartitionRepository::toMonthPartition)
+                .filter(Objects::nonNull)
+                .sorted((a, b) -> a.month().compareTo(b.month()))
+                .toList();
+    }
+
+    public void createMonthPartition(YearMonth month) {
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        switch (dialect()) {
+            case MYSQL -> jdbcTemplate.execute(
+                    "ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO (" +
+                    "PARTITION " + mysqlName(month) + " VALUES LESS THAN ('" + to + "'), " +
+                    "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+            case POSTGRESQL -> jdbcTemplate.execute(
+                    "CREATE TABLE IF NOT EXISTS " + postgresName(month) + " PARTITION OF " + TABLE +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            case OTHER -> throw new IllegalStateException("Partitioning is not supported on this database");
+        }
+    }
+
+    public long countRows(MonthPartition partition) {
+        String source = dialect() == Dialect.MYSQL
+                ? TABLE + " PARTITION (" + partition.name() + ")"
+                : partition.name();
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + source, Long.class);
+        return rows != null ? rows : 0;
+    }
+
+    public void dropMonthPartition(MonthPartition partition) {
+        switch (dialect()) {
+            case MYSQL -> jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition.name());
+            case POSTGRESQL -> {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.name());
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+            }
+            case OTHER -> throw new IllegalStateException("Partitioning is not supported on this database");
+        }
+    }
+
+    private Dialect dialect() {
+        if (dialect == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            String name = product != null ? product.toLowerCase(Locale.ROOT) : "";
+            dialect = name.contains("mysql") || name.contains("mariadb") ? Dialect.MYSQL
+                    : name.contains("postgres") ? Dialect.POSTGRESQL
+                    : Dialect.OTHER;
+            log.info("Activity log partitioning dialect: {} ({})", dialect, product);
+        }
+        return dialect;
+    }
+
+    static MonthPartition toMonthPartition(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.find()) {
+            return null;
+        }
+        return new MonthPartition(name, YearMonth.parse(matcher.group(1), SUFFIX));
+    }
+
+    private static String mysqlName(YearMonth month) {
+        return "p" + month.format(SUFFIX);
+    }
+
+    private static String postgresName(YearMonth month) {
+        return TABLE + "_p" + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.ActivitySketch;
+import com.example.demologin.enums.SketchMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ActivitySketchRepository extends JpaRepository<ActivitySketch, Long> {
+
+    Optional<ActivitySketch> findByBucketStartAndMetric(LocalDateTime bucketStart, SketchMetric metric);
+
+    List<ActivitySketch> findByBucketStartGreaterThanEqual(LocalDateTime from);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ActivitySketch s WHERE s.bucketStart < :cutoff")
+    int deleteByBucketStartBefore(@Param("cutoff") LocalDateTime cutoff);
+}
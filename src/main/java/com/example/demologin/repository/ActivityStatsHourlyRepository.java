@@ -0,0 +1,29 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.ActivityStatsHourly;
+import com.example.demologin.enums.ActivityType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ActivityStatsHourlyRepository extends JpaRepository<ActivityStatsHourly, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ActivityStatsHourly s SET s.eventCount = s.eventCount + :delta " +
+           "WHERE s.bucketStart = :bucketStart AND s.activityType = :activityType AND s.status = :status")
+    int incrementCount(@Param("bucketStart") LocalDateTime bucketStart,
+                       @Param("activityType") ActivityType activityType,
+                       @Param("status") String status,
+                       @Param("delta") long delta);
+
+    // [activityType, status, count] summed over the hour buckets in [from, to)
+    @Query("SELECT s.activityType, s.status, SUM(s.eventCount) FROM ActivityStatsHourly s " +
+           "WHERE s.bucketStart >= :from AND s.bucketStart < :to GROUP BY s.activityType, s.status")
+    List<Object[]> sumByTypeAndStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
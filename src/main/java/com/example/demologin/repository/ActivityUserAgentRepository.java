@@ -0,0 +1,11 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.ActivityUserAgent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ActivityUserAgentRepository extends JpaRepository<ActivityUserAgent, Long> {
+
+    Optional<ActivityUserAgent> findByFingerprint(String fingerprint);
+}
@@ -4,7 +4,9 @@ import com.example.demologin.entity.EmailOtp;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -14,7 +16,11 @@ import java.util.List;
 public interface EmailOtpRepository extends JpaRepository<EmailOtp, Long> {
     Optional<EmailOtp> findTopByEmailAndTypeOrderByCreatedAtDesc(String email, String type);
     List<EmailOtp> findByEmailAndTypeAndVerifiedFalse(String email, String type);
-    void deleteByEmailAndType(String email, String type);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOtp e WHERE e.email = :email AND e.type = :type")
+    int deleteByEmailAndType(@Param("email") String email, @Param("type") String type);
     
     @Modifying
     @Query("DELETE FROM EmailOtp e WHERE e.expiredAt < :currentTime")
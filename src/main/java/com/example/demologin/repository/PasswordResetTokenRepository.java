@@ -2,11 +2,19 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.PasswordResetToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface PasswordResetTokenRepository  extends JpaRepository<PasswordResetToken, Long> {
     PasswordResetToken findByToken(String token);
-    void deleteByToken(String token);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PasswordResetToken t WHERE t.token = :token")
+    int deleteByToken(@Param("token") String token);
 }
 
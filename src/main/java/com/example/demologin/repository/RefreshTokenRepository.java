@@ -18,13 +18,19 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     Optional<RefreshToken> findByUser(User user);
 
     @Modifying
+    @Transactional
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
     void deleteByUser(@Param("user") User user);
 
-    int deleteByExpiryDateBefore(LocalDateTime now);
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
+    int deleteByExpiryDateBefore(@Param("now") LocalDateTime now);
 
     Optional<RefreshToken> findTopByUserOrderByExpiryDateDesc(User user);
 
+    Optional<RefreshToken> findTopByUserUserIdOrderByExpiryDateDesc(Long userId);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM RefreshToken rt WHERE rt.jti = :jti")
@@ -3,15 +3,21 @@ package com.example.demologin.repository;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.enums.ActivityType;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface UserActivityLogRepository extends JpaRepository<UserActivityLog, Long> {
+public interface UserActivityLogRepository extends JpaRepository<UserActivityLog, Long>,
+        JpaSpecificationExecutor<UserActivityLog>, UserActivityLogRepositoryCustom {
     
     // Find by user ID
     Page<UserActivityLog> findByUserIdOrderByTimestampDesc(Long userId, Pageable pageable);
@@ -32,21 +38,6 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
     List<UserActivityLog> findByTimestampBetween(@Param("startTime") LocalDateTime startTime, 
                                                 @Param("endTime") LocalDateTime endTime);
     
-    // Complex filter query
-    @Query("SELECT u FROM UserActivityLog u WHERE " +
-           "(:userId IS NULL OR u.userId = :userId) AND " +
-           "(:activityType IS NULL OR u.activityType = :activityType) AND " +
-           "(:status IS NULL OR u.status = :status) AND " +
-           "(:startTime IS NULL OR u.timestamp >= :startTime) AND " +
-           "(:endTime IS NULL OR u.timestamp <= :endTime) " +
-           "ORDER BY u.timestamp DESC")
-    Page<UserActivityLog> findWithFilters(@Param("userId") Long userId,
-                                         @Param("activityType") ActivityType activityType,
-                                         @Param("status") String status,
-                                         @Param("startTime") LocalDateTime startTime,
-                                         @Param("endTime") LocalDateTime endTime,
-                                         Pageable pageable);
-    
     // Get activity stats
     @Query("SELECT u.activityType, COUNT(u) FROM UserActivityLog u WHERE u.timestamp >= :startTime GROUP BY u.activityType")
     List<Object[]> getActivityStatsSince(@Param("startTime") LocalDateTime startTime);
@@ -56,13 +47,155 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
     Long countUserActivitySince(@Param("userId") Long userId, @Param("startTime") LocalDateTime startTime);
     
     // Find existing log to update instead of creating duplicate
-    UserActivityLog findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(
-        Long userId, ActivityType activityType, String ipAddress, String userAgent);
+    UserActivityLog findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentIdOrderByTimestampDesc(
+        Long userId, ActivityType activityType, String ipAddress, Long userAgentId);
     
     // Find login history for a specific user
     Page<UserActivityLog> findByUserIdAndActivityTypeOrderByTimestampDesc(
         Long userId, ActivityType activityType, Pageable pageable);
 
-    void deleteByUserId(Long userId);
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserActivityLog u WHERE u.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Chunked delete of one user's logs: the next chunk's ids in order, then one DELETE over their id range
+    @Query("SELECT u.id FROM UserActivityLog u WHERE u.userId = :userId ORDER BY u.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserActivityLog u WHERE u.userId = :userId AND u.id >= :fromId AND u.id <= :toId")
+    int deleteByUserIdInIdRange(@Param("userId") Long userId, @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    /**
+     * Deletes a user's logs in chunks of at most chunkSize rows, two statements per chunk, so a heavy user's
+     * history is never loaded into memory. Each chunk's DELETE is its own transaction only when the caller has
+     * none; called inside a transaction, every chunk joins it and the locks are held until it ends.
+     */
+    default long deleteByUserIdInChunks(Long userId, int chunkSize) {
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = findIdsByUserId(userId, PageRequest.of(0, chunkSize));
+            if (!ids.isEmpty()) {
+                deleted += deleteByUserIdInIdRange(userId, ids.get(0), ids.get(ids.size() - 1));
+            }
+        } while (ids.size() == chunkSize);
+        return deleted;
+    }
+
+    // Keyset pagination: rows ordered by (timestamp DESC, id DESC), next page seeks past the last (timestamp, id)
+    List<UserActivityLog> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE " +
+           "(u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findAllBefore(@Param("timestamp") LocalDateTime timestamp,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    List<UserActivityLog> findByUserIdOrderByTimestampDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.userId = :userId AND " +
+           "(u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findByUserIdBefore(@Param("userId") Long userId,
+                                             @Param("timestamp") LocalDateTime timestamp,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    List<UserActivityLog> findByActivityTypeOrderByTimestampDescIdDesc(ActivityType activityType, Pageable pageable);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.activityType = :activityType AND " +
+           "(u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findByActivityTypeBefore(@Param("activityType") ActivityType activityType,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    List<UserActivityLog> findByTimestampBetweenOrderByTimestampDescIdDesc(
+        LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.timestamp BETWEEN :startTime AND :endTime AND " +
+           "(u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findByTimestampBetweenBefore(@Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime,
+                                                       @Param("timestamp") LocalDateTime timestamp,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    List<UserActivityLog> findByUserIdAndActivityTypeOrderByTimestampDescIdDesc(
+        Long userId, ActivityType activityType, Pageable pageable);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.userId = :userId AND u.activityType = :activityType AND " +
+           "(u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findByUserIdAndActivityTypeBefore(@Param("userId") Long userId,
+                                                            @Param("activityType") ActivityType activityType,
+                                                            @Param("timestamp") LocalDateTime timestamp,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    // Retention: id bounds of one activity type's expired rows, so the purger can delete in small id-range chunks
+    @Query("SELECT MIN(u.id) FROM UserActivityLog u WHERE u.activityType = :activityType AND u.timestamp < :cutoff")
+    Long findMinIdBefore(@Param("activityType") ActivityType activityType, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT MAX(u.id) FROM UserActivityLog u WHERE u.activityType = :activityType AND u.timestamp < :cutoff")
+    Long findMaxIdBefore(@Param("activityType") ActivityType activityType, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserActivityLog u WHERE u.id >= :fromId AND u.id < :toId " +
+           "AND u.activityType = :activityType AND u.timestamp < :cutoff")
+    int deleteExpiredInIdRange(@Param("activityType") ActivityType activityType,
+                               @Param("cutoff") LocalDateTime cutoff,
+                               @Param("fromId") Long fromId,
+                               @Param("toId") Long toId);
+
+    // Archive: oldest day still in the table before the cutoff, and removal of rows already written to the archive
+    @Query("SELECT MIN(u.timestamp) FROM UserActivityLog u WHERE u.timestamp < :cutoff")
+    LocalDateTime findOldestTimestampBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserActivityLog u WHERE u.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Raw events still waiting for device/location enrichment, oldest first
+    List<UserActivityLog> findByEnrichmentPendingTrueOrderByIdAsc(Pageable pageable);
+
+    // One statement for every row that shares the same user agent and location: store the dimension ids and
+    // clear the legacy string columns they replace
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserActivityLog u SET u.userAgentId = :userAgentId, u.locationId = :locationId, " +
+           "u.userAgent = null, u.browser = null, u.browserVersion = null, u.operatingSystem = null, " +
+           "u.device = null, u.deviceType = null, u.city = null, u.region = null, u.country = null, " +
+           "u.countryCode = null, u.enrichmentPending = false " +
+           "WHERE u.id IN :ids")
+    int applyDimensions(@Param("ids") Collection<Long> ids,
+                        @Param("userAgentId") Long userAgentId,
+                        @Param("locationId") Long locationId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserActivityLog u SET u.newCountry = true WHERE u.id IN :ids")
+    int markNewCountry(@Param("ids") Collection<Long> ids);
+
+    // Rows enrichment keeps failing on: they keep their raw columns and leave the queue
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserActivityLog u SET u.enrichmentPending = false WHERE u.id IN :ids")
+    int skipEnrichment(@Param("ids") Collection<Long> ids);
+
+    // Rows written before dimension encoding that still carry the legacy string columns, walked in id order
+    @Query("SELECT u FROM UserActivityLog u WHERE u.id > :afterId " +
+           "AND (u.enrichmentPending IS NULL OR u.enrichmentPending = false) " +
+           "AND (u.userAgent IS NOT NULL OR u.city IS NOT NULL OR u.country IS NOT NULL) " +
+           "ORDER BY u.id ASC")
+    List<UserActivityLog> findLegacyLogsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
 
@@ -0,0 +1,13 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.UserActivityLog;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface UserActivityLogRepositoryCustom {
+
+    // Forward-only read of every row matching the specification; consume inside a transaction and close
+    Stream<UserActivityLog> streamAll(Specification<UserActivityLog> specification, Sort sort);
+}
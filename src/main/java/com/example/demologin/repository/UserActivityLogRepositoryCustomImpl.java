@@ -0,0 +1,39 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.UserActivityLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class UserActivityLogRepositoryCustomImpl implements UserActivityLogRepositoryCustom {
+
+    // MySQL only honours the fetch size with useCursorFetch=true on the JDBC URL
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<UserActivityLog> streamAll(Specification<UserActivityLog> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserActivityLog> query = cb.createQuery(UserActivityLog.class);
+        Root<UserActivityLog> root = query.from(UserActivityLog.class);
+        query.select(root);
+        if (specification != null) {
+            query.where(specification.toPredicate(root, query, cb));
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.entity.ActivityLocation;
+import com.example.demologin.entity.UserActivityLog;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds activity log filters that contain only the predicates actually supplied, so the generated SQL is a
+ * plain conjunction of equality/range conditions the composite indexes can serve. Avoid the
+ * "(:x IS NULL OR col = :x)" form: MySQL and PostgreSQL plan it once for every combination and fall back to a scan.
+ */
+public final class UserActivityLogSpecifications {
+
+    private UserActivityLogSpecifications() {
+    }
+
+    public static Specification<UserActivityLog> matching(UserActivityLogFilterRequest filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getUserId() != null) {
+                predicates.add(cb.equal(root.get("userId"), filter.getUserId()));
+            }
+            if (filter.getActivityType() != null) {
+                predicates.add(cb.equal(root.get("activityType"), filter.getActivityType()));
+            }
+            if (hasText(filter.getStatus())) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (hasText(filter.getIpAddress())) {
+                predicates.add(cb.equal(root.get("ipAddress"), filter.getIpAddress()));
+            }
+            if (hasText(filter.getCountryCode())) {
+                // Country lives in the location dimension: match the few location ids of that country
+                Subquery<Long> locationIds = query.subquery(Long.class);
+                Root<ActivityLocation> location = locationIds.from(ActivityLocation.class);
+                locationIds.select(location.get("id")).where(cb.equal(location.get("countryCode"), filter.getCountryCode()));
+                predicates.add(root.get("locationId").in(locationIds));
+            }
+            if (filter.getStartTime() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), filter.getStartTime()));
+            }
+            if (filter.getEndTime() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("timestamp"), filter.getEndTime()));
+            }
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<UserActivityLog> matching(UserActivityLogExportRequest request) {
+        UserActivityLogFilterRequest filter = new UserActivityLogFilterRequest();
+        filter.setUserId(request.getUserId());
+        filter.setActivityType(request.getActivityType());
+        filter.setStatus(request.getStatus());
+        filter.setStartTime(request.getStartDate().atStartOfDay());
+        filter.setEndTime(request.getEndDate().atTime(23, 59, 59));
+        return matching(filter);
+    }
+
+    // Every row of one calendar day, as a half-open range so no row falls between two days
+    public static Specification<UserActivityLog> loggedOn(LocalDate day) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("timestamp"), day.atStartOfDay()),
+                cb.lessThan(root.get("timestamp"), day.plusDays(1).atStartOfDay()));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.UserActivityStatsDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface UserActivityStatsDailyRepository extends JpaRepository<UserActivityStatsDaily, Long> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserActivityStatsDaily s SET s.eventCount = s.eventCount + :delta " +
+           "WHERE s.userId = :userId AND s.bucketDate = :bucketDate")
+    int incrementCount(@Param("userId") Long userId,
+                       @Param("bucketDate") LocalDate bucketDate,
+                       @Param("delta") long delta);
+
+    List<UserActivityStatsDaily> findByUserIdAndBucketDateBetweenOrderByBucketDateAsc(Long userId, LocalDate from, LocalDate to);
+}
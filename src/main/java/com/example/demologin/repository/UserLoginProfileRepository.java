@@ -0,0 +1,7 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.UserLoginProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserLoginProfileRepository extends JpaRepository<UserLoginProfile, Long> {
+}
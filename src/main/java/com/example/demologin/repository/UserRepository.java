@@ -5,7 +5,13 @@ import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -20,4 +26,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findByRoles_Name(String roleName, Pageable pageable);
 
     boolean existsByRoles_Id(Long id);
+
+    // [userId, fullName] pairs only, so resolving names never loads the EAGER roles/permissions
+    @Query("SELECT u.userId, u.fullName FROM User u WHERE u.userId IN :userIds")
+    List<Object[]> findFullNamesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Authentication columns only, one row per role: [userId, username, password, fullName, status, locked,
+    // verified, tokenVersion, roleId]. Reads user_roles without loading roles or permissions
+    @Query("SELECT u.userId, u.username, u.password, u.fullName, u.status, u.locked, u.isVerify, u.tokenVersion, r.id "
+            + "FROM User u LEFT JOIN u.roles r WHERE u.username = :username")
+    List<Object[]> findAuthRowsByUsername(@Param("username") String username);
+
+    @Query("SELECT u.userId, u.username, u.password, u.fullName, u.status, u.locked, u.isVerify, u.tokenVersion, r.id "
+            + "FROM User u LEFT JOIN u.roles r WHERE u.email = :email")
+    List<Object[]> findAuthRowsByEmail(@Param("email") String email);
+
+    @Query("SELECT u.userId, u.username, u.password, u.fullName, u.status, u.locked, u.isVerify, u.tokenVersion, r.id "
+            + "FROM User u LEFT JOIN u.roles r WHERE u.userId = :userId")
+    List<Object[]> findAuthRowsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.userId = :userId")
+    int updatePassword(@Param("userId") Long userId, @Param("password") String password);
 }
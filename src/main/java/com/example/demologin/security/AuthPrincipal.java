@@ -0,0 +1,76 @@
+package com.example.demologin.security;
+
+import com.example.demologin.enums.UserStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What authentication and request filtering need to know about a user, read by one projection query instead of
+ * loading the User entity with its EAGER roles and permissions. Role names and permission codes come from the
+ * in-memory RBAC data; anything else about the user is loaded only where it is actually used.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class AuthPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final String password;
+    private final String fullName;
+    private final UserStatus status;
+    private final boolean locked;
+    private final boolean verified;
+    private final int tokenVersion;
+    @Singular
+    private final Set<Long> roleIds;
+    @Singular
+    private final Set<String> roleNames;
+    // Role names and permission codes
+    @Singular
+    private final Set<String> authorityNames;
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorityNames.stream().map(SimpleGrantedAuthority::new).toList();
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !locked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return status == UserStatus.ACTIVE;
+    }
+
+    public AuthPrincipal withPassword(String newPassword) {
+        return toBuilder().password(newPassword).build();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal[userId=" + userId + ", username=" + username + ", roles=" + List.copyOf(roleNames) + "]";
+    }
+}
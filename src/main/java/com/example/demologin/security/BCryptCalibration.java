@@ -0,0 +1,55 @@
+package com.example.demologin.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Picks the BCrypt cost for this machine: the highest cost between the bounds whose verify time stays within the
+ * target. Each extra cost step doubles the work, so the walk stops at the first cost over the target and startup
+ * spends at most about twice the target per sample.
+ */
+@Slf4j
+public final class BCryptCalibration {
+
+    private static final int SAMPLES = 3;
+    private static final String PROBE_PASSWORD = "calibration-Probe-Password-1";
+
+    private BCryptCalibration() {
+    }
+
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        int strength = pickStrength(target.toNanos(), minStrength, maxStrength, BCryptCalibration::medianVerifyNanos);
+        log.info("BCrypt cost {} selected for a {} ms verify target", strength, target.toMillis());
+        return strength;
+    }
+
+    // Never below minStrength, even on hardware too slow to meet the target there
+    static int pickStrength(long targetNanos, int minStrength, int maxStrength, IntToLongFunction verifyNanos) {
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            if (verifyNanos.applyAsLong(strength) > targetNanos) {
+                break;
+            }
+            chosen = strength;
+        }
+        return chosen;
+    }
+
+    static long medianVerifyNanos(int strength) {
+        String hash = BCrypt.hashpw(PROBE_PASSWORD, BCrypt.gensalt(strength));
+        // First run warms up the JIT
+        BCrypt.checkpw(PROBE_PASSWORD, hash);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.checkpw(PROBE_PASSWORD, hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demologin.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+
+/**
+ * GoogleIdTokenVerifier that checks signatures against a {@link GooglePublicKeysCache}; issuer, audience and
+ * expiry checks are the library's. The key manager inherited from the builder is never used.
+ */
+public class CachedGoogleIdTokenVerifier extends GoogleIdTokenVerifier {
+
+    private final GooglePublicKeysCache publicKeysCache;
+
+    public CachedGoogleIdTokenVerifier(GoogleIdTokenVerifier.Builder builder, GooglePublicKeysCache publicKeysCache) {
+        super(builder);
+        this.publicKeysCache = publicKeysCache;
+    }
+
+    @Override
+    public boolean verify(GoogleIdToken googleIdToken) throws GeneralSecurityException, IOException {
+        if (!verifyPayload(googleIdToken)) {
+            return false;
+        }
+        for (PublicKey publicKey : publicKeysCache.getPublicKeys()) {
+            if (googleIdToken.verifySignature(publicKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
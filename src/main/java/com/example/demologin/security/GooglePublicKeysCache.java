@@ -0,0 +1,185 @@
+package com.example.demologin.security;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.Clock;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Google's ID-token signing keys, cached for the Cache-Control max-age of the certificate response. Unlike
+ * GooglePublicKeysManager, expired keys keep being served while one caller refreshes them: the others do not wait
+ * for that fetch, and a failed fetch keeps the old keys. Only a cold start, with nothing cached yet, waits on the
+ * fetch. After a failure no fetch is attempted for the retry backoff, and every fetch has short connect and read
+ * timeouts, so an unreachable endpoint costs at most one bounded request per backoff period.
+ */
+@Slf4j
+public class GooglePublicKeysCache {
+
+    private static final Pattern MAX_AGE = Pattern.compile("\\s*max-age\\s*=\\s*(\\d+)\\s*");
+
+    private record Keys(List<PublicKey> publicKeys, long expiresAtMillis) {
+    }
+
+    private final HttpTransport transport;
+    private final JsonFactory jsonFactory;
+    private final String certsUrl;
+    private final Clock clock;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long retryBackoffMs;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Keys keys;
+    // No fetch is attempted before this time once one has failed
+    private volatile long retryAtMillis;
+
+    public GooglePublicKeysCache(HttpTransport transport, JsonFactory jsonFactory, String certsUrl, Clock clock,
+                                 int connectTimeoutMs, int readTimeoutMs, long retryBackoffMs) {
+        this.transport = transport;
+        this.jsonFactory = jsonFactory;
+        this.certsUrl = certsUrl;
+        this.clock = clock;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    /**
+     * The cached keys. Past their max-age, the caller that gets the refresh lock fetches new ones (unless a fetch
+     * failed within the retry backoff) and every other caller gets the expired keys at once. Blocks only when
+     * nothing has been fetched yet, in which case one caller fetches and the others wait for it.
+     */
+    public List<PublicKey> getPublicKeys() throws GeneralSecurityException, IOException {
+        Keys current = keys;
+        if (current == null) {
+            return fetchFirstKeys();
+        }
+        if (clock.currentTimeMillis() < current.expiresAtMillis() || clock.currentTimeMillis() < retryAtMillis
+                || !refreshLock.tryLock()) {
+            return current.publicKeys();
+        }
+        try {
+            Keys latest = keys;
+            return latest == current ? refresh().publicKeys() : latest.publicKeys();
+        } catch (GeneralSecurityException | IOException e) {
+            log.warn("Google public keys expired and could not be refreshed, using the cached ones until {}: {}",
+                    retryAtMillis, e.getMessage());
+            return current.publicKeys();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes when the keys expire within {@code aheadMillis}; returns whether a fetch succeeded. Skipped while
+     * another refresh is running or a failed one is within its retry backoff.
+     */
+    public boolean refreshIfExpiringWithin(long aheadMillis) throws GeneralSecurityException, IOException {
+        Keys current = keys;
+        long now = clock.currentTimeMillis();
+        if ((current != null && current.expiresAtMillis() - now > aheadMillis) || now < retryAtMillis
+                || !refreshLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (keys != current) {
+                return false;
+            }
+            refresh();
+            return true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public long getExpirationTimeMilliseconds() {
+        Keys current = keys;
+        return current == null ? 0 : current.expiresAtMillis();
+    }
+
+    // Nothing to serve yet, so callers wait for the one fetch instead of each making their own
+    private List<PublicKey> fetchFirstKeys() throws GeneralSecurityException, IOException {
+        refreshLock.lock();
+        try {
+            Keys latest = keys;
+            if (latest != null) {
+                return latest.publicKeys();
+            }
+            if (clock.currentTimeMillis() < retryAtMillis) {
+                throw new IOException("Google public keys unavailable, next fetch attempt at " + retryAtMillis);
+            }
+            return refresh().publicKeys();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Called with refreshLock held
+    private Keys refresh() throws GeneralSecurityException, IOException {
+        try {
+            Keys fetched = fetch();
+            keys = fetched;
+            retryAtMillis = 0;
+            return fetched;
+        } catch (GeneralSecurityException | IOException | RuntimeException e) {
+            retryAtMillis = clock.currentTimeMillis() + retryBackoffMs;
+            throw e;
+        }
+    }
+
+    private Keys fetch() throws GeneralSecurityException, IOException {
+        long fetchedAt = clock.currentTimeMillis();
+        HttpResponse response = transport.createRequestFactory(request -> request
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setReadTimeout(readTimeoutMs))
+                .buildGetRequest(new GenericUrl(certsUrl))
+                .execute();
+        List<PublicKey> publicKeys = new ArrayList<>();
+        try {
+            GenericJson certificates = jsonFactory.fromInputStream(response.getContent(), GenericJson.class);
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            for (Object pem : certificates.values()) {
+                publicKeys.add(factory.generateCertificate(
+                        new ByteArrayInputStream(String.valueOf(pem).getBytes(StandardCharsets.UTF_8))).getPublicKey());
+            }
+        } finally {
+            response.disconnect();
+        }
+        if (publicKeys.isEmpty()) {
+            throw new GeneralSecurityException("No certificates at " + certsUrl);
+        }
+        return new Keys(List.copyOf(publicKeys), fetchedAt + cacheTimeSeconds(response.getHeaders()) * 1000);
+    }
+
+    private static long cacheTimeSeconds(HttpHeaders headers) {
+        long maxAge = 0;
+        if (headers.getCacheControl() != null) {
+            for (String directive : headers.getCacheControl().split(",")) {
+                Matcher matcher = MAX_AGE.matcher(directive);
+                if (matcher.matches()) {
+                    maxAge = Long.parseLong(matcher.group(1));
+                    break;
+                }
+            }
+        }
+        if (headers.getAge() != null) {
+            maxAge -= headers.getAge();
+        }
+        return Math.max(0, maxAge);
+    }
+}
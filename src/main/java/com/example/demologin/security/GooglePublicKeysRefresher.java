@@ -0,0 +1,39 @@
+package com.example.demologin.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Fetches Google's signing keys at startup and again shortly before the cached copy's max-age runs out, so Google
+ * logins never wait on the certificate endpoint. A failed refresh keeps the cached keys and is retried at the first
+ * check after the cache's retry backoff.
+ */
+@Component
+@Slf4j
+public class GooglePublicKeysRefresher {
+
+    private final GooglePublicKeysCache publicKeysCache;
+    private final long refreshAheadMs;
+
+    public GooglePublicKeysRefresher(GooglePublicKeysCache publicKeysCache,
+                                     @Value("${google.id-token.refresh-ahead-ms:600000}") long refreshAheadMs) {
+        this.publicKeysCache = publicKeysCache;
+        this.refreshAheadMs = refreshAheadMs;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${google.id-token.refresh-check-ms:60000}")
+    public void refreshIfDue() {
+        try {
+            if (publicKeysCache.refreshIfExpiringWithin(refreshAheadMs)) {
+                log.debug("Refreshed Google public keys, cached until {}", publicKeysCache.getExpirationTimeMilliseconds());
+            }
+        } catch (GeneralSecurityException | IOException e) {
+            log.warn("Could not refresh Google public keys, keeping the cached ones: {}", e.getMessage());
+        }
+    }
+}
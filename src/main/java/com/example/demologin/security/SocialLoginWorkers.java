@@ -0,0 +1,67 @@
+package com.example.demologin.security;
+
+import com.example.demologin.exception.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Worker threads for the local part of a social login (user lookup or creation, token issue) once the provider
+ * has answered. The remote call itself holds no thread, so this pool only needs to cover the database work; it
+ * is bounded like {@link BoundedPasswordEncoder}, and a full queue fails the login at once with
+ * {@link TooManyRequestsException}.
+ */
+@Component
+public class SocialLoginWorkers {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public SocialLoginWorkers(@Value("${auth.social-login.worker-threads:8}") int threads,
+                              @Value("${auth.social-login.queue-capacity:100}") int queueCapacity,
+                              MeterRegistry meterRegistry) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "social-login-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("social.login.workers.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Social logins waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("social.login.workers.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Social logins being completed on a worker")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("social.login.workers.rejected")
+                .description("Social logins refused because the worker queue was full")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new TooManyRequestsException("Too many sign-ins in progress, try again later"));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demologin.service;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ActivityLiveTailService {
+
+    void publish(UserActivityLog activityLog);
+
+    SseEmitter subscribe(ActivityType activityType, Long userId, String lastEventId);
+}
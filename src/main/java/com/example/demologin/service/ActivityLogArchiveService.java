@@ -0,0 +1,9 @@
+package com.example.demologin.service;
+
+public interface ActivityLogArchiveService {
+
+    ArchiveResult archiveOldLogs();
+
+    record ArchiveResult(int daysArchived, long rowsArchived, long durationMs) {
+    }
+}
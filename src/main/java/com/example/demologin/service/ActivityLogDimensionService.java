@@ -0,0 +1,24 @@
+package com.example.demologin.service;
+
+import com.example.demologin.utils.LocationUtil;
+import com.example.demologin.utils.UserAgentUtil;
+
+import java.util.Collection;
+
+public interface ActivityLogDimensionService {
+
+    Long internUserAgent(String userAgent);
+
+    Long internLocation(LocationUtil.LocationInfo location);
+
+    UserAgentEntry getUserAgent(Long userAgentId);
+
+    LocationUtil.LocationInfo getLocation(Long locationId);
+
+    void preload(Collection<Long> userAgentIds, Collection<Long> locationIds);
+
+    int migrateLegacyLogs();
+
+    record UserAgentEntry(String userAgent, UserAgentUtil.DeviceInfo device) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demologin.service;
+
+public interface ActivityLogEnrichmentService {
+    int enrichPendingLogs();
+}
@@ -0,0 +1,11 @@
+package com.example.demologin.service;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ActivityLogExportService {
+
+    void exportActivityLogs(UserActivityLogExportRequest request, OutputStream out) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.example.demologin.service;
+
+import com.example.demologin.enums.ActivityType;
+
+public interface ActivityLogPolicyService {
+
+    /**
+     * Whether this event gets a log row. Events turned away are still counted in the activity stats.
+     * Anonymous events are windowed per client IP instead of per user.
+     */
+    boolean admit(ActivityType activityType, Long userId, String clientIp);
+}
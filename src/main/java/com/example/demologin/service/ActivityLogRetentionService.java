@@ -0,0 +1,17 @@
+package com.example.demologin.service;
+
+import com.example.demologin.enums.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface ActivityLogRetentionService {
+
+    PurgeResult purgeExpiredLogs();
+
+    // Per activity type, the time before which its rows have expired; types kept forever are left out
+    Map<ActivityType, LocalDateTime> expiryCutoffs(LocalDateTime now);
+
+    record PurgeResult(long rowsPurged, int partitionsDropped, long archivedRowsPurged, long durationMs) {
+    }
+}
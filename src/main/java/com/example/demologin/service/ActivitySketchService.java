@@ -0,0 +1,18 @@
+package com.example.demologin.service;
+
+import com.example.demologin.dto.response.SecurityStatsResponse;
+
+import java.time.LocalDateTime;
+
+public interface ActivitySketchService {
+
+    void recordActivity(Long userId);
+
+    void recordFailure(String ipAddress);
+
+    void recordLogin(LocalDateTime timestamp, String countryCode);
+
+    void snapshot();
+
+    SecurityStatsResponse getSecurityStats(LocalDateTime from, LocalDateTime to, int limit);
+}
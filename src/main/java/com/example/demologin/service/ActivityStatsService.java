@@ -0,0 +1,19 @@
+package com.example.demologin.service;
+
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.dto.response.UserActivityStatsResponse;
+import com.example.demologin.entity.UserActivityLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface ActivityStatsService {
+
+    void recordEvent(UserActivityLog activityLog);
+
+    void flushPendingCounts();
+
+    ActivityStatsResponse getActivityStats(LocalDateTime from, LocalDateTime to);
+
+    UserActivityStatsResponse getUserActivityStats(Long userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,13 @@
+package com.example.demologin.service;
+
+import com.example.demologin.security.AuthPrincipal;
+
+import java.util.Optional;
+
+public interface AuthPrincipalService {
+
+    // Username, or email when the login looks like one
+    Optional<AuthPrincipal> findByLogin(String login);
+
+    Optional<AuthPrincipal> findById(Long userId);
+}
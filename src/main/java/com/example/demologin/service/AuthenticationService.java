@@ -6,14 +6,19 @@ import com.example.demologin.dto.request.login.LoginRequest;
 import com.example.demologin.dto.request.user.UserRegistrationRequest;
 import com.example.demologin.dto.response.LoginResponse;
 import com.example.demologin.dto.response.UserResponse;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
-public interface AuthenticationService extends UserDetailsService {
+import java.util.concurrent.CompletableFuture;
+
+public interface AuthenticationService extends UserDetailsService, UserDetailsPasswordService {
     LoginResponse register(UserRegistrationRequest request);
     LoginResponse login(LoginRequest loginRequest);
     LoginResponse authenticateWithGoogle(GoogleLoginRequest request);
     LoginResponse authenticateWithOAuth2FromAuthentication(org.springframework.security.core.Authentication authentication);
     LoginResponse authenticateWithFacebook(FacebookLoginRequest request);
+    CompletableFuture<LoginResponse> authenticateWithGoogleAsync(GoogleLoginRequest request);
+    CompletableFuture<LoginResponse> authenticateWithFacebookAsync(FacebookLoginRequest request);
     LoginResponse getUserResponse(String email, String name);
     void handleOAuth2Failure();
 }
@@ -3,6 +3,9 @@ package com.example.demologin.service;
 import com.example.demologin.dto.request.VerifyTokenRequest;
 import com.example.demologin.dto.response.VerifyTokenResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface HumanVerificationService {
     VerifyTokenResponse verifyHuman(VerifyTokenRequest request);
+    CompletableFuture<VerifyTokenResponse> verifyHumanAsync(VerifyTokenRequest request);
 }
@@ -0,0 +1,15 @@
+package com.example.demologin.service;
+
+public interface LoginThrottleService {
+
+    /**
+     * Rejects the attempt with TooManyRequestsException while the username or the client IP is locked out.
+     * Runs before any password hashing.
+     */
+    void checkAllowed(String username, String clientIp);
+
+    void recordFailure(String username, String clientIp);
+
+    // Clears the username's failures and lockout history; the IP keeps its count
+    void recordSuccess(String username, String clientIp);
+}
@@ -1,11 +1,16 @@
 package com.example.demologin.service;
 
-import com.example.demologin.entity.User;
-import com.example.demologin.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+import java.util.Collection;
 import java.util.Set;
 
 public interface RolePermissionService {
     public Set<String> getPermissionsForRoles(Set<String> roleNames);
-} 
+
+    // Served from an in-memory copy of roles and their permissions, refreshed periodically and after role changes
+    Set<String> getRoleNamesForRoleIds(Collection<Long> roleIds);
+
+    // Role names plus permission codes, as granted authorities
+    Set<String> getAuthoritiesForRoleIds(Collection<Long> roleIds);
+
+    void refreshRoles();
+}
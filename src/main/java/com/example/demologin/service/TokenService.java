@@ -1,6 +1,7 @@
 package com.example.demologin.service;
 
 import com.example.demologin.entity.User;
+import com.example.demologin.security.AuthPrincipal;
 
 /**
  * Service for token-related business operations
@@ -12,9 +13,14 @@ public interface TokenService {
      * Generate token for user with business logic validation
      */
     String generateTokenForUser(User user);
+
+    /**
+     * Generate token for an authenticated principal
+     */
+    String generateTokenForPrincipal(AuthPrincipal principal);
     
     /**
-     * Get user account by token with full validation
+     * Get the authentication principal of the token's subject with full validation
      */
-    User getUserByToken(String token);
+    AuthPrincipal getPrincipalByToken(String token);
 }
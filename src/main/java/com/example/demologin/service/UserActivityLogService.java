@@ -2,6 +2,7 @@ package com.example.demologin.service;
 
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.dto.response.CursorPageResponse;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.User;
 import com.example.demologin.enums.ActivityType;
@@ -20,7 +21,15 @@ public interface UserActivityLogService {
     Page<UserActivityLogResponse> getActivityLogsByType(String activityType, int page, int size);
     Page<UserActivityLogResponse> getActivityLogsByDateRange(LocalDateTime startTime, LocalDateTime endTime, int page, int size);
     Page<UserActivityLogResponse> exportActivityLogs(UserActivityLogExportRequest request, int page, int size);
+    Page<UserActivityLogResponse> filterActivityLogs(UserActivityLogFilterRequest filter);
     String deleteActivityLog(Long id);
     Page<UserActivityLogResponse> getMyLoginHistory(int page, int size);
 
+    // Keyset (cursor) pagination, newest first; a blank cursor starts at the newest row
+    CursorPageResponse<UserActivityLogResponse> getAllActivityLogsAfter(String cursor, int size);
+    CursorPageResponse<UserActivityLogResponse> getActivityLogsByUserIdAfter(Long userId, String cursor, int size);
+    CursorPageResponse<UserActivityLogResponse> getActivityLogsByTypeAfter(String activityType, String cursor, int size);
+    CursorPageResponse<UserActivityLogResponse> getActivityLogsByDateRangeAfter(LocalDateTime startTime, LocalDateTime endTime, String cursor, int size);
+    CursorPageResponse<UserActivityLogResponse> getMyLoginHistoryAfter(String cursor, int size);
+
 }
@@ -0,0 +1,29 @@
+package com.example.demologin.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+public interface UserLoginProfileService {
+
+    /** A successful login whose country is checked against the user's profile, identified by its activity log id. */
+    record CountryLogin(Long logId, Long userId, String countryCode, LocalDateTime timestamp) {}
+
+    /**
+     * Adds the device of a login to the user's profile; true if the user has logged in before but never from it.
+     */
+    boolean recordDevice(Long userId, String userAgent, LocalDateTime timestamp);
+
+    /**
+     * Adds the country of a login to the user's profile; true if the user has logged in before but never from it.
+     */
+    boolean recordCountry(Long userId, String countryCode, LocalDateTime timestamp);
+
+    /**
+     * Ids of the logins recordCountry would report as a new country if they were recorded in the given order. No
+     * profile is changed, so the flags can be written before the logins are recorded.
+     */
+    Set<Long> findNewCountries(List<CountryLogin> logins);
+
+    void flushProfiles();
+}
@@ -0,0 +1,207 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.TooManyRequestsException;
+import com.example.demologin.service.ActivityLiveTailService;
+import com.example.demologin.utils.BroadcastRing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live tail of activity events for admin dashboards. {@link #publish} puts each event in an in-memory
+ * {@link BroadcastRing}; a dispatcher hands every subscriber the events after its own position, so watching
+ * the stream costs no database queries. A subscriber that falls a whole ring behind, or whose connection
+ * fails, is dropped rather than slowing the others; it can reconnect with Last-Event-ID while the ring
+ * still holds that event.
+ */
+@Service
+@Slf4j
+public class ActivityLiveTailServiceImpl implements ActivityLiveTailService {
+
+    @Value("${activity-log.live.buffer-size:4096}")
+    private int bufferSize;
+
+    @Value("${activity-log.live.max-subscribers:50}")
+    private int maxSubscribers;
+
+    @Value("${activity-log.live.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${activity-log.live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${activity-log.live.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    private BroadcastRing<UserActivityLogResponse> ring;
+    private Executor senderExecutor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ActivityType activityType;
+        private final Long userId;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long next;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Subscriber(SseEmitter emitter, ActivityType activityType, Long userId, long next) {
+            this.emitter = emitter;
+            this.activityType = activityType;
+            this.userId = userId;
+            this.next = next;
+        }
+
+        private boolean wants(UserActivityLogResponse event) {
+            return (activityType == null || activityType == event.getActivityType())
+                    && (userId == null || userId.equals(event.getUserId()));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        ring = new BroadcastRing<>(bufferSize);
+        AtomicInteger threads = new AtomicInteger();
+        senderExecutor = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "activity-live-tail-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (senderExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    // Raw event as recorded on the request path; it has no id yet and device/location are not resolved
+    @Override
+    public void publish(UserActivityLog activityLog) {
+        UserActivityLogResponse event = new UserActivityLogResponse();
+        event.setActivityType(activityLog.getActivityType());
+        event.setUserId(activityLog.getUserId());
+        event.setFullName(activityLog.getFullName());
+        event.setTimestamp(activityLog.getTimestamp());
+        event.setStatus(activityLog.getStatus());
+        event.setDetails(activityLog.getDetails());
+        event.setIpAddress(activityLog.getIpAddress());
+        event.setUserAgent(activityLog.getUserAgent());
+        ring.publish(event);
+    }
+
+    @Override
+    public SseEmitter subscribe(ActivityType activityType, Long userId, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new TooManyRequestsException("Too many live activity subscribers, try again later");
+        }
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(emitter, activityType, userId, startSequence(lastEventId));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    @Scheduled(fixedDelayString = "${activity-log.live.dispatch-interval-ms:200}")
+    public void dispatch() {
+        long published = ring.published();
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (published - subscriber.next >= ring.capacity()) {
+                drop(subscriber, "fell behind the live buffer");
+                continue;
+            }
+            boolean due = subscriber.next <= published || now - subscriber.lastSentAt >= heartbeatMs;
+            // At most one send in flight per subscriber; a stuck connection only ties up its own sender
+            if (due && subscriber.sending.compareAndSet(false, true)) {
+                senderExecutor.execute(() -> send(subscriber));
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            boolean sent = false;
+            long published = ring.published();
+            while (subscriber.next <= published) {
+                long sequence = subscriber.next;
+                UserActivityLogResponse event = ring.get(sequence);
+                if (event == null) {
+                    drop(subscriber, "fell behind the live buffer");
+                    return;
+                }
+                if (subscriber.wants(event)) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(sequence))
+                            .name("activity")
+                            .data(event, MediaType.APPLICATION_JSON));
+                    sent = true;
+                }
+                subscriber.next = sequence + 1;
+            }
+            if (!sent && System.currentTimeMillis() - subscriber.lastSentAt >= heartbeatMs) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                sent = true;
+            }
+            if (sent) {
+                subscriber.lastSentAt = System.currentTimeMillis();
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            log.debug("Live activity subscriber disconnected: {}", e.getMessage());
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            log.info("Dropping live activity subscriber: {}", reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    // Resume right after Last-Event-ID if the ring still holds the next event, otherwise start with new events
+    private long startSequence(String lastEventId) {
+        long next = ring.published() + 1;
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return next;
+        }
+        try {
+            long resume = Long.parseLong(lastEventId.trim()) + 1;
+            return resume <= next && ring.get(resume) != null ? resume : next;
+        } catch (NumberFormatException e) {
+            return next;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.archive.ActivityLogArchive;
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.mapper.UserActivityLogMapper;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserActivityLogSpecifications;
+import com.example.demologin.service.ActivityLogArchiveService;
+import com.example.demologin.service.ActivityLogRetentionService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogArchiveServiceImpl implements ActivityLogArchiveService {
+
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final UserActivityLogMapper userActivityLogMapper;
+    private final ActivityLogArchive activityLogArchive;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ActivityLogRetentionService activityLogRetentionService;
+
+    // Logs older than this many days leave the database for the archive; 0 or less disables archiving
+    @Value("${activity-log.archive.after-days:30}")
+    private int archiveAfterDays;
+
+    @Value("${activity-log.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${activity-log.archive.cron:0 0 3 * * *}")
+    public void archiveOldLogsPeriodically() {
+        try {
+            archiveOldLogs();
+        } catch (Exception e) {
+            log.error("Activity log archive run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Move whole days older than the cutoff, oldest first. A day is written to a new archive part, and only once
+     * that part is on disk are its rows deleted, in id chunks with one short transaction each. Rows already past
+     * their type's retention are deleted without being archived; archived days are removed by the retention run
+     * once every type has expired in them.
+     */
+    @Override
+    public ArchiveResult archiveOldLogs() {
+        long start = System.currentTimeMillis();
+        if (archiveAfterDays <= 0) {
+            return new ArchiveResult(0, 0, 0);
+        }
+        LocalDateTime cutoff = LocalDate.now().minusDays(archiveAfterDays).atStartOfDay();
+        Map<ActivityType, LocalDateTime> expiryCutoffs = activityLogRetentionService.expiryCutoffs(LocalDateTime.now());
+
+        int days = 0;
+        long rows = 0;
+        LocalDateTime oldest;
+        while (!Thread.currentThread().isInterrupted()
+                && (oldest = userActivityLogRepository.findOldestTimestampBefore(cutoff)) != null) {
+            long moved = archiveDay(oldest.toLocalDate(), expiryCutoffs);
+            if (moved == 0) {
+                break;
+            }
+            rows += moved;
+            days++;
+        }
+
+        ArchiveResult result = new ArchiveResult(days, rows, System.currentTimeMillis() - start);
+        if (days > 0) {
+            log.info("Activity log archive moved {} rows from {} days in {} ms",
+                    result.rowsArchived(), result.daysArchived(), result.durationMs());
+        }
+        return result;
+    }
+
+    private long archiveDay(LocalDate day, Map<ActivityType, LocalDateTime> expiryCutoffs) {
+        List<Long> ids = new ArrayList<>();
+        try (ActivityLogArchive.PartWriter part = activityLogArchive.startPart(day)) {
+            // Rows a previous run archived but did not get to delete are deleted now without being written again
+            Set<Long> archived = activityLogArchive.archivedIds(day);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UserActivityLog> logs = userActivityLogRepository.streamAll(
+                        UserActivityLogSpecifications.loggedOn(day), Sort.by(Sort.Direction.ASC, "userId", "timestamp", "id"))) {
+                    List<UserActivityLog> chunk = new ArrayList<>(chunkSize);
+                    Iterator<UserActivityLog> iterator = logs.iterator();
+                    while (iterator.hasNext()) {
+                        UserActivityLog activityLog = iterator.next();
+                        ids.add(activityLog.getId());
+                        if (!archived.contains(activityLog.getId()) && !expired(activityLog, expiryCutoffs)) {
+                            chunk.add(activityLog);
+                        }
+                        if (chunk.size() >= chunkSize || (!iterator.hasNext() && !chunk.isEmpty())) {
+                            for (UserActivityLogResponse response : userActivityLogMapper.toResponseList(chunk)) {
+                                part.append(response);
+                            }
+                            chunk.clear();
+                            entityManager.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (part.rows() > 0) {
+                part.commit();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Failed to archive activity logs of " + day, e);
+        }
+
+        long deleted = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            deleted += userActivityLogRepository.deleteByIdIn(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return deleted;
+    }
+
+    private static boolean expired(UserActivityLog activityLog, Map<ActivityType, LocalDateTime> expiryCutoffs) {
+        LocalDateTime expiredBefore = expiryCutoffs.get(activityLog.getActivityType());
+        return expiredBefore != null && activityLog.getTimestamp().isBefore(expiredBefore);
+    }
+}
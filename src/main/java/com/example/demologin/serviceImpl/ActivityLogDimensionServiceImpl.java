@@ -0,0 +1,317 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.ActivityDevice;
+import com.example.demologin.entity.ActivityLocation;
+import com.example.demologin.entity.ActivityUserAgent;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.repository.ActivityDeviceRepository;
+import com.example.demologin.repository.ActivityLocationRepository;
+import com.example.demologin.repository.ActivityUserAgentRepository;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.example.demologin.utils.LocationUtil;
+import com.example.demologin.utils.UserAgentUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dictionary for the user agent, device and location dimensions of activity logs.
+ *
+ * Log rows store only dimension ids; the values are interned once into small lookup tables keyed by a SHA-256
+ * fingerprint and kept in memory in both directions, so writers resolve an id and readers rehydrate a row
+ * without touching the database once the dictionary is warm.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogDimensionServiceImpl implements ActivityLogDimensionService {
+
+    private static final int MAX_USER_AGENT_LENGTH = 1000;
+
+    private final ActivityUserAgentRepository activityUserAgentRepository;
+    private final ActivityDeviceRepository activityDeviceRepository;
+    private final ActivityLocationRepository activityLocationRepository;
+    private final UserActivityLogRepository userActivityLogRepository;
+
+    // Per map; a full map is cleared and refilled from the database on demand
+    @Value("${activity-log.dimensions.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${activity-log.dimensions.migration-batch-size:1000}")
+    private int migrationBatchSize;
+
+    private final ConcurrentHashMap<String, Long> userAgentIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, UserAgentEntry> userAgents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UserAgentUtil.DeviceInfo, Long> deviceIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, UserAgentUtil.DeviceInfo> devices = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocationKey, Long> locationIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LocationUtil.LocationInfo> locations = new ConcurrentHashMap<>();
+
+    // Legacy migration walks the table once per process, in id order
+    private volatile long migrationCursor;
+    private volatile boolean migrationComplete;
+
+    private record LocationKey(String city, String region, String country, String countryCode) {
+        static LocationKey of(LocationUtil.LocationInfo location) {
+            return new LocationKey(location.getCity(), location.getRegion(), location.getCountry(), location.getCountryCode());
+        }
+    }
+
+    private record DimensionKey(Long userAgentId, Long locationId) {
+    }
+
+    @Override
+    public Long internUserAgent(String userAgent) {
+        if (userAgent == null) {
+            return null;
+        }
+        String value = userAgent.length() > MAX_USER_AGENT_LENGTH ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent;
+        Long cached = userAgentIds.get(value);
+        if (cached != null) {
+            return cached;
+        }
+
+        String fingerprint = fingerprint(value);
+        ActivityUserAgent row = findOrCreate(() -> activityUserAgentRepository.findByFingerprint(fingerprint),
+                () -> ActivityUserAgent.builder()
+                        .fingerprint(fingerprint)
+                        .userAgent(value)
+                        .deviceId(internDevice(UserAgentUtil.parseUserAgent(value)))
+                        .build(),
+                activityUserAgentRepository::save);
+        cacheUserAgent(row);
+        return row.getId();
+    }
+
+    @Override
+    public Long internLocation(LocationUtil.LocationInfo location) {
+        if (location == null) {
+            return null;
+        }
+        LocationKey key = LocationKey.of(location);
+        Long cached = locationIds.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String fingerprint = fingerprint(key.city(), key.region(), key.country(), key.countryCode());
+        ActivityLocation row = findOrCreate(() -> activityLocationRepository.findByFingerprint(fingerprint),
+                () -> ActivityLocation.builder()
+                        .fingerprint(fingerprint)
+                        .city(key.city())
+                        .region(key.region())
+                        .country(key.country())
+                        .countryCode(key.countryCode())
+                        .build(),
+                activityLocationRepository::save);
+        cacheLocation(row);
+        return row.getId();
+    }
+
+    private Long internDevice(UserAgentUtil.DeviceInfo device) {
+        Long cached = deviceIds.get(device);
+        if (cached != null) {
+            return cached;
+        }
+
+        String fingerprint = fingerprint(device.getBrowser(), device.getBrowserVersion(), device.getOperatingSystem(),
+                device.getDevice(), device.getDeviceType());
+        ActivityDevice row = findOrCreate(() -> activityDeviceRepository.findByFingerprint(fingerprint),
+                () -> ActivityDevice.builder()
+                        .fingerprint(fingerprint)
+                        .browser(device.getBrowser())
+                        .browserVersion(device.getBrowserVersion())
+                        .operatingSystem(device.getOperatingSystem())
+                        .device(device.getDevice())
+                        .deviceType(device.getDeviceType())
+                        .build(),
+                activityDeviceRepository::save);
+        cacheDevice(row);
+        return row.getId();
+    }
+
+    // Each save runs in its own short transaction; losing an insert race to another instance just re-reads
+    private static <T> T findOrCreate(Supplier<Optional<T>> find, Supplier<T> create, UnaryOperator<T> save) {
+        Optional<T> existing = find.get();
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            return save.apply(create.get());
+        } catch (DataIntegrityViolationException e) {
+            return find.get().orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    public UserAgentEntry getUserAgent(Long userAgentId) {
+        if (userAgentId == null) {
+            return null;
+        }
+        UserAgentEntry cached = userAgents.get(userAgentId);
+        if (cached != null) {
+            return cached;
+        }
+        return activityUserAgentRepository.findById(userAgentId).map(this::cacheUserAgent).orElse(null);
+    }
+
+    @Override
+    public LocationUtil.LocationInfo getLocation(Long locationId) {
+        if (locationId == null) {
+            return null;
+        }
+        LocationUtil.LocationInfo cached = locations.get(locationId);
+        if (cached != null) {
+            return cached;
+        }
+        return activityLocationRepository.findById(locationId).map(this::cacheLocation).orElse(null);
+    }
+
+    /**
+     * Load every dimension a page of logs refers to that is not cached yet, one query per table.
+     */
+    @Override
+    public void preload(Collection<Long> userAgentIds, Collection<Long> locationIds) {
+        List<Long> missingUserAgents = userAgentIds.stream()
+                .filter(Objects::nonNull).distinct().filter(id -> !userAgents.containsKey(id)).toList();
+        if (!missingUserAgents.isEmpty()) {
+            List<ActivityUserAgent> rows = activityUserAgentRepository.findAllById(missingUserAgents);
+            List<Long> missingDevices = rows.stream()
+                    .map(ActivityUserAgent::getDeviceId).distinct().filter(id -> !devices.containsKey(id)).toList();
+            if (!missingDevices.isEmpty()) {
+                activityDeviceRepository.findAllById(missingDevices).forEach(this::cacheDevice);
+            }
+            rows.forEach(this::cacheUserAgent);
+        }
+
+        List<Long> missingLocations = locationIds.stream()
+                .filter(Objects::nonNull).distinct().filter(id -> !locations.containsKey(id)).toList();
+        if (!missingLocations.isEmpty()) {
+            activityLocationRepository.findAllById(missingLocations).forEach(this::cacheLocation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${activity-log.dimensions.migration-interval-ms:10000}")
+    public void migrateLegacyLogsPeriodically() {
+        if (migrationComplete) {
+            return;
+        }
+        try {
+            int migrated;
+            do {
+                migrated = migrateLegacyLogs();
+            } while (migrated > 0 && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("Activity log dimension migration failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move one batch of legacy rows from the string columns to dimension ids. Returns the number of rows
+     * migrated; 0 once the table has been walked to the end.
+     */
+    @Override
+    public int migrateLegacyLogs() {
+        List<UserActivityLog> legacy = userActivityLogRepository
+                .findLegacyLogsAfter(migrationCursor, PageRequest.of(0, migrationBatchSize));
+        if (legacy.isEmpty()) {
+            if (!migrationComplete) {
+                migrationComplete = true;
+                log.info("Activity log dimension migration complete");
+            }
+            return 0;
+        }
+
+        Map<DimensionKey, List<Long>> groups = new LinkedHashMap<>();
+        for (UserActivityLog activityLog : legacy) {
+            Long locationId = activityLog.getCity() != null || activityLog.getCountry() != null
+                    ? internLocation(new LocationUtil.LocationInfo(activityLog.getCity(), activityLog.getRegion(),
+                            activityLog.getCountry(), activityLog.getCountryCode()))
+                    : activityLog.getLocationId();
+            Long userAgentId = activityLog.getUserAgent() != null
+                    ? internUserAgent(activityLog.getUserAgent())
+                    : activityLog.getUserAgentId();
+            groups.computeIfAbsent(new DimensionKey(userAgentId, locationId), key -> new ArrayList<>())
+                    .add(activityLog.getId());
+        }
+
+        int migrated = 0;
+        for (Map.Entry<DimensionKey, List<Long>> group : groups.entrySet()) {
+            migrated += userActivityLogRepository.applyDimensions(group.getValue(),
+                    group.getKey().userAgentId(), group.getKey().locationId());
+        }
+        migrationCursor = legacy.get(legacy.size() - 1).getId();
+        log.debug("Migrated {} legacy activity logs to dimension ids (up to id {})", migrated, migrationCursor);
+        return migrated;
+    }
+
+    private UserAgentEntry cacheUserAgent(ActivityUserAgent row) {
+        UserAgentUtil.DeviceInfo device = devices.get(row.getDeviceId());
+        if (device == null) {
+            device = activityDeviceRepository.findById(row.getDeviceId())
+                    .map(this::cacheDevice)
+                    .orElseGet(() -> UserAgentUtil.parseUserAgent(row.getUserAgent()));
+        }
+        UserAgentEntry entry = new UserAgentEntry(row.getUserAgent(), device);
+        put(userAgents, row.getId(), entry);
+        put(userAgentIds, row.getUserAgent(), row.getId());
+        return entry;
+    }
+
+    private UserAgentUtil.DeviceInfo cacheDevice(ActivityDevice row) {
+        UserAgentUtil.DeviceInfo device = new UserAgentUtil.DeviceInfo(row.getBrowser(), row.getBrowserVersion(),
+                row.getOperatingSystem(), row.getDevice(), row.getDeviceType());
+        put(devices, row.getId(), device);
+        put(deviceIds, device, row.getId());
+        return device;
+    }
+
+    private LocationUtil.LocationInfo cacheLocation(ActivityLocation row) {
+        LocationUtil.LocationInfo location = new LocationUtil.LocationInfo(row.getCity(), row.getRegion(),
+                row.getCountry(), row.getCountryCode());
+        put(locations, row.getId(), location);
+        put(locationIds, LocationKey.of(location), row.getId());
+        return location;
+    }
+
+    private <K, V> void put(ConcurrentHashMap<K, V> cache, K key, V value) {
+        if (cache.size() >= cacheSize) {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    private static String fingerprint(String... values) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String value : values) {
+                // Unit separator between values, a distinct marker for null
+                digest.update(value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[]{0});
+                digest.update((byte) 0x1F);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
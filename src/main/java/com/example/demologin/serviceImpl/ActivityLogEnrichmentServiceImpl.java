@@ -0,0 +1,181 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.example.demologin.service.ActivityLogEnrichmentService;
+import com.example.demologin.service.ActivitySketchService;
+import com.example.demologin.service.UserLoginProfileService;
+import com.example.demologin.service.UserLoginProfileService.CountryLogin;
+import com.example.demologin.utils.LocationUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Background stage that resolves the location (and, for rows written without one, the user agent) dimension
+ * of activity logs written raw by UserActivityAspect, so geolocation never runs on the request thread.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogEnrichmentServiceImpl implements ActivityLogEnrichmentService {
+
+    private static final LocationUtil.LocationInfo UNKNOWN_LOCATION =
+            new LocationUtil.LocationInfo("Unknown", "Unknown", "Unknown", "Unknown");
+
+    @Value("${activity-log.enrichment.batch-size:200}")
+    private int batchSize;
+
+    // Failed runs of a row retried on its own before it is skipped
+    @Value("${activity-log.enrichment.max-attempts:3}")
+    private int maxAttempts;
+
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final LocationUtil locationUtil;
+    private final ActivityLogDimensionService activityLogDimensionService;
+    private final ActivitySketchService activitySketchService;
+    private final UserLoginProfileService userLoginProfileService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${activity-log.enrichment.interval-ms:2000}")
+    public void enrichPendingLogsPeriodically() {
+        try {
+            int enriched;
+            do {
+                enriched = enrichPendingLogs();
+            } while (enriched >= batchSize);
+        } catch (Exception e) {
+            log.error("Activity log enrichment failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int enrichPendingLogs() {
+        List<UserActivityLog> pending = userActivityLogRepository
+                .findByEnrichmentPendingTrueOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        try {
+            return enrich(pending);
+        } catch (Exception e) {
+            // Every run starts at the oldest pending row, so one bad row must not keep failing the whole batch
+            log.warn("Enriching {} activity logs failed, retrying them one at a time: {}", pending.size(), e.getMessage());
+            int enriched = 0;
+            for (UserActivityLog activityLog : pending) {
+                enriched += enrichAlone(activityLog);
+            }
+            return enriched;
+        }
+    }
+
+    private int enrichAlone(UserActivityLog activityLog) {
+        Long id = activityLog.getId();
+        try {
+            int enriched = enrich(List.of(activityLog));
+            failedAttempts.remove(id);
+            return enriched;
+        } catch (Exception e) {
+            int attempts = failedAttempts.merge(id, 1, Integer::sum);
+            if (attempts < maxAttempts) {
+                log.warn("Enriching activity log {} failed (attempt {} of {}): {}", id, attempts, maxAttempts, e.getMessage());
+                return 0;
+            }
+            // Left with its raw columns and taken out of the queue
+            userActivityLogRepository.skipEnrichment(List.of(id));
+            failedAttempts.remove(id);
+            log.error("Gave up enriching activity log {} after {} attempts: {}", id, attempts, e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Interns the dimensions, then writes the rows and their new-country flags in one transaction. The login sketch
+     * and profiles are updated only once that has committed, so a batch that fails and is run again is not counted
+     * twice and still gets its new-country flags.
+     */
+    private int enrich(List<UserActivityLog> batch) {
+        Set<String> distinctIps = batch.stream()
+                .map(UserActivityLog::getIpAddress)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, LocationUtil.LocationInfo> locations = locationUtil.getLocationsFromIPs(distinctIps);
+
+        // Rows with the same IP and user agent get identical ids, so they share one UPDATE
+        Map<EnrichmentKey, List<Long>> groups = new LinkedHashMap<>();
+        List<CountryLogin> logins = new ArrayList<>();
+        for (UserActivityLog activityLog : batch) {
+            // Rows saved directly, bypassing the write-ahead buffer, still carry the raw header
+            Long userAgentId = activityLog.getUserAgentId() != null
+                    ? activityLog.getUserAgentId()
+                    : activityLogDimensionService.internUserAgent(activityLog.getUserAgent());
+            groups.computeIfAbsent(new EnrichmentKey(activityLog.getIpAddress(), userAgentId),
+                    key -> new ArrayList<>()).add(activityLog.getId());
+            // The country of a login is first known here
+            if (isSuccessfulLogin(activityLog)) {
+                logins.add(new CountryLogin(activityLog.getId(), activityLog.getUserId(),
+                        location(locations, activityLog.getIpAddress()).getCountryCode(), activityLog.getTimestamp()));
+            }
+        }
+        Map<EnrichmentKey, Long> locationIds = new HashMap<>();
+        for (EnrichmentKey key : groups.keySet()) {
+            locationIds.put(key, activityLogDimensionService.internLocation(location(locations, key.ipAddress())));
+        }
+        Set<Long> newCountryIds = userLoginProfileService.findNewCountries(logins);
+
+        int enriched = Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+            int updated = 0;
+            for (Map.Entry<EnrichmentKey, List<Long>> group : groups.entrySet()) {
+                updated += userActivityLogRepository.applyDimensions(group.getValue(),
+                        group.getKey().userAgentId(), locationIds.get(group.getKey()));
+            }
+            if (!newCountryIds.isEmpty()) {
+                userActivityLogRepository.markNewCountry(newCountryIds);
+            }
+            return updated;
+        }), 0);
+
+        for (CountryLogin login : logins) {
+            try {
+                activitySketchService.recordLogin(login.timestamp(), login.countryCode());
+                userLoginProfileService.recordCountry(login.userId(), login.countryCode(), login.timestamp());
+            } catch (Exception e) {
+                // The rows are written; retrying them would count the logins again
+                log.warn("Failed to record the country of login {}: {}", login.logId(), e.getMessage());
+            }
+        }
+
+        log.debug("Enriched {} activity logs ({} distinct IPs, {} update groups)",
+                enriched, distinctIps.size(), groups.size());
+        return enriched;
+    }
+
+    private static LocationUtil.LocationInfo location(Map<String, LocationUtil.LocationInfo> locations, String ipAddress) {
+        return ipAddress == null ? UNKNOWN_LOCATION : locations.getOrDefault(ipAddress, UNKNOWN_LOCATION);
+    }
+
+    private static boolean isSuccessfulLogin(UserActivityLog activityLog) {
+        return activityLog.getActivityType() == ActivityType.LOGIN_SUCCESS
+                || (activityLog.getActivityType() == ActivityType.LOGIN_ATTEMPT && "SUCCESS".equals(activityLog.getStatus()));
+    }
+
+    private record EnrichmentKey(String ipAddress, Long userAgentId) {}
+}
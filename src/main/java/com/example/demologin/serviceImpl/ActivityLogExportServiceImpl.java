@@ -0,0 +1,154 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ExportFormat;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.mapper.UserActivityLogMapper;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserActivityLogSpecifications;
+import com.example.demologin.service.ActivityLogExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogExportServiceImpl implements ActivityLogExportService {
+
+    private static final String[] CSV_HEADER = {
+            "id", "timestamp", "activityType", "status", "userId", "fullName", "details",
+            "ipAddress", "userAgent", "browser", "browserVersion", "operatingSystem", "device", "deviceType",
+            "city", "region", "country", "countryCode"
+    };
+
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final UserActivityLogMapper userActivityLogMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${activity-log.export.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Stream every matching log to {@code out}. Rows are read through a forward-only cursor and written
+     * chunk by chunk; each chunk is detached from the persistence context afterwards, so memory stays flat
+     * however many rows match.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportActivityLogs(UserActivityLogExportRequest request, OutputStream out) throws IOException {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        LocalDateTime startTime = request.getStartDate().atStartOfDay();
+        LocalDateTime endTime = request.getEndDate().atTime(23, 59, 59);
+        ExportFormat format = request.getFormat() != null ? request.getFormat() : ExportFormat.CSV;
+
+        OutputStream target = request.isGzip() ? new GZIPOutputStream(out, 8192) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 8192);
+
+        long rows = 0;
+        try (Stream<UserActivityLog> logs = userActivityLogRepository.streamAll(
+                UserActivityLogSpecifications.matching(request), Sort.by(Sort.Direction.ASC, "timestamp", "id"))) {
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(writer, CSV_HEADER);
+            }
+
+            List<UserActivityLog> chunk = new ArrayList<>(chunkSize);
+            Iterator<UserActivityLog> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() >= chunkSize || !iterator.hasNext()) {
+                    for (UserActivityLogResponse response : userActivityLogMapper.toResponseList(chunk)) {
+                        write(writer, format, response);
+                    }
+                    rows += chunk.size();
+                    chunk.clear();
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzip) {
+            gzip.finish();
+        }
+        log.info("Exported {} activity logs as {} from {} to {}", rows, format, startTime, endTime);
+    }
+
+    private void write(Writer writer, ExportFormat format, UserActivityLogResponse response) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(response));
+            writer.write('\n');
+            return;
+        }
+        writeCsvRow(writer, new String[]{
+                String.valueOf(response.getId()),
+                response.getTimestamp() != null ? response.getTimestamp().toString() : null,
+                response.getActivityType() != null ? response.getActivityType().name() : null,
+                response.getStatus(),
+                response.getUserId() != null ? response.getUserId().toString() : null,
+                response.getFullName(),
+                response.getDetails(),
+                response.getIpAddress(),
+                response.getUserAgent(),
+                response.getBrowser(),
+                response.getBrowserVersion(),
+                response.getOperatingSystem(),
+                response.getDevice(),
+                response.getDeviceType(),
+                response.getCity(),
+                response.getRegion(),
+                response.getCountry(),
+                response.getCountryCode()
+        });
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote values containing a separator, quote or line break, doubling embedded quotes
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
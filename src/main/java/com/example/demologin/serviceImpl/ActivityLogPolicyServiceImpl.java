@@ -0,0 +1,111 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityLogMode;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.service.ActivityLogPolicyService;
+import com.example.demologin.service.ActivityStatsService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogPolicyServiceImpl implements ActivityLogPolicyService {
+
+    private final ActivityStatsService activityStatsService;
+
+    // Comma separated TYPE:MODE[:argument] entries; SAMPLED takes a rate between 0 and 1, FIRST_PER_WINDOW an
+    // ISO-8601 duration, e.g. TOKEN_REFRESH:FIRST_PER_WINDOW:PT15M,PROFILE_VIEW:SAMPLED:0.1. Unlisted types are ALWAYS
+    @Value("${activity-log.policy.types:}")
+    private String policyByType;
+
+    @Value("${activity-log.policy.window-cache-size:100000}")
+    private int windowCacheSize;
+
+    private final Map<ActivityType, Policy> policies = new EnumMap<>(ActivityType.class);
+    private final ConcurrentHashMap<WindowKey, Long> windowStarts = new ConcurrentHashMap<>();
+
+    record Policy(ActivityLogMode mode, double rate, Duration window) {
+        static final Policy ALWAYS = new Policy(ActivityLogMode.ALWAYS, 1, null);
+    }
+
+    private record WindowKey(ActivityType activityType, Long userId, String clientIp) {
+    }
+
+    @PostConstruct
+    void loadPolicies() {
+        policies.clear();
+        if (policyByType == null || policyByType.isBlank()) {
+            return;
+        }
+        for (String entry : policyByType.split(",")) {
+            String[] parts = entry.trim().split(":");
+            try {
+                ActivityType activityType = ActivityType.valueOf(parts[0].trim().toUpperCase());
+                ActivityLogMode mode = ActivityLogMode.valueOf(parts[1].trim().toUpperCase());
+                Policy policy = switch (mode) {
+                    case SAMPLED -> new Policy(mode, Double.parseDouble(parts[2].trim()), null);
+                    case FIRST_PER_WINDOW -> new Policy(mode, 1, Duration.parse(parts[2].trim()));
+                    default -> new Policy(mode, 1, null);
+                };
+                policies.put(activityType, policy);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+                log.warn("Ignoring invalid activity log policy entry '{}'", entry);
+            }
+        }
+        log.info("Activity log policies: {}", policies);
+    }
+
+    @Override
+    public boolean admit(ActivityType activityType, Long userId, String clientIp) {
+        Policy policy = policies.getOrDefault(activityType, Policy.ALWAYS);
+        boolean admitted = switch (policy.mode()) {
+            case ALWAYS -> true;
+            case SAMPLED -> ThreadLocalRandom.current().nextDouble() < policy.rate();
+            case FIRST_PER_WINDOW -> opensWindow(new WindowKey(activityType, userId, userId == null ? clientIp : null),
+                    policy.window());
+            case COUNTERS_ONLY -> false;
+        };
+        if (!admitted) {
+            activityStatsService.recordEvent(UserActivityLog.builder()
+                    .activityType(activityType)
+                    .userId(userId)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+        return admitted;
+    }
+
+    Policy policyFor(ActivityType activityType) {
+        return policies.getOrDefault(activityType, Policy.ALWAYS);
+    }
+
+    private boolean opensWindow(WindowKey key, Duration window) {
+        long now = System.currentTimeMillis();
+        if (windowStarts.size() >= windowCacheSize) {
+            // Forgetting windows early only lets one extra event per subject through
+            windowStarts.clear();
+        }
+        boolean[] opened = new boolean[1];
+        windowStarts.compute(key, (k, start) -> {
+            if (start == null || now - start >= window.toMillis()) {
+                opened[0] = true;
+                return now;
+            }
+            return start;
+        });
+        return opened[0];
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.archive.ActivityLogArchive;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.ActivityLogPartitionRepository;
+import com.example.demologin.repository.ActivityLogPartitionRepository.MonthPartition;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogRetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityLogRetentionServiceImpl implements ActivityLogRetentionService {
+
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final ActivityLogPartitionRepository activityLogPartitionRepository;
+    private final ActivityLogArchive activityLogArchive;
+
+    // Days to keep each activity type; types not listed use default-days, 0 or less keeps forever
+    @Value("${activity-log.retention.default-days:365}")
+    private int defaultRetentionDays;
+
+    // Comma separated TYPE:days pairs, e.g. LOGIN_ATTEMPT:90,PROFILE_VIEW:30
+    @Value("${activity-log.retention.days:}")
+    private String retentionDaysByType;
+
+    @Value("${activity-log.retention.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${activity-log.retention.throttle-ms:200}")
+    private long throttleMs;
+
+    @Value("${activity-log.partition.months-ahead:2}")
+    private int partitionMonthsAhead;
+
+    @Scheduled(cron = "${activity-log.retention.cron:0 30 3 * * *}")
+    public void purgeExpiredLogsPeriodically() {
+        try {
+            purgeExpiredLogs();
+        } catch (Exception e) {
+            log.error("Activity log retention run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Whole month partitions are dropped once every activity type has expired in them; whatever is left is
+     * deleted per type in small id-range chunks, each in its own short transaction, pausing between chunks so
+     * the table is never locked for long.
+     * <p>
+     * Logs archived before they expire (activity-log.archive.after-days is usually shorter than the retention)
+     * are no longer in the table. An archived day is deleted as a whole once every activity type has expired in
+     * it, so archived rows of a type with a shorter retention are kept until the longest retention has passed;
+     * rows already expired when their day is archived are not archived at all.
+     */
+    @Override
+    public PurgeResult purgeExpiredLogs() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Map<ActivityType, Integer> policy = retentionPolicy();
+
+        LocalDateTime wholeDayCutoff = wholeDayCutoff(policy, now);
+        long rowsPurged = 0;
+        int partitionsDropped = 0;
+
+        if (activityLogPartitionRepository.isPartitioned()) {
+            createUpcomingPartitions(YearMonth.from(now));
+            if (wholeDayCutoff != null) {
+                for (MonthPartition partition : activityLogPartitionRepository.findMonthPartitions()) {
+                    if (partition.month().plusMonths(1).atDay(1).atStartOfDay().isAfter(wholeDayCutoff)) {
+                        break;
+                    }
+                    long rows = activityLogPartitionRepository.countRows(partition);
+                    activityLogPartitionRepository.dropMonthPartition(partition);
+                    rowsPurged += rows;
+                    partitionsDropped++;
+                    log.info("Dropped activity log partition {} ({} rows)", partition.name(), rows);
+                }
+            }
+        }
+
+        for (Map.Entry<ActivityType, Integer> entry : policy.entrySet()) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            rowsPurged += purgeInChunks(entry.getKey(), now.minusDays(entry.getValue()));
+        }
+
+        long archivedRowsPurged = wholeDayCutoff != null ? purgeArchivedDays(wholeDayCutoff) : 0;
+
+        PurgeResult result = new PurgeResult(rowsPurged, partitionsDropped, archivedRowsPurged,
+                System.currentTimeMillis() - start);
+        log.info("Activity log retention purged {} rows ({} partitions dropped) and {} archived rows in {} ms",
+                result.rowsPurged(), result.partitionsDropped(), result.archivedRowsPurged(), result.durationMs());
+        return result;
+    }
+
+    @Override
+    public Map<ActivityType, LocalDateTime> expiryCutoffs(LocalDateTime now) {
+        Map<ActivityType, LocalDateTime> cutoffs = new EnumMap<>(ActivityType.class);
+        retentionPolicy().forEach((type, days) -> cutoffs.put(type, now.minusDays(days)));
+        return cutoffs;
+    }
+
+    // Days whose newest possible row is before the cutoff
+    private long purgeArchivedDays(LocalDateTime cutoff) {
+        try {
+            return activityLogArchive.deleteDaysBefore(cutoff.toLocalDate());
+        } catch (IOException e) {
+            log.error("Failed to delete expired activity log archive days: {}", e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    private long purgeInChunks(ActivityType activityType, LocalDateTime cutoff) {
+        Long minId = userActivityLogRepository.findMinIdBefore(activityType, cutoff);
+        Long maxId = userActivityLogRepository.findMaxIdBefore(activityType, cutoff);
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long purged = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long toId = Math.min(fromId + chunkSize, maxId + 1);
+            int deleted = userActivityLogRepository.deleteExpiredInIdRange(activityType, cutoff, fromId, toId);
+            purged += deleted;
+            if (deleted > 0 && !pause()) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            log.debug("Purged {} {} logs older than {}", purged, activityType, cutoff);
+        }
+        return purged;
+    }
+
+    private void createUpcomingPartitions(YearMonth current) {
+        List<MonthPartition> partitions = activityLogPartitionRepository.findMonthPartitions();
+        YearMonth next = partitions.isEmpty()
+                ? current
+                : partitions.get(partitions.size() - 1).month().plusMonths(1);
+        for (YearMonth month = next; !month.isAfter(current.plusMonths(partitionMonthsAhead)); month = month.plusMonths(1)) {
+            activityLogPartitionRepository.createMonthPartition(month);
+            log.info("Created activity log partition for {}", month);
+        }
+    }
+
+    // A partition or archived day can go as a whole only when its newest possible row is past the longest retention
+    private LocalDateTime wholeDayCutoff(Map<ActivityType, Integer> policy, LocalDateTime now) {
+        if (policy.size() < ActivityType.values().length) {
+            return null;
+        }
+        int longest = policy.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        return now.minusDays(longest);
+    }
+
+    // Activity types that expire, with their retention in days; types kept forever are left out
+    Map<ActivityType, Integer> retentionPolicy() {
+        Map<ActivityType, Integer> days = new EnumMap<>(ActivityType.class);
+        for (ActivityType type : ActivityType.values()) {
+            days.put(type, defaultRetentionDays);
+        }
+        if (retentionDaysByType != null && !retentionDaysByType.isBlank()) {
+            for (String pair : retentionDaysByType.split(",")) {
+                String[] parts = pair.trim().split(":");
+                if (parts.length != 2) {
+                    log.warn("Ignoring malformed activity log retention entry '{}'", pair);
+                    continue;
+                }
+                try {
+                    days.put(ActivityType.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring invalid activity log retention entry '{}'", pair);
+                }
+            }
+        }
+        days.values().removeIf(value -> value <= 0);
+        return days;
+    }
+
+    private boolean pause() {
+        if (throttleMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(throttleMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.response.SecurityStatsResponse;
+import com.example.demologin.dto.response.SecurityStatsResponse.HeavyHitter;
+import com.example.demologin.entity.ActivitySketch;
+import com.example.demologin.enums.SketchMetric;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.repository.ActivitySketchRepository;
+import com.example.demologin.service.ActivitySketchService;
+import com.example.demologin.sketch.HyperLogLog;
+import com.example.demologin.sketch.SpaceSaving;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Security analytics from fixed-size streaming sketches instead of scans of user_activity_logs: per hour, a
+ * Space-Saving summary of failing client IPs, a HyperLogLog of distinct active users and a Space-Saving summary
+ * of login countries. Hourly sketches merge into any range of hours. Sketches changed since the last snapshot
+ * are written to activity_sketches periodically and loaded back on startup, so they survive restarts.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivitySketchServiceImpl implements ActivitySketchService {
+
+    private static final int HLL_PRECISION = 12;
+
+    private final ActivitySketchRepository activitySketchRepository;
+
+    @Value("${activity-log.sketch.retention-hours:168}")
+    private int retentionHours;
+
+    // Counters per hour for the heavy hitter summaries; enough to keep every country exact
+    @Value("${activity-log.sketch.top-capacity:256}")
+    private int topCapacity;
+
+    private final ConcurrentHashMap<SketchKey, HyperLogLog> distinctCounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<SketchKey, SpaceSaving> heavyHitters = new ConcurrentHashMap<>();
+    private final Set<SketchKey> dirty = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime prunedBefore = LocalDateTime.MIN;
+
+    private record SketchKey(LocalDateTime bucketStart, SketchMetric metric) {
+    }
+
+    @PostConstruct
+    void loadSnapshots() {
+        try {
+            List<ActivitySketch> snapshots = activitySketchRepository.findByBucketStartGreaterThanEqual(retentionCutoff());
+            for (ActivitySketch snapshot : snapshots) {
+                SketchKey key = new SketchKey(snapshot.getBucketStart(), snapshot.getMetric());
+                if (snapshot.getMetric() == SketchMetric.DISTINCT_USERS) {
+                    hyperLogLog(key).merge(HyperLogLog.fromBytes(snapshot.getData()));
+                } else {
+                    spaceSaving(key).merge(SpaceSaving.fromBytes(snapshot.getData()));
+                }
+            }
+            log.info("Loaded {} activity sketch snapshots", snapshots.size());
+        } catch (Exception e) {
+            log.warn("Could not load activity sketch snapshots, starting empty: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordActivity(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        SketchKey key = currentKey(SketchMetric.DISTINCT_USERS);
+        hyperLogLog(key).add(HyperLogLog.mix(userId));
+        dirty.add(key);
+    }
+
+    @Override
+    public void recordFailure(String ipAddress) {
+        if (ipAddress == null || ipAddress.isBlank()) {
+            return;
+        }
+        SketchKey key = currentKey(SketchMetric.FAILING_IPS);
+        spaceSaving(key).offer(ipAddress);
+        dirty.add(key);
+    }
+
+    @Override
+    public void recordLogin(LocalDateTime timestamp, String countryCode) {
+        if (timestamp == null || countryCode == null || countryCode.isBlank()) {
+            return;
+        }
+        SketchKey key = new SketchKey(timestamp.truncatedTo(ChronoUnit.HOURS), SketchMetric.LOGIN_COUNTRIES);
+        if (key.bucketStart().isBefore(retentionCutoff())) {
+            return;
+        }
+        spaceSaving(key).offer(countryCode);
+        dirty.add(key);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${activity-log.sketch.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        int written = 0;
+        for (SketchKey key : dirty) {
+            // Cleared before serializing: a concurrent update marks the sketch dirty again for the next run
+            if (!dirty.remove(key)) {
+                continue;
+            }
+            try {
+                byte[] data = serialize(key);
+                if (data != null) {
+                    upsert(key, data);
+                    written++;
+                }
+            } catch (Exception e) {
+                dirty.add(key);
+                log.warn("Failed to snapshot activity sketch {}: {}", key, e.getMessage());
+            }
+        }
+        if (written > 0) {
+            log.debug("Wrote {} activity sketch snapshots", written);
+        }
+        prune();
+    }
+
+    private void upsert(SketchKey key, byte[] data) {
+        ActivitySketch snapshot = activitySketchRepository.findByBucketStartAndMetric(key.bucketStart(), key.metric())
+                .orElseGet(() -> ActivitySketch.builder().bucketStart(key.bucketStart()).metric(key.metric()).build());
+        snapshot.setData(data);
+        snapshot.setUpdatedAt(LocalDateTime.now());
+        try {
+            activitySketchRepository.save(snapshot);
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently since the lookup; overwrite it
+            ActivitySketch existing = activitySketchRepository.findByBucketStartAndMetric(key.bucketStart(), key.metric())
+                    .orElseThrow(() -> e);
+            existing.setData(data);
+            existing.setUpdatedAt(LocalDateTime.now());
+            activitySketchRepository.save(existing);
+        }
+    }
+
+    // Drops hours past retention from memory and the table, once per hour boundary
+    private void prune() {
+        LocalDateTime cutoff = retentionCutoff();
+        if (!cutoff.isAfter(prunedBefore)) {
+            return;
+        }
+        distinctCounts.keySet().removeIf(key -> key.bucketStart().isBefore(cutoff));
+        heavyHitters.keySet().removeIf(key -> key.bucketStart().isBefore(cutoff));
+        dirty.removeIf(key -> key.bucketStart().isBefore(cutoff));
+        try {
+            activitySketchRepository.deleteByBucketStartBefore(cutoff);
+            prunedBefore = cutoff;
+        } catch (Exception e) {
+            log.warn("Failed to prune activity sketch snapshots: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Merges the hourly sketches of every hour overlapping [from, to): from is rounded down and to up to the hour.
+     * Only hours within the retention window are available.
+     */
+    @Override
+    public SecurityStatsResponse getSecurityStats(LocalDateTime from, LocalDateTime to, int limit) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        if (limit < 1 || limit > topCapacity) {
+            throw new BadRequestException("'limit' must be between 1 and " + topCapacity);
+        }
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        if (end.isBefore(to)) {
+            end = end.plusHours(1);
+        }
+
+        HyperLogLog users = new HyperLogLog(HLL_PRECISION);
+        Map<LocalDateTime, Long> usersByHour = new TreeMap<>();
+        for (Map.Entry<SketchKey, HyperLogLog> entry : distinctCounts.entrySet()) {
+            LocalDateTime bucket = entry.getKey().bucketStart();
+            if (!bucket.isBefore(start) && bucket.isBefore(end)) {
+                users.merge(entry.getValue());
+                usersByHour.put(bucket, entry.getValue().estimate());
+            }
+        }
+
+        return new SecurityStatsResponse(start, end, users.estimate(), usersByHour,
+                top(SketchMetric.FAILING_IPS, start, end, limit),
+                top(SketchMetric.LOGIN_COUNTRIES, start, end, limit));
+    }
+
+    private List<HeavyHitter> top(SketchMetric metric, LocalDateTime start, LocalDateTime end, int limit) {
+        SpaceSaving merged = new SpaceSaving(topCapacity);
+        for (Map.Entry<SketchKey, SpaceSaving> entry : heavyHitters.entrySet()) {
+            LocalDateTime bucket = entry.getKey().bucketStart();
+            if (entry.getKey().metric() == metric && !bucket.isBefore(start) && bucket.isBefore(end)) {
+                merged.merge(entry.getValue());
+            }
+        }
+        return merged.top(limit).stream()
+                .map(entry -> new HeavyHitter(entry.item(), entry.count(), entry.error()))
+                .toList();
+    }
+
+    private byte[] serialize(SketchKey key) {
+        if (key.metric() == SketchMetric.DISTINCT_USERS) {
+            HyperLogLog sketch = distinctCounts.get(key);
+            return sketch != null ? sketch.toBytes() : null;
+        }
+        SpaceSaving sketch = heavyHitters.get(key);
+        return sketch != null ? sketch.toBytes() : null;
+    }
+
+    private HyperLogLog hyperLogLog(SketchKey key) {
+        return distinctCounts.computeIfAbsent(key, ignored -> new HyperLogLog(HLL_PRECISION));
+    }
+
+    private SpaceSaving spaceSaving(SketchKey key) {
+        return heavyHitters.computeIfAbsent(key, ignored -> new SpaceSaving(topCapacity));
+    }
+
+    private static SketchKey currentKey(SketchMetric metric) {
+        return new SketchKey(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), metric);
+    }
+
+    private LocalDateTime retentionCutoff() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(retentionHours);
+    }
+}
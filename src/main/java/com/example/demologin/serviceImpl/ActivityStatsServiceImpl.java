@@ -0,0 +1,214 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.dto.response.UserActivityStatsResponse;
+import com.example.demologin.entity.ActivityStatsHourly;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.entity.UserActivityStatsDaily;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.repository.ActivityStatsHourlyRepository;
+import com.example.demologin.repository.UserActivityStatsDailyRepository;
+import com.example.demologin.service.ActivityStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the hourly and per-user daily rollups in step with activity log writes.
+ *
+ * Each committed log row adds one to an in-memory delta; a scheduled flush folds the deltas into the rollup
+ * tables with one UPDATE ... SET count = count + delta per bucket. Queries sum rollup rows plus deltas not
+ * flushed yet, so stats never scan user_activity_logs.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityStatsServiceImpl implements ActivityStatsService {
+
+    private final ActivityStatsHourlyRepository activityStatsHourlyRepository;
+    private final UserActivityStatsDailyRepository userActivityStatsDailyRepository;
+
+    private final ConcurrentHashMap<HourlyKey, Long> pendingHourly = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<DailyKey, Long> pendingDaily = new ConcurrentHashMap<>();
+
+    private record HourlyKey(LocalDateTime bucketStart, ActivityType activityType, String status) {
+    }
+
+    private record DailyKey(Long userId, LocalDate bucketDate) {
+    }
+
+    @Override
+    public void recordEvent(UserActivityLog activityLog) {
+        if (activityLog.getActivityType() == null || activityLog.getTimestamp() == null) {
+            return;
+        }
+        // Count only rows that actually commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addPending(activityLog);
+                }
+            });
+        } else {
+            addPending(activityLog);
+        }
+    }
+
+    private void addPending(UserActivityLog activityLog) {
+        LocalDateTime timestamp = activityLog.getTimestamp();
+        String status = activityLog.getStatus() != null ? activityLog.getStatus() : "SUCCESS";
+        pendingHourly.merge(new HourlyKey(timestamp.truncatedTo(ChronoUnit.HOURS), activityLog.getActivityType(), status),
+                1L, Long::sum);
+        if (activityLog.getUserId() != null) {
+            pendingDaily.merge(new DailyKey(activityLog.getUserId(), timestamp.toLocalDate()), 1L, Long::sum);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${activity-log.stats.flush-interval-ms:5000}")
+    public void flushPendingCounts() {
+        int buckets = 0;
+        for (HourlyKey key : pendingHourly.keySet()) {
+            Long delta = pendingHourly.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                upsertHourly(key, delta);
+                buckets++;
+            } catch (Exception e) {
+                pendingHourly.merge(key, delta, Long::sum);
+                log.warn("Failed to flush hourly activity stats for {}: {}", key, e.getMessage());
+            }
+        }
+        for (DailyKey key : pendingDaily.keySet()) {
+            Long delta = pendingDaily.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                upsertDaily(key, delta);
+                buckets++;
+            } catch (Exception e) {
+                pendingDaily.merge(key, delta, Long::sum);
+                log.warn("Failed to flush daily user activity stats for {}: {}", key, e.getMessage());
+            }
+        }
+        if (buckets > 0) {
+            log.debug("Flushed {} activity stats buckets", buckets);
+        }
+    }
+
+    private void upsertHourly(HourlyKey key, long delta) {
+        if (activityStatsHourlyRepository.incrementCount(key.bucketStart(), key.activityType(), key.status(), delta) > 0) {
+            return;
+        }
+        try {
+            activityStatsHourlyRepository.save(ActivityStatsHourly.builder()
+                    .bucketStart(key.bucketStart())
+                    .activityType(key.activityType())
+                    .status(key.status())
+                    .eventCount(delta)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the bucket first
+            activityStatsHourlyRepository.incrementCount(key.bucketStart(), key.activityType(), key.status(), delta);
+        }
+    }
+
+    private void upsertDaily(DailyKey key, long delta) {
+        if (userActivityStatsDailyRepository.incrementCount(key.userId(), key.bucketDate(), delta) > 0) {
+            return;
+        }
+        try {
+            userActivityStatsDailyRepository.save(UserActivityStatsDaily.builder()
+                    .userId(key.userId())
+                    .bucketDate(key.bucketDate())
+                    .eventCount(delta)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            userActivityStatsDailyRepository.incrementCount(key.userId(), key.bucketDate(), delta);
+        }
+    }
+
+    /**
+     * Counts for every hour bucket overlapping [from, to): from is rounded down and to up to the hour.
+     */
+    @Override
+    public ActivityStatsResponse getActivityStats(LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        if (end.isBefore(to)) {
+            end = end.plusHours(1);
+        }
+
+        Map<ActivityType, Map<String, Long>> byTypeAndStatus = new EnumMap<>(ActivityType.class);
+        for (Object[] row : activityStatsHourlyRepository.sumByTypeAndStatus(start, end)) {
+            addCount(byTypeAndStatus, (ActivityType) row[0], (String) row[1], ((Number) row[2]).longValue());
+        }
+        for (Map.Entry<HourlyKey, Long> pending : pendingHourly.entrySet()) {
+            LocalDateTime bucket = pending.getKey().bucketStart();
+            if (!bucket.isBefore(start) && bucket.isBefore(end)) {
+                addCount(byTypeAndStatus, pending.getKey().activityType(), pending.getKey().status(), pending.getValue());
+            }
+        }
+
+        Map<ActivityType, Long> byType = new EnumMap<>(ActivityType.class);
+        Map<String, Long> byStatus = new TreeMap<>();
+        long total = 0;
+        for (Map.Entry<ActivityType, Map<String, Long>> type : byTypeAndStatus.entrySet()) {
+            for (Map.Entry<String, Long> status : type.getValue().entrySet()) {
+                byType.merge(type.getKey(), status.getValue(), Long::sum);
+                byStatus.merge(status.getKey(), status.getValue(), Long::sum);
+                total += status.getValue();
+            }
+        }
+        return new ActivityStatsResponse(start, end, total, byType, byStatus, byTypeAndStatus);
+    }
+
+    /**
+     * Daily counts for one user, both dates inclusive.
+     */
+    @Override
+    public UserActivityStatsResponse getUserActivityStats(Long userId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        Map<LocalDate, Long> daily = new TreeMap<>();
+        List<UserActivityStatsDaily> buckets = userActivityStatsDailyRepository
+                .findByUserIdAndBucketDateBetweenOrderByBucketDateAsc(userId, from, to);
+        for (UserActivityStatsDaily bucket : buckets) {
+            daily.merge(bucket.getBucketDate(), bucket.getEventCount(), Long::sum);
+        }
+        for (Map.Entry<DailyKey, Long> pending : pendingDaily.entrySet()) {
+            LocalDate date = pending.getKey().bucketDate();
+            if (pending.getKey().userId().equals(userId) && !date.isBefore(from) && !date.isAfter(to)) {
+                daily.merge(date, pending.getValue(), Long::sum);
+            }
+        }
+        long total = daily.values().stream().mapToLong(Long::longValue).sum();
+        return new UserActivityStatsResponse(userId, from, to, total, daily);
+    }
+
+    private static void addCount(Map<ActivityType, Map<String, Long>> counts, ActivityType type, String status, long count) {
+        counts.computeIfAbsent(type, ignored -> new TreeMap<>()).merge(status, count, Long::sum);
+    }
+}
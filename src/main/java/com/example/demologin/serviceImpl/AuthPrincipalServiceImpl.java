@@ -0,0 +1,62 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.enums.UserStatus;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.AuthPrincipalService;
+import com.example.demologin.service.RolePermissionService;
+import com.example.demologin.utils.EmailUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AuthPrincipalServiceImpl implements AuthPrincipalService {
+
+    private final UserRepository userRepository;
+    private final RolePermissionService rolePermissionService;
+
+    @Override
+    public Optional<AuthPrincipal> findByLogin(String login) {
+        if (login == null || login.isBlank()) {
+            return Optional.empty();
+        }
+        return toPrincipal(EmailUtils.isValidEmail(login)
+                ? userRepository.findAuthRowsByEmail(login)
+                : userRepository.findAuthRowsByUsername(login));
+    }
+
+    @Override
+    public Optional<AuthPrincipal> findById(Long userId) {
+        return toPrincipal(userRepository.findAuthRowsByUserId(userId));
+    }
+
+    private Optional<AuthPrincipal> toPrincipal(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] first = rows.get(0);
+        Set<Long> roleIds = rows.stream()
+                .map(row -> (Long) row[8])
+                .filter(roleId -> roleId != null)
+                .collect(Collectors.toSet());
+        return Optional.of(AuthPrincipal.builder()
+                .userId((Long) first[0])
+                .username((String) first[1])
+                .password((String) first[2])
+                .fullName((String) first[3])
+                .status((UserStatus) first[4])
+                .locked((Boolean) first[5])
+                .verified((Boolean) first[6])
+                .tokenVersion((Integer) first[7])
+                .roleIds(roleIds)
+                .roleNames(rolePermissionService.getRoleNamesForRoleIds(roleIds))
+                .authorityNames(rolePermissionService.getAuthoritiesForRoleIds(roleIds))
+                .build());
+    }
+}
@@ -13,17 +13,25 @@ import com.example.demologin.enums.ActivityType;
 import com.example.demologin.enums.Gender;
 import com.example.demologin.enums.UserStatus;
 import com.example.demologin.exception.exceptions.*;
+import com.example.demologin.http.OutboundCircuitOpenException;
+import com.example.demologin.http.OutboundHttpClients;
+import com.example.demologin.http.OutboundHttpLimitException;
 import com.example.demologin.mapper.UserMapper;
 import com.example.demologin.repository.RefreshTokenRepository;
 import com.example.demologin.repository.UserActivityLogRepository;
 import com.example.demologin.repository.UserRepository;
 import com.example.demologin.repository.RoleRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.security.SocialLoginWorkers;
+import com.example.demologin.service.AuthPrincipalService;
 import com.example.demologin.service.AuthenticationService;
+import com.example.demologin.service.LoginThrottleService;
 
 
 import com.example.demologin.service.RefreshTokenService;
 import com.example.demologin.service.TokenService;
 import com.example.demologin.utils.EmailUtils;
+import com.example.demologin.utils.IpUtilsWrapper;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -36,30 +44,28 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import lombok.extern.slf4j.Slf4j;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Map;
 import java.time.LocalDateTime;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class AuthenticationServiceImpl implements AuthenticationService {
-    @Value("${spring.security.oauth2.client.registration.google.client-id}")
-    private String GOOGLE_CLIENT_ID;
-
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
@@ -75,7 +81,19 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final RoleRepository roleRepository;
 
-    public AuthenticationServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, @Lazy AuthenticationManager authenticationManager, TokenService tokenService, RefreshTokenService refreshTokenService, UserActivityLogRepository userActivityLogRepository, RoleRepository roleRepository) {
+    private final LoginThrottleService loginThrottleService;
+
+    private final IpUtilsWrapper ipUtils;
+
+    private final AuthPrincipalService authPrincipalService;
+
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+
+    private final OutboundHttpClients outboundHttpClients;
+
+    private final SocialLoginWorkers socialLoginWorkers;
+
+    public AuthenticationServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, @Lazy AuthenticationManager authenticationManager, TokenService tokenService, RefreshTokenService refreshTokenService, UserActivityLogRepository userActivityLogRepository, RoleRepository roleRepository, LoginThrottleService loginThrottleService, IpUtilsWrapper ipUtils, AuthPrincipalService authPrincipalService, GoogleIdTokenVerifier googleIdTokenVerifier, OutboundHttpClients outboundHttpClients, SocialLoginWorkers socialLoginWorkers) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
@@ -83,6 +101,12 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         this.refreshTokenService = refreshTokenService;
         this.userActivityLogRepository = userActivityLogRepository;
         this.roleRepository = roleRepository;
+        this.loginThrottleService = loginThrottleService;
+        this.ipUtils = ipUtils;
+        this.authPrincipalService = authPrincipalService;
+        this.googleIdTokenVerifier = googleIdTokenVerifier;
+        this.outboundHttpClients = outboundHttpClients;
+        this.socialLoginWorkers = socialLoginWorkers;
     }
 
     @Override
@@ -132,7 +156,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                     .details("New user registered: " + savedUser.getUsername())
                     .build();
             return UserMapper.toLoginResponse(savedUser, "", "");
-        } catch (ConflictException | ValidationException e) {
+        } catch (ConflictException | ValidationException | TooManyRequestsException e) {
             log = UserActivityLog.builder()
                     .activityType(ActivityType.REGISTRATION)
                     .timestamp(LocalDateTime.now())
@@ -157,22 +181,39 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Kiểm tra xem input có phải là email hợp lệ không
-        if (EmailUtils.isValidEmail(username)) {
-            // Tìm user bằng email
-            return userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Account not found with email: " + username));
-        } else {
-            // Tìm user bằng username
-            return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Account not found with username: " + username));
+        // Username hoặc email; chỉ đọc các cột cần cho xác thực
+        return authPrincipalService.findByLogin(username)
+                .orElseThrow(() -> new UsernameNotFoundException(EmailUtils.isValidEmail(username)
+                        ? "Account not found with email: " + username
+                        : "Account not found with username: " + username));
+    }
+
+    /**
+     * Called by the authentication provider after a successful password check when the stored hash uses another
+     * algorithm or a lower BCrypt cost than the current encoder; only the password column is written.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        if (userDetails instanceof AuthPrincipal principal) {
+            userRepository.updatePassword(principal.getUserId(), newPassword);
+            log.debug("Rehashed password of user {}", principal.getUserId());
+            return principal.withPassword(newPassword);
         }
+        User user = (User) userDetails;
+        userRepository.updatePassword(user.getUserId(), newPassword);
+        user.setPassword(newPassword);
+        log.debug("Rehashed password of user {}", user.getUserId());
+        return user;
     }
 
     @Override
     public LoginResponse login(LoginRequest loginRequest) {
         String username = loginRequest.getUsername();
-        
+        // Not X-Forwarded-For, which the client controls and could rotate past the per-IP limit
+        String clientIp = ipUtils.getRemoteAddress();
+        // Locked-out usernames and IPs are turned away before any password hashing
+        loginThrottleService.checkAllowed(username, clientIp);
+
         Authentication authentication;
         try {
             authentication = authenticationManager.authenticate(
@@ -182,25 +223,31 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                     )
             );
         } catch (BadCredentialsException e) {
+            loginThrottleService.recordFailure(username, clientIp);
             throw new UnauthorizedException("Username/ password is invalid. Please try again!");
         } catch (LockedException e) {
             throw new ForbiddenException("Account has been locked!");
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             throw new InternalServerErrorException("Login failed: " + e.getMessage());
         }
 
-        User user = (User) authentication.getPrincipal();
+        loginThrottleService.recordSuccess(username, clientIp);
+        AuthPrincipal principal = (AuthPrincipal) authentication.getPrincipal();
 
-        if (!user.isVerify()) {
+        if (!principal.isVerified()) {
             throw new ForbiddenException("Account has not been verified yet. Please verify your email.");
         }
 
-        if (user.getStatus() != UserStatus.ACTIVE) {
+        if (principal.getStatus() != UserStatus.ACTIVE) {
             throw new ForbiddenException("Account is not active.");
         }
 
+        // The refresh token only needs the user's id as its foreign key
+        User user = userRepository.getReferenceById(principal.getUserId());
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
-        String token = tokenService.generateTokenForUser(user);
+        String token = tokenService.generateTokenForPrincipal(principal);
         LoginResponse loginResponse = UserMapper.toLoginResponse(user, token, refreshToken.getToken());
         return loginResponse;
     }
@@ -213,10 +260,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 log.debug("Detected Google access token, using Google API to get user info");
                 return authenticateWithGoogleAccessToken(request.getIdToken());
             }
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                    .setAudience(java.util.Collections.singletonList(GOOGLE_CLIENT_ID))
-                    .build();
-            GoogleIdToken idToken = verifier.verify(request.getIdToken());
+            GoogleIdToken idToken = googleIdTokenVerifier.verify(request.getIdToken());
             if (idToken == null) {
                 log.error("Google ID token verification failed");
                 throw new UnauthorizedException("Invalid Google ID token");
@@ -255,7 +299,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
             
             return UserMapper.toLoginResponse(user, token, refreshToken.getToken());
-        } catch (BadRequestException | UnauthorizedException e) {
+        } catch (BadRequestException | UnauthorizedException | TooManyRequestsException | ServiceUnavailableException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error authenticating with Google", e);
@@ -265,18 +309,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private LoginResponse authenticateWithGoogleAccessToken(String accessToken) {
         try {
-            RestTemplate restTemplate = new RestTemplate();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            @SuppressWarnings("unchecked")
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    "https://www.googleapis.com/oauth2/v3/userinfo",
-                    HttpMethod.GET,
-                    entity,
-                    (Class<Map<String, Object>>) (Object) Map.class
-            );
-            Map<String, Object> userInfo = response.getBody();
+            Map<String, Object> userInfo = outboundHttpClients.restClient(OutboundHttpClients.GOOGLE).get()
+                    .uri("https://www.googleapis.com/oauth2/v3/userinfo")
+                    .headers(headers -> headers.setBearerAuth(accessToken))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, Object>>() {});
             if (userInfo == null) {
                 throw new UnauthorizedException("Failed to get user info from Google API");
             }
@@ -286,6 +323,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
             String name = (String) userInfo.get("name");
             
             return getUserResponse(email, name);
+        } catch (OutboundCircuitOpenException | OutboundHttpLimitException e) {
+            log.warn("Google user info unavailable: {}", e.getMessage());
+            throw new ServiceUnavailableException("Google sign-in is temporarily unavailable, try again shortly");
         } catch (Exception e) {
             log.error("Error authenticating with Google access token", e);
             throw new InternalServerErrorException("Google authentication failed: " + e.getMessage());
@@ -323,63 +363,120 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                     fields,
                     request.getAccessToken()
             );
-            RestTemplate restTemplate = new RestTemplate();
-            @SuppressWarnings("unchecked")
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    (Class<Map<String, Object>>) (Object) Map.class
-            );
-            Map<String, Object> userInfo = response.getBody();
+            Map<String, Object> userInfo = outboundHttpClients.restClient(OutboundHttpClients.FACEBOOK).get()
+                    .uri(url)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, Object>>() {});
             if (userInfo == null) {
                 throw new UnauthorizedException("Failed to get user info from Facebook API");
             }
             
             log.debug("Retrieved user info from Facebook API: {}", userInfo);
-            String email = (String) userInfo.get("email");
-            String name = (String) userInfo.get("name");
-            String firstName = (String) userInfo.get("first_name");
-            String lastName = (String) userInfo.get("last_name");
-            String gender = (String) userInfo.get("gender");
-            String birthday = (String) userInfo.get("birthday");
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> picture = (Map<String, Object>) userInfo.get("picture");
-            String pictureUrl = null;
-            if (picture != null) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> data = (Map<String, Object>) picture.get("data");
-                if (data != null) {
-                    pictureUrl = (String) data.get("url");
-                }
-            }
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> location = (Map<String, Object>) userInfo.get("location");
-            String locationName = location != null ? (String) location.get("name") : null;
-            
-            if (email == null || email.trim().isEmpty()) {
-                String userId = (String) userInfo.get("id");
-                email = userId != null ? userId + "@facebook.com" : "unknown@facebook.com";
-            }
-            
-            return authenticateWithFacebookOAuth2(
-                    email,
-                    name,
-                    firstName,
-                    lastName,
-                    gender,
-                    birthday,
-                    pictureUrl,
-                    locationName
-            );
+            return loginWithFacebookUserInfo(userInfo);
+        } catch (OutboundCircuitOpenException | OutboundHttpLimitException e) {
+            log.warn("Facebook user info unavailable: {}", e.getMessage());
+            throw new ServiceUnavailableException("Facebook sign-in is temporarily unavailable, try again shortly");
         } catch (Exception e) {
             log.error("Error authenticating with Facebook", e);
             throw new InternalServerErrorException("Facebook authentication failed: " + e.getMessage());
         }
     }
 
+    // Access tokens are checked by calling Google without holding a thread; ID tokens are verified locally
+    // against the cached keys, so that path runs on a worker as a whole
+    @Override
+    public CompletableFuture<LoginResponse> authenticateWithGoogleAsync(GoogleLoginRequest request) {
+        if (request.getIdToken() == null || !request.getIdToken().startsWith("ya29.")) {
+            return socialLoginWorkers.supply(() -> authenticateWithGoogle(request));
+        }
+        HttpRequest userInfoRequest = HttpRequest.newBuilder(URI.create("https://www.googleapis.com/oauth2/v3/userinfo"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + request.getIdToken())
+                .GET()
+                .build();
+        return fetchUserInfoAsync(OutboundHttpClients.GOOGLE, "Google", userInfoRequest)
+                .thenCompose(userInfo -> socialLoginWorkers.supply(() -> completeSocialLogin("Google",
+                        () -> getUserResponse((String) userInfo.get("email"), (String) userInfo.get("name")))));
+    }
+
+    @Override
+    public CompletableFuture<LoginResponse> authenticateWithFacebookAsync(FacebookLoginRequest request) {
+        String url = "https://graph.facebook.com/me?fields=id,name,email,first_name,last_name,picture,gender,birthday,location"
+                + "&access_token=" + URLEncoder.encode(String.valueOf(request.getAccessToken()), StandardCharsets.UTF_8);
+        HttpRequest userInfoRequest = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        return fetchUserInfoAsync(OutboundHttpClients.FACEBOOK, "Facebook", userInfoRequest)
+                .thenCompose(userInfo -> socialLoginWorkers.supply(() -> completeSocialLogin("Facebook",
+                        () -> loginWithFacebookUserInfo(userInfo))));
+    }
+
+    private CompletableFuture<Map<String, Object>> fetchUserInfoAsync(String remote, String provider, HttpRequest request) {
+        return outboundHttpClients.get(remote).sendAsyncForJson(request).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            throw socialLoginFailure(provider, cause);
+        });
+    }
+
+    private LoginResponse completeSocialLogin(String provider, Supplier<LoginResponse> login) {
+        try {
+            return login.get();
+        } catch (RuntimeException e) {
+            throw socialLoginFailure(provider, e);
+        }
+    }
+
+    // Same answers as the blocking variants: 503 while the provider is cut off, 500 for anything unexpected
+    private RuntimeException socialLoginFailure(String provider, Throwable error) {
+        if (error instanceof OutboundCircuitOpenException || error instanceof OutboundHttpLimitException) {
+            log.warn("{} user info unavailable: {}", provider, error.getMessage());
+            return new ServiceUnavailableException(provider + " sign-in is temporarily unavailable, try again shortly");
+        }
+        if (error instanceof ServiceUnavailableException || error instanceof TooManyRequestsException
+                || error instanceof UnauthorizedException || error instanceof BadRequestException) {
+            return (RuntimeException) error;
+        }
+        log.error("Error authenticating with {}", provider, error);
+        return new InternalServerErrorException(provider + " authentication failed: " + error.getMessage());
+    }
+
+    private LoginResponse loginWithFacebookUserInfo(Map<String, Object> userInfo) {
+        String email = (String) userInfo.get("email");
+        String name = (String) userInfo.get("name");
+        String firstName = (String) userInfo.get("first_name");
+        String lastName = (String) userInfo.get("last_name");
+        String gender = (String) userInfo.get("gender");
+        String birthday = (String) userInfo.get("birthday");
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> picture = (Map<String, Object>) userInfo.get("picture");
+        String pictureUrl = null;
+        if (picture != null) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> data = (Map<String, Object>) picture.get("data");
+            if (data != null) {
+                pictureUrl = (String) data.get("url");
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> location = (Map<String, Object>) userInfo.get("location");
+        String locationName = location != null ? (String) location.get("name") : null;
+        
+        if (email == null || email.trim().isEmpty()) {
+            String userId = (String) userInfo.get("id");
+            email = userId != null ? userId + "@facebook.com" : "unknown@facebook.com";
+        }
+        
+        return authenticateWithFacebookOAuth2(
+                email,
+                name,
+                firstName,
+                lastName,
+                gender,
+                birthday,
+                pictureUrl,
+                locationName
+        );
+    }
+
     private LoginResponse authenticateWithFacebookOAuth2(
             String email,
             String name,
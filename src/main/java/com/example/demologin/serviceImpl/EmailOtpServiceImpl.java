@@ -15,6 +15,7 @@ import com.example.demologin.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.stereotype.Service;
 import org.springframework.http.ResponseEntity;
@@ -35,6 +36,7 @@ public class EmailOtpServiceImpl implements EmailOtpService {
     private final EmailOtpRepository emailOtpRepo;
     private final EmailService emailService;
     private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
 
     private String generateOtp() {
         Random random = new Random();
@@ -123,7 +125,7 @@ public class EmailOtpServiceImpl implements EmailOtpService {
         otpEntity.setVerified(true);
         emailOtpRepo.save(otpEntity);
         User user = userRepository.findByEmail(req.getEmail()).orElseThrow(() -> new BadRequestException("User not found"));
-        user.setPassword(new org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder().encode(req.getNewPassword()));
+        user.setPassword(passwordEncoder.encode(req.getNewPassword()));
         userRepository.save(user);
         emailOtpRepo.deleteById(otpEntity.getId());
         log.debug("OTP deleted after successful password reset for email: {}", req.getEmail());
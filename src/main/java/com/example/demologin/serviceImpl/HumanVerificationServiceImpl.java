@@ -2,20 +2,33 @@ package com.example.demologin.serviceImpl;
 
 import com.example.demologin.dto.request.VerifyTokenRequest;
 import com.example.demologin.dto.response.VerifyTokenResponse;
+import com.example.demologin.exception.exceptions.ServiceUnavailableException;
+import com.example.demologin.http.OutboundCircuitOpenException;
+import com.example.demologin.http.OutboundHttpClients;
+import com.example.demologin.http.OutboundHttpLimitException;
 import com.example.demologin.service.HumanVerificationService;
 import com.example.demologin.utils.HumanVerifyTokenUtil;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
+@RequiredArgsConstructor
 public class HumanVerificationServiceImpl implements HumanVerificationService {
 
+    private static final String SITE_VERIFY_URL = "https://challenges.cloudflare.com/turnstile/v0/siteverify";
+
     @Value("${cloudflare.turnstile.secret-key}")
     private String turnstileSecretKey;
 
@@ -25,24 +38,54 @@ public class HumanVerificationServiceImpl implements HumanVerificationService {
     @Value("${verify.token.expiry-ms:86400000}")
     private int verifyTokenExpiryMs;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OutboundHttpClients outboundHttpClients;
 
     @Override
     @SuppressWarnings("unchecked")
     public VerifyTokenResponse verifyHuman(VerifyTokenRequest request) {
-        String url = "https://challenges.cloudflare.com/turnstile/v0/siteverify";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
         MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
         body.add("secret", turnstileSecretKey);
         body.add("response", request.getToken());
 
-        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(body, headers);
+        Map<String, Object> response;
+        try {
+            response = outboundHttpClients.restClient(OutboundHttpClients.TURNSTILE).post()
+                    .uri(SITE_VERIFY_URL)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .body(body)
+                    .retrieve()
+                    .body(Map.class);
+        } catch (OutboundCircuitOpenException | OutboundHttpLimitException e) {
+            // Fail closed: no token is issued while Turnstile cannot be reached
+            throw new ServiceUnavailableException("Human verification is temporarily unavailable, try again shortly");
+        }
+
+        return issueToken(response);
+    }
 
-        Map<String, Object> response = restTemplate.postForObject(url, entity, Map.class);
+    // Turnstile's answer is only checked and signed, so the whole exchange runs on the HttpClient's threads
+    @Override
+    public CompletableFuture<VerifyTokenResponse> verifyHumanAsync(VerifyTokenRequest request) {
+        String form = "secret=" + URLEncoder.encode(turnstileSecretKey, StandardCharsets.UTF_8)
+                + "&response=" + URLEncoder.encode(String.valueOf(request.getToken()), StandardCharsets.UTF_8);
+        HttpRequest siteVerify = HttpRequest.newBuilder(URI.create(SITE_VERIFY_URL))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return outboundHttpClients.get(OutboundHttpClients.TURNSTILE).sendAsyncForJson(siteVerify)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return issueToken(response);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof OutboundCircuitOpenException || cause instanceof OutboundHttpLimitException) {
+                        throw new ServiceUnavailableException("Human verification is temporarily unavailable, try again shortly");
+                    }
+                    throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+                });
+    }
 
+    private VerifyTokenResponse issueToken(Map<String, Object> response) {
         if (response != null && Boolean.TRUE.equals(response.get("success"))) {
             HumanVerifyTokenUtil util = new HumanVerifyTokenUtil(verifyTokenSecret, verifyTokenExpiryMs);
             String jwt = util.generateToken();
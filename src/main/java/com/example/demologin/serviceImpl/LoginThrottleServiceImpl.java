@@ -0,0 +1,196 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.exception.exceptions.TooManyRequestsException;
+import com.example.demologin.service.LoginThrottleService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory failed-login throttle, checked before the password is hashed. Failures are counted per username and
+ * per client IP in a sliding window (the previous fixed window weighted by its remaining overlap plus the current
+ * one). Reaching the limit locks the key out, for twice as long on each repeat up to max-lockout-ms.
+ * <p>
+ * Counters live in striped, access-ordered maps so concurrent logins rarely share a lock, and each stripe evicts
+ * its least recently used key past max-entries / stripes. A flood of fresh usernames can push an idle lockout
+ * out early, but the same flood runs into its own IP limit first.
+ * <p>
+ * The IP limit only holds as long as the caller cannot choose its IP: callers pass the connection's remote
+ * address, which behind a proxy is resolved from forwarding headers of trusted proxies only
+ * (server.forward-headers-strategy=native). An attacker spread over many real addresses still gets the limit
+ * per address and can evict other keys.
+ */
+@Service
+@Slf4j
+public class LoginThrottleServiceImpl implements LoginThrottleService {
+
+    private static final String UNKNOWN_IP = "unknown";
+
+    @Value("${security.login-throttle.window-ms:900000}")
+    private long windowMs;
+
+    @Value("${security.login-throttle.max-failures-per-username:5}")
+    private int maxFailuresPerUsername;
+
+    @Value("${security.login-throttle.max-failures-per-ip:20}")
+    private int maxFailuresPerIp;
+
+    @Value("${security.login-throttle.base-lockout-ms:60000}")
+    private long baseLockoutMs;
+
+    @Value("${security.login-throttle.max-lockout-ms:3600000}")
+    private long maxLockoutMs;
+
+    @Value("${security.login-throttle.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${security.login-throttle.stripes:64}")
+    private int stripeCount;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private Stripe[] stripes;
+
+    private static final class Counter {
+        private long windowStart;
+        private int current;
+        private int previous;
+        private int lockouts;
+        private long lockedUntil;
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Counter> {
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Counter> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        int count = Math.max(1, stripeCount);
+        int capacity = Math.max(1, maxEntries / count);
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    @Override
+    public void checkAllowed(String username, String clientIp) {
+        long now = clock.getAsLong();
+        long wait = Math.max(lockedFor(usernameKey(username), now), lockedFor(ipKey(clientIp), now));
+        if (wait > 0) {
+            throw new TooManyRequestsException("Too many failed login attempts, try again in "
+                    + Math.max(1, (wait + 999) / 1000) + " seconds");
+        }
+    }
+
+    @Override
+    public void recordFailure(String username, String clientIp) {
+        long now = clock.getAsLong();
+        fail(usernameKey(username), maxFailuresPerUsername, now);
+        fail(ipKey(clientIp), maxFailuresPerIp, now);
+    }
+
+    @Override
+    public void recordSuccess(String username, String clientIp) {
+        String key = usernameKey(username);
+        if (key != null) {
+            Stripe stripe = stripeFor(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+    }
+
+    int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size();
+            }
+        }
+        return total;
+    }
+
+    private long lockedFor(String key, long now) {
+        if (key == null) {
+            return 0;
+        }
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Counter counter = stripe.get(key);
+            return counter != null ? counter.lockedUntil - now : 0;
+        }
+    }
+
+    private void fail(String key, int maxFailures, long now) {
+        if (key == null) {
+            return;
+        }
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Counter counter = stripe.computeIfAbsent(key, k -> {
+                Counter created = new Counter();
+                created.windowStart = now;
+                return created;
+            });
+            // Lockout history is forgotten after a quiet spell as long as the longest lockout
+            if (counter.lockouts > 0 && now - counter.lockedUntil > maxLockoutMs) {
+                counter.lockouts = 0;
+            }
+            roll(counter, now);
+            counter.current++;
+            double elapsed = (double) (now - counter.windowStart) / windowMs;
+            double failures = counter.previous * (1 - elapsed) + counter.current;
+            if (failures >= maxFailures) {
+                long lockout = Math.min(maxLockoutMs, baseLockoutMs << Math.min(counter.lockouts, 30));
+                counter.lockedUntil = now + lockout;
+                counter.lockouts++;
+                counter.current = 0;
+                counter.previous = 0;
+                log.info("Login throttle locked {} for {} ms (lockout #{})", key, lockout, counter.lockouts);
+            }
+        }
+    }
+
+    private void roll(Counter counter, long now) {
+        long windows = (now - counter.windowStart) / windowMs;
+        if (windows >= 2) {
+            counter.previous = 0;
+            counter.current = 0;
+            counter.windowStart = now;
+        } else if (windows == 1) {
+            counter.previous = counter.current;
+            counter.current = 0;
+            counter.windowStart += windowMs;
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    private static String usernameKey(String username) {
+        return username == null || username.isBlank() ? null : "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String ipKey(String clientIp) {
+        return clientIp == null || clientIp.isBlank() || UNKNOWN_IP.equalsIgnoreCase(clientIp) ? null : "ip:" + clientIp;
+    }
+}
@@ -7,6 +7,7 @@ import com.example.demologin.dto.request.PermissionRequest;
 import com.example.demologin.dto.response.PermissionResponse;
 import com.example.demologin.mapper.PermissionMapper;
 import com.example.demologin.service.PermissionService;
+import com.example.demologin.service.RolePermissionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.util.List;
@@ -17,6 +18,8 @@ public class PermissionServiceImpl implements PermissionService {
     
     private final PermissionRepository permissionRepository;
     private final PermissionMapper permissionMapper;
+    // Authentication reads role names and permissions from its in-memory copy
+    private final RolePermissionService rolePermissionService;
 
     @Override
     public List<PermissionResponse> getAll() {
@@ -32,6 +35,7 @@ public class PermissionServiceImpl implements PermissionService {
         Permission p = permissionRepository.findById(id).orElseThrow(() -> new NotFoundException("Permission with id " + id + " not found"));
         permissionMapper.updateEntityFromDto(req, p);
         Permission updatedPermission = permissionRepository.save(p);
+        rolePermissionService.refreshRoles();
         return permissionMapper.toResponse(updatedPermission);
     }
 } 
@@ -5,20 +5,26 @@ import com.example.demologin.entity.Role;
 import com.example.demologin.repository.RoleRepository;
 
 import com.example.demologin.service.RolePermissionService;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class RolePermissionServiceImpl implements RolePermissionService {
     private final RoleRepository roleRepository;
 
+    private record RoleGrant(String name, Set<String> permissionCodes) {
+    }
+
+    private volatile Map<Long, RoleGrant> rolesById;
+
     @Override
     @SmartCache
     public Set<String> getPermissionsForRoles(Set<String> roleNames) {
@@ -39,4 +45,59 @@ public class RolePermissionServiceImpl implements RolePermissionService {
 
 
     }
+
+    @Override
+    public Set<String> getRoleNamesForRoleIds(Collection<Long> roleIds) {
+        Map<Long, RoleGrant> roles = roles();
+        Set<String> names = new HashSet<>();
+        for (Long roleId : roleIds) {
+            RoleGrant grant = roles.get(roleId);
+            if (grant != null) {
+                names.add(grant.name());
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public Set<String> getAuthoritiesForRoleIds(Collection<Long> roleIds) {
+        Map<Long, RoleGrant> roles = roles();
+        Set<String> authorities = new HashSet<>();
+        for (Long roleId : roleIds) {
+            RoleGrant grant = roles.get(roleId);
+            if (grant != null) {
+                authorities.add(grant.name());
+                authorities.addAll(grant.permissionCodes());
+            }
+        }
+        return authorities;
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${security.rbac.refresh-interval-ms:60000}",
+            fixedDelayString = "${security.rbac.refresh-interval-ms:60000}")
+    public void refreshRoles() {
+        Map<Long, RoleGrant> roles = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            Set<String> codes = role.getPermissions() == null ? Set.of() : role.getPermissions().stream()
+                    .map(permission -> permission.getCode())
+                    .collect(Collectors.toUnmodifiableSet());
+            roles.put(role.getId(), new RoleGrant(role.getName(), codes));
+        }
+        rolesById = Map.copyOf(roles);
+        log.debug("Loaded {} roles into the RBAC cache", roles.size());
+    }
+
+    private Map<Long, RoleGrant> roles() {
+        Map<Long, RoleGrant> roles = rolesById;
+        if (roles == null) {
+            synchronized (this) {
+                if (rolesById == null) {
+                    refreshRoles();
+                }
+                roles = rolesById;
+            }
+        }
+        return roles;
+    }
 }
@@ -10,6 +10,7 @@ import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.RoleMapper;
 import com.example.demologin.repository.RoleRepository;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.service.RolePermissionService;
 import com.example.demologin.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,8 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
     private final UserRepository userRepository;
+    // Authentication reads role names and permissions from its in-memory copy
+    private final RolePermissionService rolePermissionService;
 
     @Override
     public List<RoleResponse> getAll() {
@@ -41,6 +44,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = new Role();
         roleMapper.fromCreateDto(req, role);
         Role savedRole = roleRepository.save(role);
+        rolePermissionService.refreshRoles();
         return roleMapper.toResponse(savedRole);
     }
 
@@ -50,6 +54,7 @@ public class RoleServiceImpl implements RoleService {
                 .orElseThrow(() -> new NotFoundException("Role with id " + id + " not found"));
         roleMapper.fromUpdateDto(req, r);
         Role updatedRole = roleRepository.save(r);
+        rolePermissionService.refreshRoles();
         return roleMapper.toResponse(updatedRole);
     }
 
@@ -63,6 +68,7 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepository.delete(r);
+        rolePermissionService.refreshRoles();
     }
 
     @Override
@@ -70,6 +76,7 @@ public class RoleServiceImpl implements RoleService {
         Role r = roleRepository.findById(id).orElseThrow(() -> new NotFoundException("Role with id " + id + " not found"));
         roleMapper.fromPermissionDto(req, r);
         Role updatedRole = roleRepository.save(r);
+        rolePermissionService.refreshRoles();
         return roleMapper.toResponse(updatedRole);
     }
 
@@ -5,14 +5,17 @@ import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.RefreshTokenRepository;
 import com.example.demologin.repository.UserActivityLogRepository;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.SessionManagementService;
 import com.example.demologin.service.TokenVersionService;
 import com.example.demologin.utils.AccountUtils;
 import com.example.demologin.utils.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Date;
 
@@ -27,6 +30,10 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     private final JwtUtil jwtUtil;
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserActivityLogRepository userActivityLogReppsitory;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${activity-log.delete.chunk-size:1000}")
+    private int deleteChunkSize;
 
     @Override
     @Transactional
@@ -41,19 +48,21 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         // Revoke access token trong memory
         jwtUtil.revokeToken(jti, expiryDate);
 
-        log.info("User {} logged out from current device", accountUtils.getCurrentUser().getUsername());
+        log.info("User {} logged out from current device", accountUtils.getCurrentPrincipal().getUsername());
     }
 
 
     @Override
-    @Transactional
     public void logoutFromAllDevices() {
-        User currentUser = accountUtils.getCurrentUser();
+        AuthPrincipal currentUser = accountUtils.getCurrentPrincipal();
         log.info("User {} logging out from all devices", currentUser.getUsername());
-        refreshTokenRepository.deleteByUser(currentUser);
-        // Invalidate all tokens by incrementing token version
-        tokenVersionService.incrementTokenVersionByUserId(currentUser.getUserId());
-        userActivityLogReppsitory.deleteByUserId(currentUser.getUserId());
+        transactionTemplate.executeWithoutResult(status -> {
+            refreshTokenRepository.deleteByUser(userRepository.getReferenceById(currentUser.getUserId()));
+            // Invalidate all tokens by incrementing token version
+            tokenVersionService.incrementTokenVersionByUserId(currentUser.getUserId());
+        });
+        // After the tokens are committed and outside any transaction, so each chunk commits on its own
+        userActivityLogReppsitory.deleteByUserIdInChunks(currentUser.getUserId(), deleteChunkSize);
     }
     
     @Override
@@ -62,7 +71,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         User targetUser = userRepository.findById(userId)
             .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
         
-        User adminUser = accountUtils.getCurrentUser();
+        AuthPrincipal adminUser = accountUtils.getCurrentPrincipal();
         log.info("Admin {} force logging out user {} from all devices", 
                 adminUser.getUsername(), targetUser.getUsername());
         
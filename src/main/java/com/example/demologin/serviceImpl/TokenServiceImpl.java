@@ -3,7 +3,8 @@ package com.example.demologin.serviceImpl;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.exception.exceptions.ValidationException;
-import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.AuthPrincipalService;
 import com.example.demologin.service.TokenService;
 import com.example.demologin.utils.JwtUtil;
 import lombok.AllArgsConstructor;
@@ -24,7 +25,7 @@ public class TokenServiceImpl implements TokenService {
     private final JwtUtil jwtUtil;
     
 
-    private final UserRepository userRepository;
+    private final AuthPrincipalService authPrincipalService;
 
     @Override
     public String generateTokenForUser(User user) {
@@ -32,7 +33,14 @@ public class TokenServiceImpl implements TokenService {
         return jwtUtil.generateToken(user);
     }
 
-    public User getUserByToken(String token) {
+    @Override
+    public String generateTokenForPrincipal(AuthPrincipal principal) {
+        log.debug("Generating token for user: {}", principal.getUsername());
+        return jwtUtil.generateToken(principal);
+    }
+
+    @Override
+    public AuthPrincipal getPrincipalByToken(String token) {
         try {
             String userIdStr = jwtUtil.extractUsername(token); // vẫn dùng method cũ, nhưng thực chất đang lấy subject
             if (userIdStr == null || userIdStr.trim().isEmpty()) {
@@ -41,7 +49,7 @@ public class TokenServiceImpl implements TokenService {
 
             Long userId = Long.parseLong(userIdStr);
 
-            return userRepository.findById(userId)
+            return authPrincipalService.findById(userId)
                     .orElseThrow(() -> new NotFoundException("User not found with id: " + userId));
         } catch (Exception e) {
             log.warn("Failed to extract user from token: {}", e.getMessage());
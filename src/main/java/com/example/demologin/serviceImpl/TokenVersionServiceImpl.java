@@ -4,6 +4,7 @@ import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.TokenVersionService;
 import com.example.demologin.utils.AccountUtils;
 import lombok.RequiredArgsConstructor;
@@ -115,8 +116,8 @@ public class TokenVersionServiceImpl implements TokenVersionService {
     // Business logic methods for controllers
     @Override
     public ResponseEntity<ResponseObject> incrementCurrentUserTokenVersion() {
-        User currentUser = accountUtils.getCurrentUser();
-        User updatedUser = incrementTokenVersion(currentUser);
+        AuthPrincipal currentUser = accountUtils.getCurrentPrincipal();
+        User updatedUser = incrementTokenVersionByUserId(currentUser.getUserId());
 
         Map<String, Object> data = Map.of(
                 "username", updatedUser.getUsername(),
@@ -131,7 +132,7 @@ public class TokenVersionServiceImpl implements TokenVersionService {
 
     @Override
     public ResponseEntity<ResponseObject> incrementUserTokenVersionByUserId(Long userId) {
-        User adminUser = accountUtils.getCurrentUser();
+        AuthPrincipal adminUser = accountUtils.getCurrentPrincipal();
         User updatedUser = incrementTokenVersionByUserId(userId);
 
         Map<String, Object> data = Map.of(
@@ -148,7 +149,7 @@ public class TokenVersionServiceImpl implements TokenVersionService {
 
     @Override
     public ResponseEntity<ResponseObject> getCurrentUserTokenVersion() {
-        User currentUser = accountUtils.getCurrentUser();
+        AuthPrincipal currentUser = accountUtils.getCurrentPrincipal();
 
         Map<String, Object> data = Map.of(
                 "username", currentUser.getUsername(),
@@ -1,24 +1,38 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.archive.ActivityLogArchive;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.dto.response.CursorPageResponse;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.entity.User;
 import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.BadRequestException;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.UserActivityLogMapper;
 import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserActivityLogSpecifications;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.UserActivityLogService;
 import com.example.demologin.utils.AccountUtils;
+import com.example.demologin.utils.ActivityLogCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +42,10 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     private final UserActivityLogRepository userActivityLogRepository;
     private final UserActivityLogMapper userActivityLogMapper;
     private final AccountUtils accountUtils;
+    private final UserRepository userRepository;
+    private final ActivityLogArchive activityLogArchive;
+
+    private static final Set<String> FILTER_SORT_FIELDS = Set.of("timestamp", "id", "activityType", "status", "userId");
 
     @Override
     @Transactional
@@ -52,7 +70,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     public Page<UserActivityLogResponse> getAllActivityLogs(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<UserActivityLog> logs = userActivityLogRepository.findAll(pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found");
@@ -71,7 +89,8 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     public Page<UserActivityLogResponse> getActivityLogsByUserId(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<UserActivityLog> logs = userActivityLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Page<UserActivityLogResponse> mappedLogs = withArchive(userActivityLogMapper.toResponsePage(logs),
+                ActivityLogArchive.Query.byUser(userId));
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found for user ID: " + userId);
@@ -85,7 +104,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
             ActivityType type = ActivityType.valueOf(activityType.toUpperCase());
             Pageable pageable = PageRequest.of(page, size);
             Page<UserActivityLog> logs = userActivityLogRepository.findByActivityTypeOrderByTimestampDesc(type, pageable);
-            Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+            Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
             
             if (mappedLogs.getContent().isEmpty()) {
                 throw new NotFoundException("No activity logs found for activity type: " + activityType);
@@ -100,7 +119,8 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     public Page<UserActivityLogResponse> getActivityLogsByDateRange(LocalDateTime startTime, LocalDateTime endTime, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<UserActivityLog> logs = userActivityLogRepository.findByTimestampBetween(startTime, endTime, pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Page<UserActivityLogResponse> mappedLogs = withArchive(userActivityLogMapper.toResponsePage(logs),
+                ActivityLogArchive.Query.between(startTime, endTime));
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found for the specified date range");
@@ -110,12 +130,10 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
 
     @Override
     public Page<UserActivityLogResponse> exportActivityLogs(UserActivityLogExportRequest request, int page, int size) {
-        // Build dynamic query based on request filters
-        Pageable pageable = PageRequest.of(page, size);
-        
-        // For now, export all - you can add filtering logic based on request
-        Page<UserActivityLog> logs = userActivityLogRepository.findAll(pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp", "id"));
+        Page<UserActivityLog> logs = userActivityLogRepository.findAll(
+                UserActivityLogSpecifications.matching(request), pageable);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found for export");
@@ -123,6 +141,31 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
         return mappedLogs;
     }
 
+    @Override
+    public Page<UserActivityLogResponse> filterActivityLogs(UserActivityLogFilterRequest filter) {
+        if (filter.getUsername() != null && !filter.getUsername().isBlank() && filter.getUserId() == null) {
+            User user = userRepository.findByUsername(filter.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found with username: " + filter.getUsername()));
+            filter.setUserId(user.getUserId());
+        }
+
+        String sortBy = filter.getSortBy() != null ? filter.getSortBy() : "timestamp";
+        if (!FILTER_SORT_FIELDS.contains(sortBy)) {
+            throw new BadRequestException("Unsupported sort field: " + sortBy);
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(filter.getSortDirection()).orElse(Sort.Direction.DESC);
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+
+        Pageable pageable = PageRequest.of(filter.getPage(), filter.getSize(), sort);
+        Page<UserActivityLog> logs = userActivityLogRepository.findAll(UserActivityLogSpecifications.matching(filter), pageable);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
+
+        if (mappedLogs.getContent().isEmpty()) {
+            throw new NotFoundException("No activity logs found matching the filters");
+        }
+        return mappedLogs;
+    }
+
     @Override
     public String deleteActivityLog(Long id) {
         UserActivityLog log = userActivityLogRepository.findById(id)
@@ -134,7 +177,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
 
     @Override
     public Page<UserActivityLogResponse> getMyLoginHistory(int page, int size) {
-        User currentUser = accountUtils.getCurrentUser();
+        AuthPrincipal currentUser = accountUtils.getCurrentPrincipal();
         
         if (currentUser == null) {
             throw new NotFoundException("Current user not found");
@@ -152,6 +195,127 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
             throw new NotFoundException("No login history found for current user");
         }
         
-        return loginLogs.map(userActivityLogMapper::toResponse);
+        return userActivityLogMapper.toResponsePage(loginLogs);
+    }
+
+    @Override
+    public CursorPageResponse<UserActivityLogResponse> getAllActivityLogsAfter(String cursor, int size) {
+        return seek(cursor, size,
+                (after, pageable) -> after == null
+                        ? userActivityLogRepository.findAllByOrderByTimestampDescIdDesc(pageable)
+                        : userActivityLogRepository.findAllBefore(after.timestamp(), after.id(), pageable),
+                null,
+                "No activity logs found");
+    }
+
+    @Override
+    public CursorPageResponse<UserActivityLogResponse> getActivityLogsByUserIdAfter(Long userId, String cursor, int size) {
+        return seek(cursor, size,
+                (after, pageable) -> after == null
+                        ? userActivityLogRepository.findByUserIdOrderByTimestampDescIdDesc(userId, pageable)
+                        : userActivityLogRepository.findByUserIdBefore(userId, after.timestamp(), after.id(), pageable),
+                ActivityLogArchive.Query.byUser(userId),
+                "No activity logs found for user ID: " + userId);
+    }
+
+    @Override
+    public CursorPageResponse<UserActivityLogResponse> getActivityLogsByTypeAfter(String activityType, String cursor, int size) {
+        ActivityType type;
+        try {
+            type = ActivityType.valueOf(activityType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException("Invalid activity type: " + activityType);
+        }
+        return seek(cursor, size,
+                (after, pageable) -> after == null
+                        ? userActivityLogRepository.findByActivityTypeOrderByTimestampDescIdDesc(type, pageable)
+                        : userActivityLogRepository.findByActivityTypeBefore(type, after.timestamp(), after.id(), pageable),
+                null,
+                "No activity logs found for activity type: " + activityType);
+    }
+
+    @Override
+    public CursorPageResponse<UserActivityLogResponse> getActivityLogsByDateRangeAfter(LocalDateTime startTime, LocalDateTime endTime, String cursor, int size) {
+        return seek(cursor, size,
+                (after, pageable) -> after == null
+                        ? userActivityLogRepository.findByTimestampBetweenOrderByTimestampDescIdDesc(startTime, endTime, pageable)
+                        : userActivityLogRepository.findByTimestampBetweenBefore(startTime, endTime, after.timestamp(), after.id(), pageable),
+                ActivityLogArchive.Query.between(startTime, endTime),
+                "No activity logs found for the specified date range");
+    }
+
+    @Override
+    public CursorPageResponse<UserActivityLogResponse> getMyLoginHistoryAfter(String cursor, int size) {
+        AuthPrincipal currentUser = accountUtils.getCurrentPrincipal();
+
+        if (currentUser == null) {
+            throw new NotFoundException("Current user not found");
+        }
+
+        Long userId = currentUser.getUserId();
+        return seek(cursor, size,
+                (after, pageable) -> after == null
+                        ? userActivityLogRepository.findByUserIdAndActivityTypeOrderByTimestampDescIdDesc(
+                                userId, ActivityType.LOGIN_ATTEMPT, pageable)
+                        : userActivityLogRepository.findByUserIdAndActivityTypeBefore(
+                                userId, ActivityType.LOGIN_ATTEMPT, after.timestamp(), after.id(), pageable),
+                null,
+                "No login history found for current user");
+    }
+
+    /**
+     * Fetch one keyset page. Reads size + 1 rows to know whether another page exists, so no COUNT query is needed.
+     * When the database runs out of rows before that, the page continues into the archive.
+     */
+    private CursorPageResponse<UserActivityLogResponse> seek(String cursor, int size,
+                                                             BiFunction<ActivityLogCursor, Pageable, List<UserActivityLog>> query,
+                                                             ActivityLogArchive.Query archiveQuery,
+                                                             String notFoundMessage) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        ActivityLogCursor after = ActivityLogCursor.decode(cursor);
+        List<UserActivityLog> logs = query.apply(after, PageRequest.of(0, size + 1));
+        List<UserActivityLogResponse> responses = new ArrayList<>(userActivityLogMapper.toResponseList(
+                logs.size() > size ? logs.subList(0, size) : logs));
+        boolean hasNext = logs.size() > size;
+
+        if (!hasNext && archiveQuery != null) {
+            responses.addAll(activityLogArchive.find(archiveQuery, after, 0, size + 1 - responses.size()));
+            responses.sort(ActivityLogArchive.NEWEST_FIRST);
+            hasNext = responses.size() > size;
+            if (hasNext) {
+                responses = responses.subList(0, size);
+            }
+        }
+
+        if (responses.isEmpty() && after == null) {
+            throw new NotFoundException(notFoundMessage);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserActivityLogResponse last = responses.get(responses.size() - 1);
+            nextCursor = new ActivityLogCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(responses, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Continue an offset page from the database into the archive. Archived rows are older than everything left in
+     * the table, so the archive simply follows the database rows and the total is the sum of both.
+     */
+    private Page<UserActivityLogResponse> withArchive(Page<UserActivityLogResponse> page, ActivityLogArchive.Query archiveQuery) {
+        long archived = activityLogArchive.count(archiveQuery);
+        if (archived == 0) {
+            return page;
+        }
+        Pageable pageable = page.getPageable();
+        List<UserActivityLogResponse> content = new ArrayList<>(page.getContent());
+        if (content.size() < pageable.getPageSize()) {
+            long archiveOffset = Math.max(0, pageable.getOffset() - page.getTotalElements());
+            content.addAll(activityLogArchive.find(archiveQuery, null, archiveOffset, pageable.getPageSize() - content.size()));
+        }
+        return new PageImpl<>(content, pageable, page.getTotalElements() + archived);
     }
 }
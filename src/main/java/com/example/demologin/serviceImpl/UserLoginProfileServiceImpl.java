@@ -0,0 +1,258 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserLoginProfile;
+import com.example.demologin.repository.UserLoginProfileRepository;
+import com.example.demologin.service.UserLoginProfileService;
+import com.example.demologin.utils.UserAgentUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Per-user login profile of recently seen countries and device fingerprints, so a login from a new country or
+ * device is recognized with one map lookup instead of a query over the user's history. Profiles are cached in
+ * memory, loaded by primary key on a miss, and written back by a scheduled flush once changed. Beyond the cache size
+ * the least recently used profiles that have been saved are dropped; unsaved ones stay until a flush has saved them.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserLoginProfileServiceImpl implements UserLoginProfileService {
+
+    private final UserLoginProfileRepository userLoginProfileRepository;
+
+    // Countries and devices kept per user; the least recently seen is dropped beyond this
+    @Value("${activity-log.login-profile.max-entries:10}")
+    private int maxEntries;
+
+    @Value("${activity-log.login-profile.cache-size:10000}")
+    private int cacheSize;
+
+    // Access-ordered, so the eldest entries are the least recently used. Both maps, and the profiles in them, are
+    // guarded by the lock on profiles; the database is only read and written outside it
+    private final LinkedHashMap<Long, Profile> profiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Profile> unsaved = new HashMap<>();
+
+    private static final class Profile {
+        private final Map<String, Long> countries = new LinkedHashMap<>();
+        private final Map<String, Long> devices = new LinkedHashMap<>();
+        private LocalDateTime lastLoginAt;
+        // Bumped on every change, so a flush can tell whether it saved the latest state
+        private long version;
+    }
+
+    @Override
+    public boolean recordDevice(Long userId, String userAgent, LocalDateTime timestamp) {
+        if (userId == null || timestamp == null) {
+            return false;
+        }
+        return record(userId, profile -> profile.devices, deviceHash(userAgent), timestamp);
+    }
+
+    @Override
+    public boolean recordCountry(Long userId, String countryCode, LocalDateTime timestamp) {
+        if (userId == null || timestamp == null || !isCountryCode(countryCode)) {
+            return false;
+        }
+        return record(userId, profile -> profile.countries, countryCode, timestamp);
+    }
+
+    @Override
+    public Set<Long> findNewCountries(List<CountryLogin> logins) {
+        // Checked against copies of the profiles, so earlier logins in the list count as recorded
+        Map<Long, Map<String, Long>> countriesByUser = new HashMap<>();
+        Set<Long> newCountries = new HashSet<>();
+        for (CountryLogin login : logins) {
+            if (login.userId() == null || login.timestamp() == null || !isCountryCode(login.countryCode())) {
+                continue;
+            }
+            Map<String, Long> seen = countriesByUser.computeIfAbsent(login.userId(), this::copyOfCountries);
+            if (add(seen, login.countryCode(), login.timestamp())) {
+                newCountries.add(login.logId());
+            }
+        }
+        return newCountries;
+    }
+
+    // Only real ISO codes; "Unknown" and "LOCAL" say nothing about where the user is
+    private static boolean isCountryCode(String countryCode) {
+        return countryCode != null && countryCode.matches("[A-Z]{2}");
+    }
+
+    private Map<String, Long> copyOfCountries(Long userId) {
+        return withProfile(userId, profile -> new LinkedHashMap<>(profile.countries));
+    }
+
+    // The update and its unsaved mark happen under one lock, so eviction never drops a changed profile
+    private boolean record(Long userId, Function<Profile, Map<String, Long>> entries,
+                           String key, LocalDateTime timestamp) {
+        return withProfile(userId, profile -> {
+            boolean isNew = update(profile, entries.apply(profile), key, timestamp);
+            unsaved.put(userId, profile);
+            return isNew;
+        });
+    }
+
+    // Runs the action on the cached profile under the lock, loading the profile outside it on a miss
+    private <T> T withProfile(Long userId, Function<Profile, T> action) {
+        Profile loaded = null;
+        while (true) {
+            synchronized (profiles) {
+                Profile profile = profiles.get(userId);
+                if (profile == null && loaded != null) {
+                    profile = loaded;
+                    profiles.put(userId, profile);
+                    evictSaved();
+                }
+                if (profile != null) {
+                    return action.apply(profile);
+                }
+            }
+            loaded = userLoginProfileRepository.findById(userId).map(this::decode).orElseGet(Profile::new);
+        }
+    }
+
+    // Walks from the least recently used end and stops once back at the cache size, usually after one entry
+    private void evictSaved() {
+        Iterator<Long> eldest = profiles.keySet().iterator();
+        while (profiles.size() > cacheSize && eldest.hasNext()) {
+            if (!unsaved.containsKey(eldest.next())) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private boolean update(Profile profile, Map<String, Long> seen, String key, LocalDateTime timestamp) {
+        boolean isNew = add(seen, key, timestamp);
+        if (profile.lastLoginAt == null || timestamp.isAfter(profile.lastLoginAt)) {
+            profile.lastLoginAt = timestamp;
+        }
+        profile.version++;
+        return isNew;
+    }
+
+    private boolean add(Map<String, Long> seen, String key, LocalDateTime timestamp) {
+        // The first entry of a profile is the baseline, not an anomaly
+        boolean isNew = !seen.isEmpty() && !seen.containsKey(key);
+        seen.merge(key, timestamp.toEpochSecond(ZoneOffset.UTC), Math::max);
+        if (seen.size() > maxEntries) {
+            seen.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .ifPresent(seen::remove);
+        }
+        return isNew;
+    }
+
+    /**
+     * Saves each changed profile, then marks it saved only if it has not changed since. A profile therefore stays
+     * unsaved, and cannot be evicted, until its latest state is in the database.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${activity-log.login-profile.flush-interval-ms:5000}")
+    public void flushProfiles() {
+        List<Map.Entry<Long, Profile>> changed;
+        synchronized (profiles) {
+            changed = List.copyOf(unsaved.entrySet());
+        }
+        int flushed = 0;
+        for (Map.Entry<Long, Profile> entry : changed) {
+            Long userId = entry.getKey();
+            Profile profile = entry.getValue();
+            long version;
+            UserLoginProfile row;
+            synchronized (profiles) {
+                version = profile.version;
+                row = encode(userId, profile);
+            }
+            try {
+                userLoginProfileRepository.save(row);
+                flushed++;
+            } catch (Exception e) {
+                log.warn("Failed to save login profile of user {}: {}", userId, e.getMessage());
+                continue;
+            }
+            synchronized (profiles) {
+                if (profile.version == version) {
+                    unsaved.remove(userId, profile);
+                }
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Flushed {} login profiles", flushed);
+        }
+    }
+
+    private UserLoginProfile encode(Long userId, Profile profile) {
+        return UserLoginProfile.builder()
+                .userId(userId)
+                .countries(join(profile.countries))
+                .devices(join(profile.devices))
+                .lastLoginAt(profile.lastLoginAt)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private Profile decode(UserLoginProfile row) {
+        Profile profile = new Profile();
+        split(row.getCountries(), profile.countries);
+        split(row.getDevices(), profile.devices);
+        profile.lastLoginAt = row.getLastLoginAt();
+        return profile;
+    }
+
+    private static String join(Map<String, Long> entries) {
+        StringJoiner joiner = new StringJoiner(",");
+        entries.forEach((key, lastSeen) -> joiner.add(key + ":" + lastSeen));
+        return joiner.toString();
+    }
+
+    private static void split(String value, Map<String, Long> entries) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        for (String entry : value.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                try {
+                    entries.put(entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1)));
+                } catch (NumberFormatException e) {
+                    log.debug("Skipping malformed login profile entry {}", entry);
+                }
+            }
+        }
+    }
+
+    // Browser, OS and device without the browser version, so updating the browser is not a new device
+    static String deviceHash(String userAgent) {
+        UserAgentUtil.DeviceInfo device = UserAgentUtil.parseUserAgent(userAgent);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String value : new String[]{device.getBrowser(), device.getOperatingSystem(), device.getDevice(), device.getDeviceType()}) {
+                digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0x1F);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demologin.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters summary: at most {@code capacity} counters, the smallest of which is taken over by
+ * a new item. Every item seen more than total / capacity times is kept, and a kept count overestimates the true
+ * count by at most its error. With fewer distinct items than counters the counts are exact.
+ */
+public final class SpaceSaving {
+
+    private static final byte VERSION = 1;
+
+    public record Entry(String item, long count, long error) {
+    }
+
+    private static final class Counter {
+        private long count;
+        private long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String item) {
+        offer(item, 1);
+    }
+
+    public synchronized void offer(String item, long increment) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += increment;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(increment, 0));
+            return;
+        }
+        // The new item may have been seen up to min times before and evicted, hence min becomes its error
+        String minItem = null;
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (entry.getValue().count < min) {
+                min = entry.getValue().count;
+                minItem = entry.getKey();
+            }
+        }
+        counters.remove(minItem);
+        counters.put(item, new Counter(min + increment, min));
+    }
+
+    public synchronized List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((item, counter) -> entries.add(new Entry(item, counter.count, counter.error)));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::item));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Fold another summary into this one. An item missing from a full summary may have been counted there up to
+     * that summary's minimum, which is added to its count and error as Space-Saving does on eviction.
+     */
+    public synchronized void merge(SpaceSaving other) {
+        List<Entry> theirs = other.top(Integer.MAX_VALUE);
+        long theirMin = theirs.size() >= other.capacity ? theirs.get(theirs.size() - 1).count() : 0;
+        long ourMin = counters.size() >= capacity ? minCount() : 0;
+
+        Map<String, Counter> merged = new HashMap<>(counters.size() + theirs.size());
+        counters.forEach((item, counter) -> merged.put(item, new Counter(counter.count + theirMin, counter.error + theirMin)));
+        for (Entry entry : theirs) {
+            Counter counter = merged.get(entry.item());
+            if (counter != null) {
+                counter.count += entry.count() - theirMin;
+                counter.error += entry.error() - theirMin;
+            } else {
+                merged.put(entry.item(), new Counter(entry.count() + ourMin, entry.error() + ourMin));
+            }
+        }
+
+        counters.clear();
+        merged.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Counter> entry) -> entry.getValue().count).reversed())
+                .limit(capacity)
+                .forEach(entry -> counters.put(entry.getKey(), entry.getValue()));
+    }
+
+    public synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(capacity);
+            out.writeInt(counters.size());
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().count);
+                out.writeLong(entry.getValue().error);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unknown Space-Saving encoding");
+            }
+            SpaceSaving sketch = new SpaceSaving(in.readInt());
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                sketch.counters.put(in.readUTF(), new Counter(in.readLong(), in.readLong()));
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long minCount() {
+        long min = Long.MAX_VALUE;
+        for (Counter counter : counters.values()) {
+            min = Math.min(min, counter.count);
+        }
+        return min;
+    }
+}
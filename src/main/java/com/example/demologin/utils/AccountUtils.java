@@ -4,6 +4,8 @@ import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.InvalidPrincipalTypeException;
 import com.example.demologin.exception.exceptions.UserNotAuthenticatedException;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.AuthPrincipalService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -19,14 +21,42 @@ public class AccountUtils {
 
     private final UserRepository userRepository;
 
-    public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    private final AuthPrincipalService authPrincipalService;
 
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UserNotAuthenticatedException("No authenticated user found");
+    /**
+     * The authenticated principal as the filter stored it; no query for requests authenticated by token.
+     * Prefer this over getCurrentUser() when only id, username or roles are needed.
+     */
+    public AuthPrincipal getCurrentPrincipal() {
+        Object principal = currentPrincipal();
+
+        if (principal instanceof AuthPrincipal authPrincipal) {
+            return authPrincipal;
         }
 
-        Object principal = authentication.getPrincipal();
+        if (principal instanceof User user) {
+            return authPrincipalService.findById(user.getUserId())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + user.getUserId()));
+        }
+
+        if (principal instanceof String username) {
+            return authPrincipalService.findByLogin(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        }
+
+        throw new InvalidPrincipalTypeException("Principal is of unsupported type: " + principal.getClass().getName());
+    }
+
+    /**
+     * The full User entity of the authenticated principal, loaded from the database.
+     */
+    public User getCurrentUser() {
+        Object principal = currentPrincipal();
+
+        if (principal instanceof AuthPrincipal authPrincipal) {
+            return userRepository.findById(authPrincipal.getUserId())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + authPrincipal.getUserId()));
+        }
 
         if (principal instanceof User user) {
             return user;
@@ -40,6 +70,15 @@ public class AccountUtils {
         throw new InvalidPrincipalTypeException("Principal is of unsupported type: " + principal.getClass().getName());
     }
 
+    private Object currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UserNotAuthenticatedException("No authenticated user found");
+        }
+        return authentication.getPrincipal();
+    }
+
     public String getCurrentToken() {
         ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attrs == null) {
@@ -0,0 +1,51 @@
+package com.example.demologin.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size broadcast buffer: one writer side, any number of readers that each keep their own position.
+ * Every item gets a sequence number; a reader asks for sequences in order and gets null once the writer has
+ * lapped it, which is how slow readers are detected. Publishing never waits on readers.
+ */
+public final class BroadcastRing<T> {
+
+    private record Slot<T>(long sequence, T item) {
+    }
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int capacity;
+    private volatile long published = -1;
+
+    public BroadcastRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public synchronized long publish(T item) {
+        long sequence = published + 1;
+        slots.set((int) (sequence % capacity), new Slot<>(sequence, item));
+        published = sequence;
+        return sequence;
+    }
+
+    /** Sequence of the newest item, -1 while empty. */
+    public long published() {
+        return published;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Item with this sequence, or null if it has not been published yet or was already overwritten. */
+    public T get(long sequence) {
+        if (sequence < 0 || sequence > published) {
+            return null;
+        }
+        Slot<T> slot = slots.get((int) (sequence % capacity));
+        return slot != null && slot.sequence() == sequence ? slot.item() : null;
+    }
+}
@@ -47,6 +47,23 @@ public final class IpUtils {
         return remoteAddr != null ? remoteAddr : UNKNOWN;
     }
 
+    /**
+     * The address the connection came from, ignoring client-supplied forwarding headers. Behind a proxy this is
+     * the client only when server.forward-headers-strategy lets the container resolve it from trusted proxies;
+     * use it wherever a spoofed address would matter, such as rate limits.
+     */
+    public static String getRemoteAddress() {
+        ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attr == null) {
+            return UNKNOWN;
+        }
+        String remoteAddr = attr.getRequest().getRemoteAddr();
+        if (LOCALHOST_IPV6.equals(remoteAddr)) {
+            return LOCALHOST_IPV4;
+        }
+        return remoteAddr != null ? remoteAddr : UNKNOWN;
+    }
+
     private static String getHeaderIp(HttpServletRequest request, String header) {
         String ip = request.getHeader(header);
         if (ip != null && !ip.isEmpty()) {
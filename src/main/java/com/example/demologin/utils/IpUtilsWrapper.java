@@ -9,6 +9,10 @@ public class IpUtilsWrapper {
         return IpUtils.getClientIpAddress();
     }
 
+    public String getRemoteAddress() {
+        return IpUtils.getRemoteAddress();
+    }
+
     public String getUserAgent() {
         return IpUtils.getUserAgent();
     }
@@ -4,6 +4,7 @@ import com.example.demologin.entity.RefreshToken;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.TokenValidationException;
 import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.security.AuthPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
@@ -59,16 +60,30 @@ public class JwtUtil {
                 .findTopByUserOrderByExpiryDateDesc(user)
                 .orElse(null);
 
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("tokenVersion", user.getTokenVersion());
-
         // Only store role names, not full objects
         Set<String> roleNames = user.getRoles().stream()
                 .map(role -> role.getName())
                 .collect(Collectors.toSet());
-        claims.put("roles", roleNames);
+        return buildToken(user.getUserId(), user.getTokenVersion(), roleNames, user.getFullName(), latestRefreshToken);
+    }
+
+    /**
+     * Generate JWT token for an authentication principal, without touching the User entity
+     */
+    public String generateToken(AuthPrincipal principal) {
+        RefreshToken latestRefreshToken = refreshTokenRepository
+                .findTopByUserUserIdOrderByExpiryDateDesc(principal.getUserId())
+                .orElse(null);
+        return buildToken(principal.getUserId(), principal.getTokenVersion(), principal.getRoleNames(),
+                principal.getFullName(), latestRefreshToken);
+    }
 
-        claims.put("fullName", user.getFullName());
+    private String buildToken(Long userId, int tokenVersion, Set<String> roleNames, String fullName,
+                              RefreshToken latestRefreshToken) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("tokenVersion", tokenVersion);
+        claims.put("roles", roleNames);
+        claims.put("fullName", fullName);
 
         if (latestRefreshToken != null) {
             claims.put("jti", latestRefreshToken.getJti());
@@ -82,7 +97,7 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .claims(claims)
-                .subject(String.valueOf(user.getUserId()))
+                .subject(String.valueOf(userId))
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs)) // access token exp
                 .signWith(getSigningKey())
@@ -265,6 +280,14 @@ public class JwtUtil {
     }
 
     public boolean validateTokenWithJtiCheck(String token, User user) {
+        return validateTokenWithJtiCheck(token, user.getUserId(), user.getTokenVersion());
+    }
+
+    public boolean validateTokenWithJtiCheck(String token, AuthPrincipal principal) {
+        return validateTokenWithJtiCheck(token, principal.getUserId(), principal.getTokenVersion());
+    }
+
+    private boolean validateTokenWithJtiCheck(String token, Long userId, int userTokenVersion) {
         try {
             Claims claims = extractAllClaims(token);
             String userIdFromToken = claims.getSubject(); // giờ subject là userId
@@ -284,12 +307,12 @@ public class JwtUtil {
                 return false;
             }
 
-            return userIdFromToken.equals(String.valueOf(user.getUserId())) // so sánh theo id
-                    && tokenVersion.equals(user.getTokenVersion())
+            return userIdFromToken.equals(String.valueOf(userId)) // so sánh theo id
+                    && tokenVersion.equals(userTokenVersion)
                     && !isTokenExpired(token);
         } catch (Exception e) {
             log.debug("Token validation with JTI failed for userId {}: {}",
-                    user.getUserId(), e.getMessage());
+                    userId, e.getMessage());
             return false;
         }
     }
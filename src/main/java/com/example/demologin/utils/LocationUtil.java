@@ -3,38 +3,56 @@ package com.example.demologin.utils;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import com.example.demologin.config.CacheConfig;
+import com.example.demologin.http.OutboundHttpClients;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @Component
 public class LocationUtil {
 
+    private static final String CACHE_NAME = CacheConfig.IP_LOCATIONS;
+
     // Primary API: ip-api.com (free, no API key needed, 45 requests/minute)
-    private static final String IP_API_URL = "http://ip-api.com/json/{ip}?fields=status,message,country,countryCode,regionName,city,lat,lon,isp,org,as,query";
+    private static final String IP_API_PATH = "/json/{ip}?fields=status,message,country,countryCode,regionName,city,lat,lon,isp,org,as,query";
+
+    // ip-api.com batch endpoint: up to 100 IPs per request, 15 requests/minute
+    private static final String IP_API_BATCH_PATH = "/batch?fields=status,message,country,countryCode,regionName,city,query";
+    private static final int IP_API_BATCH_LIMIT = 100;
 
     // Fallback API: ipapi.co (free tier available with API key)
-    private static final String IPAPI_CO_URL = "https://ipapi.co/{ip}/json/";
-
-    private final RestTemplate restTemplate;
-
-    public LocationUtil(RestTemplateBuilder restTemplateBuilder) {
-        this.restTemplate = restTemplateBuilder
-                .requestFactory(() -> {
-                    SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-                    factory.setConnectTimeout(Duration.ofMillis(1500));
-                    factory.setReadTimeout(Duration.ofMillis(3000));
-                    return factory;
-                })
-                .build();
+    private static final String IPAPI_CO_PATH = "/{ip}/json/";
+
+    private final RestClient ipApiClient;
+    private final RestClient ipapiCoClient;
+    private final CacheManager cacheManager;
+    private final String ipApiBaseUrl;
+    private final String ipapiCoBaseUrl;
+
+    public LocationUtil(OutboundHttpClients outboundHttpClients,
+                        CacheManager cacheManager,
+                        @Value("${location.ip-api.base-url:http://ip-api.com}") String ipApiBaseUrl,
+                        @Value("${location.ipapi-co.base-url:https://ipapi.co}") String ipapiCoBaseUrl) {
+        this.cacheManager = cacheManager;
+        this.ipApiBaseUrl = ipApiBaseUrl;
+        this.ipapiCoBaseUrl = ipapiCoBaseUrl;
+        this.ipApiClient = outboundHttpClients.restClient(OutboundHttpClients.IP_API);
+        this.ipapiCoClient = outboundHttpClients.restClient(OutboundHttpClients.IPAPI_CO);
     }
 
     @Getter
@@ -47,7 +65,7 @@ public class LocationUtil {
         private String countryCode;
     }
 
-    @Cacheable(value = "ipLocations", unless = "#result.city == null || #result.city.equals('Unknown')")
+    @Cacheable(value = CACHE_NAME, unless = "#result.city == null || #result.city.equals('Unknown')")
     public LocationInfo getLocationFromIP(String ipAddress) {
         if (ipAddress == null || ipAddress.trim().isEmpty()) {
             return unknownLocation();
@@ -73,12 +91,106 @@ public class LocationUtil {
         return unknownLocation();
     }
 
+    /**
+     * Resolves many IPs at once for background enrichment. Duplicates are collapsed,
+     * cached and local IPs never leave the process, and the rest go through the
+     * ip-api.com batch endpoint with a per-IP fallback to ipapi.co.
+     * Results share the "ipLocations" cache with {@link #getLocationFromIP(String)}.
+     */
+    public Map<String, LocationInfo> getLocationsFromIPs(Collection<String> ipAddresses) {
+        Map<String, LocationInfo> locations = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+
+        for (String ipAddress : new LinkedHashSet<>(ipAddresses)) {
+            if (ipAddress == null) {
+                continue;
+            }
+            if (ipAddress.trim().isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
+                locations.put(ipAddress, unknownLocation());
+            } else if (isLocalOrPrivateIP(ipAddress)) {
+                locations.put(ipAddress, localLocation());
+            } else {
+                LocationInfo cached = getCachedLocation(ipAddress);
+                if (cached != null) {
+                    locations.put(ipAddress, cached);
+                } else {
+                    unresolved.add(ipAddress);
+                }
+            }
+        }
+
+        for (int from = 0; from < unresolved.size(); from += IP_API_BATCH_LIMIT) {
+            List<String> chunk = unresolved.subList(from, Math.min(from + IP_API_BATCH_LIMIT, unresolved.size()));
+            locations.putAll(tryIpApiBatch(chunk));
+        }
+
+        for (String ipAddress : unresolved) {
+            LocationInfo locationInfo = locations.get(ipAddress);
+            if (locationInfo == null || "Unknown".equals(locationInfo.getCity())) {
+                locationInfo = tryIpApiCo(ipAddress);
+                locations.put(ipAddress, locationInfo);
+            }
+            cacheLocation(ipAddress, locationInfo);
+        }
+
+        return locations;
+    }
+
+    private LocationInfo getCachedLocation(String ipAddress) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        return cache != null ? cache.get(ipAddress, LocationInfo.class) : null;
+    }
+
+    private void cacheLocation(String ipAddress, LocationInfo locationInfo) {
+        // Same rule as the @Cacheable "unless" condition: never cache misses
+        if (locationInfo.getCity() == null || "Unknown".equals(locationInfo.getCity())) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.put(ipAddress, locationInfo);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, LocationInfo> tryIpApiBatch(List<String> ipAddresses) {
+        Map<String, LocationInfo> locations = new HashMap<>();
+        try {
+            ResponseEntity<List> response = ipApiClient.post()
+                    .uri(ipApiBaseUrl + IP_API_BATCH_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ipAddresses)
+                    .retrieve()
+                    .toEntity(List.class);
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                for (Object entry : response.getBody()) {
+                    if (!(entry instanceof Map)) {
+                        continue;
+                    }
+                    Map<String, Object> data = (Map<String, Object>) entry;
+                    if ("success".equals(data.get("status")) && data.get("query") != null) {
+                        locations.put(data.get("query").toString(), new LocationInfo(
+                                getStringOrUnknown(data, "city"),
+                                getStringOrUnknown(data, "regionName"),
+                                getStringOrUnknown(data, "country"),
+                                getStringOrUnknown(data, "countryCode")
+                        ));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.debug("IP-API batch request failed for {} IPs: {}", ipAddresses.size(), e.getMessage());
+        }
+        return locations;
+    }
+
     private LocationInfo tryIpApi(String ipAddress) {
         try {
-            ResponseEntity<Map> response = restTemplate.getForEntity(
-                    IP_API_URL.replace("{ip}", ipAddress),
-                    Map.class
-            );
+            ResponseEntity<Map> response = ipApiClient.get()
+                    .uri(ipApiBaseUrl + IP_API_PATH.replace("{ip}", ipAddress))
+                    .retrieve()
+                    .toEntity(Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> data = response.getBody();
@@ -102,10 +214,10 @@ public class LocationUtil {
 
     private LocationInfo tryIpApiCo(String ipAddress) {
         try {
-            ResponseEntity<Map> response = restTemplate.getForEntity(
-                    IPAPI_CO_URL.replace("{ip}", ipAddress),
-                    Map.class
-            );
+            ResponseEntity<Map> response = ipapiCoClient.get()
+                    .uri(ipapiCoBaseUrl + IPAPI_CO_PATH.replace("{ip}", ipAddress))
+                    .retrieve()
+                    .toEntity(Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> data = response.getBody();
@@ -0,0 +1,301 @@
+package com.example.demologin.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Classifies a user agent in a single pass.
+ *
+ * Every marker the classification rules look for is compiled once into an Aho-Corasick
+ * automaton, so one scan over the string records where each marker first occurs and
+ * where the version that follows it starts. The rules below then only read those
+ * positions: no regex, no repeated String.contains scans.
+ */
+final class UserAgentClassifier {
+
+    private static final String DOTTED = "0123456789.";
+    private static final String UNDERSCORED = "0123456789_";
+
+    private enum Marker {
+        EDGE("Edg/", DOTTED),
+        CHROME("Chrome/", DOTTED),
+        CHROMIUM("Chromium/"),
+        FIREFOX("Firefox/", DOTTED),
+        SAFARI("Safari/"),
+        OPERA("Opera/", DOTTED),
+        OPR("OPR/", DOTTED),
+        MSIE("MSIE"),
+        MSIE_VERSION("MSIE ", DOTTED),
+        TRIDENT("Trident/"),
+        RV("rv:", DOTTED),
+        VERSION("Version/", DOTTED),
+        ANDROID("Android"),
+        ANDROID_VERSION("Android ", DOTTED),
+        IPHONE_OS("iPhone OS"),
+        IOS("iOS"),
+        OS_VERSION("OS ", UNDERSCORED),
+        WINDOWS_10("Windows NT 10.0"),
+        WINDOWS_8_1("Windows NT 6.3"),
+        WINDOWS_8("Windows NT 6.2"),
+        WINDOWS_7("Windows NT 6.1"),
+        WINDOWS_NT("Windows NT"),
+        MAC_OS_X("Mac OS X"),
+        MAC_OS_X_VERSION("Mac OS X ", UNDERSCORED),
+        LINUX("Linux"),
+        IPHONE("iPhone"),
+        IPAD("iPad"),
+        MOBILE("Mobile"),
+        TABLET("Tablet"),
+        WINDOWS_PHONE("Windows Phone"),
+        BLACKBERRY("BlackBerry"),
+        MAC("Mac"),
+        WINDOWS("Windows");
+
+        private final String needle;
+        private final String versionChars;
+
+        Marker(String needle) {
+            this(needle, null);
+        }
+
+        Marker(String needle, String versionChars) {
+            this.needle = needle;
+            this.versionChars = versionChars;
+        }
+
+        boolean isVersionChar(char c) {
+            return versionChars != null && versionChars.indexOf(c) >= 0;
+        }
+    }
+
+    private static final Marker[] MARKERS = Marker.values();
+    private static final int ALPHABET = 128;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    // Automaton: full transition table plus the markers ending in each state
+    private static final int[][] TRANSITIONS;
+    private static final int[][] OUTPUTS;
+
+    static {
+        List<int[]> transitions = new ArrayList<>();
+        List<List<Integer>> outputs = new ArrayList<>();
+        transitions.add(newState());
+        outputs.add(new ArrayList<>());
+
+        for (Marker marker : MARKERS) {
+            int state = 0;
+            for (char c : marker.needle.toCharArray()) {
+                if (transitions.get(state)[c] <= 0) {
+                    transitions.add(newState());
+                    outputs.add(new ArrayList<>());
+                    transitions.get(state)[c] = transitions.size() - 1;
+                }
+                state = transitions.get(state)[c];
+            }
+            outputs.get(state).add(marker.ordinal());
+        }
+
+        int[] fail = new int[transitions.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions.get(0)[c];
+            if (next > 0) {
+                queue.add(next);
+            } else {
+                transitions.get(0)[c] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs.get(state).addAll(outputs.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions.get(state)[c];
+                if (next > 0) {
+                    fail[next] = transitions.get(fail[state])[c];
+                    queue.add(next);
+                } else {
+                    transitions.get(state)[c] = transitions.get(fail[state])[c];
+                }
+            }
+        }
+
+        TRANSITIONS = transitions.toArray(new int[0][]);
+        OUTPUTS = new int[outputs.size()][];
+        for (int i = 0; i < outputs.size(); i++) {
+            OUTPUTS[i] = outputs.get(i).isEmpty()
+                    ? NO_OUTPUT
+                    : outputs.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private UserAgentClassifier() {
+    }
+
+    static UserAgentUtil.DeviceInfo classify(String userAgent) {
+        Scan scan = new Scan(userAgent);
+        String browser = browser(scan);
+        return new UserAgentUtil.DeviceInfo(
+                browser,
+                browserVersion(scan, browser),
+                operatingSystem(scan),
+                device(scan),
+                deviceType(scan)
+        );
+    }
+
+    private static String browser(Scan scan) {
+        if (scan.has(Marker.EDGE)) {
+            return "Microsoft Edge";
+        } else if (scan.has(Marker.CHROME) && !scan.has(Marker.CHROMIUM)) {
+            return "Google Chrome";
+        } else if (scan.has(Marker.FIREFOX)) {
+            return "Mozilla Firefox";
+        } else if (scan.has(Marker.SAFARI) && !scan.has(Marker.CHROME)) {
+            return "Safari";
+        } else if (scan.has(Marker.OPERA) || scan.has(Marker.OPR)) {
+            return "Opera";
+        } else if (scan.has(Marker.MSIE) || scan.has(Marker.TRIDENT)) {
+            return "Internet Explorer";
+        } else if (scan.has(Marker.CHROMIUM)) {
+            return "Chromium";
+        }
+        return "Unknown Browser";
+    }
+
+    private static String browserVersion(Scan scan, String browser) {
+        String version = switch (browser) {
+            case "Google Chrome" -> scan.version(Marker.CHROME);
+            case "Mozilla Firefox" -> scan.version(Marker.FIREFOX);
+            case "Microsoft Edge" -> scan.version(Marker.EDGE);
+            case "Opera" -> scan.version(scan.has(Marker.OPR) ? Marker.OPR : Marker.OPERA);
+            case "Internet Explorer" -> scan.version(scan.has(Marker.MSIE) ? Marker.MSIE_VERSION : Marker.RV);
+            case "Safari" -> {
+                // "Version/x.y" only counts when a "Safari/" token follows it
+                String safariVersion = scan.version(Marker.VERSION);
+                yield safariVersion != null
+                        && scan.lastStart(Marker.SAFARI) >= scan.versionStart(Marker.VERSION) + safariVersion.length()
+                        ? safariVersion : null;
+            }
+            default -> null;
+        };
+        return version != null ? version : "Unknown";
+    }
+
+    private static String operatingSystem(Scan scan) {
+        if (scan.has(Marker.ANDROID)) {
+            String version = scan.version(Marker.ANDROID_VERSION);
+            return version != null ? "Android " + version : "Android";
+        } else if (scan.has(Marker.IPHONE_OS) || scan.has(Marker.IOS)) {
+            String version = scan.version(Marker.OS_VERSION);
+            return version != null ? "iOS " + version.replace('_', '.') : "iOS";
+        } else if (scan.has(Marker.WINDOWS_10)) {
+            return "Windows 10/11";
+        } else if (scan.has(Marker.WINDOWS_8_1)) {
+            return "Windows 8.1";
+        } else if (scan.has(Marker.WINDOWS_8)) {
+            return "Windows 8";
+        } else if (scan.has(Marker.WINDOWS_7)) {
+            return "Windows 7";
+        } else if (scan.has(Marker.WINDOWS_NT)) {
+            return "Windows";
+        } else if (scan.has(Marker.MAC_OS_X)) {
+            String version = scan.version(Marker.MAC_OS_X_VERSION);
+            return version != null ? "macOS " + version.replace('_', '.') : "macOS";
+        } else if (scan.has(Marker.LINUX)) {
+            return "Linux";
+        }
+        return "Unknown OS";
+    }
+
+    private static String device(Scan scan) {
+        if (scan.has(Marker.IPHONE)) {
+            return "iPhone";
+        } else if (scan.has(Marker.IPAD)) {
+            return "iPad";
+        } else if (scan.has(Marker.ANDROID)) {
+            return scan.has(Marker.MOBILE) ? "Android Phone" : "Android Tablet";
+        } else if (scan.has(Marker.WINDOWS_PHONE)) {
+            return "Windows Phone";
+        } else if (scan.has(Marker.BLACKBERRY)) {
+            return "BlackBerry";
+        } else if (scan.has(Marker.MAC)) {
+            return "Mac Computer";
+        } else if (scan.has(Marker.WINDOWS)) {
+            return "Windows Computer";
+        } else if (scan.has(Marker.LINUX)) {
+            return "Linux Computer";
+        }
+        return "Unknown Device";
+    }
+
+    private static String deviceType(Scan scan) {
+        boolean mobile = scan.has(Marker.MOBILE);
+        if (mobile || scan.has(Marker.IPHONE)) {
+            return "Mobile";
+        } else if (scan.has(Marker.TABLET) || scan.has(Marker.IPAD) || scan.has(Marker.ANDROID)) {
+            return "Tablet";
+        }
+        return "Desktop";
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /** Marker positions collected by one pass of the automaton over a user agent. */
+    private static final class Scan {
+        private final String userAgent;
+        private final int[] lastStart = new int[MARKERS.length];
+        // Start of the first version run that directly follows a marker, -1 if none
+        private final int[] versionStart = new int[MARKERS.length];
+
+        Scan(String userAgent) {
+            this.userAgent = userAgent;
+            Arrays.fill(lastStart, -1);
+            Arrays.fill(versionStart, -1);
+
+            int state = 0;
+            int length = userAgent.length();
+            for (int i = 0; i < length; i++) {
+                char c = userAgent.charAt(i);
+                state = c < ALPHABET ? TRANSITIONS[state][c] : 0;
+                for (int ordinal : OUTPUTS[state]) {
+                    Marker marker = MARKERS[ordinal];
+                    lastStart[ordinal] = i - marker.needle.length() + 1;
+                    if (versionStart[ordinal] < 0 && i + 1 < length && marker.isVersionChar(userAgent.charAt(i + 1))) {
+                        versionStart[ordinal] = i + 1;
+                    }
+                }
+            }
+        }
+
+        boolean has(Marker marker) {
+            return lastStart[marker.ordinal()] >= 0;
+        }
+
+        int lastStart(Marker marker) {
+            return lastStart[marker.ordinal()];
+        }
+
+        int versionStart(Marker marker) {
+            return versionStart[marker.ordinal()];
+        }
+
+        String version(Marker marker) {
+            int start = versionStart[marker.ordinal()];
+            if (start < 0) {
+                return null;
+            }
+            int end = start;
+            while (end < userAgent.length() && marker.isVersionChar(userAgent.charAt(end))) {
+                end++;
+            }
+            return userAgent.substring(start, end);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demologin.wal;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Binary form of a raw activity event as it is written to the segment log: only the columns the request path
+ * fills in, device and location are left to enrichment.
+ */
+final class ActivityEventCodec {
+
+    private static final byte VERSION = 2;
+
+    private ActivityEventCodec() {
+    }
+
+    static byte[] encode(UserActivityLog activityLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, activityLog.getActivityType().name());
+            out.writeBoolean(activityLog.getUserId() != null);
+            if (activityLog.getUserId() != null) {
+                out.writeLong(activityLog.getUserId());
+            }
+            writeString(out, activityLog.getFullName());
+            writeString(out, activityLog.getStatus());
+            writeString(out, activityLog.getTimestamp() != null ? activityLog.getTimestamp().toString() : null);
+            writeString(out, activityLog.getDetails());
+            writeString(out, activityLog.getIpAddress());
+            writeString(out, activityLog.getUserAgent());
+            out.writeBoolean(Boolean.TRUE.equals(activityLog.getEnrichmentPending()));
+            out.writeByte(activityLog.getNewDevice() == null ? -1 : activityLog.getNewDevice() ? 1 : 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static UserActivityLog decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            // Version 1 events, written before the new-device flag, may still wait in the log after an upgrade
+            if (version != VERSION && version != 1) {
+                throw new IOException("Unsupported activity event version " + version);
+            }
+            ActivityType activityType = ActivityType.valueOf(readString(in));
+            Long userId = in.readBoolean() ? in.readLong() : null;
+            String fullName = readString(in);
+            String status = readString(in);
+            String timestamp = readString(in);
+            UserActivityLog activityLog = UserActivityLog.builder()
+                    .activityType(activityType)
+                    .userId(userId)
+                    .fullName(fullName)
+                    .status(status)
+                    .timestamp(timestamp != null ? LocalDateTime.parse(timestamp) : null)
+                    .details(readString(in))
+                    .ipAddress(readString(in))
+                    .userAgent(readString(in))
+                    .enrichmentPending(in.readBoolean())
+                    .build();
+            if (version >= 2) {
+                byte newDevice = in.readByte();
+                activityLog.setNewDevice(newDevice < 0 ? null : newDevice == 1);
+            }
+            return activityLog;
+        }
+    }
+
+    // Length-prefixed UTF-8, -1 for null; writeUTF would cap values at 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available()) {
+            throw new IOException("Truncated activity event");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demologin.wal;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drains buffered activity events from {@link ActivityEventWal} into user_activity_logs.
+ *
+ * Each batch is written in one transaction and acknowledged only after it commits, so delivery is at-least-once:
+ * a crash between the commit and the checkpoint write replays that one batch. While the database is down the
+ * batch fails, nothing is acknowledged and the next run retries from the same position.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ActivityEventReplayer {
+
+    private final ActivityEventWal activityEventWal;
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ActivityLogDimensionService activityLogDimensionService;
+
+    @Value("${activity-log.wal.batch-size:500}")
+    private int batchSize;
+
+    private record DedupKey(Long userId, ActivityType activityType, String ipAddress, Long userAgentId) {
+    }
+
+    @Scheduled(fixedDelayString = "${activity-log.wal.replay-interval-ms:1000}")
+    public void replayPeriodically() {
+        try {
+            replay();
+        } catch (Exception e) {
+            log.warn("Activity event replay stopped, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replay every buffered event and return how many were consumed.
+     */
+    public int replay() throws IOException {
+        activityEventWal.force();
+        int replayed = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<SegmentLog.Entry> entries = activityEventWal.readPending(batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+            store(entries);
+            activityEventWal.acknowledge(entries.get(entries.size() - 1).next());
+            replayed += entries.size();
+            if (entries.size() < batchSize) {
+                break;
+            }
+        }
+        if (replayed > 0) {
+            log.debug("Replayed {} buffered activity events", replayed);
+        }
+        return replayed;
+    }
+
+    private void store(List<SegmentLog.Entry> entries) {
+        // Intern new user agents first, each in its own short transaction, so an insert race cannot doom the batch
+        Map<String, Long> userAgentIds = new HashMap<>();
+        for (UserActivityLog event : decode(entries)) {
+            if (event.getUserAgent() != null && !userAgentIds.containsKey(event.getUserAgent())) {
+                userAgentIds.put(event.getUserAgent(), activityLogDimensionService.internUserAgent(event.getUserAgent()));
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    userActivityLogRepository.saveAll(merge(decode(entries), userAgentIds)));
+        } catch (DataIntegrityViolationException e) {
+            // One bad row must not wedge the buffer: retry one by one and drop only the rows the database rejects
+            log.warn("Activity event batch rejected, retrying events individually: {}", e.getMessage());
+            for (SegmentLog.Entry entry : entries) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            userActivityLogRepository.saveAll(merge(decode(List.of(entry)), userAgentIds)));
+                } catch (DataIntegrityViolationException rejected) {
+                    log.error("Dropping activity event rejected by the database: {}", rejected.getMessage());
+                }
+            }
+        }
+    }
+
+    // Decoded fresh for every attempt, so a rolled back attempt leaves no generated ids behind
+    private List<UserActivityLog> decode(List<SegmentLog.Entry> entries) {
+        List<UserActivityLog> events = new ArrayList<>(entries.size());
+        for (SegmentLog.Entry entry : entries) {
+            try {
+                events.add(ActivityEventCodec.decode(entry.payload()));
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Dropping unreadable activity event at {}: {}", entry.next(), e.getMessage());
+            }
+        }
+        return events;
+    }
+
+    /**
+     * A repeat of a user's latest activity from the same IP and user agent refreshes that row instead of adding
+     * a new one, both against the database and within the batch.
+     */
+    private List<UserActivityLog> merge(List<UserActivityLog> events, Map<String, Long> userAgentIds) {
+        Map<DedupKey, UserActivityLog> latest = new HashMap<>();
+        Set<UserActivityLog> rows = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<UserActivityLog> toSave = new ArrayList<>(events.size());
+
+        for (UserActivityLog event : events) {
+            // The log row stores only the dictionary id of its user agent
+            if (event.getUserAgent() != null) {
+                event.setUserAgentId(userAgentIds.get(event.getUserAgent()));
+                event.setUserAgent(null);
+            }
+            if (event.getUserId() == null) {
+                toSave.add(event);
+                continue;
+            }
+            DedupKey key = new DedupKey(event.getUserId(), event.getActivityType(), event.getIpAddress(), event.getUserAgentId());
+            UserActivityLog existing = latest.computeIfAbsent(key, ignored ->
+                    userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentIdOrderByTimestampDesc(
+                            event.getUserId(), event.getActivityType(), event.getIpAddress(), event.getUserAgentId()));
+            if (existing == null) {
+                latest.put(key, event);
+                rows.add(event);
+                toSave.add(event);
+                continue;
+            }
+            // Same IP and user agent as before, so the resolved location stays valid
+            existing.setTimestamp(event.getTimestamp());
+            existing.setFullName(event.getFullName());
+            existing.setDetails(event.getDetails());
+            if (rows.add(existing)) {
+                toSave.add(existing);
+            }
+        }
+        return toSave;
+    }
+}
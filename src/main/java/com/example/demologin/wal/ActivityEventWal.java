@@ -0,0 +1,56 @@
+package com.example.demologin.wal;
+
+import com.example.demologin.entity.UserActivityLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Local write-ahead buffer for activity events. The request path appends the raw event to a memory-mapped
+ * {@link SegmentLog} and returns; {@link ActivityEventReplayer} drains it to the database in batches, so a slow
+ * or unavailable database never blocks a request and buffered events survive a restart.
+ */
+@Component
+@Slf4j
+public class ActivityEventWal {
+
+    @Value("${activity-log.wal.dir:data/activity-wal}")
+    private String directory;
+
+    @Value("${activity-log.wal.segment-size-bytes:16777216}")
+    private int segmentSize;
+
+    private SegmentLog segmentLog;
+
+    @PostConstruct
+    void open() throws IOException {
+        segmentLog = new SegmentLog(Path.of(directory), segmentSize);
+    }
+
+    @PreDestroy
+    void close() {
+        segmentLog.close();
+    }
+
+    public void append(UserActivityLog activityLog) {
+        segmentLog.append(ActivityEventCodec.encode(activityLog));
+    }
+
+    List<SegmentLog.Entry> readPending(int max) throws IOException {
+        return segmentLog.read(segmentLog.checkpoint(), max);
+    }
+
+    void acknowledge(SegmentLog.Position position) throws IOException {
+        segmentLog.acknowledge(position);
+    }
+
+    void force() {
+        segmentLog.force();
+    }
+}
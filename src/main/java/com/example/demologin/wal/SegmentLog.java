@@ -0,0 +1,288 @@
+package com.example.demologin.wal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records spread over fixed-size, memory-mapped segment files.
+ *
+ * Each record is framed as [int length][int crc32][payload]. Segment files are zero-filled when created, so a zero
+ * length marks the end of the written data; a frame whose CRC does not match is a torn write and is treated the same
+ * way. Appends are a bounds check and a copy into the mapped buffer; the pages reach disk through the OS page cache,
+ * so they survive a process crash without an fsync per record ({@link #force()} flushes them explicitly).
+ *
+ * Readers track a {@link Position}. {@link #acknowledge(Position)} persists it as the checkpoint and deletes every
+ * segment that lies wholly before it, so a restart resumes right after the last acknowledged record.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+
+    static final int FRAME_HEADER = 8;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^(\\d{20})\\.seg$");
+    private static final String CHECKPOINT = "checkpoint";
+
+    /** Offset of a record inside a segment; the checkpoint points at the next record still to be read. */
+    public record Position(long segment, int offset) implements Comparable<Position> {
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = Long.compare(segment, other.segment);
+            return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+        }
+    }
+
+    /** A record read back from the log together with the position just after it. */
+    public record Entry(byte[] payload, Position next) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private final Object appendLock = new Object();
+    private long activeSegment;
+    private MappedByteBuffer activeBuffer;
+    // Published end of the written data in the active segment; readers never look past it
+    private volatile Position writePosition;
+    private volatile Position checkpoint;
+
+    public SegmentLog(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= FRAME_HEADER) {
+            throw new IllegalArgumentException("Segment size must be larger than " + FRAME_HEADER + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        open();
+    }
+
+    private void open() throws IOException {
+        TreeMap<Long, Path> segments = listSegments();
+        checkpoint = readCheckpoint();
+        if (segments.isEmpty()) {
+            long first = checkpoint != null ? checkpoint.segment() : 0;
+            mapActive(first);
+            writePosition = new Position(first, 0);
+        } else if (Files.size(segments.lastEntry().getValue()) != segmentSize) {
+            // Segment size was reconfigured: leave the old segment sealed and continue in a fresh one
+            long next = segments.lastKey() + 1;
+            mapActive(next);
+            writePosition = new Position(next, 0);
+        } else {
+            long last = segments.lastKey();
+            mapActive(last);
+            int end = scan(activeBuffer, 0, segmentSize);
+            // Wipe whatever follows the last good frame so a torn or corrupt tail cannot resurface later
+            byte[] zeros = new byte[Math.min(64 * 1024, segmentSize)];
+            for (int i = end; i < segmentSize; i += zeros.length) {
+                activeBuffer.put(i, zeros, 0, Math.min(zeros.length, segmentSize - i));
+            }
+            writePosition = new Position(last, end);
+        }
+        if (checkpoint == null) {
+            checkpoint = new Position(segments.isEmpty() ? writePosition.segment() : segments.firstKey(), 0);
+        }
+        log.info("Opened activity segment log in {}: write position {}, checkpoint {}", directory, writePosition, checkpoint);
+    }
+
+    /**
+     * Append one record and return the position just after it.
+     */
+    public Position append(byte[] payload) {
+        int frameLength = FRAME_HEADER + payload.length;
+        if (frameLength > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (appendLock) {
+            int offset = writePosition.offset();
+            if (offset + frameLength > segmentSize) {
+                roll();
+                offset = 0;
+            }
+            // Payload and checksum first, length last: a frame only becomes visible once it is complete
+            activeBuffer.put(offset + FRAME_HEADER, payload);
+            activeBuffer.putInt(offset + 4, (int) crc.getValue());
+            activeBuffer.putInt(offset, payload.length);
+            writePosition = new Position(activeSegment, offset + frameLength);
+            return writePosition;
+        }
+    }
+
+    /**
+     * Read up to {@code max} records starting at {@code from}, following segment boundaries. Stops early at the
+     * current write position or at a corrupt frame in the active segment; a corrupt frame in a sealed segment
+     * skips the rest of that segment.
+     */
+    public List<Entry> read(Position from, int max) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Position end = writePosition;
+        Position position = from;
+        while (entries.size() < max && position.compareTo(end) < 0) {
+            Path file = segmentPath(position.segment());
+            if (!Files.exists(file)) {
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+            boolean active = position.segment() == end.segment();
+            ByteBuffer buffer = mapReadOnly(file);
+            int limit = active ? end.offset() : buffer.limit();
+            int offset = position.offset();
+            while (entries.size() < max && offset + FRAME_HEADER <= limit) {
+                byte[] payload = readFrame(buffer, offset, limit);
+                if (payload == null) {
+                    break;
+                }
+                offset += FRAME_HEADER + payload.length;
+                entries.add(new Entry(payload, new Position(position.segment(), offset)));
+            }
+            if (entries.size() >= max || active) {
+                break;
+            }
+            if (offset + FRAME_HEADER <= limit && buffer.getInt(offset) != 0) {
+                log.warn("Skipping corrupt tail of activity segment {} at offset {}", position.segment(), offset);
+            }
+            position = new Position(position.segment() + 1, 0);
+        }
+        return entries;
+    }
+
+    /** Everything before {@code position} has been stored elsewhere and may be discarded. */
+    public void acknowledge(Position position) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(temp, position.segment() + ":" + position.offset(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+
+        for (Long segment : listSegments().headMap(position.segment()).keySet()) {
+            Files.deleteIfExists(segmentPath(segment));
+            log.debug("Deleted acknowledged activity segment {}", segment);
+        }
+    }
+
+    public Position checkpoint() {
+        return checkpoint;
+    }
+
+    public Position writePosition() {
+        return writePosition;
+    }
+
+    /** Force dirty pages of the active segment to disk. */
+    public void force() {
+        synchronized (appendLock) {
+            activeBuffer.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void roll() {
+        activeBuffer.force();
+        try {
+            mapActive(activeSegment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create activity segment " + (activeSegment + 1), e);
+        }
+        writePosition = new Position(activeSegment, 0);
+    }
+
+    private void mapActive(long segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(segment).toFile(), "rw")) {
+            if (file.length() != segmentSize) {
+                file.setLength(segmentSize);
+            }
+            activeBuffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        activeSegment = segment;
+    }
+
+    private ByteBuffer mapReadOnly(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Offset just past the last valid frame
+    private static int scan(ByteBuffer buffer, int from, int limit) {
+        int offset = from;
+        while (offset + FRAME_HEADER <= limit) {
+            byte[] payload = readFrame(buffer, offset, limit);
+            if (payload == null) {
+                break;
+            }
+            offset += FRAME_HEADER + payload.length;
+        }
+        return offset;
+    }
+
+    // Payload of the frame at offset, or null at the end of the data or on a bad frame
+    private static byte[] readFrame(ByteBuffer buffer, int offset, int limit) {
+        if (offset + FRAME_HEADER > buffer.limit()) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + FRAME_HEADER + length > Math.min(limit, buffer.limit())) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + FRAME_HEADER, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? payload : null;
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            });
+        }
+        return segments;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String[] parts = Files.readString(file).trim().split(":");
+        try {
+            return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable activity segment checkpoint '{}'", String.join(":", parts));
+            return null;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d.seg", segment));
+    }
+}
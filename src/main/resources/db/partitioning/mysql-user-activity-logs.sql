@@ -0,0 +1,17 @@
+-- One-off conversion of user_activity_logs to monthly partitions (MySQL 8).
+-- Run during a maintenance window; ALTER ... PARTITION BY rebuilds the table.
+--
+-- MySQL requires the partitioning column in every unique key, so the primary key becomes (id, timestamp).
+-- List one partition per month from the oldest row up to the current month; ActivityLogRetentionService
+-- splits new months out of pmax ahead of time from then on and drops expired months whole.
+
+ALTER TABLE user_activity_logs
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, `timestamp`);
+
+ALTER TABLE user_activity_logs
+    PARTITION BY RANGE COLUMNS (`timestamp`) (
+        PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
@@ -0,0 +1,30 @@
+-- One-off conversion of user_activity_logs to a declaratively partitioned table (PostgreSQL 12+).
+-- Run during a maintenance window with the application stopped.
+--
+-- The primary key of a partitioned table must include the partition key, so it becomes (id, "timestamp").
+-- List one partition per month from the oldest row up to the current month; ActivityLogRetentionService
+-- creates future months ahead of time from then on and drops expired months whole.
+-- Secondary indexes are recreated by Hibernate (ddl-auto=update) on the next start.
+
+BEGIN;
+
+ALTER TABLE user_activity_logs RENAME TO user_activity_logs_legacy;
+
+CREATE TABLE user_activity_logs (
+    LIKE user_activity_logs_legacy INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING CONSTRAINTS
+) PARTITION BY RANGE ("timestamp");
+
+ALTER TABLE user_activity_logs ADD PRIMARY KEY (id, "timestamp");
+
+CREATE TABLE user_activity_logs_pdefault PARTITION OF user_activity_logs DEFAULT;
+CREATE TABLE user_activity_logs_p202609 PARTITION OF user_activity_logs FOR VALUES FROM ('2026-09-01') TO ('2026-10-01');
+CREATE TABLE user_activity_logs_p202610 PARTITION OF user_activity_logs FOR VALUES FROM ('2026-10-01') TO ('2026-11-01');
+
+-- Ids are copied as they are. They come from the user_activity_logs_ids allocation table, not a sequence, and
+-- PooledIdTableInitializer raises its next_val past MAX(id) on the next start.
+INSERT INTO user_activity_logs SELECT * FROM user_activity_logs_legacy;
+
+COMMIT;
+
+-- After verifying the copy:
+-- DROP TABLE user_activity_logs_legacy;
@@ -0,0 +1,145 @@
+package com.example.demologin.archive;
+
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.utils.ActivityLogCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLogArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 10);
+
+    @TempDir
+    Path directory;
+
+    private ActivityLogArchive archive;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        archive = new ActivityLogArchive(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(archive, "directory", directory.toString());
+        ReflectionTestUtils.setField(archive, "blockSize", 3);
+
+        // Users 1..4, four rows each at 06:00..09:00, appended in (userId, timestamp) order
+        try (ActivityLogArchive.PartWriter part = archive.startPart(DAY)) {
+            long id = 1;
+            for (long userId = 1; userId <= 4; userId++) {
+                for (int hour = 6; hour <= 9; hour++) {
+                    part.append(row(id++, userId, DAY.atTime(hour, 0)));
+                }
+            }
+            part.commit();
+        }
+        try (ActivityLogArchive.PartWriter part = archive.startPart(DAY.plusDays(1))) {
+            part.append(row(100L, 2L, DAY.plusDays(1).atTime(12, 0)));
+            part.commit();
+        }
+    }
+
+    @Test
+    void part_isPlainGzipNdjsonWithSparseIndex() throws Exception {
+        Path data = directory.resolve("2025-01-10-0.ndjson.gz");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(data)), StandardCharsets.UTF_8))) {
+            assertEquals(16, reader.lines().count());
+        }
+        // 16 rows in blocks of 3
+        assertEquals(6, Files.readAllLines(directory.resolve("2025-01-10-0.idx")).size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void deleteDaysBefore_removesWholeDaysOnly() throws Exception {
+        assertEquals(16, archive.deleteDaysBefore(DAY.plusDays(1)));
+
+        assertEquals(List.of(100L), archive.find(ActivityLogArchive.Query.byUser(2L), null, 0, 10).stream()
+                .map(UserActivityLogResponse::getId).toList());
+        assertFalse(Files.exists(directory.resolve("2025-01-10-0.ndjson.gz")));
+        assertFalse(Files.exists(directory.resolve("2025-01-10-0.idx")));
+        assertEquals(0, archive.deleteDaysBefore(DAY.plusDays(1)));
+    }
+
+    @Test
+    void find_byUserReturnsNewestFirstAcrossDays() {
+        List<UserActivityLogResponse> rows = archive.find(ActivityLogArchive.Query.byUser(2L), null, 0, 10);
+
+        assertEquals(List.of(100L, 8L, 7L, 6L, 5L), rows.stream().map(UserActivityLogResponse::getId).toList());
+        assertEquals(5, archive.count(ActivityLogArchive.Query.byUser(2L)));
+        assertEquals(0, archive.count(ActivityLogArchive.Query.byUser(9L)));
+    }
+
+    @Test
+    void find_appliesOffsetLimitAndCursor() {
+        ActivityLogArchive.Query query = ActivityLogArchive.Query.byUser(2L);
+
+        assertEquals(List.of(7L, 6L), ids(archive.find(query, null, 2, 2)));
+        assertEquals(List.of(6L, 5L), ids(archive.find(query, new ActivityLogCursor(DAY.atTime(8, 0), 7L), 0, 5)));
+    }
+
+    @Test
+    void find_dateRangeIsInclusiveAndSkipsOtherDays() {
+        ActivityLogArchive.Query query = ActivityLogArchive.Query.between(DAY.atTime(8, 0), DAY.atTime(9, 0));
+
+        assertEquals(8, archive.count(query));
+        List<UserActivityLogResponse> rows = archive.find(query, null, 0, 3);
+        assertEquals(List.of(16L, 12L, 8L), ids(rows));
+        assertEquals(16, archive.count(ActivityLogArchive.Query.between(DAY.atStartOfDay(), DAY.atTime(23, 59))));
+        assertEquals(0, archive.count(ActivityLogArchive.Query.between(DAY.minusDays(5).atStartOfDay(), DAY.minusDays(1).atStartOfDay())));
+    }
+
+    @Test
+    void uncommittedPartIsInvisibleAndCleanedUp() throws Exception {
+        try (ActivityLogArchive.PartWriter part = archive.startPart(DAY)) {
+            part.append(row(200L, 2L, DAY.atTime(20, 0)));
+        }
+
+        assertEquals(16, archive.count(ActivityLogArchive.Query.between(DAY.atStartOfDay(), DAY.atTime(23, 59))));
+        assertFalse(Files.exists(directory.resolve("2025-01-10-1.ndjson.gz")));
+        Set<Long> ids = archive.archivedIds(DAY);
+        assertEquals(16, ids.size());
+        assertFalse(ids.contains(200L));
+    }
+
+    @Test
+    void find_onEmptyDirectory() {
+        ReflectionTestUtils.setField(archive, "directory", directory.resolve("missing").toString());
+
+        assertTrue(archive.find(ActivityLogArchive.Query.byUser(1L), null, 0, 10).isEmpty());
+        assertEquals(0, archive.count(ActivityLogArchive.Query.byUser(1L)));
+    }
+
+    private static List<Long> ids(List<UserActivityLogResponse> rows) {
+        return rows.stream().map(UserActivityLogResponse::getId).toList();
+    }
+
+    private static UserActivityLogResponse row(Long id, Long userId, LocalDateTime timestamp) {
+        UserActivityLogResponse response = new UserActivityLogResponse();
+        response.setId(id);
+        response.setUserId(userId);
+        response.setActivityType(ActivityType.LOGIN_SUCCESS);
+        response.setTimestamp(timestamp);
+        response.setUserAgent("Mozilla/5.0");
+        response.setCountryCode("VN");
+        return response;
+    }
+}
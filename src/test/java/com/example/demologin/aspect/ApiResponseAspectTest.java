@@ -11,6 +11,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -80,4 +81,21 @@ class ApiResponseAspectTest {
         assertEquals("Created", ro.getMessage());
         assertEquals("created", ro.getData());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testHandleApiResponse_wrapsAsyncResultWhenReady() throws Throwable {
+    when(apiResponse.message()).thenReturn("Async");
+    doReturn(CompletableFuture.class).when(method).getReturnType();
+    CompletableFuture<Object> pending = new CompletableFuture<>();
+    when(joinPoint.proceed()).thenReturn(pending);
+    when(method.isAnnotationPresent(org.mockito.ArgumentMatchers.any(Class.class))).thenReturn(false);
+        Object result = aspect.handleApiResponse(joinPoint, apiResponse);
+        assertTrue(result instanceof CompletableFuture);
+        pending.complete("later");
+        ResponseObject ro = ((CompletableFuture<ResponseObject>) result).join();
+        assertEquals(200, ro.getStatusCode());
+        assertEquals("Async", ro.getMessage());
+        assertEquals("later", ro.getData());
+    }
 }
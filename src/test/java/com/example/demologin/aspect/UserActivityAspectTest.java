@@ -1,20 +1,32 @@
 package com.example.demologin.aspect;
 
 import com.example.demologin.annotation.UserActivity;
-import com.example.demologin.entity.User;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.repository.UserActivityLogRepository;
-import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.AuthPrincipalService;
+import com.example.demologin.service.ActivityLiveTailService;
+import com.example.demologin.service.ActivityLogPolicyService;
+import com.example.demologin.service.ActivitySketchService;
+import com.example.demologin.service.UserLoginProfileService;
 import com.example.demologin.utils.AccountUtils;
 import com.example.demologin.utils.IpUtilsWrapper;
-import com.example.demologin.utils.LocationUtil;
-import com.example.demologin.utils.UserAgentUtil;
+import com.example.demologin.wal.ActivityEventWal;
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,7 +55,7 @@ class UserActivityAspectTest {
         when(joinPoint.getArgs()).thenReturn(new Object[]{loginRequest});
         try (var emailUtilsMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.EmailUtils.class)) {
             emailUtilsMocked.when(() -> com.example.demologin.utils.EmailUtils.isValidEmail(any())).thenReturn(true);
-            when(userRepository.findByEmail(eq("test@email.com"))).thenReturn(java.util.Optional.empty());
+            when(authPrincipalService.findByLogin(eq("test@email.com"))).thenReturn(java.util.Optional.empty());
             var method = aspect.getClass().getDeclaredMethod("extractUserFromLoginRequest", JoinPoint.class);
             method.setAccessible(true);
             assertThrows(com.example.demologin.exception.exceptions.UserActivityLoggingException.class, () -> {
@@ -58,6 +70,7 @@ class UserActivityAspectTest {
     @Test
     void testSaveFailedLogEntry_catchInCatch() throws Exception {
         // Ném exception trong save để vào nhánh catch lồng
+        doThrow(new RuntimeException("fail0")).when(activityEventWal).append(any());
         doThrow(new RuntimeException("fail1")).when(userActivityLogRepository).save(any());
         // Ném tiếp exception khi log.error
         org.slf4j.Logger logger = mock(org.slf4j.Logger.class);
@@ -69,171 +82,42 @@ class UserActivityAspectTest {
     }
 
     @Test
-    void testLogActivitySuccess_nullLocationOrDevice() throws Exception {
+    void testLogActivitySuccess_nullClientInfo() throws Exception {
         UserActivityLog log = new UserActivityLog();
         log.setFullName("Test User");
-        log.setIpAddress("127.0.0.1");
-        log.setUserAgent("Mozilla");
         when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
-        // locationUtil.getLocationFromIP trả về null
-        when(locationUtil.getLocationFromIP(any())).thenReturn(null);
-        try (var userAgentMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.UserAgentUtil.class);
-             var locationUtilMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.LocationUtil.class)) {
-            userAgentMocked.when(() -> com.example.demologin.utils.UserAgentUtil.parseUserAgent(any())).thenReturn(null);
-            // formatLocationInfo trả về null
-            locationUtilMocked.when(() -> com.example.demologin.utils.LocationUtil.formatLocationInfo(null)).thenReturn(null);
-            userAgentMocked.when(() -> com.example.demologin.utils.UserAgentUtil.formatDeviceInfo(null)).thenReturn(null);
-            var method = aspect.getClass().getDeclaredMethod("logActivitySuccess", UserActivity.class, UserActivityLog.class);
-            method.setAccessible(true);
-            method.invoke(aspect, userActivity, log);
-        }
-    }
-    @Test
-    void testFindExistingActivityLog_mapOrElseGetBranches() throws Exception {
-        // Chuẩn bị ClientInfo
-        var clientInfoCtor = aspect.getClass().getDeclaredClasses()[0].getDeclaredConstructor(String.class, String.class, String.class);
-        clientInfoCtor.setAccessible(true);
-        Object clientInfo = clientInfoCtor.newInstance("127.0.0.1", "Mozilla", "127.0.0.1");
-        // userId != null, có log cũ
-        UserActivityLog existingLog = new UserActivityLog();
-        when(userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(any(), any(), any(), any())).thenReturn(existingLog);
-        var method = aspect.getClass().getDeclaredMethod("findExistingActivityLog", Long.class, UserActivity.class, aspect.getClass().getDeclaredClasses()[0]);
+        var method = aspect.getClass().getDeclaredMethod("logActivitySuccess", UserActivity.class, UserActivityLog.class);
         method.setAccessible(true);
-        Object result = method.invoke(aspect, 1L, userActivity, clientInfo);
-        assertTrue(result instanceof java.util.Optional);
-        assertTrue(((java.util.Optional<?>) result).isPresent());
-        // userId != null, không có log cũ
-        when(userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(any(), any(), any(), any())).thenReturn(null);
-        result = method.invoke(aspect, 1L, userActivity, clientInfo);
-        assertTrue(result instanceof java.util.Optional);
-        assertFalse(((java.util.Optional<?>) result).isPresent());
+        method.invoke(aspect, userActivity, log);
     }
-
     @Test
-    void testUpdateExistingLog_nullDeviceOrLocation() throws Exception {
-        UserActivityLog log = new UserActivityLog();
-        log.setIpAddress("127.0.0.1");
-        log.setFullName("old");
-        var method = aspect.getClass().getDeclaredMethod("updateExistingLog", UserActivityLog.class, String.class, String.class, com.example.demologin.utils.UserAgentUtil.DeviceInfo.class, com.example.demologin.utils.LocationUtil.LocationInfo.class);
-        method.setAccessible(true);
-        // deviceInfo null
-        com.example.demologin.utils.LocationUtil.LocationInfo locationInfo = new com.example.demologin.utils.LocationUtil.LocationInfo("Hanoi", "HN", "VN", "VN");
-    Exception ex1 = assertThrows(java.lang.reflect.InvocationTargetException.class, () -> method.invoke(aspect, log, "newName", "details", null, locationInfo));
-    assertTrue(ex1.getCause() instanceof NullPointerException);
-    // locationInfo null
-    com.example.demologin.utils.UserAgentUtil.DeviceInfo deviceInfo = mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class);
-    when(deviceInfo.getBrowser()).thenReturn("Chrome");
-    when(deviceInfo.getBrowserVersion()).thenReturn("1.0");
-    when(deviceInfo.getOperatingSystem()).thenReturn("Win");
-    when(deviceInfo.getDevice()).thenReturn("PC");
-    when(deviceInfo.getDeviceType()).thenReturn("Desktop");
-    Exception ex2 = assertThrows(java.lang.reflect.InvocationTargetException.class, () -> method.invoke(aspect, log, "newName", "details", deviceInfo, null));
-    assertTrue(ex2.getCause() instanceof NullPointerException);
-    }
-
-    @Test
-    void testCreateNewActivityLog_nullDeviceOrLocation() throws Exception {
-        var method = aspect.getClass().getDeclaredMethod("createNewActivityLog", UserActivity.class, Long.class, String.class, String.class, String.class, aspect.getClass().getDeclaredClasses()[0], com.example.demologin.utils.UserAgentUtil.DeviceInfo.class, com.example.demologin.utils.LocationUtil.LocationInfo.class);
+    void testCreateNewActivityLog_writesRawEventPendingEnrichment() throws Exception {
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
+        var method = aspect.getClass().getDeclaredMethod("createNewActivityLog", UserActivity.class, Long.class, String.class, String.class, String.class, aspect.getClass().getDeclaredClasses()[0]);
         method.setAccessible(true);
-        var clientInfoCtor = aspect.getClass().getDeclaredClasses()[0].getDeclaredConstructor(String.class, String.class, String.class);
+        var clientInfoCtor = aspect.getClass().getDeclaredClasses()[0].getDeclaredConstructor(String.class, String.class);
         clientInfoCtor.setAccessible(true);
-        Object clientInfo = clientInfoCtor.newInstance("127.0.0.1", "Mozilla", "127.0.0.1");
-        // deviceInfo null
-        com.example.demologin.utils.LocationUtil.LocationInfo locationInfo = new com.example.demologin.utils.LocationUtil.LocationInfo("Hanoi", "HN", "VN", "VN");
-    Exception ex1 = assertThrows(java.lang.reflect.InvocationTargetException.class, () -> method.invoke(aspect, userActivity, 1L, "FullName", "SUCCESS", "details", clientInfo, null, locationInfo));
-    assertTrue(ex1.getCause() instanceof NullPointerException);
-    // locationInfo null
-    com.example.demologin.utils.UserAgentUtil.DeviceInfo deviceInfo = mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class);
-    when(deviceInfo.getBrowser()).thenReturn("Chrome");
-    when(deviceInfo.getBrowserVersion()).thenReturn("1.0");
-    when(deviceInfo.getOperatingSystem()).thenReturn("Win");
-    when(deviceInfo.getDevice()).thenReturn("PC");
-    when(deviceInfo.getDeviceType()).thenReturn("Desktop");
-    Exception ex2 = assertThrows(java.lang.reflect.InvocationTargetException.class, () -> method.invoke(aspect, userActivity, 1L, "FullName", "SUCCESS", "details", clientInfo, deviceInfo, null));
-    assertTrue(ex2.getCause() instanceof NullPointerException);
-    }
-    @Test
-    void testUpdateExistingLog_allBranches() throws Exception {
-        UserActivityLog log = new UserActivityLog();
-        log.setIpAddress("127.0.0.1");
-        log.setFullName("old");
-        com.example.demologin.utils.UserAgentUtil.DeviceInfo deviceInfo = mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class);
-        when(deviceInfo.getBrowser()).thenReturn("Chrome");
-        when(deviceInfo.getBrowserVersion()).thenReturn("1.0");
-        when(deviceInfo.getOperatingSystem()).thenReturn("Win");
-        when(deviceInfo.getDevice()).thenReturn("PC");
-        when(deviceInfo.getDeviceType()).thenReturn("Desktop");
-        com.example.demologin.utils.LocationUtil.LocationInfo locationInfo = new com.example.demologin.utils.LocationUtil.LocationInfo("Hanoi", "HN", "VN", "VN");
-        var method = aspect.getClass().getDeclaredMethod("updateExistingLog", UserActivityLog.class, String.class, String.class, com.example.demologin.utils.UserAgentUtil.DeviceInfo.class, com.example.demologin.utils.LocationUtil.LocationInfo.class);
-        method.setAccessible(true);
-        Object result = method.invoke(aspect, log, "newName", "details", deviceInfo, locationInfo);
-        assertNotNull(result);
-    }
-
-    @Test
-    void testUpdateDeviceInfo_allBranches() throws Exception {
-        UserActivityLog log = new UserActivityLog();
-        com.example.demologin.utils.UserAgentUtil.DeviceInfo deviceInfo = mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class);
-        when(deviceInfo.getBrowser()).thenReturn("Chrome");
-        when(deviceInfo.getBrowserVersion()).thenReturn("1.0");
-        when(deviceInfo.getOperatingSystem()).thenReturn("Win");
-        when(deviceInfo.getDevice()).thenReturn("PC");
-        when(deviceInfo.getDeviceType()).thenReturn("Desktop");
-        var method = aspect.getClass().getDeclaredMethod("updateDeviceInfo", UserActivityLog.class, com.example.demologin.utils.UserAgentUtil.DeviceInfo.class);
-        method.setAccessible(true);
-        method.invoke(aspect, log, deviceInfo);
-        // test null deviceInfo throws NPE
-    Exception ex = assertThrows(java.lang.reflect.InvocationTargetException.class, () -> method.invoke(aspect, log, (Object) null));
-    assertTrue(ex.getCause() instanceof NullPointerException);
+        Object clientInfo = clientInfoCtor.newInstance("8.8.8.8", "Mozilla");
+        UserActivityLog result = (UserActivityLog) method.invoke(aspect, userActivity, 1L, "FullName", "SUCCESS", "details", clientInfo);
+        assertEquals("8.8.8.8", result.getIpAddress());
+        assertEquals("Mozilla", result.getUserAgent());
+        assertTrue(result.getEnrichmentPending());
+        assertNull(result.getBrowser());
+        assertNull(result.getCity());
+        verifyNoInteractions(authPrincipalService);
     }
-
-    @Test
-    void testUpdateLocationInfo_allBranches() throws Exception {
-        UserActivityLog log = new UserActivityLog();
-        com.example.demologin.utils.LocationUtil.LocationInfo locationInfo = new com.example.demologin.utils.LocationUtil.LocationInfo("Hanoi", "HN", "VN", "VN");
-        var method = aspect.getClass().getDeclaredMethod("updateLocationInfo", UserActivityLog.class, com.example.demologin.utils.LocationUtil.LocationInfo.class);
-        method.setAccessible(true);
-        method.invoke(aspect, log, locationInfo);
-        // test null locationInfo throws NPE
-    Exception ex = assertThrows(java.lang.reflect.InvocationTargetException.class, () -> method.invoke(aspect, log, (Object) null));
-    assertTrue(ex.getCause() instanceof NullPointerException);
-    }
-
     @Test
     void testCreateNewActivityLog_allBranches() throws Exception {
-        UserActivityLog log = new UserActivityLog();
-        com.example.demologin.utils.UserAgentUtil.DeviceInfo deviceInfo = mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class);
-        when(deviceInfo.getBrowser()).thenReturn("Chrome");
-        when(deviceInfo.getBrowserVersion()).thenReturn("1.0");
-        when(deviceInfo.getOperatingSystem()).thenReturn("Win");
-        when(deviceInfo.getDevice()).thenReturn("PC");
-        when(deviceInfo.getDeviceType()).thenReturn("Desktop");
-        com.example.demologin.utils.LocationUtil.LocationInfo locationInfo = new com.example.demologin.utils.LocationUtil.LocationInfo("Hanoi", "HN", "VN", "VN");
-        var method = aspect.getClass().getDeclaredMethod("createNewActivityLog", UserActivity.class, Long.class, String.class, String.class, String.class, aspect.getClass().getDeclaredClasses()[0], com.example.demologin.utils.UserAgentUtil.DeviceInfo.class, com.example.demologin.utils.LocationUtil.LocationInfo.class);
+        var method = aspect.getClass().getDeclaredMethod("createNewActivityLog", UserActivity.class, Long.class, String.class, String.class, String.class, aspect.getClass().getDeclaredClasses()[0]);
         method.setAccessible(true);
         // Tạo ClientInfo qua reflection
-        var clientInfoCtor = aspect.getClass().getDeclaredClasses()[0].getDeclaredConstructor(String.class, String.class, String.class);
+        var clientInfoCtor = aspect.getClass().getDeclaredClasses()[0].getDeclaredConstructor(String.class, String.class);
         clientInfoCtor.setAccessible(true);
-        Object clientInfo = clientInfoCtor.newInstance("127.0.0.1", "Mozilla", "127.0.0.1");
-        Object result = method.invoke(aspect, userActivity, 1L, "FullName", "SUCCESS", "details", clientInfo, deviceInfo, locationInfo);
+        Object clientInfo = clientInfoCtor.newInstance("127.0.0.1", "Mozilla");
+        Object result = method.invoke(aspect, userActivity, 1L, "FullName", "SUCCESS", "details", clientInfo);
         assertNotNull(result);
     }
 
-    @Test
-    void testFindExistingActivityLog_branches() throws Exception {
-        var method = aspect.getClass().getDeclaredMethod("findExistingActivityLog", Long.class, UserActivity.class, aspect.getClass().getDeclaredClasses()[0]);
-        method.setAccessible(true);
-        // userId null
-    var clientInfoCtor = aspect.getClass().getDeclaredClasses()[0].getDeclaredConstructor(String.class, String.class, String.class);
-    clientInfoCtor.setAccessible(true);
-    Object clientInfo = clientInfoCtor.newInstance("127.0.0.1", "Mozilla", "127.0.0.1");
-        Object result = method.invoke(aspect, null, userActivity, clientInfo);
-        assertTrue(result instanceof java.util.Optional);
-        // userId có giá trị
-        when(userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(any(), any(), any(), any())).thenReturn(new UserActivityLog());
-        result = method.invoke(aspect, 1L, userActivity, clientInfo);
-        assertTrue(result instanceof java.util.Optional);
-    }
     @Test
     void testExtractUserFromLoginRequest_noLoginRequest() throws Exception {
         Object[] args = new Object[] {"not a login request"};
@@ -273,7 +157,7 @@ class UserActivityAspectTest {
         when(joinPoint.getArgs()).thenReturn(new Object[]{loginRequest});
         try (var emailUtilsMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.EmailUtils.class)) {
             emailUtilsMocked.when(() -> com.example.demologin.utils.EmailUtils.isValidEmail(any())).thenReturn(false);
-            when(userRepository.findByUsername(eq("notfound"))).thenReturn(java.util.Optional.empty());
+            when(authPrincipalService.findByLogin(eq("notfound"))).thenReturn(java.util.Optional.empty());
             var method = aspect.getClass().getDeclaredMethod("extractUserFromLoginRequest", JoinPoint.class);
             method.setAccessible(true);
             try {
@@ -301,7 +185,7 @@ class UserActivityAspectTest {
     @Test
     void testGetCurrentUserOrFromLoginAttempt_otherException() throws Exception {
         when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
-        when(accountUtils.getCurrentUser()).thenThrow(new com.example.demologin.exception.exceptions.UserNotAuthenticatedException("not auth"));
+        when(accountUtils.getCurrentPrincipal()).thenThrow(new com.example.demologin.exception.exceptions.UserNotAuthenticatedException("not auth"));
         var method = aspect.getClass().getDeclaredMethod("getCurrentUserOrFromLoginAttempt", JoinPoint.class, UserActivity.class, Object.class);
         method.setAccessible(true);
         Object result = method.invoke(aspect, joinPoint, userActivity, null);
@@ -309,47 +193,35 @@ class UserActivityAspectTest {
     }
 
     @Test
-    void testCreateOrUpdateActivityLog_updateExisting() throws Exception {
-        User user = new User();
-        user.setUserId(1L);
-        user.setFullName("Test User");
+    void testCreateActivityLog_doesNotQueryDatabase() throws Exception {
+        AuthPrincipal user = AuthPrincipal.builder().userId(1L).fullName("Test User").build();
         when(userActivity.logUserId()).thenReturn(true);
         when(userActivity.details()).thenReturn("");
         when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
-        // Mock client info
         when(ipUtils.getClientIpAddress()).thenReturn("127.0.0.1");
         when(ipUtils.getUserAgent()).thenReturn("Mozilla");
-        try (var userAgentMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.UserAgentUtil.class)) {
-            userAgentMocked.when(() -> com.example.demologin.utils.UserAgentUtil.parseUserAgent(any())).thenReturn(mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class));
-            when(locationUtil.getLocationFromIP(any())).thenReturn(mock(com.example.demologin.utils.LocationUtil.LocationInfo.class));
-            UserActivityLog existingLog = mock(UserActivityLog.class);
-            when(userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(any(), any(), any(), any())).thenReturn(existingLog);
-            var method = aspect.getClass().getDeclaredMethod("createOrUpdateActivityLog", JoinPoint.class, UserActivity.class, User.class);
-            method.setAccessible(true);
-            Object result = method.invoke(aspect, joinPoint, userActivity, user);
-            assertNotNull(result);
-        }
+        var method = aspect.getClass().getDeclaredMethod("createActivityLog", JoinPoint.class, UserActivity.class, AuthPrincipal.class);
+        method.setAccessible(true);
+        UserActivityLog result = (UserActivityLog) method.invoke(aspect, joinPoint, userActivity, user);
+        assertEquals(1L, result.getUserId());
+        assertEquals("Test User", result.getFullName());
+        assertEquals("127.0.0.1 (localhost)", result.getIpAddress());
+        // Folding repeats into the previous row is left to the replayer, off the request path
+        verifyNoInteractions(userActivityLogRepository);
     }
 
     @Test
-    void testCreateOrUpdateActivityLog_createNew() throws Exception {
-        User user = new User();
-        user.setUserId(1L);
-        user.setFullName("Test User");
+    void testCreateActivityLog_createNew() throws Exception {
+        AuthPrincipal user = AuthPrincipal.builder().userId(1L).fullName("Test User").build();
         when(userActivity.logUserId()).thenReturn(true);
         when(userActivity.details()).thenReturn("");
         when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
         when(ipUtils.getClientIpAddress()).thenReturn("127.0.0.1");
         when(ipUtils.getUserAgent()).thenReturn("Mozilla");
-        try (var userAgentMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.UserAgentUtil.class)) {
-            userAgentMocked.when(() -> com.example.demologin.utils.UserAgentUtil.parseUserAgent(any())).thenReturn(mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class));
-            when(locationUtil.getLocationFromIP(any())).thenReturn(mock(com.example.demologin.utils.LocationUtil.LocationInfo.class));
-            when(userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(any(), any(), any(), any())).thenReturn(null);
-            var method = aspect.getClass().getDeclaredMethod("createOrUpdateActivityLog", JoinPoint.class, UserActivity.class, User.class);
-            method.setAccessible(true);
-            Object result = method.invoke(aspect, joinPoint, userActivity, user);
-            assertNotNull(result);
-        }
+        var method = aspect.getClass().getDeclaredMethod("createActivityLog", JoinPoint.class, UserActivity.class, AuthPrincipal.class);
+        method.setAccessible(true);
+        Object result = method.invoke(aspect, joinPoint, userActivity, user);
+        assertNotNull(result);
     }
 
     @Test
@@ -370,16 +242,6 @@ class UserActivityAspectTest {
         assertEquals("192.168.1.1", method.invoke(aspect, "192.168.1.1"));
     }
 
-    @Test
-    void testGetIpForLocation_branches() throws Exception {
-        var method = aspect.getClass().getDeclaredMethod("getIpForLocation", String.class);
-        method.setAccessible(true);
-        assertEquals("8.8.8.8", method.invoke(aspect, "127.0.0.1"));
-        assertEquals("8.8.8.8", method.invoke(aspect, "::1"));
-        assertEquals("192.168.1.1", method.invoke(aspect, "192.168.1.1"));
-        assertEquals("127.0.0.1", method.invoke(aspect, "127.0.0.1 (localhost)"));
-    }
-
     @Test
     void testGetDetails_branches() throws Exception {
         when(userActivity.details()).thenReturn("");
@@ -399,23 +261,21 @@ class UserActivityAspectTest {
         log.setIpAddress("127.0.0.1");
         log.setUserAgent("Mozilla");
         when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
-        com.example.demologin.utils.LocationUtil.LocationInfo locationInfo = new com.example.demologin.utils.LocationUtil.LocationInfo("Hanoi", "HN", "VN", "VN");
-        when(locationUtil.getLocationFromIP(any())).thenReturn(locationInfo);
-        try (var userAgentMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.UserAgentUtil.class)) {
-            userAgentMocked.when(() -> com.example.demologin.utils.UserAgentUtil.parseUserAgent(any())).thenReturn(mock(com.example.demologin.utils.UserAgentUtil.DeviceInfo.class));
-            var method = aspect.getClass().getDeclaredMethod("logActivitySuccess", UserActivity.class, UserActivityLog.class);
-            method.setAccessible(true);
-            method.invoke(aspect, userActivity, log);
-            log.setFullName("Test User");
-            method.invoke(aspect, userActivity, log);
-        }
+        var method = aspect.getClass().getDeclaredMethod("logActivitySuccess", UserActivity.class, UserActivityLog.class);
+        method.setAccessible(true);
+        method.invoke(aspect, userActivity, log);
+        log.setFullName("Test User");
+        method.invoke(aspect, userActivity, log);
     }
     @Mock UserActivityLogRepository userActivityLogRepository;
-    @Mock UserRepository userRepository;
+    @Mock AuthPrincipalService authPrincipalService;
     @Mock AccountUtils accountUtils;
     @Mock IpUtilsWrapper ipUtils;
-    @Mock UserAgentUtil userAgentUtil;
-    @Mock LocationUtil locationUtil;
+    @Mock ActivityEventWal activityEventWal;
+    @Mock ActivityLiveTailService activityLiveTailService;
+    @Mock ActivityLogPolicyService activityLogPolicyService;
+    @Mock ActivitySketchService activitySketchService;
+    @Mock UserLoginProfileService userLoginProfileService;
     @Mock JoinPoint joinPoint;
     @Mock org.aspectj.lang.Signature signature;
     @Mock UserActivity userActivity;
@@ -425,26 +285,152 @@ class UserActivityAspectTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-    aspect = new UserActivityAspect(userActivityLogRepository, userRepository, accountUtils, ipUtils, userAgentUtil, locationUtil);
+    aspect = new UserActivityAspect(userActivityLogRepository, authPrincipalService, accountUtils, ipUtils, activityEventWal, activityLiveTailService, activityLogPolicyService, activitySketchService, userLoginProfileService);
+    when(activityLogPolicyService.admit(any(), any(), any())).thenReturn(true);
     when(joinPoint.getSignature()).thenReturn(signature);
     when(signature.getName()).thenReturn("testMethod");
     }
 
     @Test
     void testLogUserActivity_success() {
-        User user = new User();
-        when(accountUtils.getCurrentUser()).thenReturn(user);
+        AuthPrincipal user = AuthPrincipal.builder().build();
+        when(accountUtils.getCurrentPrincipal()).thenReturn(user);
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
+        when(userActivity.details()).thenReturn("");
+        when(userActivity.logUserId()).thenReturn(true);
+        when(ipUtils.getClientIpAddress()).thenReturn("127.0.0.1");
+        when(ipUtils.getUserAgent()).thenReturn("Mozilla");
+        aspect.logUserActivity(joinPoint, userActivity, null);
+        ArgumentCaptor<UserActivityLog> captor = ArgumentCaptor.forClass(UserActivityLog.class);
+        verify(activityEventWal).append(captor.capture());
+        assertEquals("SUCCESS", captor.getValue().getStatus());
+        assertTrue(captor.getValue().getEnrichmentPending());
+        verifyNoInteractions(userActivityLogRepository);
+    }
+
+    @Test
+    void testLogUserActivity_flagsLoginFromNewDevice() {
+        AuthPrincipal user = AuthPrincipal.builder().userId(8L).build();
+        when(accountUtils.getCurrentPrincipal()).thenReturn(user);
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
+        when(userActivity.details()).thenReturn("");
+        when(userActivity.logUserId()).thenReturn(true);
+        when(ipUtils.getClientIpAddress()).thenReturn("10.0.0.1");
+        when(ipUtils.getUserAgent()).thenReturn("Mozilla");
+        when(userLoginProfileService.recordDevice(eq(8L), eq("Mozilla"), any())).thenReturn(true);
+        aspect.logUserActivity(joinPoint, userActivity, null);
+        ArgumentCaptor<UserActivityLog> captor = ArgumentCaptor.forClass(UserActivityLog.class);
+        verify(activityEventWal).append(captor.capture());
+        assertTrue(captor.getValue().getNewDevice());
+    }
+
+    @Test
+    void testLogUserActivity_profileFailureStillRecords() {
+        AuthPrincipal user = AuthPrincipal.builder().userId(8L).build();
+        when(accountUtils.getCurrentPrincipal()).thenReturn(user);
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_ATTEMPT);
+        when(userActivity.details()).thenReturn("");
+        when(userActivity.logUserId()).thenReturn(true);
+        when(ipUtils.getClientIpAddress()).thenReturn("10.0.0.1");
+        when(ipUtils.getUserAgent()).thenReturn("Mozilla");
+        when(userLoginProfileService.recordDevice(any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+        aspect.logUserActivity(joinPoint, userActivity, null);
+        ArgumentCaptor<UserActivityLog> captor = ArgumentCaptor.forClass(UserActivityLog.class);
+        verify(activityEventWal).append(captor.capture());
+        assertEquals("SUCCESS", captor.getValue().getStatus());
+        assertNull(captor.getValue().getNewDevice());
+    }
+
+    @Test
+    void testLogUserActivity_bufferUnavailableWritesDirectly() {
+        when(accountUtils.getCurrentPrincipal()).thenReturn(AuthPrincipal.builder().build());
         when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS);
         when(userActivity.details()).thenReturn("");
         when(userActivity.logUserId()).thenReturn(true);
         when(ipUtils.getClientIpAddress()).thenReturn("127.0.0.1");
         when(ipUtils.getUserAgent()).thenReturn("Mozilla");
-        // Mock static methods for UserAgentUtil and LocationUtil
-        try (var userAgentMocked = org.mockito.Mockito.mockStatic(com.example.demologin.utils.UserAgentUtil.class)) {
-            userAgentMocked.when(() -> com.example.demologin.utils.UserAgentUtil.parseUserAgent(any())).thenReturn(null);
-            when(locationUtil.getLocationFromIP(any())).thenReturn(null);
-            aspect.logUserActivity(joinPoint, userActivity, null);
+        doThrow(new java.io.UncheckedIOException(new java.io.IOException("disk full"))).when(activityEventWal).append(any());
+        aspect.logUserActivity(joinPoint, userActivity, null);
+        ArgumentCaptor<UserActivityLog> captor = ArgumentCaptor.forClass(UserActivityLog.class);
+        verify(userActivityLogRepository).save(captor.capture());
+        assertEquals("SUCCESS", captor.getValue().getStatus());
+    }
+
+    @Test
+    void testLogUserActivity_suppressedByPolicySkipsRecording() {
+        AuthPrincipal user = AuthPrincipal.builder().userId(8L).build();
+        when(accountUtils.getCurrentPrincipal()).thenReturn(user);
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.TOKEN_REFRESH);
+        when(userActivity.logUserId()).thenReturn(true);
+        when(ipUtils.getClientIpAddress()).thenReturn("10.0.0.1");
+        when(activityLogPolicyService.admit(com.example.demologin.enums.ActivityType.TOKEN_REFRESH, 8L, "10.0.0.1")).thenReturn(false);
+        aspect.logUserActivity(joinPoint, userActivity, null);
+        verifyNoInteractions(activityEventWal, activityLiveTailService, userActivityLogRepository);
+        verify(ipUtils, never()).getUserAgent();
+        // Still counted as an active user
+        verify(activitySketchService).recordActivity(8L);
+    }
+
+    @Test
+    void testCountFailedActivity_recordsClientIp() {
+        when(ipUtils.getClientIpAddress()).thenReturn("203.0.113.9");
+        aspect.countFailedActivity(userActivity, new RuntimeException("Invalid credentials"));
+        verify(activitySketchService).recordFailure("203.0.113.9");
+        verifyNoInteractions(activityEventWal, userActivityLogRepository);
+    }
+
+    @Test
+    void testCountFailedActivity_swallowsErrors() {
+        when(ipUtils.getClientIpAddress()).thenReturn("203.0.113.9");
+        doThrow(new IllegalStateException("boom")).when(activitySketchService).recordFailure(any());
+        assertDoesNotThrow(() -> aspect.countFailedActivity(userActivity, new RuntimeException("Invalid credentials")));
+    }
+
+    @Test
+    void testLogAsyncUserActivity_logsWhenFutureCompletesWithRequestBound() throws Throwable {
+        ProceedingJoinPoint asyncJoinPoint = mock(ProceedingJoinPoint.class);
+        when(asyncJoinPoint.getSignature()).thenReturn(signature);
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        when(asyncJoinPoint.proceed()).thenReturn(pending);
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_ATTEMPT);
+        when(userActivity.details()).thenReturn("");
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        List<Object> boundRequests = new ArrayList<>();
+        when(ipUtils.getClientIpAddress()).thenAnswer(invocation -> {
+            boundRequests.add(RequestContextHolder.getRequestAttributes());
+            return "10.0.0.1";
+        });
+        RequestContextHolder.setRequestAttributes(request);
+        CompletableFuture<?> result;
+        try {
+            result = (CompletableFuture<?>) aspect.logAsyncUserActivity(asyncJoinPoint, userActivity);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
         }
-        verify(userActivityLogRepository, atLeastOnce()).save(any(UserActivityLog.class));
+        verifyNoInteractions(activityEventWal);
+
+        CompletableFuture.runAsync(() -> pending.complete("done")).join();
+
+        assertEquals("done", result.join());
+        verify(activityEventWal).append(any());
+        assertFalse(boundRequests.isEmpty());
+        assertTrue(boundRequests.stream().allMatch(bound -> bound == request));
+    }
+
+    @Test
+    void testLogAsyncUserActivity_countsFailureWhenFutureFails() throws Throwable {
+        ProceedingJoinPoint asyncJoinPoint = mock(ProceedingJoinPoint.class);
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        when(asyncJoinPoint.proceed()).thenReturn(pending);
+        when(userActivity.activityType()).thenReturn(com.example.demologin.enums.ActivityType.LOGIN_ATTEMPT);
+        when(ipUtils.getClientIpAddress()).thenReturn("10.0.0.1");
+
+        CompletableFuture<?> result = (CompletableFuture<?>) aspect.logAsyncUserActivity(asyncJoinPoint, userActivity);
+        pending.completeExceptionally(new IllegalStateException("provider down"));
+
+        assertThrows(CompletionException.class, result::join);
+        verify(activitySketchService).recordFailure("10.0.0.1");
+        verifyNoInteractions(activityEventWal);
     }
 }
@@ -0,0 +1,47 @@
+package com.example.demologin.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedExpiringCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final BoundedExpiringCache cache = new BoundedExpiringCache("ipLocations", 3, 60_000, now::get);
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        cache.put("1.1.1.1", "a");
+        cache.put("2.2.2.2", "b");
+        cache.put("3.3.3.3", "c");
+        // Reading 1.1.1.1 makes 2.2.2.2 the eldest
+        assertEquals("a", cache.get("1.1.1.1", String.class));
+
+        cache.put("4.4.4.4", "d");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("2.2.2.2"));
+        assertEquals("a", cache.get("1.1.1.1", String.class));
+        assertEquals("d", cache.get("4.4.4.4", String.class));
+    }
+
+    @Test
+    void entriesExpireAfterTimeToLive() {
+        cache.put("1.1.1.1", "a");
+
+        now.addAndGet(59_999);
+        assertEquals("a", cache.get("1.1.1.1", String.class));
+
+        now.addAndGet(1);
+        assertNull(cache.get("1.1.1.1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void valueLoaderResultIsCached() {
+        assertEquals("a", cache.get("1.1.1.1", () -> "a"));
+        assertEquals("a", cache.get("1.1.1.1", () -> "other"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demologin.config;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Inserting a block of rows in one transaction with IDENTITY ids (one INSERT round trip per row, no batching)
+ * against {@link PooledId} ids with JDBC batching, on in-memory H2. H2 round trips are nearly free, so the gap on
+ * a networked MySQL or PostgreSQL is larger than measured here.
+ *
+ * Run after {@code mvn test-compile}:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main PooledIdGeneratorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PooledIdGeneratorBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private SessionFactory sessionFactory;
+
+    @Entity
+    @Table(name = "identity_rows")
+    public static class IdentityRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String payload;
+    }
+
+    @Entity
+    @Table(name = "pooled_rows")
+    public static class PooledRow {
+        @Id
+        @PooledId
+        private Long id;
+        private String payload;
+    }
+
+    @Setup
+    public void startHibernate() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(PooledRow.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:pooled-id-benchmark;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty(PooledIdGenerator.ALLOCATION_SIZE_SETTING, "50")
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void stopHibernate() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void insertWithIdentity() {
+        insert(() -> {
+            IdentityRow row = new IdentityRow();
+            row.payload = "payload";
+            return row;
+        });
+    }
+
+    @Benchmark
+    public void insertWithPooledIds() {
+        insert(() -> {
+            PooledRow row = new PooledRow();
+            row.payload = "payload";
+            return row;
+        });
+    }
+
+    private void insert(Supplier<Object> rowFactory) {
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < rows; i++) {
+                session.persist(rowFactory.get());
+            }
+        });
+    }
+}
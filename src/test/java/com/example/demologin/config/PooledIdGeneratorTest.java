@@ -0,0 +1,126 @@
+package com.example.demologin.config;
+
+import com.example.demologin.entity.EmailOtp;
+import com.example.demologin.entity.RefreshToken;
+import com.example.demologin.repository.EmailOtpRepository;
+import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.service.ActivityStatsService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.demo.id.allocation_size=50",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demologin.config.PooledIdGeneratorTest$CountingInspector"
+})
+@Import(PooledIdTableInitializer.class)
+class PooledIdGeneratorTest {
+
+    @Autowired
+    private EmailOtpRepository emailOtpRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PooledIdTableInitializer initializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // UserActivityLog's entity listener needs it
+    @MockitoBean
+    private ActivityStatsService activityStatsService;
+
+    @Test
+    void saveAll_allocatesIdsInBlocksAndBatchesInserts() {
+        CountingInspector.STATEMENTS.clear();
+        List<EmailOtp> otps = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            otps.add(otp("user" + i + "@example.com"));
+        }
+
+        emailOtpRepository.saveAll(otps);
+
+        // Ids are known without inserting, so the INSERTs wait for the flush and go out in JDBC batches
+        assertEquals(120, otps.stream().map(EmailOtp::getId).distinct().count());
+        assertEquals(0, count("insert", "email_otp"));
+        // Three blocks of 50 ids reserved from the allocation table
+        assertEquals(151L, jdbcTemplate.queryForObject("SELECT next_val FROM email_otp_ids", Long.class));
+
+        entityManager.flush();
+        assertEquals(120, emailOtpRepository.count());
+    }
+
+    // Outside the test transaction, like at startup: the generator updates the allocation table on its own connection
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void align_movesAllocationPastIdsWrittenBeforePooling() {
+        jdbcTemplate.update("INSERT INTO refresh_token (id, token, jti, expiry_date) VALUES (?, ?, ?, ?)",
+                5000L, "legacy-token", "legacy-jti", LocalDateTime.now().plusDays(1));
+
+        initializer.align("refresh_token_ids", "refresh_token");
+        RefreshToken token = new RefreshToken();
+        token.setToken("new-token");
+        token.setJti("new-jti");
+        token.setExpiryDate(LocalDateTime.now().plusDays(1));
+        RefreshToken saved = refreshTokenRepository.saveAndFlush(token);
+
+        assertEquals(5001L, saved.getId());
+        // Never moves the counter back below ids already handed out
+        initializer.align("refresh_token_ids", "refresh_token");
+        assertEquals(5051L, jdbcTemplate.queryForObject("SELECT next_val FROM refresh_token_ids", Long.class));
+        refreshTokenRepository.deleteAll();
+    }
+
+    private static long count(String kind, String table) {
+        synchronized (CountingInspector.STATEMENTS) {
+            return CountingInspector.STATEMENTS.stream()
+                    .map(sql -> sql.trim().toLowerCase(Locale.ROOT))
+                    .filter(sql -> sql.startsWith(kind))
+                    .filter(sql -> sql.matches("(?s).*\\b" + table + "\\b.*"))
+                    .count();
+        }
+    }
+
+    private static EmailOtp otp(String email) {
+        return EmailOtp.builder()
+                .email(email)
+                .otp("123456")
+                .type("VERIFY_EMAIL")
+                .expiredAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static class CountingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demologin.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityConfigTest {
+
+    private final PasswordEncoder encoder = SecurityConfig.delegatingPasswordEncoder(5);
+
+    @Test
+    void delegatingPasswordEncoder_writesPrefixedHashAtConfiguredCost() {
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void delegatingPasswordEncoder_verifiesAndUpgradesLegacyHashes() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        String lowerCost = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+        String higherCost = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(encoder.matches("secret", lowerCost));
+        assertTrue(encoder.upgradeEncoding(lowerCost));
+        // A stronger hash is kept rather than rewritten at this node's cost
+        assertTrue(encoder.matches("secret", higherCost));
+        assertFalse(encoder.upgradeEncoding(higherCost));
+        assertFalse(encoder.matches("wrong", legacy));
+    }
+}
@@ -17,6 +17,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.example.demologin.dto.response.LoginResponse;
 import com.example.demologin.dto.response.TokenRefreshResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 class AuthenticationControllerTest {
     @Test
     void oauth2LoginSuccess() {
@@ -65,20 +67,20 @@ class AuthenticationControllerTest {
     void loginWithGoogle() {
         GoogleLoginRequest req = new GoogleLoginRequest();
         LoginResponse resp = new LoginResponse("token", "refresh");
-        when(authenticationService.authenticateWithGoogle(req)).thenReturn(resp);
-        Object result = controller.loginWithGoogle(req);
+        when(authenticationService.authenticateWithGoogleAsync(req)).thenReturn(CompletableFuture.completedFuture(resp));
+        Object result = controller.loginWithGoogle(req).join();
         assertEquals(resp, result);
-        verify(authenticationService).authenticateWithGoogle(req);
+        verify(authenticationService).authenticateWithGoogleAsync(req);
     }
 
     @Test
     void loginWithFacebook() {
         FacebookLoginRequest req = new FacebookLoginRequest();
         LoginResponse resp = new LoginResponse("token", "refresh");
-        when(authenticationService.authenticateWithFacebook(req)).thenReturn(resp);
-        Object result = controller.loginWithFacebook(req);
+        when(authenticationService.authenticateWithFacebookAsync(req)).thenReturn(CompletableFuture.completedFuture(resp));
+        Object result = controller.loginWithFacebook(req).join();
         assertEquals(resp, result);
-        verify(authenticationService).authenticateWithFacebook(req);
+        verify(authenticationService).authenticateWithFacebookAsync(req);
     }
 
     @Test
@@ -11,6 +11,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -31,9 +33,9 @@ class HumanVerificationControllerTest {
     void verifyHuman_shouldReturnOk_whenTokenIsValid() {
         VerifyTokenRequest request = new VerifyTokenRequest();
         VerifyTokenResponse response = new VerifyTokenResponse("valid-token");
-        when(humanVerificationService.verifyHuman(request)).thenReturn(response);
+        when(humanVerificationService.verifyHumanAsync(request)).thenReturn(CompletableFuture.completedFuture(response));
 
-        ResponseEntity<VerifyTokenResponse> result = controller.verifyHuman(request);
+        ResponseEntity<VerifyTokenResponse> result = controller.verifyHuman(request).join();
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(response, result.getBody());
@@ -43,9 +45,9 @@ class HumanVerificationControllerTest {
     void verifyHuman_shouldReturnUnauthorized_whenTokenIsInvalid() {
         VerifyTokenRequest request = new VerifyTokenRequest();
         VerifyTokenResponse response = new VerifyTokenResponse(null);
-        when(humanVerificationService.verifyHuman(request)).thenReturn(response);
+        when(humanVerificationService.verifyHumanAsync(request)).thenReturn(CompletableFuture.completedFuture(response));
 
-        ResponseEntity<VerifyTokenResponse> result = controller.verifyHuman(request);
+        ResponseEntity<VerifyTokenResponse> result = controller.verifyHuman(request).join();
 
         assertEquals(HttpStatus.UNAUTHORIZED, result.getStatusCode());
         assertEquals(response, result.getBody());
@@ -68,6 +68,18 @@ class UserActivityLogControllerTest {
     @Mock
     private UserActivityLogService userActivityLogService;
 
+    @Mock
+    private com.example.demologin.service.ActivityLogExportService activityLogExportService;
+
+    @Mock
+    private com.example.demologin.service.ActivityStatsService activityStatsService;
+
+    @Mock
+    private com.example.demologin.service.ActivityLiveTailService activityLiveTailService;
+
+    @Mock
+    private com.example.demologin.service.ActivitySketchService activitySketchService;
+
     @InjectMocks
     private UserActivityLogController controller;
 
@@ -102,4 +114,86 @@ class UserActivityLogControllerTest {
         assertEquals(page, result);
         verify(userActivityLogService).getActivityLogsByUserId(1L, 0, 20);
     }
+
+    @Test
+    void getAllActivityLogsByCursor() {
+        com.example.demologin.dto.response.CursorPageResponse<UserActivityLogResponse> page = new com.example.demologin.dto.response.CursorPageResponse<>(java.util.Collections.emptyList(), 20, null, false);
+        when(userActivityLogService.getAllActivityLogsAfter("abc", 20)).thenReturn(page);
+        Object result = controller.getAllActivityLogsByCursor("abc", 20);
+        assertEquals(page, result);
+        verify(userActivityLogService).getAllActivityLogsAfter("abc", 20);
+    }
+
+    @Test
+    void getActivityLogsByDateRangeByCursor() {
+        com.example.demologin.dto.response.CursorPageResponse<UserActivityLogResponse> page = new com.example.demologin.dto.response.CursorPageResponse<>(java.util.Collections.emptyList(), 20, null, false);
+        when(userActivityLogService.getActivityLogsByDateRangeAfter(
+                java.time.LocalDate.parse("2023-01-01").atStartOfDay(),
+                java.time.LocalDate.parse("2023-01-02").atTime(23, 59, 59),
+                "", 20)).thenReturn(page);
+        Object result = controller.getActivityLogsByDateRangeByCursor("2023-01-01", "2023-01-02", "", 20);
+        assertEquals(page, result);
+    }
+
+    @Test
+    void getMyLoginHistoryByCursor() {
+        com.example.demologin.dto.response.CursorPageResponse<UserActivityLogResponse> page = new com.example.demologin.dto.response.CursorPageResponse<>(java.util.Collections.emptyList(), 20, null, false);
+        when(userActivityLogService.getMyLoginHistoryAfter("", 20)).thenReturn(page);
+        Object result = controller.getMyLoginHistoryByCursor("", 20);
+        assertEquals(page, result);
+        verify(userActivityLogService).getMyLoginHistoryAfter("", 20);
+    }
+
+    @Test
+    void streamActivityLogExport() throws Exception {
+        com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest req = new com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest();
+        req.setStartDate(java.time.LocalDate.parse("2023-01-01"));
+        req.setEndDate(java.time.LocalDate.parse("2023-01-31"));
+        req.setFormat(com.example.demologin.enums.ExportFormat.NDJSON);
+        req.setGzip(true);
+        org.springframework.mock.web.MockHttpServletResponse response = new org.springframework.mock.web.MockHttpServletResponse();
+
+        controller.streamActivityLogExport(req, response);
+
+        assertEquals("application/gzip", response.getContentType());
+        assertEquals("attachment; filename=\"activity-logs-2023-01-01-to-2023-01-31.ndjson.gz\"", response.getHeader("Content-Disposition"));
+        verify(activityLogExportService).exportActivityLogs(req, response.getOutputStream());
+    }
+
+    @Test
+    void getUserActivityStats() {
+        com.example.demologin.dto.response.UserActivityStatsResponse stats = new com.example.demologin.dto.response.UserActivityStatsResponse();
+        when(activityStatsService.getUserActivityStats(1L, java.time.LocalDate.parse("2023-01-01"), java.time.LocalDate.parse("2023-01-31"))).thenReturn(stats);
+        Object result = controller.getUserActivityStats(1L, "2023-01-01", "2023-01-31");
+        assertEquals(stats, result);
+    }
+
+    @Test
+    void getSecurityStats() {
+        java.time.LocalDateTime from = java.time.LocalDateTime.of(2023, 1, 1, 0, 0);
+        java.time.LocalDateTime to = java.time.LocalDateTime.of(2023, 1, 2, 0, 0);
+        com.example.demologin.dto.response.SecurityStatsResponse stats = new com.example.demologin.dto.response.SecurityStatsResponse();
+        when(activitySketchService.getSecurityStats(from, to, 5)).thenReturn(stats);
+        Object result = controller.getSecurityStats(from, to, 5);
+        assertEquals(stats, result);
+    }
+
+    @Test
+    void filterActivityLogs() {
+        Page<UserActivityLogResponse> page = new org.springframework.data.domain.PageImpl<>(java.util.Collections.emptyList(), org.springframework.data.domain.PageRequest.of(0, 20), 0);
+        com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest filter = new com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest();
+        filter.setCountryCode("VN");
+        when(userActivityLogService.filterActivityLogs(filter)).thenReturn(page);
+        Object result = controller.filterActivityLogs(filter);
+        assertEquals(page, result);
+        verify(userActivityLogService).filterActivityLogs(filter);
+    }
+
+    @Test
+    void streamLiveActivity() {
+        org.springframework.web.servlet.mvc.method.annotation.SseEmitter emitter = new org.springframework.web.servlet.mvc.method.annotation.SseEmitter();
+        when(activityLiveTailService.subscribe(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS, 5L, "41")).thenReturn(emitter);
+        Object result = controller.streamLiveActivity(com.example.demologin.enums.ActivityType.LOGIN_SUCCESS, 5L, "41");
+        assertSame(emitter, result);
+    }
 }
@@ -0,0 +1,123 @@
+package com.example.demologin.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(3);
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(new CircuitBreaker.Settings(
+            10, 4, 50, 50, Duration.ofSeconds(2), Duration.ofSeconds(30), 2), now::get);
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        call(FAST, true);
+        call(FAST, true);
+        call(FAST, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(100f, breaker.snapshot().failureRate());
+    }
+
+    @Test
+    void opensOnFailureRate_andRefusesCalls() {
+        call(FAST, false);
+        call(FAST, false);
+        call(FAST, true);
+        call(FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(2, breaker.snapshot().notPermittedCalls());
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        call(FAST, false);
+        call(SLOW, false);
+        call(FAST, false);
+        call(SLOW, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        for (int i = 0; i < 7; i++) {
+            call(FAST, false);
+        }
+        for (int i = 0; i < 3; i++) {
+            call(FAST, true);
+        }
+        assertEquals(30f, breaker.snapshot().failureRate());
+
+        for (int i = 0; i < 10; i++) {
+            call(FAST, false);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(10, breaker.snapshot().bufferedCalls());
+        assertEquals(0f, breaker.snapshot().failureRate());
+    }
+
+    @Test
+    void halfOpenProbes_closeWhenHealthy() {
+        open();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.record(FAST, false);
+        breaker.record(FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void halfOpenProbes_reopenWhenStillFailing() {
+        open();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        call(FAST, true);
+        call(FAST, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void releasedProbe_canBeRetaken() {
+        open();
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.release();
+
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(long durationNanos, boolean failed) {
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.record(durationNanos, failed);
+    }
+}
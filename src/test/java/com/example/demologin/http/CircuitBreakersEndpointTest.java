@@ -0,0 +1,33 @@
+package com.example.demologin.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakersEndpointTest {
+
+    private final OutboundHttpClients clients = new OutboundHttpClients(new MockEnvironment(), new SimpleMeterRegistry());
+    private final CircuitBreakersEndpoint endpoint = new CircuitBreakersEndpoint(clients);
+
+    @Test
+    void listsRemotesInUse() {
+        clients.get(OutboundHttpClients.GOOGLE);
+        clients.get(OutboundHttpClients.FACEBOOK);
+
+        Map<String, CircuitBreaker.Snapshot> snapshots = endpoint.circuitBreakers();
+
+        assertEquals(List.of("facebook", "google"), List.copyOf(snapshots.keySet()));
+        assertEquals(CircuitBreaker.State.CLOSED, snapshots.get("google").state());
+    }
+
+    @Test
+    void unknownRemote_isNotCreated() {
+        assertNull(endpoint.circuitBreaker("nowhere"));
+        assertTrue(endpoint.circuitBreakers().isEmpty());
+    }
+}
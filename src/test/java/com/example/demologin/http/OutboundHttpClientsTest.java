@@ -0,0 +1,232 @@
+package com.example.demologin.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundHttpClientsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("outbound-http.defaults.read-timeout-ms", "2000")
+            .withProperty("outbound-http.defaults.acquire-timeout-ms", "0")
+            .withProperty("outbound-http.remotes.slow.read-timeout-ms", "200")
+            .withProperty("outbound-http.remotes.narrow.max-concurrent", "1")
+            .withProperty("outbound-http.remotes.flaky.circuit.window-size", "4")
+            .withProperty("outbound-http.remotes.flaky.circuit.minimum-calls", "4");
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger failCalls = new AtomicInteger();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private String baseUrl;
+    private OutboundHttpClients clients;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, 200, "{\"status\":\"ok\"}");
+        });
+        server.createContext("/fail", exchange -> {
+            failCalls.incrementAndGet();
+            respond(exchange, 503, "{}");
+        });
+        server.createContext("/slow", exchange -> {
+            sleep(1000);
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/block", exchange -> {
+            blocked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        clients = new OutboundHttpClients(environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void oneClientPerRemote_withItsOwnSettings() {
+        assertSame(clients.get("fast"), clients.get("fast"));
+        assertNotSame(clients.get("fast"), clients.get("slow"));
+
+        assertEquals(Duration.ofMillis(200), clients.get("slow").getSettings().readTimeout());
+        assertEquals(Duration.ofMillis(2000), clients.get("fast").getSettings().readTimeout());
+        assertEquals(Duration.ofMillis(2000), clients.get("fast").getSettings().connectTimeout());
+        assertEquals(1, clients.get("narrow").getSettings().maxConcurrent());
+        assertEquals(50, clients.get("fast").getSettings().maxConcurrent());
+    }
+
+    @Test
+    void sequentialRequests_reuseOneConnection() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(clients.restClient("fast").get().uri(baseUrl + "/ok").retrieve().body(String.class).contains("ok"));
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(10, meterRegistry.get("http.outbound.requests")
+                .tags("remote", "fast", "method", "GET", "outcome", "SUCCESS").timer().count());
+    }
+
+    @Test
+    void serverErrors_areTimedAsSuch() {
+        assertThrows(HttpServerErrorException.class,
+                () -> clients.restClient("fast").get().uri(baseUrl + "/fail").retrieve().body(String.class));
+
+        assertEquals(1, meterRegistry.get("http.outbound.requests")
+                .tags("remote", "fast", "outcome", "SERVER_ERROR").timer().count());
+    }
+
+    @Test
+    void readTimeout_appliesPerRemote() {
+        assertThrows(ResourceAccessException.class,
+                () -> clients.restClient("slow").get().uri(baseUrl + "/slow").retrieve().body(String.class));
+
+        assertEquals(1, meterRegistry.get("http.outbound.requests")
+                .tags("remote", "slow", "outcome", "IO_ERROR").timer().count());
+    }
+
+    @Test
+    void concurrencyCap_rejectsWithoutSending() throws Exception {
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(
+                () -> clients.restClient("narrow").get().uri(baseUrl + "/block").retrieve().body(String.class));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("http.outbound.in-flight").tag("remote", "narrow").gauge().value());
+
+        assertThrows(OutboundHttpLimitException.class,
+                () -> clients.restClient("narrow").get().uri(baseUrl + "/ok").retrieve().body(String.class));
+        assertEquals(1, meterRegistry.get("http.outbound.rejected").tags("remote", "narrow", "reason", "concurrency-limit").counter().count());
+        assertTrue(clientPorts.isEmpty());
+        // Other remotes are not affected
+        assertNotNull(clients.restClient("fast").get().uri(baseUrl + "/ok").retrieve().body(String.class));
+
+        release.countDown();
+        assertEquals("{}", inFlight.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("http.outbound.in-flight").tag("remote", "narrow").gauge().value());
+    }
+
+    @Test
+    void openCircuit_failsFastWithoutSending() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class,
+                    () -> clients.restClient("flaky").get().uri(baseUrl + "/fail").retrieve().body(String.class));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, clients.get("flaky").getCircuitBreaker().getState());
+
+        assertThrows(OutboundCircuitOpenException.class,
+                () -> clients.restClient("flaky").get().uri(baseUrl + "/fail").retrieve().body(String.class));
+        assertEquals(4, failCalls.get());
+        assertEquals(1, meterRegistry.get("http.outbound.rejected").tags("remote", "flaky", "reason", "circuit-open").counter().count());
+        assertEquals(1, meterRegistry.get("http.outbound.circuit.state").tags("remote", "flaky", "state", "open").gauge().value());
+        assertEquals(0, meterRegistry.get("http.outbound.circuit.state").tags("remote", "flaky", "state", "closed").gauge().value());
+        // Each remote has its own breaker
+        assertNotNull(clients.restClient("fast").get().uri(baseUrl + "/ok").retrieve().body(String.class));
+    }
+
+    @Test
+    void sendAsync_parsesJsonAndRecordsTheCall() {
+        Map<String, Object> body = clients.get("fast").sendAsyncForJson(get("/ok")).join();
+
+        assertEquals("ok", body.get("status"));
+        assertEquals(1, meterRegistry.get("http.outbound.requests")
+                .tags("remote", "fast", "method", "GET", "outcome", "SUCCESS").timer().count());
+        assertEquals(0, meterRegistry.get("http.outbound.in-flight").tag("remote", "fast").gauge().value());
+    }
+
+    @Test
+    void sendAsync_failsWithTheSameExceptionsAsRestClient() {
+        CompletionException serverError = assertThrows(CompletionException.class,
+                () -> clients.get("fast").sendAsyncForJson(get("/fail")).join());
+        assertInstanceOf(HttpServerErrorException.class, serverError.getCause());
+
+        CompletionException timeout = assertThrows(CompletionException.class,
+                () -> clients.get("slow").sendAsyncForJson(get("/slow")).join());
+        assertInstanceOf(ResourceAccessException.class, timeout.getCause());
+        assertEquals(1, meterRegistry.get("http.outbound.requests")
+                .tags("remote", "slow", "outcome", "IO_ERROR").timer().count());
+    }
+
+    @Test
+    void sendAsync_refusesAtOnceWhenLimitedOrOpen() throws Exception {
+        CompletableFuture<Map<String, Object>> inFlight = clients.get("narrow").sendAsyncForJson(get("/block"));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        CompletionException limited = assertThrows(CompletionException.class,
+                () -> clients.get("narrow").sendAsyncForJson(get("/ok")).join());
+        assertInstanceOf(OutboundHttpLimitException.class, limited.getCause());
+        release.countDown();
+        assertNotNull(inFlight.get(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(CompletionException.class, () -> clients.get("flaky").sendAsyncForJson(get("/fail")).join());
+        }
+        CompletionException open = assertThrows(CompletionException.class,
+                () -> clients.get("flaky").sendAsyncForJson(get("/fail")).join());
+        assertInstanceOf(OutboundCircuitOpenException.class, open.getCause());
+        assertEquals(4, failCalls.get());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demologin.mapper;
+
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.User;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.example.demologin.utils.LocationUtil;
+import com.example.demologin.utils.UserAgentUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserActivityLogMapperTest {
+
+    private UserRepository userRepository;
+    private ActivityLogDimensionService dimensionService;
+    private UserActivityLogMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        dimensionService = mock(ActivityLogDimensionService.class);
+        mapper = new UserActivityLogMapper(userRepository, dimensionService);
+    }
+
+    @Test
+    void testToResponseList_rehydratesDimensionsFromDictionary() {
+        UserActivityLog encoded = log(1L, null, "Guest");
+        encoded.setUserAgentId(3L);
+        encoded.setLocationId(4L);
+        when(dimensionService.getUserAgent(3L)).thenReturn(new ActivityLogDimensionService.UserAgentEntry("Mozilla/5.0",
+                new UserAgentUtil.DeviceInfo("Google Chrome", "120.0", "Windows 10/11", "Windows Computer", "Desktop")));
+        when(dimensionService.getLocation(4L)).thenReturn(new LocationUtil.LocationInfo("Hanoi", "Hanoi", "Vietnam", "VN"));
+
+        UserActivityLogResponse response = mapper.toResponseList(List.of(encoded)).get(0);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> userAgentIds = ArgumentCaptor.forClass(Collection.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> locationIds = ArgumentCaptor.forClass(Collection.class);
+        verify(dimensionService).preload(userAgentIds.capture(), locationIds.capture());
+        assertEquals(List.of(3L), new ArrayList<>(userAgentIds.getValue()));
+        assertEquals(List.of(4L), new ArrayList<>(locationIds.getValue()));
+        assertEquals("Mozilla/5.0", response.getUserAgent());
+        assertEquals("Google Chrome", response.getBrowser());
+        assertEquals("Desktop", response.getDeviceType());
+        assertEquals("Google Chrome 120.0 on Windows 10/11 (Desktop)", response.getDeviceInfo());
+        assertEquals("VN", response.getCountryCode());
+        assertEquals("Hanoi, Vietnam", response.getLocation());
+    }
+
+    @Test
+    void testToResponse_legacyRowUsesStringColumns() {
+        UserActivityLog legacy = log(1L, null, "Guest");
+        legacy.setUserAgent("Mozilla/4.0");
+        legacy.setBrowser("Safari");
+        legacy.setBrowserVersion("14.1");
+        legacy.setOperatingSystem("macOS 10.15");
+        legacy.setCity("Da Nang");
+        legacy.setRegion("Da Nang");
+        legacy.setCountry("Vietnam");
+
+        UserActivityLogResponse response = mapper.toResponse(legacy);
+
+        assertEquals("Mozilla/4.0", response.getUserAgent());
+        assertEquals("Safari", response.getBrowser());
+        assertEquals("Da Nang", response.getCity());
+        verify(dimensionService, never()).getLocation(any());
+    }
+
+    @Test
+    void testToResponsePage_resolvesNamesWithOneQuery() {
+        when(userRepository.findFullNamesByUserIdIn(anyCollection())).thenReturn(List.of(
+                new Object[]{1L, "Alice Nguyen"},
+                new Object[]{2L, "Bob Tran"}
+        ));
+        List<UserActivityLog> logs = List.of(
+                log(10L, 1L, null),
+                log(11L, 2L, null),
+                log(12L, 1L, null),
+                log(13L, null, "Anonymous Visitor"),
+                log(14L, 99L, null)
+        );
+
+        Page<UserActivityLogResponse> page = mapper.toResponsePage(new PageImpl<>(logs, PageRequest.of(2, 5), 42));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> userIds = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository, times(1)).findFullNamesByUserIdIn(userIds.capture());
+        verify(userRepository, never()).findById(any());
+        assertEquals(List.of(1L, 2L, 99L), new ArrayList<>(userIds.getValue()));
+
+        List<String> names = page.getContent().stream().map(UserActivityLogResponse::getFullName).toList();
+        assertEquals("Alice Nguyen", names.get(0));
+        assertEquals("Bob Tran", names.get(1));
+        assertEquals("Alice Nguyen", names.get(2));
+        assertEquals("Anonymous Visitor", names.get(3));
+        assertNull(names.get(4));
+        assertEquals(2, page.getNumber());
+        assertEquals(42, page.getTotalElements());
+    }
+
+    @Test
+    void testToResponseList_noUserIdsSkipsQuery() {
+        List<UserActivityLogResponse> responses = mapper.toResponseList(List.of(log(1L, null, "Guest")));
+
+        assertEquals("Guest", responses.get(0).getFullName());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testToResponse_singleLogStillLoadsUser() {
+        User user = new User();
+        user.setFullName("Alice Nguyen");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        UserActivityLogResponse response = mapper.toResponse(log(1L, 1L, null));
+
+        assertEquals("Alice Nguyen", response.getFullName());
+    }
+
+    private static UserActivityLog log(Long id, Long userId, String fullName) {
+        return UserActivityLog.builder()
+                .id(id)
+                .userId(userId)
+                .fullName(fullName)
+                .activityType(ActivityType.LOGIN_ATTEMPT)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
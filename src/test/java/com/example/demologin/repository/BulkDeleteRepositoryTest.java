@@ -0,0 +1,167 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.EmailOtp;
+import com.example.demologin.entity.PasswordResetToken;
+import com.example.demologin.entity.RefreshToken;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.service.ActivityStatsService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Delete methods must run as set-based statements: the SQL count stays fixed (or grows per chunk) however many
+ * rows match, and no matching row is selected into the persistence context first.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demologin.repository.BulkDeleteRepositoryTest$CountingInspector"
+})
+class BulkDeleteRepositoryTest {
+
+    @Autowired
+    private UserActivityLogRepository userActivityLogRepository;
+
+    @Autowired
+    private EmailOtpRepository emailOtpRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // UserActivityLog's entity listener needs it
+    @MockitoBean
+    private ActivityStatsService activityStatsService;
+
+    @Test
+    void deleteByUserId_isOneStatement() {
+        saveLogs(7L, 300);
+        saveLogs(8L, 5);
+        CountingInspector.STATEMENTS.clear();
+
+        assertEquals(300, userActivityLogRepository.deleteByUserId(7L));
+
+        assertEquals(List.of("delete"), kinds());
+        assertEquals(5, userActivityLogRepository.count());
+    }
+
+    @Test
+    void deleteByUserIdInChunks_usesTwoStatementsPerChunk() {
+        saveLogs(7L, 250);
+        saveLogs(8L, 5);
+        CountingInspector.STATEMENTS.clear();
+
+        assertEquals(250, userActivityLogRepository.deleteByUserIdInChunks(7L, 100));
+
+        assertEquals(List.of("select", "delete", "select", "delete", "select", "delete"), kinds());
+        assertEquals(5, userActivityLogRepository.count());
+    }
+
+    @Test
+    void deleteByEmailAndType_isOneStatement() {
+        for (int i = 0; i < 50; i++) {
+            emailOtpRepository.save(otp("user@example.com", i % 2 == 0 ? "VERIFY_EMAIL" : "FORGOT_PASSWORD"));
+        }
+        emailOtpRepository.save(otp("other@example.com", "VERIFY_EMAIL"));
+        flushAndClear();
+
+        assertEquals(25, emailOtpRepository.deleteByEmailAndType("user@example.com", "VERIFY_EMAIL"));
+
+        assertEquals(List.of("delete"), kinds());
+        assertEquals(26, emailOtpRepository.count());
+    }
+
+    @Test
+    void deleteByExpiryDateBefore_isOneStatement() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 40; i++) {
+            RefreshToken token = new RefreshToken();
+            token.setToken(UUID.randomUUID().toString());
+            token.setJti(UUID.randomUUID().toString());
+            token.setExpiryDate(i < 30 ? now.minusHours(i + 1) : now.plusHours(i));
+            refreshTokenRepository.save(token);
+        }
+        flushAndClear();
+
+        assertEquals(30, refreshTokenRepository.deleteByExpiryDateBefore(now));
+
+        assertEquals(List.of("delete"), kinds());
+        assertEquals(10, refreshTokenRepository.count());
+    }
+
+    @Test
+    void deleteByToken_isOneStatement() {
+        PasswordResetToken token = new PasswordResetToken();
+        token.setToken("reset-token");
+        passwordResetTokenRepository.save(token);
+        flushAndClear();
+
+        assertEquals(1, passwordResetTokenRepository.deleteByToken("reset-token"));
+
+        assertEquals(List.of("delete"), kinds());
+    }
+
+    private void saveLogs(Long userId, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserActivityLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(UserActivityLog.builder()
+                    .userId(userId)
+                    .activityType(ActivityType.LOGIN_ATTEMPT)
+                    .timestamp(now.minusMinutes(i))
+                    .build());
+        }
+        userActivityLogRepository.saveAll(logs);
+        flushAndClear();
+    }
+
+    private static EmailOtp otp(String email, String type) {
+        return EmailOtp.builder()
+                .email(email)
+                .otp("123456")
+                .type(type)
+                .expiredAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+        CountingInspector.STATEMENTS.clear();
+    }
+
+    // First keyword of every statement sent since the last clear
+    private static List<String> kinds() {
+        return CountingInspector.STATEMENTS.stream()
+                .map(sql -> sql.trim().split("\\s+")[0].toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    public static class CountingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = java.util.Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.entity.ActivityLocation;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.service.ActivityStatsService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the dynamic filter against H2 and EXPLAINs the exact SQL Hibernate generated, to check that only the
+ * supplied predicates reach the database and that the composite indexes are picked.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demologin.repository.UserActivityLogSpecificationsTest$CapturingInspector"
+})
+class UserActivityLogSpecificationsTest {
+
+    @Autowired
+    private UserActivityLogRepository userActivityLogRepository;
+
+    @Autowired
+    private ActivityLocationRepository activityLocationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // UserActivityLog's entity listener needs it
+    @MockitoBean
+    private ActivityStatsService activityStatsService;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        Long vietnam = activityLocationRepository.save(ActivityLocation.builder()
+                .fingerprint("vn").city("Hanoi").country("Vietnam").countryCode("VN").build()).getId();
+        Long unitedStates = activityLocationRepository.save(ActivityLocation.builder()
+                .fingerprint("us").city("Austin").country("United States").countryCode("US").build()).getId();
+        for (int i = 0; i < 50; i++) {
+            userActivityLogRepository.save(UserActivityLog.builder()
+                    .userId((long) (i % 5))
+                    .activityType(i % 2 == 0 ? ActivityType.LOGIN_ATTEMPT : ActivityType.LOGOUT)
+                    .status(i % 7 == 0 ? "FAILED" : "SUCCESS")
+                    .ipAddress("10.0.0." + (i % 10))
+                    .locationId(i % 3 == 0 ? vietnam : unitedStates)
+                    .timestamp(now.minusHours(i))
+                    .build());
+        }
+        userActivityLogRepository.flush();
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void userAndTimeRangeFilterUsesUserTimestampIndex() {
+        UserActivityLogFilterRequest filter = new UserActivityLogFilterRequest();
+        filter.setUserId(3L);
+        filter.setStartTime(LocalDateTime.now().minusDays(1));
+
+        String plan = explain(filter, 3L, filter.getStartTime());
+
+        assertTrue(plan.contains("idx_activity_log_user"), plan);
+    }
+
+    @Test
+    void ipFilterUsesIpTimestampIndex() {
+        UserActivityLogFilterRequest filter = new UserActivityLogFilterRequest();
+        filter.setIpAddress("10.0.0.4");
+        filter.setStartTime(LocalDateTime.now().minusDays(1));
+
+        String plan = explain(filter, "10.0.0.4", filter.getStartTime());
+
+        assertTrue(plan.contains("idx_activity_log_ip_timestamp"), plan);
+    }
+
+    @Test
+    void countryFilterResolvesLocationIdsAndUsesLocationTimestampIndex() {
+        UserActivityLogFilterRequest filter = new UserActivityLogFilterRequest();
+        filter.setCountryCode("VN");
+
+        assertEquals(17, userActivityLogRepository.findAll(UserActivityLogSpecifications.matching(filter)).size());
+        String plan = explain(filter, "VN");
+
+        assertTrue(plan.contains("idx_activity_log_location_timestamp"), plan);
+        assertTrue(plan.contains("idx_activity_location_country_code"), plan);
+    }
+
+    @Test
+    void onlySuppliedPredicatesAreEmitted() {
+        UserActivityLogFilterRequest filter = new UserActivityLogFilterRequest();
+        filter.setActivityType(ActivityType.LOGOUT);
+        filter.setStatus("SUCCESS");
+
+        List<UserActivityLog> logs = userActivityLogRepository.findAll(UserActivityLogSpecifications.matching(filter));
+
+        assertFalse(logs.isEmpty());
+        assertTrue(logs.stream().allMatch(log -> log.getActivityType() == ActivityType.LOGOUT && "SUCCESS".equals(log.getStatus())));
+        String sql = lastSelect().toLowerCase(Locale.ROOT);
+        assertFalse(sql.contains("is null"), sql);
+        assertFalse(sql.contains(" or "), sql);
+    }
+
+    @Test
+    void emptyFilterHasNoWhereClause() {
+        assertEquals(50, userActivityLogRepository.findAll(UserActivityLogSpecifications.matching(new UserActivityLogFilterRequest())).size());
+        assertFalse(lastSelect().toLowerCase(Locale.ROOT).contains(" where "), lastSelect());
+    }
+
+    // Run the filter, then EXPLAIN the statement Hibernate actually sent, bound to the same values
+    private String explain(UserActivityLogFilterRequest filter, Object... parameters) {
+        userActivityLogRepository.findAll(UserActivityLogSpecifications.matching(filter));
+        String sql = lastSelect();
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters).get(0).toLowerCase(Locale.ROOT);
+    }
+
+    private static String lastSelect() {
+        List<String> statements = CapturingInspector.STATEMENTS;
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            if (statements.get(i).trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                return statements.get(i);
+            }
+        }
+        throw new AssertionError("No SELECT captured");
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = java.util.Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demologin.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCalibrationTest {
+
+    // 60 ms at cost 10, doubling per step
+    private static final IntToLongFunction HARDWARE = strength -> 60_000_000L << (strength - 10);
+
+    @Test
+    void pickStrength_choosesHighestCostWithinTarget() {
+        assertEquals(12, BCryptCalibration.pickStrength(250_000_000L, 10, 16, HARDWARE));
+        assertEquals(13, BCryptCalibration.pickStrength(500_000_000L, 10, 16, HARDWARE));
+    }
+
+    @Test
+    void pickStrength_staysWithinBounds() {
+        assertEquals(10, BCryptCalibration.pickStrength(1_000_000L, 10, 16, HARDWARE));
+        assertEquals(14, BCryptCalibration.pickStrength(60_000_000_000L, 10, 14, HARDWARE));
+    }
+
+    @Test
+    void pickStrength_stopsMeasuringOnceOverTarget() {
+        int[] measured = new int[1];
+        BCryptCalibration.pickStrength(250_000_000L, 10, 31, strength -> {
+            measured[0]++;
+            return HARDWARE.applyAsLong(strength);
+        });
+        assertEquals(4, measured[0]);
+    }
+
+    @Test
+    void medianVerifyNanos_growsWithCost() {
+        assertTrue(BCryptCalibration.medianVerifyNanos(8) > BCryptCalibration.medianVerifyNanos(4));
+    }
+}
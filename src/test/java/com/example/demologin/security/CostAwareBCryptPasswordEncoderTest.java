@@ -0,0 +1,26 @@
+package com.example.demologin.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CostAwareBCryptPasswordEncoderTest {
+
+    private final CostAwareBCryptPasswordEncoder encoder = new CostAwareBCryptPasswordEncoder(5);
+
+    @Test
+    void upgradeEncoding_onlyForLowerCosts() {
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertTrue(encoder.upgradeEncoding("plain-text"));
+        assertFalse(encoder.upgradeEncoding(""));
+    }
+
+    @Test
+    void matches_acceptsHashesOfAnyCost() {
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.matches("other", encoder.encode("secret")));
+    }
+}
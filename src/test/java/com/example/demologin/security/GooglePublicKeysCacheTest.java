@@ -0,0 +1,145 @@
+package com.example.demologin.security;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GooglePublicKeysCacheTest {
+
+    private static final long RETRY_BACKOFF_MS = 30_000;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private StandInGoogleKeyServer keyServer;
+    private GooglePublicKeysCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyServer = new StandInGoogleKeyServer(3600);
+        cache = new GooglePublicKeysCache(new NetHttpTransport(), GsonFactory.getDefaultInstance(), keyServer.certsUrl(), now::get,
+                1000, 1000, RETRY_BACKOFF_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyServer.close();
+    }
+
+    @Test
+    void keysAreCachedForMaxAge() throws Exception {
+        List<PublicKey> keys = cache.getPublicKeys();
+        assertEquals(1, keys.size());
+        assertEquals(now.get() + 3_600_000, cache.getExpirationTimeMilliseconds());
+
+        now.addAndGet(3_599_999);
+        assertSame(keys, cache.getPublicKeys());
+        assertEquals(1, keyServer.fetches());
+
+        keyServer.setMaxAgeSeconds(7200);
+        now.addAndGet(1);
+        cache.getPublicKeys();
+        assertEquals(2, keyServer.fetches());
+        assertEquals(now.get() + 7_200_000, cache.getExpirationTimeMilliseconds());
+    }
+
+    @Test
+    void coldStart_concurrentCallersShareOneFetch() throws Exception {
+        List<CompletableFuture<List<PublicKey>>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return cache.getPublicKeys();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        for (CompletableFuture<List<PublicKey>> caller : callers) {
+            assertEquals(1, caller.get().size());
+        }
+        assertEquals(1, keyServer.fetches());
+    }
+
+    @Test
+    void expiredKeys_servedStaleWhenRefreshFails() throws Exception {
+        List<PublicKey> keys = cache.getPublicKeys();
+        keyServer.setStatus(503);
+        now.addAndGet(3_600_000);
+
+        assertSame(keys, cache.getPublicKeys());
+        assertEquals(2, keyServer.fetches());
+
+        // Within the backoff the stale keys are served without another fetch
+        now.addAndGet(RETRY_BACKOFF_MS - 1);
+        assertSame(keys, cache.getPublicKeys());
+        assertFalse(cache.refreshIfExpiringWithin(600_000));
+        assertEquals(2, keyServer.fetches());
+
+        keyServer.setStatus(200);
+        now.addAndGet(1);
+        assertNotSame(keys, cache.getPublicKeys());
+        assertEquals(3, keyServer.fetches());
+    }
+
+    @Test
+    void expiredKeys_otherCallersDoNotWaitForTheRefresh() throws Exception {
+        List<PublicKey> keys = cache.getPublicKeys();
+        keyServer.setDelayMillis(700);
+        now.addAndGet(3_600_000);
+        CompletableFuture<List<PublicKey>> refreshing = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cache.getPublicKeys();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (keyServer.fetches() < 2) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertSame(keys, cache.getPublicKeys());
+        assertTrue(System.nanoTime() - start < 500_000_000L);
+
+        assertNotSame(keys, refreshing.get());
+        assertEquals(2, keyServer.fetches());
+    }
+
+    @Test
+    void noKeysYet_fetchFailureIsThrown() {
+        keyServer.setStatus(503);
+
+        assertThrows(IOException.class, () -> cache.getPublicKeys());
+        // Not fetched again until the backoff has passed
+        assertThrows(IOException.class, () -> cache.getPublicKeys());
+        assertEquals(1, keyServer.fetches());
+    }
+
+    @Test
+    void slowEndpoint_fetchTimesOut() {
+        keyServer.setDelayMillis(1500);
+
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> cache.getPublicKeys());
+        assertTrue(System.nanoTime() - start < 1_400_000_000L);
+    }
+
+    @Test
+    void refreshIfExpiringWithin_skipsFreshKeys() throws Exception {
+        assertTrue(cache.refreshIfExpiringWithin(600_000));
+        assertFalse(cache.refreshIfExpiringWithin(600_000));
+        now.addAndGet(3_000_000);
+        assertTrue(cache.refreshIfExpiringWithin(600_000));
+        assertEquals(2, keyServer.fetches());
+    }
+}
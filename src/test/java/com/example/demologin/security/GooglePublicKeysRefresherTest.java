@@ -0,0 +1,91 @@
+package com.example.demologin.security;
+
+import com.example.demologin.config.GoogleIdTokenConfig;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GooglePublicKeysRefresherTest {
+
+    private static final long REFRESH_AHEAD_MS = 600_000;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private StandInGoogleKeyServer keyServer;
+    private GooglePublicKeysCache publicKeysCache;
+    private GoogleIdTokenVerifier verifier;
+    private GooglePublicKeysRefresher refresher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyServer = new StandInGoogleKeyServer(3600);
+        publicKeysCache = new GooglePublicKeysCache(new NetHttpTransport(), GsonFactory.getDefaultInstance(),
+                keyServer.certsUrl(), now::get, 1000, 1000, 30_000);
+        verifier = new GoogleIdTokenConfig().googleIdTokenVerifier(publicKeysCache, StandInGoogleKeyServer.CLIENT_ID);
+        refresher = new GooglePublicKeysRefresher(publicKeysCache, REFRESH_AHEAD_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyServer.close();
+    }
+
+    @Test
+    void startupRefresh_thenVerificationIsLocal() throws Exception {
+        refresher.refreshIfDue();
+        assertEquals(1, keyServer.fetches());
+
+        for (int i = 0; i < 20; i++) {
+            GoogleIdToken idToken = verifier.verify(keyServer.idToken("user" + i + "@gmail.com"));
+            assertNotNull(idToken);
+            assertEquals("user" + i + "@gmail.com", idToken.getPayload().getEmail());
+        }
+        assertEquals(1, keyServer.fetches());
+    }
+
+    @Test
+    void refreshIfDue_onlyFetchesShortlyBeforeExpiry() throws Exception {
+        refresher.refreshIfDue();
+        now.addAndGet(3_600_000 - REFRESH_AHEAD_MS - 1);
+        refresher.refreshIfDue();
+        assertEquals(1, keyServer.fetches());
+
+        now.addAndGet(2);
+        refresher.refreshIfDue();
+        assertEquals(2, keyServer.fetches());
+
+        // Renewed before expiry, so a login right at the old expiry does not fetch
+        now.addAndGet(REFRESH_AHEAD_MS);
+        assertNotNull(verifier.verify(keyServer.idToken("user@gmail.com")));
+        assertEquals(2, keyServer.fetches());
+    }
+
+    @Test
+    void failedRefresh_keepsCachedKeys() throws Exception {
+        refresher.refreshIfDue();
+        now.addAndGet(3_600_000 - REFRESH_AHEAD_MS);
+        keyServer.setStatus(503);
+
+        refresher.refreshIfDue();
+
+        assertEquals(2, keyServer.fetches());
+        assertNotNull(verifier.verify(keyServer.idToken("user@gmail.com")));
+        assertEquals(2, keyServer.fetches());
+    }
+
+    @Test
+    void tokenForAnotherAudience_isRejected() throws Exception {
+        refresher.refreshIfDue();
+        GoogleIdTokenVerifier otherClient = new GoogleIdTokenConfig().googleIdTokenVerifier(publicKeysCache, "other-client");
+
+        assertNull(otherClient.verify(keyServer.idToken("user@gmail.com")));
+        assertNotNull(verifier.verify(keyServer.idToken("user@gmail.com")));
+    }
+}
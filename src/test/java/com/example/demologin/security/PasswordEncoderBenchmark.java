@@ -0,0 +1,50 @@
+package com.example.demologin.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks per second at each BCrypt cost with one thread per core, the ceiling on logins per second for
+ * that cost on this machine. Compare with the cost BCryptCalibration picks at startup.
+ *
+ * Run after {@code mvn test-compile}:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main PasswordEncoderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Threads(Threads.MAX)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"10", "11", "12", "13"})
+    private int strength;
+
+    private CostAwareBCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void hashPassword() {
+        encoder = new CostAwareBCryptPasswordEncoder(strength);
+        hash = encoder.encode("benchmark-Password-1");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches("benchmark-Password-1", hash);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demologin.security;
+
+import com.example.demologin.exception.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocialLoginWorkersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SocialLoginWorkers workers;
+
+    @AfterEach
+    void tearDown() {
+        workers.close();
+    }
+
+    @Test
+    void supply_runsOnAWorker() {
+        workers = new SocialLoginWorkers(2, 4, meterRegistry);
+
+        assertTrue(workers.supply(() -> Thread.currentThread().getName()).join().startsWith("social-login-"));
+    }
+
+    @Test
+    void fullQueue_failsTheLoginAtOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        workers = new SocialLoginWorkers(1, 1, meterRegistry);
+
+        CompletableFuture<String> running = workers.supply(() -> {
+            started.countDown();
+            await(release);
+            return "first";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = workers.supply(() -> "second");
+
+        CompletableFuture<String> refused = workers.supply(() -> "third");
+        CompletionException e = assertThrows(CompletionException.class, refused::join);
+        assertInstanceOf(TooManyRequestsException.class, e.getCause());
+        assertEquals(1, meterRegistry.get("social.login.workers.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("social.login.workers.queue.depth").gauge().value());
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demologin.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Google's certificate endpoint (https://www.googleapis.com/oauth2/v1/certs): serves one
+ * self-signed certificate with a Cache-Control max-age, counts fetches, and signs ID tokens with the matching key.
+ */
+public class StandInGoogleKeyServer implements AutoCloseable {
+
+    static final String KEY_ID = "stand-in-key";
+    static final String CLIENT_ID = "stand-in-client.apps.googleusercontent.com";
+    private static final String CERTS_PATH = "/oauth2/v1/certs";
+
+    private final HttpServer server;
+    private final PrivateKey privateKey;
+    private final String certificatePem;
+    private final AtomicInteger fetches = new AtomicInteger();
+    private volatile long maxAgeSeconds;
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    public StandInGoogleKeyServer(long maxAgeSeconds) throws IOException, GeneralSecurityException {
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.certificatePem = resource("cert.pem");
+        this.privateKey = KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(pemBody(resource("key.pem"))));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(CERTS_PATH, exchange -> {
+            fetches.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = status == 200
+                    ? GsonFactory.getDefaultInstance().toString(java.util.Map.of(KEY_ID, certificatePem)).getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.getResponseHeaders().set("Cache-Control", "public, max-age=" + this.maxAgeSeconds + ", must-revalidate, no-transform");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public String certsUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CERTS_PATH;
+    }
+
+    public int fetches() {
+        return fetches.get();
+    }
+
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public String idToken(String email) {
+        JsonWebSignature.Header header = new JsonWebSignature.Header();
+        header.setAlgorithm("RS256");
+        header.setKeyId(KEY_ID);
+        long now = System.currentTimeMillis() / 1000;
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload();
+        payload.setIssuer("https://accounts.google.com");
+        payload.setAudience(CLIENT_ID);
+        payload.setSubject("1234567890");
+        payload.setEmail(email);
+        payload.setIssuedAtTimeSeconds(now);
+        payload.setExpirationTimeSeconds(now + 3600);
+        try {
+            return JsonWebSignature.signUsingRsaSha256(privateKey, GsonFactory.getDefaultInstance(), header, payload);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Could not sign stand-in ID token", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static String resource(String name) {
+        try (InputStream in = StandInGoogleKeyServer.class.getResourceAsStream("/google-stand-in/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] pemBody(String pem) {
+        return Base64.getMimeDecoder().decode(pem.replaceAll("-----[A-Z ]+-----", ""));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLiveTailServiceImplTest {
+
+    private ActivityLiveTailServiceImpl liveTailService;
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> ids = new ArrayList<>();
+        boolean failing;
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                String text = part.getData().toString();
+                if (text.startsWith("id:")) {
+                    ids.add(text.substring(3, text.indexOf('\n')));
+                }
+                if (part.getMediaType() == MediaType.APPLICATION_JSON) {
+                    assertInstanceOf(com.example.demologin.dto.response.UserActivityLogResponse.class, part.getData());
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        liveTailService = new ActivityLiveTailServiceImpl() {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(liveTailService, "bufferSize", 4);
+        ReflectionTestUtils.setField(liveTailService, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(liveTailService, "senderThreads", 1);
+        ReflectionTestUtils.setField(liveTailService, "heartbeatMs", 60_000L);
+        liveTailService.start();
+        // Run sends when the test says so, to stand in for a connection that is slow to drain
+        ReflectionTestUtils.setField(liveTailService, "senderExecutor", (Executor) pendingSends::add);
+    }
+
+    @Test
+    void dispatch_deliversOnlyMatchingEventsFromSubscriptionOn() {
+        liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 1L));
+        liveTailService.subscribe(ActivityType.LOGIN_SUCCESS, null, null);
+        liveTailService.subscribe(null, 2L, null);
+
+        liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 1L));
+        liveTailService.publish(event(ActivityType.LOGOUT, 2L));
+        liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 2L));
+        runSends();
+
+        assertEquals(List.of("1", "3"), emitters.get(0).ids);
+        assertEquals(List.of("2", "3"), emitters.get(1).ids);
+    }
+
+    @Test
+    void subscribe_resumesAfterLastEventId() {
+        for (int i = 0; i < 3; i++) {
+            liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 1L));
+        }
+
+        liveTailService.subscribe(null, null, "0");
+        runSends();
+
+        assertEquals(List.of("1", "2"), emitters.get(0).ids);
+    }
+
+    @Test
+    void dispatch_dropsSubscriberThatFallsBehindTheRing() {
+        liveTailService.subscribe(null, null, null);
+        liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 1L));
+        // First send is handed out but the connection has not drained it yet
+        liveTailService.dispatch();
+        for (int i = 0; i < 4; i++) {
+            liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 1L));
+        }
+
+        liveTailService.dispatch();
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0, liveTailService.subscriberCount());
+    }
+
+    @Test
+    void send_removesSubscriberWhoseConnectionFailed() {
+        liveTailService.subscribe(null, null, null);
+        emitters.get(0).failing = true;
+        liveTailService.publish(event(ActivityType.LOGIN_SUCCESS, 1L));
+
+        runSends();
+
+        assertEquals(0, liveTailService.subscriberCount());
+    }
+
+    @Test
+    void subscribe_rejectsBeyondLimit() {
+        liveTailService.subscribe(null, null, null);
+        liveTailService.subscribe(null, null, null);
+
+        assertThrows(TooManyRequestsException.class, () -> liveTailService.subscribe(null, null, null));
+    }
+
+    private void runSends() {
+        liveTailService.dispatch();
+        List<Runnable> sends = new ArrayList<>(pendingSends);
+        pendingSends.clear();
+        sends.forEach(Runnable::run);
+    }
+
+    private static UserActivityLog event(ActivityType activityType, Long userId) {
+        return UserActivityLog.builder()
+                .activityType(activityType)
+                .userId(userId)
+                .status("SUCCESS")
+                .timestamp(LocalDateTime.of(2025, 1, 1, 8, 0))
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.archive.ActivityLogArchive;
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.mapper.UserActivityLogMapper;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.service.ActivityLogArchiveService.ArchiveResult;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.example.demologin.service.ActivityLogRetentionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityLogArchiveServiceImplTest {
+
+    private static final LocalDate OLD_DAY = LocalDate.now().minusDays(60);
+
+    @TempDir
+    Path directory;
+
+    private UserActivityLogRepository userActivityLogRepository;
+    private ActivityLogArchive archive;
+    private ActivityLogRetentionService activityLogRetentionService;
+    private ActivityLogArchiveServiceImpl archiveService;
+
+    @BeforeEach
+    void setUp() {
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        archive = new ActivityLogArchive(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(archive, "directory", directory.toString());
+        ReflectionTestUtils.setField(archive, "blockSize", 2);
+        activityLogRetentionService = mock(ActivityLogRetentionService.class);
+        UserActivityLogMapper mapper = new UserActivityLogMapper(mock(UserRepository.class), mock(ActivityLogDimensionService.class));
+        archiveService = new ActivityLogArchiveServiceImpl(userActivityLogRepository, mapper, archive,
+                mock(EntityManager.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                activityLogRetentionService);
+        ReflectionTestUtils.setField(archiveService, "archiveAfterDays", 30);
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 2);
+        when(userActivityLogRepository.deleteByIdIn(anyCollection()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @Test
+    void archiveOldLogs_writesDayThenDeletesItsRowsInChunks() {
+        when(userActivityLogRepository.findOldestTimestampBefore(any()))
+                .thenReturn(OLD_DAY.atTime(8, 0), (LocalDateTime) null);
+        when(userActivityLogRepository.streamAll(any(), eq(Sort.by(Sort.Direction.ASC, "userId", "timestamp", "id"))))
+                .thenReturn(List.of(log(1L, 1L, 8), log(2L, 1L, 9), log(3L, 2L, 8)).stream());
+
+        ArchiveResult result = archiveService.archiveOldLogs();
+
+        assertEquals(1, result.daysArchived());
+        assertEquals(3, result.rowsArchived());
+        assertEquals(List.of(2L, 1L), archive.find(ActivityLogArchive.Query.byUser(1L), null, 0, 10).stream()
+                .map(UserActivityLogResponse::getId).toList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(userActivityLogRepository, times(2)).deleteByIdIn(deleted.capture());
+        assertEquals(List.of(1L, 2L), new ArrayList<>(deleted.getAllValues().get(0)));
+        assertEquals(List.of(3L), new ArrayList<>(deleted.getAllValues().get(1)));
+    }
+
+    @Test
+    void archiveOldLogs_doesNotArchiveRowsTwiceAfterInterruptedDelete() throws Exception {
+        try (ActivityLogArchive.PartWriter part = archive.startPart(OLD_DAY)) {
+            UserActivityLogResponse earlier = new UserActivityLogResponse();
+            earlier.setId(1L);
+            earlier.setUserId(1L);
+            earlier.setTimestamp(OLD_DAY.atTime(8, 0));
+            part.append(earlier);
+            part.commit();
+        }
+        when(userActivityLogRepository.findOldestTimestampBefore(any()))
+                .thenReturn(OLD_DAY.atTime(8, 0), (LocalDateTime) null);
+        when(userActivityLogRepository.streamAll(any(), any()))
+                .thenReturn(List.of(log(1L, 1L, 8), log(2L, 1L, 9)).stream());
+
+        archiveService.archiveOldLogs();
+
+        assertEquals(2, archive.count(ActivityLogArchive.Query.byUser(1L)));
+        verify(userActivityLogRepository).deleteByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void archiveOldLogs_deletesExpiredRowsWithoutArchivingThem() {
+        when(activityLogRetentionService.expiryCutoffs(any()))
+                .thenReturn(Map.of(ActivityType.LOGIN_ATTEMPT, OLD_DAY.plusDays(1).atStartOfDay()));
+        when(userActivityLogRepository.findOldestTimestampBefore(any()))
+                .thenReturn(OLD_DAY.atTime(8, 0), (LocalDateTime) null);
+        when(userActivityLogRepository.streamAll(any(), any()))
+                .thenReturn(List.of(log(1L, 1L, 8), log(2L, 1L, 9, ActivityType.LOGIN_ATTEMPT)).stream());
+
+        archiveService.archiveOldLogs();
+
+        assertEquals(List.of(1L), archive.find(ActivityLogArchive.Query.byUser(1L), null, 0, 10).stream()
+                .map(UserActivityLogResponse::getId).toList());
+        verify(userActivityLogRepository).deleteByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void archiveOldLogs_stopsWhenNothingIsDeleted() {
+        when(userActivityLogRepository.findOldestTimestampBefore(any())).thenReturn(OLD_DAY.atTime(8, 0));
+        when(userActivityLogRepository.streamAll(any(), any())).thenReturn(java.util.stream.Stream.empty());
+
+        ArchiveResult result = archiveService.archiveOldLogs();
+
+        assertEquals(0, result.daysArchived());
+        verify(userActivityLogRepository, times(1)).findOldestTimestampBefore(any());
+    }
+
+    @Test
+    void archiveOldLogs_disabled() {
+        ReflectionTestUtils.setField(archiveService, "archiveAfterDays", 0);
+
+        assertEquals(0, archiveService.archiveOldLogs().rowsArchived());
+        verifyNoInteractions(userActivityLogRepository);
+    }
+
+    private static UserActivityLog log(Long id, Long userId, int hour) {
+        return log(id, userId, hour, ActivityType.LOGIN_SUCCESS);
+    }
+
+    private static UserActivityLog log(Long id, Long userId, int hour, ActivityType activityType) {
+        return UserActivityLog.builder()
+                .id(id)
+                .userId(userId)
+                .activityType(activityType)
+                .timestamp(OLD_DAY.atTime(hour, 0))
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.ActivityDevice;
+import com.example.demologin.entity.ActivityLocation;
+import com.example.demologin.entity.ActivityUserAgent;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.repository.ActivityDeviceRepository;
+import com.example.demologin.repository.ActivityLocationRepository;
+import com.example.demologin.repository.ActivityUserAgentRepository;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogDimensionService.UserAgentEntry;
+import com.example.demologin.utils.LocationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityLogDimensionServiceImplTest {
+
+    private static final String CHROME_UA = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    private ActivityUserAgentRepository userAgentRepository;
+    private ActivityDeviceRepository deviceRepository;
+    private ActivityLocationRepository locationRepository;
+    private UserActivityLogRepository userActivityLogRepository;
+    private ActivityLogDimensionServiceImpl dimensionService;
+    private final AtomicLong ids = new AtomicLong(100);
+
+    @Captor
+    private ArgumentCaptor<Collection<Long>> rowIds;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userAgentRepository = mock(ActivityUserAgentRepository.class);
+        deviceRepository = mock(ActivityDeviceRepository.class);
+        locationRepository = mock(ActivityLocationRepository.class);
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        when(userAgentRepository.findByFingerprint(any())).thenReturn(Optional.empty());
+        when(deviceRepository.findByFingerprint(any())).thenReturn(Optional.empty());
+        when(locationRepository.findByFingerprint(any())).thenReturn(Optional.empty());
+        when(userAgentRepository.save(any())).thenAnswer(invocation -> {
+            ActivityUserAgent row = invocation.getArgument(0);
+            row.setId(ids.incrementAndGet());
+            return row;
+        });
+        when(deviceRepository.save(any())).thenAnswer(invocation -> {
+            ActivityDevice row = invocation.getArgument(0);
+            row.setId(ids.incrementAndGet());
+            return row;
+        });
+        when(locationRepository.save(any())).thenAnswer(invocation -> {
+            ActivityLocation row = invocation.getArgument(0);
+            row.setId(ids.incrementAndGet());
+            return row;
+        });
+        when(userActivityLogRepository.applyDimensions(anyCollection(), any(), any()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+
+        dimensionService = new ActivityLogDimensionServiceImpl(userAgentRepository, deviceRepository,
+                locationRepository, userActivityLogRepository);
+        ReflectionTestUtils.setField(dimensionService, "cacheSize", 100);
+        ReflectionTestUtils.setField(dimensionService, "migrationBatchSize", 3);
+    }
+
+    @Test
+    void internUserAgent_storesOnceThenServesFromMemory() {
+        Long first = dimensionService.internUserAgent(CHROME_UA);
+        Long second = dimensionService.internUserAgent(CHROME_UA);
+
+        assertEquals(first, second);
+        verify(userAgentRepository, times(1)).save(any());
+        verify(userAgentRepository, times(1)).findByFingerprint(any());
+
+        ArgumentCaptor<ActivityDevice> device = ArgumentCaptor.forClass(ActivityDevice.class);
+        verify(deviceRepository).save(device.capture());
+        assertEquals("Google Chrome", device.getValue().getBrowser());
+        assertEquals(64, device.getValue().getFingerprint().length());
+
+        UserAgentEntry entry = dimensionService.getUserAgent(first);
+        assertEquals(CHROME_UA, entry.userAgent());
+        assertEquals("Windows 10/11", entry.device().getOperatingSystem());
+        verify(userAgentRepository, never()).findById(any());
+    }
+
+    @Test
+    void internLocation_rereadsAfterLosingInsertRace() {
+        ActivityLocation winner = ActivityLocation.builder().id(7L).fingerprint("x")
+                .city("Hanoi").region("Hanoi").country("Vietnam").countryCode("VN").build();
+        when(locationRepository.findByFingerprint(any())).thenReturn(Optional.empty()).thenReturn(Optional.of(winner));
+        doThrow(new DataIntegrityViolationException("duplicate fingerprint")).when(locationRepository).save(any());
+
+        Long id = dimensionService.internLocation(new LocationUtil.LocationInfo("Hanoi", "Hanoi", "Vietnam", "VN"));
+
+        assertEquals(7L, id);
+        assertEquals("VN", dimensionService.getLocation(7L).getCountryCode());
+        verify(locationRepository, never()).findById(any());
+    }
+
+    @Test
+    void preload_loadsMissingDimensionsWithOneQueryPerTable() {
+        when(userAgentRepository.findAllById(any())).thenReturn(List.of(
+                ActivityUserAgent.builder().id(1L).userAgent("ua-1").deviceId(10L).build(),
+                ActivityUserAgent.builder().id(2L).userAgent("ua-2").deviceId(10L).build()));
+        when(deviceRepository.findAllById(any())).thenReturn(List.of(
+                ActivityDevice.builder().id(10L).browser("Safari").operatingSystem("iOS 17").build()));
+        when(locationRepository.findAllById(any())).thenReturn(List.of(
+                ActivityLocation.builder().id(20L).city("Hue").country("Vietnam").countryCode("VN").build()));
+
+        dimensionService.preload(List.of(1L, 2L, 1L), Arrays.asList(20L, null));
+        dimensionService.preload(List.of(1L, 2L), List.of(20L));
+
+        verify(userAgentRepository, times(1)).findAllById(any());
+        verify(deviceRepository, times(1)).findAllById(any());
+        verify(locationRepository, times(1)).findAllById(any());
+        assertEquals("Safari", dimensionService.getUserAgent(2L).device().getBrowser());
+        assertEquals("Hue", dimensionService.getLocation(20L).getCity());
+        verify(userAgentRepository, never()).findById(any());
+        verify(deviceRepository, never()).findById(any());
+    }
+
+    @Test
+    void migrateLegacyLogs_movesStringColumnsToIdsInBatches() {
+        when(userActivityLogRepository.findLegacyLogsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                legacyLog(1L, CHROME_UA, "Hanoi"),
+                legacyLog(2L, CHROME_UA, "Hanoi"),
+                legacyLog(3L, null, "Hue")));
+        when(userActivityLogRepository.findLegacyLogsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(3, dimensionService.migrateLegacyLogs());
+        assertEquals(0, dimensionService.migrateLegacyLogs());
+
+        ArgumentCaptor<Long> userAgentIds = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> locationIds = ArgumentCaptor.forClass(Long.class);
+        verify(userActivityLogRepository, times(2)).applyDimensions(rowIds.capture(), userAgentIds.capture(), locationIds.capture());
+        assertEquals(List.of(1L, 2L), new ArrayList<>(rowIds.getAllValues().get(0)));
+        assertNotNull(userAgentIds.getAllValues().get(0));
+        assertEquals(List.of(3L), new ArrayList<>(rowIds.getAllValues().get(1)));
+        assertNull(userAgentIds.getAllValues().get(1));
+        assertNotEquals(locationIds.getAllValues().get(0), locationIds.getAllValues().get(1));
+
+        // Walked to the end: the periodic job stops querying
+        dimensionService.migrateLegacyLogsPeriodically();
+        verify(userActivityLogRepository, times(2)).findLegacyLogsAfter(anyLong(), any(Pageable.class));
+    }
+
+    private static UserActivityLog legacyLog(Long id, String userAgent, String city) {
+        return UserActivityLog.builder()
+                .id(id)
+                .userAgent(userAgent)
+                .browser(userAgent != null ? "Google Chrome" : null)
+                .city(city)
+                .region(city)
+                .country("Vietnam")
+                .countryCode("VN")
+                .enrichmentPending(false)
+                .build();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.http.OutboundHttpClients;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.example.demologin.service.ActivitySketchService;
+import com.example.demologin.service.UserLoginProfileService;
+import com.example.demologin.service.UserLoginProfileService.CountryLogin;
+import com.example.demologin.utils.LocationUtil;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityLogEnrichmentServiceImplTest {
+
+    private static final String CHROME_UA = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    private static final String IPHONE_UA = "Mozilla/5.0 (iPhone; CPU iPhone OS 14_6 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/14.1.1 Mobile/15E148 Safari/604.1";
+
+    private HttpServer stubGeoServer;
+    private final List<String> batchBodies = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger singleLookups = new AtomicInteger();
+
+    private UserActivityLogRepository userActivityLogRepository;
+    private ActivityLogDimensionService dimensionService;
+    private ActivitySketchService activitySketchService;
+    private UserLoginProfileService userLoginProfileService;
+    private PlatformTransactionManager transactionManager;
+    private ActivityLogEnrichmentServiceImpl enrichmentService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubGeoServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubGeoServer.createContext("/batch", exchange -> {
+            batchBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            respond(exchange, "[" +
+                    "{\"status\":\"success\",\"query\":\"8.8.8.8\",\"city\":\"Mountain View\",\"regionName\":\"California\",\"country\":\"United States\",\"countryCode\":\"US\"}," +
+                    "{\"status\":\"fail\",\"query\":\"1.1.1.1\",\"message\":\"reserved range\"}" +
+                    "]");
+        });
+        stubGeoServer.createContext("/", exchange -> {
+            singleLookups.incrementAndGet();
+            respond(exchange, "{\"city\":\"Sydney\",\"region\":\"New South Wales\",\"country_name\":\"Australia\",\"country_code\":\"AU\"}");
+        });
+        stubGeoServer.start();
+
+        String baseUrl = "http://127.0.0.1:" + stubGeoServer.getAddress().getPort();
+        LocationUtil locationUtil = new LocationUtil(new OutboundHttpClients(new MockEnvironment(), new SimpleMeterRegistry()),
+                new ConcurrentMapCacheManager("ipLocations"), baseUrl, baseUrl);
+
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        when(userActivityLogRepository.applyDimensions(anyCollection(), any(), any()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        dimensionService = mock(ActivityLogDimensionService.class);
+        when(dimensionService.internUserAgent(CHROME_UA)).thenReturn(100L);
+        when(dimensionService.internUserAgent(IPHONE_UA)).thenReturn(101L);
+        when(dimensionService.internLocation(any())).thenAnswer(invocation ->
+                (long) ((LocationUtil.LocationInfo) invocation.getArgument(0)).getCity().hashCode());
+        activitySketchService = mock(ActivitySketchService.class);
+        userLoginProfileService = mock(UserLoginProfileService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        enrichmentService = new ActivityLogEnrichmentServiceImpl(userActivityLogRepository, locationUtil, dimensionService,
+                activitySketchService, userLoginProfileService, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(enrichmentService, "batchSize", 50);
+        ReflectionTestUtils.setField(enrichmentService, "maxAttempts", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubGeoServer.stop(0);
+    }
+
+    @Test
+    void enrichPendingLogs_deduplicatesIpsAndGroupsUpdates() {
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(
+                pendingLog(1L, "8.8.8.8", CHROME_UA),
+                pendingLog(2L, "8.8.8.8", CHROME_UA),
+                pendingLog(3L, "8.8.8.8", IPHONE_UA),
+                pendingLog(4L, "1.1.1.1", CHROME_UA),
+                pendingLog(5L, "127.0.0.1 (localhost)", CHROME_UA)
+        ));
+
+        int enriched = enrichmentService.enrichPendingLogs();
+
+        assertEquals(5, enriched);
+        // Local IP never leaves the process, the two public IPs share one batch call
+        assertEquals(1, batchBodies.size());
+        assertTrue(batchBodies.get(0).contains("8.8.8.8"));
+        assertTrue(batchBodies.get(0).contains("1.1.1.1"));
+        assertFalse(batchBodies.get(0).contains("127.0.0.1"));
+        // Only the IP the batch API failed on falls back to the single lookup
+        assertEquals(1, singleLookups.get());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Long> userAgentIds = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> locationIds = ArgumentCaptor.forClass(Long.class);
+        verify(userActivityLogRepository, times(4)).applyDimensions(ids.capture(), userAgentIds.capture(), locationIds.capture());
+
+        assertEquals(List.of(1L, 2L), new ArrayList<>(ids.getAllValues().get(0)));
+        assertEquals(100L, userAgentIds.getAllValues().get(0));
+        assertEquals(101L, userAgentIds.getAllValues().get(1));
+        assertEquals((long) "Mountain View".hashCode(), locationIds.getAllValues().get(0));
+        assertEquals((long) "Sydney".hashCode(), locationIds.getAllValues().get(2));
+
+        ArgumentCaptor<LocationUtil.LocationInfo> locations = ArgumentCaptor.forClass(LocationUtil.LocationInfo.class);
+        verify(dimensionService, atLeastOnce()).internLocation(locations.capture());
+        assertTrue(locations.getAllValues().stream().anyMatch(location -> "LOCAL".equals(location.getCountryCode())));
+    }
+
+    @Test
+    void enrichPendingLogs_keepsUserAgentIdInternedByReplayer() {
+        UserActivityLog replayed = pendingLog(1L, "8.8.8.8", null);
+        replayed.setUserAgentId(7L);
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(replayed));
+
+        enrichmentService.enrichPendingLogs();
+
+        verify(dimensionService, never()).internUserAgent(any());
+        verify(userActivityLogRepository).applyDimensions(eq(List.of(1L)), eq(7L), anyLong());
+    }
+
+    @Test
+    void enrichPendingLogs_usesCacheOnSecondBatch() {
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(pendingLog(1L, "8.8.8.8", CHROME_UA)))
+                .thenReturn(List.of(pendingLog(2L, "8.8.8.8", CHROME_UA)));
+
+        enrichmentService.enrichPendingLogs();
+        enrichmentService.enrichPendingLogs();
+
+        assertEquals(1, batchBodies.size());
+        verify(userActivityLogRepository, times(2)).applyDimensions(anyCollection(), any(), any());
+    }
+
+    @Test
+    void enrichPendingLogs_countsSuccessfulLoginsByCountry() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 8, 30);
+        UserActivityLog login = pendingLog(1L, "8.8.8.8", CHROME_UA);
+        login.setActivityType(ActivityType.LOGIN_ATTEMPT);
+        login.setStatus("SUCCESS");
+        login.setTimestamp(timestamp);
+        UserActivityLog logout = pendingLog(2L, "8.8.8.8", CHROME_UA);
+        logout.setActivityType(ActivityType.LOGOUT);
+        logout.setStatus("SUCCESS");
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(login, logout));
+
+        enrichmentService.enrichPendingLogs();
+
+        verify(activitySketchService, times(1)).recordLogin(any(), any());
+        verify(activitySketchService).recordLogin(timestamp, "US");
+    }
+
+    @Test
+    void enrichPendingLogs_marksLoginsFromNewCountry() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 8, 30);
+        UserActivityLog login = pendingLog(1L, "8.8.8.8", CHROME_UA);
+        login.setActivityType(ActivityType.LOGIN_SUCCESS);
+        login.setUserId(9L);
+        login.setTimestamp(timestamp);
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(login));
+        when(userLoginProfileService.findNewCountries(List.of(new CountryLogin(1L, 9L, "US", timestamp))))
+                .thenReturn(Set.of(1L));
+
+        enrichmentService.enrichPendingLogs();
+
+        InOrder inOrder = inOrder(transactionManager, userActivityLogRepository, userLoginProfileService);
+        inOrder.verify(userActivityLogRepository).markNewCountry(Set.of(1L));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(userLoginProfileService).recordCountry(9L, "US", timestamp);
+    }
+
+    @Test
+    void enrichPendingLogs_recordsLoginsOnlyOnceRowsAreWritten() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 8, 30);
+        UserActivityLog login = pendingLog(1L, "8.8.8.8", CHROME_UA);
+        login.setActivityType(ActivityType.LOGIN_SUCCESS);
+        login.setUserId(9L);
+        login.setTimestamp(timestamp);
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(login));
+        when(userLoginProfileService.findNewCountries(anyList())).thenReturn(Set.of(1L));
+        // Fails for the batch and for its retry on its own, then succeeds on the next run
+        when(userActivityLogRepository.markNewCountry(anyCollection()))
+                .thenThrow(new IllegalStateException("down"))
+                .thenThrow(new IllegalStateException("down"))
+                .thenReturn(1);
+
+        assertEquals(0, enrichmentService.enrichPendingLogs());
+        verify(transactionManager, atLeastOnce()).rollback(any());
+        verify(activitySketchService, never()).recordLogin(any(), any());
+        verify(userLoginProfileService, never()).recordCountry(any(), any(), any());
+
+        assertEquals(1, enrichmentService.enrichPendingLogs());
+        verify(activitySketchService, times(1)).recordLogin(timestamp, "US");
+        verify(userLoginProfileService, times(1)).recordCountry(9L, "US", timestamp);
+    }
+
+    @Test
+    void enrichPendingLogs_failingRowDoesNotHoldBackTheBatch() {
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(
+                pendingLog(1L, "8.8.8.8", CHROME_UA),
+                pendingLog(2L, "8.8.8.8", IPHONE_UA)));
+        when(userActivityLogRepository.applyDimensions(anyCollection(), eq(101L), any()))
+                .thenThrow(new IllegalStateException("bad row"));
+
+        assertEquals(1, enrichmentService.enrichPendingLogs());
+        // Once in the rolled-back batch, once on its own
+        verify(userActivityLogRepository, times(2)).applyDimensions(eq(List.of(1L)), eq(100L), any());
+        verify(userActivityLogRepository, never()).skipEnrichment(any());
+
+        enrichmentService.enrichPendingLogs();
+        assertEquals(2, enrichmentService.enrichPendingLogs());
+        verify(userActivityLogRepository).skipEnrichment(List.of(2L));
+    }
+
+    @Test
+    void enrichPendingLogs_nothingPending() {
+        when(userActivityLogRepository.findByEnrichmentPendingTrueOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, enrichmentService.enrichPendingLogs());
+        assertTrue(batchBodies.isEmpty());
+        verify(userActivityLogRepository, never()).applyDimensions(anyCollection(), any(), any());
+        verify(userActivityLogRepository, never()).markNewCountry(any());
+    }
+
+    private static UserActivityLog pendingLog(Long id, String ipAddress, String userAgent) {
+        return UserActivityLog.builder()
+                .id(id)
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .enrichmentPending(true)
+                .build();
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.enums.ExportFormat;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.mapper.UserActivityLogMapper;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ActivityLogExportServiceImplTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 5, 8, 30);
+
+    private UserActivityLogRepository userActivityLogRepository;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private ActivityLogExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        userRepository = mock(UserRepository.class);
+        entityManager = mock(EntityManager.class);
+        // Same date handling as the Boot-configured ObjectMapper
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        exportService = new ActivityLogExportServiceImpl(userActivityLogRepository,
+                new UserActivityLogMapper(userRepository, mock(ActivityLogDimensionService.class)), entityManager, objectMapper);
+        ReflectionTestUtils.setField(exportService, "chunkSize", 2);
+    }
+
+    @Test
+    void exportActivityLogs_csvEscapesValues() throws Exception {
+        UserActivityLogExportRequest request = request(ExportFormat.CSV, false);
+        request.setUserId(7L);
+        request.setActivityType(ActivityType.LOGIN_ATTEMPT);
+        request.setStatus("FAILED");
+        when(userActivityLogRepository.streamAll(any(), eq(Sort.by(Sort.Direction.ASC, "timestamp", "id"))))
+                .thenReturn(Stream.of(log(1L, null, "Bad password, \"admin\"")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportActivityLogs(request, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,timestamp,activityType,status,userId,fullName,details,"));
+        assertTrue(lines[1].startsWith("1,2024-03-05T08:30,LOGIN_ATTEMPT,SUCCESS,,Guest,\"Bad password, \"\"admin\"\"\","));
+    }
+
+    @Test
+    void exportActivityLogs_ndjsonGzipInChunks() throws Exception {
+        when(userRepository.findFullNamesByUserIdIn(anyCollection())).thenReturn(List.<Object[]>of(new Object[]{3L, "Alice Nguyen"}));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userActivityLogRepository.streamAll(any(), any()))
+                .thenReturn(IntStream.rangeClosed(1, 5).mapToObj(i -> log((long) i, 3L, "row " + i))
+                        .onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportActivityLogs(request(ExportFormat.NDJSON, true), out);
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[0].contains("\"fullName\":\"Alice Nguyen\""));
+        assertTrue(lines[0].contains("\"timestamp\":\"2024-03-05T08:30:00\""));
+        // 5 rows in chunks of 2: one name query and one persistence-context clear per chunk
+        verify(userRepository, times(3)).findFullNamesByUserIdIn(anyCollection());
+        verify(entityManager, times(3)).clear();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportActivityLogs_rejectsInvertedRange() {
+        UserActivityLogExportRequest request = request(ExportFormat.CSV, false);
+        request.setEndDate(LocalDate.of(2024, 2, 1));
+
+        assertThrows(BadRequestException.class, () -> exportService.exportActivityLogs(request, new ByteArrayOutputStream()));
+        verifyNoInteractions(userActivityLogRepository);
+    }
+
+    private static UserActivityLogExportRequest request(ExportFormat format, boolean gzip) {
+        UserActivityLogExportRequest request = new UserActivityLogExportRequest();
+        request.setStartDate(LocalDate.of(2024, 3, 1));
+        request.setEndDate(LocalDate.of(2024, 3, 31));
+        request.setFormat(format);
+        request.setGzip(gzip);
+        return request;
+    }
+
+    private static UserActivityLog log(Long id, Long userId, String details) {
+        return UserActivityLog.builder()
+                .id(id)
+                .userId(userId)
+                .fullName(userId == null ? "Guest" : null)
+                .activityType(ActivityType.LOGIN_ATTEMPT)
+                .timestamp(TIME)
+                .details(details)
+                .build();
+    }
+}
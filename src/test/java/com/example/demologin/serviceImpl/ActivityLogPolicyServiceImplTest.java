@@ -0,0 +1,75 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityLogMode;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.service.ActivityStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ActivityLogPolicyServiceImplTest {
+
+    private ActivityStatsService activityStatsService;
+    private ActivityLogPolicyServiceImpl policyService;
+
+    @BeforeEach
+    void setUp() {
+        activityStatsService = mock(ActivityStatsService.class);
+        policyService = new ActivityLogPolicyServiceImpl(activityStatsService);
+        ReflectionTestUtils.setField(policyService, "policyByType",
+                "TOKEN_REFRESH:FIRST_PER_WINDOW:PT15M, profile_view:counters_only, LOGIN_ATTEMPT:SAMPLED:0, "
+                        + "LOGOUT:SAMPLED:1, BOGUS:ALWAYS, OTHER:SAMPLED");
+        ReflectionTestUtils.setField(policyService, "windowCacheSize", 100);
+        policyService.loadPolicies();
+    }
+
+    @Test
+    void loadPolicies_parsesEntriesAndSkipsInvalidOnes() {
+        assertEquals(ActivityLogMode.FIRST_PER_WINDOW, policyService.policyFor(ActivityType.TOKEN_REFRESH).mode());
+        assertEquals(Duration.ofMinutes(15), policyService.policyFor(ActivityType.TOKEN_REFRESH).window());
+        assertEquals(ActivityLogMode.COUNTERS_ONLY, policyService.policyFor(ActivityType.PROFILE_VIEW).mode());
+        // Missing rate
+        assertEquals(ActivityLogMode.ALWAYS, policyService.policyFor(ActivityType.OTHER).mode());
+        assertEquals(ActivityLogMode.ALWAYS, policyService.policyFor(ActivityType.LOGIN_SUCCESS).mode());
+    }
+
+    @Test
+    void admit_firstPerWindowIsPerUserOrPerIpWhenAnonymous() {
+        assertTrue(policyService.admit(ActivityType.TOKEN_REFRESH, 1L, "10.0.0.1"));
+        assertFalse(policyService.admit(ActivityType.TOKEN_REFRESH, 1L, "10.0.0.2"));
+        assertTrue(policyService.admit(ActivityType.TOKEN_REFRESH, 2L, "10.0.0.1"));
+        assertTrue(policyService.admit(ActivityType.TOKEN_REFRESH, null, "10.0.0.1"));
+        assertFalse(policyService.admit(ActivityType.TOKEN_REFRESH, null, "10.0.0.1"));
+        assertTrue(policyService.admit(ActivityType.TOKEN_REFRESH, null, "10.0.0.9"));
+
+        verify(activityStatsService, times(2)).recordEvent(any());
+    }
+
+    @Test
+    void admit_sampledAndCountersOnly() {
+        assertFalse(policyService.admit(ActivityType.LOGIN_ATTEMPT, 1L, "10.0.0.1"));
+        assertTrue(policyService.admit(ActivityType.LOGOUT, 1L, "10.0.0.1"));
+        assertFalse(policyService.admit(ActivityType.PROFILE_VIEW, 3L, "10.0.0.1"));
+        assertTrue(policyService.admit(ActivityType.LOGIN_SUCCESS, 1L, "10.0.0.1"));
+    }
+
+    @Test
+    void admit_countsSuppressedEventsInStats() {
+        policyService.admit(ActivityType.PROFILE_VIEW, 3L, "10.0.0.1");
+
+        ArgumentCaptor<UserActivityLog> counted = ArgumentCaptor.forClass(UserActivityLog.class);
+        verify(activityStatsService).recordEvent(counted.capture());
+        assertEquals(ActivityType.PROFILE_VIEW, counted.getValue().getActivityType());
+        assertEquals(3L, counted.getValue().getUserId());
+        assertEquals("SUCCESS", counted.getValue().getStatus());
+        assertNotNull(counted.getValue().getTimestamp());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.archive.ActivityLogArchive;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.ActivityLogPartitionRepository;
+import com.example.demologin.repository.ActivityLogPartitionRepository.MonthPartition;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogRetentionService.PurgeResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityLogRetentionServiceImplTest {
+
+    private UserActivityLogRepository userActivityLogRepository;
+    private ActivityLogPartitionRepository partitionRepository;
+    private ActivityLogArchive activityLogArchive;
+    private ActivityLogRetentionServiceImpl retentionService;
+
+    @BeforeEach
+    void setUp() {
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        partitionRepository = mock(ActivityLogPartitionRepository.class);
+        activityLogArchive = mock(ActivityLogArchive.class);
+        retentionService = new ActivityLogRetentionServiceImpl(userActivityLogRepository, partitionRepository, activityLogArchive);
+        ReflectionTestUtils.setField(retentionService, "defaultRetentionDays", 0);
+        ReflectionTestUtils.setField(retentionService, "retentionDaysByType", "LOGIN_ATTEMPT:90, profile_view:30, BOGUS:5, OTHER");
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 100);
+        ReflectionTestUtils.setField(retentionService, "throttleMs", 0L);
+        ReflectionTestUtils.setField(retentionService, "partitionMonthsAhead", 2);
+    }
+
+    @Test
+    void retentionPolicy_parsesOverridesAndSkipsKeepForever() {
+        Map<ActivityType, Integer> policy = retentionService.retentionPolicy();
+
+        assertEquals(Map.of(ActivityType.LOGIN_ATTEMPT, 90, ActivityType.PROFILE_VIEW, 30), policy);
+    }
+
+    @Test
+    void purgeExpiredLogs_deletesInBoundedIdChunks() {
+        when(partitionRepository.isPartitioned()).thenReturn(false);
+        when(userActivityLogRepository.findMinIdBefore(eq(ActivityType.LOGIN_ATTEMPT), any())).thenReturn(1L);
+        when(userActivityLogRepository.findMaxIdBefore(eq(ActivityType.LOGIN_ATTEMPT), any())).thenReturn(250L);
+        when(userActivityLogRepository.deleteExpiredInIdRange(eq(ActivityType.LOGIN_ATTEMPT), any(), anyLong(), anyLong()))
+                .thenReturn(100, 100, 50);
+        // Nothing expired for PROFILE_VIEW
+        when(userActivityLogRepository.findMinIdBefore(eq(ActivityType.PROFILE_VIEW), any())).thenReturn(null);
+        when(userActivityLogRepository.findMaxIdBefore(eq(ActivityType.PROFILE_VIEW), any())).thenReturn(null);
+
+        PurgeResult result = retentionService.purgeExpiredLogs();
+
+        verify(userActivityLogRepository).deleteExpiredInIdRange(eq(ActivityType.LOGIN_ATTEMPT), any(), eq(1L), eq(101L));
+        verify(userActivityLogRepository).deleteExpiredInIdRange(eq(ActivityType.LOGIN_ATTEMPT), any(), eq(101L), eq(201L));
+        verify(userActivityLogRepository).deleteExpiredInIdRange(eq(ActivityType.LOGIN_ATTEMPT), any(), eq(201L), eq(251L));
+        verify(userActivityLogRepository, never()).deleteExpiredInIdRange(eq(ActivityType.PROFILE_VIEW), any(), anyLong(), anyLong());
+        verify(partitionRepository, never()).dropMonthPartition(any());
+        assertEquals(250, result.rowsPurged());
+        assertEquals(0, result.partitionsDropped());
+        assertTrue(result.durationMs() >= 0);
+    }
+
+    @Test
+    void purgeExpiredLogs_dropsWholePartitionsPastLongestRetention() throws Exception {
+        ReflectionTestUtils.setField(retentionService, "defaultRetentionDays", 60);
+        YearMonth current = YearMonth.now();
+        MonthPartition expired = new MonthPartition("p_old", current.minusMonths(6));
+        MonthPartition recent = new MonthPartition("p_recent", current.minusMonths(1));
+        MonthPartition latest = new MonthPartition("p_latest", current.plusMonths(1));
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findMonthPartitions()).thenReturn(List.of(expired, recent, latest));
+        when(partitionRepository.countRows(expired)).thenReturn(1234L);
+        when(activityLogArchive.deleteDaysBefore(any())).thenReturn(56L);
+
+        PurgeResult result = retentionService.purgeExpiredLogs();
+
+        // Longest retention is 90 days, so only the six month old partition is dropped whole
+        verify(partitionRepository).dropMonthPartition(expired);
+        verify(partitionRepository, never()).dropMonthPartition(recent);
+        verify(partitionRepository).createMonthPartition(current.plusMonths(2));
+        verify(partitionRepository, times(1)).createMonthPartition(any());
+        assertEquals(1234, result.rowsPurged());
+        assertEquals(1, result.partitionsDropped());
+        // Archived days go at the same longest retention
+        verify(activityLogArchive).deleteDaysBefore(LocalDate.now().minusDays(90));
+        assertEquals(56, result.archivedRowsPurged());
+    }
+
+    @Test
+    void purgeExpiredLogs_keepsPartitionsWhenAnyTypeIsKeptForever() throws Exception {
+        YearMonth current = YearMonth.now();
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findMonthPartitions()).thenReturn(List.of(
+                new MonthPartition("p_old", current.minusYears(3)),
+                new MonthPartition("p_latest", current.plusMonths(2))));
+
+        retentionService.purgeExpiredLogs();
+
+        verify(partitionRepository, never()).dropMonthPartition(any());
+        verify(partitionRepository, never()).createMonthPartition(any());
+        verify(activityLogArchive, never()).deleteDaysBefore(any());
+    }
+
+    @Test
+    void expiryCutoffs_onlyForExpiringTypes() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+        assertEquals(Map.of(ActivityType.LOGIN_ATTEMPT, now.minusDays(90), ActivityType.PROFILE_VIEW, now.minusDays(30)),
+                retentionService.expiryCutoffs(now));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.response.SecurityStatsResponse;
+import com.example.demologin.entity.ActivitySketch;
+import com.example.demologin.enums.SketchMetric;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.repository.ActivitySketchRepository;
+import com.example.demologin.sketch.HyperLogLog;
+import com.example.demologin.sketch.SpaceSaving;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivitySketchServiceImplTest {
+
+    private ActivitySketchRepository activitySketchRepository;
+    private ActivitySketchServiceImpl sketchService;
+    private final List<ActivitySketch> saved = new ArrayList<>();
+    private final LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        activitySketchRepository = mock(ActivitySketchRepository.class);
+        when(activitySketchRepository.findByBucketStartAndMetric(any(), any())).thenReturn(Optional.empty());
+        when(activitySketchRepository.save(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        sketchService = newService();
+    }
+
+    @Test
+    void getSecurityStats_mergesHourlySketches() {
+        sketchService.recordActivity(1L);
+        sketchService.recordActivity(2L);
+        sketchService.recordActivity(2L);
+        sketchService.recordActivity(null);
+        for (int i = 0; i < 3; i++) {
+            sketchService.recordFailure("203.0.113.9");
+        }
+        sketchService.recordFailure("198.51.100.7");
+        sketchService.recordLogin(hour.minusHours(1).plusMinutes(5), "VN");
+        sketchService.recordLogin(hour.plusMinutes(10), "VN");
+        sketchService.recordLogin(hour.plusMinutes(20), "US");
+        sketchService.recordLogin(hour, "Unknown");
+
+        SecurityStatsResponse stats = sketchService.getSecurityStats(hour.minusHours(2), hour.plusMinutes(1), 2);
+
+        assertEquals(hour.minusHours(2), stats.getFrom());
+        assertEquals(hour.plusHours(1), stats.getTo());
+        assertEquals(2, stats.getDistinctUsers());
+        assertEquals(2L, stats.getDistinctUsersByHour().get(hour));
+        assertEquals("203.0.113.9", stats.getTopFailingIps().get(0).getValue());
+        assertEquals(3, stats.getTopFailingIps().get(0).getCount());
+        assertEquals(0, stats.getTopFailingIps().get(0).getMaxOvercount());
+        assertEquals(2, stats.getLoginsByCountry().size());
+        assertEquals("VN", stats.getLoginsByCountry().get(0).getValue());
+        assertEquals(2, stats.getLoginsByCountry().get(0).getCount());
+        verifyNoInteractions(activitySketchRepository);
+    }
+
+    @Test
+    void getSecurityStats_onlyIncludesHoursInRange() {
+        sketchService.recordLogin(hour.minusHours(3), "VN");
+        sketchService.recordLogin(hour, "US");
+
+        SecurityStatsResponse stats = sketchService.getSecurityStats(hour.minusHours(3), hour.minusHours(2), 10);
+
+        assertEquals(1, stats.getLoginsByCountry().size());
+        assertEquals("VN", stats.getLoginsByCountry().get(0).getValue());
+        assertEquals(0, stats.getDistinctUsers());
+    }
+
+    @Test
+    void getSecurityStats_rejectsInvalidRangeAndLimit() {
+        assertThrows(BadRequestException.class, () -> sketchService.getSecurityStats(hour, hour, 10));
+        assertThrows(BadRequestException.class, () -> sketchService.getSecurityStats(hour, hour.plusHours(1), 0));
+        assertThrows(BadRequestException.class, () -> sketchService.getSecurityStats(hour, hour.plusHours(1), 257));
+    }
+
+    @Test
+    void snapshot_writesOnlyChangedSketchesAndSurvivesRestart() {
+        sketchService.recordActivity(7L);
+        sketchService.recordFailure("203.0.113.9");
+
+        sketchService.snapshot();
+        sketchService.snapshot();
+
+        assertEquals(2, saved.size());
+        ActivitySketch users = saved.stream().filter(row -> row.getMetric() == SketchMetric.DISTINCT_USERS).findFirst().orElseThrow();
+        assertEquals(hour, users.getBucketStart());
+        assertEquals(1, HyperLogLog.fromBytes(users.getData()).estimate());
+
+        when(activitySketchRepository.findByBucketStartGreaterThanEqual(any())).thenReturn(List.copyOf(saved));
+        ActivitySketchServiceImpl restarted = newService();
+        restarted.loadSnapshots();
+        restarted.recordActivity(8L);
+
+        SecurityStatsResponse stats = restarted.getSecurityStats(hour, hour.plusHours(1), 10);
+        assertEquals(2, stats.getDistinctUsers());
+        assertEquals("203.0.113.9", stats.getTopFailingIps().get(0).getValue());
+    }
+
+    @Test
+    void snapshot_updatesExistingRowAndRetriesFailures() {
+        ActivitySketch existing = ActivitySketch.builder().id(5L).bucketStart(hour).metric(SketchMetric.FAILING_IPS)
+                .data(new SpaceSaving(256).toBytes()).updatedAt(hour).build();
+        when(activitySketchRepository.findByBucketStartAndMetric(hour, SketchMetric.FAILING_IPS)).thenReturn(Optional.of(existing));
+        sketchService.recordFailure("203.0.113.9");
+        doThrow(new DataAccessResourceFailureException("down")).when(activitySketchRepository).save(any());
+
+        sketchService.snapshot();
+
+        doAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        }).when(activitySketchRepository).save(any());
+        sketchService.snapshot();
+
+        assertEquals(1, saved.size());
+        assertSame(existing, saved.get(0));
+        assertEquals(1, SpaceSaving.fromBytes(existing.getData()).top(1).get(0).count());
+    }
+
+    @Test
+    void snapshot_prunesExpiredHoursOnce() {
+        sketchService.recordLogin(hour.minusHours(200), "VN");
+        sketchService.recordLogin(hour.minusHours(2), "VN");
+
+        sketchService.snapshot();
+        sketchService.snapshot();
+
+        verify(activitySketchRepository, times(1)).deleteByBucketStartBefore(hour.minusHours(168));
+        assertEquals(1, saved.size());
+        assertEquals(hour.minusHours(2), saved.get(0).getBucketStart());
+    }
+
+    @Test
+    void loadSnapshots_startsEmptyWhenDatabaseIsDown() {
+        when(activitySketchRepository.findByBucketStartGreaterThanEqual(any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertDoesNotThrow(() -> sketchService.loadSnapshots());
+        assertEquals(0, sketchService.getSecurityStats(hour, hour.plusHours(1), 10).getDistinctUsers());
+    }
+
+    private ActivitySketchServiceImpl newService() {
+        ActivitySketchServiceImpl service = new ActivitySketchServiceImpl(activitySketchRepository);
+        ReflectionTestUtils.setField(service, "retentionHours", 168);
+        ReflectionTestUtils.setField(service, "topCapacity", 256);
+        return service;
+    }
+}
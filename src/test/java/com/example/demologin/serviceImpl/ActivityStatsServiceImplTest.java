@@ -0,0 +1,153 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.dto.response.UserActivityStatsResponse;
+import com.example.demologin.entity.ActivityStatsHourly;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.entity.UserActivityStatsDaily;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.repository.ActivityStatsHourlyRepository;
+import com.example.demologin.repository.UserActivityStatsDailyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityStatsServiceImplTest {
+
+    private static final LocalDateTime TEN_PAST_NINE = LocalDateTime.of(2024, 6, 1, 9, 10);
+
+    private ActivityStatsHourlyRepository hourlyRepository;
+    private UserActivityStatsDailyRepository dailyRepository;
+    private ActivityStatsServiceImpl statsService;
+
+    @BeforeEach
+    void setUp() {
+        hourlyRepository = mock(ActivityStatsHourlyRepository.class);
+        dailyRepository = mock(UserActivityStatsDailyRepository.class);
+        statsService = new ActivityStatsServiceImpl(hourlyRepository, dailyRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void flushPendingCounts_incrementsExistingBucketsAndCreatesMissingOnes() {
+        statsService.recordEvent(log(1L, ActivityType.LOGIN_ATTEMPT, "SUCCESS", TEN_PAST_NINE));
+        statsService.recordEvent(log(1L, ActivityType.LOGIN_ATTEMPT, "SUCCESS", TEN_PAST_NINE.plusMinutes(30)));
+        statsService.recordEvent(log(null, ActivityType.LOGIN_ATTEMPT, "FAILED", TEN_PAST_NINE));
+        when(hourlyRepository.incrementCount(LocalDateTime.of(2024, 6, 1, 9, 0), ActivityType.LOGIN_ATTEMPT, "SUCCESS", 2L))
+                .thenReturn(1);
+        when(hourlyRepository.incrementCount(LocalDateTime.of(2024, 6, 1, 9, 0), ActivityType.LOGIN_ATTEMPT, "FAILED", 1L))
+                .thenReturn(0);
+        when(dailyRepository.incrementCount(1L, LocalDate.of(2024, 6, 1), 2L)).thenReturn(0);
+
+        statsService.flushPendingCounts();
+
+        ArgumentCaptor<ActivityStatsHourly> created = ArgumentCaptor.forClass(ActivityStatsHourly.class);
+        verify(hourlyRepository).save(created.capture());
+        assertEquals("FAILED", created.getValue().getStatus());
+        assertEquals(1L, created.getValue().getEventCount());
+        ArgumentCaptor<UserActivityStatsDaily> createdDaily = ArgumentCaptor.forClass(UserActivityStatsDaily.class);
+        verify(dailyRepository).save(createdDaily.capture());
+        assertEquals(2L, createdDaily.getValue().getEventCount());
+
+        // Nothing left to flush
+        statsService.flushPendingCounts();
+        verify(hourlyRepository, times(2)).incrementCount(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void flushPendingCounts_keepsDeltaWhenWriteFails() {
+        statsService.recordEvent(log(null, ActivityType.LOGOUT, "SUCCESS", TEN_PAST_NINE));
+        when(hourlyRepository.incrementCount(any(), any(), any(), anyLong()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+
+        statsService.flushPendingCounts();
+        statsService.flushPendingCounts();
+
+        verify(hourlyRepository, times(2)).incrementCount(LocalDateTime.of(2024, 6, 1, 9, 0), ActivityType.LOGOUT, "SUCCESS", 1L);
+    }
+
+    @Test
+    void recordEvent_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        statsService.recordEvent(log(null, ActivityType.LOGOUT, "SUCCESS", TEN_PAST_NINE));
+
+        statsService.flushPendingCounts();
+        verifyNoInteractions(hourlyRepository);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        statsService.flushPendingCounts();
+        verify(hourlyRepository).incrementCount(any(), eq(ActivityType.LOGOUT), eq("SUCCESS"), eq(1L));
+    }
+
+    @Test
+    void getActivityStats_sumsRollupsAndUnflushedCounts() {
+        LocalDateTime from = LocalDateTime.of(2024, 6, 1, 8, 45);
+        LocalDateTime to = LocalDateTime.of(2024, 6, 1, 10, 15);
+        when(hourlyRepository.sumByTypeAndStatus(LocalDateTime.of(2024, 6, 1, 8, 0), LocalDateTime.of(2024, 6, 1, 11, 0)))
+                .thenReturn(List.of(
+                        new Object[]{ActivityType.LOGIN_ATTEMPT, "SUCCESS", 10L},
+                        new Object[]{ActivityType.LOGIN_ATTEMPT, "FAILED", 3L},
+                        new Object[]{ActivityType.LOGOUT, "SUCCESS", 4L}));
+        statsService.recordEvent(log(null, ActivityType.LOGIN_ATTEMPT, "FAILED", TEN_PAST_NINE));
+        statsService.recordEvent(log(null, ActivityType.LOGOUT, "SUCCESS", TEN_PAST_NINE.plusDays(1)));
+
+        ActivityStatsResponse stats = statsService.getActivityStats(from, to);
+
+        assertEquals(18, stats.getTotal());
+        assertEquals(Map.of(ActivityType.LOGIN_ATTEMPT, 14L, ActivityType.LOGOUT, 4L), stats.getByType());
+        assertEquals(Map.of("SUCCESS", 14L, "FAILED", 4L), stats.getByStatus());
+        assertEquals(4L, stats.getByTypeAndStatus().get(ActivityType.LOGIN_ATTEMPT).get("FAILED"));
+        assertEquals(LocalDateTime.of(2024, 6, 1, 11, 0), stats.getTo());
+    }
+
+    @Test
+    void getActivityStats_rejectsEmptyRange() {
+        assertThrows(BadRequestException.class, () -> statsService.getActivityStats(TEN_PAST_NINE, TEN_PAST_NINE));
+    }
+
+    @Test
+    void getUserActivityStats_sumsDailyBuckets() {
+        LocalDate day = LocalDate.of(2024, 6, 1);
+        when(dailyRepository.findByUserIdAndBucketDateBetweenOrderByBucketDateAsc(7L, day, day.plusDays(6)))
+                .thenReturn(List.of(
+                        UserActivityStatsDaily.builder().userId(7L).bucketDate(day).eventCount(5).build(),
+                        UserActivityStatsDaily.builder().userId(7L).bucketDate(day.plusDays(2)).eventCount(2).build()));
+        statsService.recordEvent(log(7L, ActivityType.LOGIN_ATTEMPT, "SUCCESS", TEN_PAST_NINE));
+        statsService.recordEvent(log(8L, ActivityType.LOGIN_ATTEMPT, "SUCCESS", TEN_PAST_NINE));
+
+        UserActivityStatsResponse stats = statsService.getUserActivityStats(7L, day, day.plusDays(6));
+
+        assertEquals(8, stats.getTotal());
+        assertEquals(6L, stats.getDaily().get(day));
+        assertEquals(2L, stats.getDaily().get(day.plusDays(2)));
+    }
+
+    private static UserActivityLog log(Long userId, ActivityType type, String status, LocalDateTime timestamp) {
+        return UserActivityLog.builder()
+                .userId(userId)
+                .activityType(type)
+                .status(status)
+                .timestamp(timestamp)
+                .build();
+    }
+}
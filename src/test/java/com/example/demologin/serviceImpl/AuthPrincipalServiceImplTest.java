@@ -0,0 +1,146 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.entity.User;
+import com.example.demologin.enums.Gender;
+import com.example.demologin.enums.UserStatus;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.ActivityStatsService;
+import com.example.demologin.service.AuthPrincipalService;
+import com.example.demologin.service.RolePermissionService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * The principal is read by one SELECT over users and user_roles; roles and permissions come from the RBAC cache.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demologin.serviceImpl.AuthPrincipalServiceImplTest$CountingInspector"
+})
+@Import(AuthPrincipalServiceImpl.class)
+class AuthPrincipalServiceImplTest {
+
+    @Autowired
+    private AuthPrincipalService authPrincipalService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private RolePermissionService rolePermissionService;
+
+    // UserActivityLog's entity listener needs it
+    @MockitoBean
+    private ActivityStatsService activityStatsService;
+
+    private Long userId;
+    private Set<Long> roleIds;
+
+    @BeforeEach
+    void setUp() {
+        Permission view = new Permission("USER_VIEW", "View users");
+        entityManager.persist(view);
+        Role member = Role.builder().name("MEMBER").build();
+        Role admin = Role.builder().name("ADMIN").permissions(Set.of(view)).build();
+        entityManager.persist(member);
+        entityManager.persist(admin);
+
+        User user = new User("alice", "$2a$10$hash", "Alice A", "alice@example.com", "0123456789", "Street 1");
+        user.setIdentityCard("123456789");
+        user.setDateOfBirth(LocalDate.of(2000, 1, 1));
+        user.setGender(Gender.FEMALE);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setVerify(true);
+        user.setTokenVersion(3);
+        user.setRoles(Set.of(member, admin));
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        userId = user.getUserId();
+        roleIds = Set.of(member.getId(), admin.getId());
+        when(rolePermissionService.getRoleNamesForRoleIds(any())).thenReturn(Set.of("MEMBER", "ADMIN"));
+        when(rolePermissionService.getAuthoritiesForRoleIds(any())).thenReturn(Set.of("MEMBER", "ADMIN", "USER_VIEW"));
+        CountingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findByLogin_username_readsOnlyUsersAndUserRoles() {
+        AuthPrincipal principal = authPrincipalService.findByLogin("alice").orElseThrow();
+
+        assertEquals(userId, principal.getUserId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals("$2a$10$hash", principal.getPassword());
+        assertEquals("Alice A", principal.getFullName());
+        assertEquals(UserStatus.ACTIVE, principal.getStatus());
+        assertTrue(principal.isVerified());
+        assertTrue(principal.isAccountNonLocked());
+        assertEquals(3, principal.getTokenVersion());
+        assertEquals(roleIds, principal.getRoleIds());
+        assertEquals(Set.of("MEMBER", "ADMIN"), principal.getRoleNames());
+        assertEquals(Set.of("MEMBER", "ADMIN", "USER_VIEW"), principal.getAuthorityNames());
+
+        List<String> statements = statements();
+        assertEquals(1, statements.size());
+        assertFalse(statements.get(0).contains("permission"));
+        assertFalse(statements.get(0).matches("(?s).*\\brole\\b.*"));
+    }
+
+    @Test
+    void findByLogin_email() {
+        assertEquals(userId, authPrincipalService.findByLogin("alice@example.com").orElseThrow().getUserId());
+    }
+
+    @Test
+    void findById_userWithoutRoles() {
+        User user = entityManager.find(User.class, userId);
+        user.setRoles(new java.util.HashSet<>());
+        entityManager.flush();
+
+        AuthPrincipal principal = authPrincipalService.findById(userId).orElseThrow();
+
+        assertTrue(principal.getRoleIds().isEmpty());
+    }
+
+    @Test
+    void unknownLogin_isEmpty() {
+        assertTrue(authPrincipalService.findByLogin("bob").isEmpty());
+        assertTrue(authPrincipalService.findByLogin(" ").isEmpty());
+        assertTrue(authPrincipalService.findById(-1L).isEmpty());
+    }
+
+    private static List<String> statements() {
+        synchronized (CountingInspector.STATEMENTS) {
+            return CountingInspector.STATEMENTS.stream().map(sql -> sql.toLowerCase(Locale.ROOT)).toList();
+        }
+    }
+
+    public static class CountingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -9,12 +9,40 @@ import com.example.demologin.dto.request.user.UserRegistrationRequest;
 import com.example.demologin.enums.Gender;
 import com.example.demologin.enums.UserStatus;
 import com.example.demologin.exception.exceptions.*;
+import com.example.demologin.dto.request.login.FacebookLoginRequest;
+import com.example.demologin.dto.request.login.GoogleLoginRequest;
+import com.example.demologin.dto.request.login.LoginRequest;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.example.demologin.entity.RefreshToken;
+import com.example.demologin.dto.response.LoginResponse;
+import com.example.demologin.http.OutboundCircuitOpenException;
+import com.example.demologin.http.OutboundHttpClient;
+import com.example.demologin.http.OutboundHttpClients;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.security.SocialLoginWorkers;
+import com.example.demologin.service.AuthPrincipalService;
+import com.example.demologin.service.LoginThrottleService;
+import com.example.demologin.service.RefreshTokenService;
+import com.example.demologin.service.TokenService;
+import com.example.demologin.utils.IpUtilsWrapper;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +59,24 @@ class AuthenticationServiceImplTest {
 	private UserActivityLogRepository userActivityLogRepository;
 	@Mock
 	private PasswordEncoder passwordEncoder;
+	@Mock
+	private AuthenticationManager authenticationManager;
+	@Mock
+	private LoginThrottleService loginThrottleService;
+	@Mock
+	private IpUtilsWrapper ipUtils;
+	@Mock
+	private AuthPrincipalService authPrincipalService;
+	@Mock
+	private TokenService tokenService;
+	@Mock
+	private RefreshTokenService refreshTokenService;
+	@Mock
+	private GoogleIdTokenVerifier googleIdTokenVerifier;
+	@Mock
+	private OutboundHttpClients outboundHttpClients;
+	@Mock
+	private SocialLoginWorkers socialLoginWorkers;
 
 	@Test
 	void testRegister_passwordNotMatch() {
@@ -147,4 +193,202 @@ class AuthenticationServiceImplTest {
 		when(userRepository.save(any(User.class))).thenThrow(new RuntimeException("fail"));
 		assertThrows(InternalServerErrorException.class, () -> authenticationService.register(req));
 	}
+
+	@Test
+	void testRegister_hashingBusyIsNotWrapped() {
+		UserRegistrationRequest req = new UserRegistrationRequest();
+		req.setPassword("123");
+		req.setConfirmPassword("123");
+		req.setUsername("user");
+		req.setEmail("a@a.com");
+		when(userRepository.existsByUsername("user")).thenReturn(false);
+		when(userRepository.existsByEmail("a@a.com")).thenReturn(false);
+		Role role = new Role();
+		role.setName("MEMBER");
+		when(roleRepository.findByName("MEMBER")).thenReturn(java.util.Optional.of(role));
+		when(passwordEncoder.encode("123")).thenThrow(new TooManyRequestsException("busy"));
+		assertThrows(TooManyRequestsException.class, () -> authenticationService.register(req));
+		verify(userRepository, never()).save(any(User.class));
+	}
+
+	@Test
+	void testUpdatePassword_writesOnlyTheNewHash() {
+		User user = new User("user", "$2a$10$old", "A", "a@a.com", "", "");
+		user.setUserId(7L);
+		when(userRepository.updatePassword(7L, "{bcrypt}$2a$12$new")).thenReturn(1);
+
+		assertSame(user, authenticationService.updatePassword(user, "{bcrypt}$2a$12$new"));
+		assertEquals("{bcrypt}$2a$12$new", user.getPassword());
+		verify(userRepository, never()).save(any(User.class));
+	}
+
+	@Test
+	void testLogin_throttledBeforeAuthenticating() {
+		LoginRequest req = new LoginRequest();
+		req.setUsername("user");
+		req.setPassword("secret");
+		when(ipUtils.getRemoteAddress()).thenReturn("10.0.0.1");
+		doThrow(new TooManyRequestsException("locked")).when(loginThrottleService).checkAllowed("user", "10.0.0.1");
+
+		assertThrows(TooManyRequestsException.class, () -> authenticationService.login(req));
+		verifyNoInteractions(authenticationManager);
+	}
+
+	@Test
+	void testLogin_badCredentialsCountAsFailure() {
+		LoginRequest req = new LoginRequest();
+		req.setUsername("user");
+		req.setPassword("wrong");
+		when(ipUtils.getRemoteAddress()).thenReturn("10.0.0.1");
+		when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+
+		assertThrows(UnauthorizedException.class, () -> authenticationService.login(req));
+		verify(loginThrottleService).recordFailure("user", "10.0.0.1");
+		verify(loginThrottleService, never()).recordSuccess(any(), any());
+	}
+
+	@Test
+	void testLoadUserByUsername_returnsProjectedPrincipal() {
+		AuthPrincipal principal = principal(UserStatus.ACTIVE, true);
+		when(authPrincipalService.findByLogin("user")).thenReturn(java.util.Optional.of(principal));
+
+		assertSame(principal, authenticationService.loadUserByUsername("user"));
+		verify(userRepository, never()).findByUsername(any());
+	}
+
+	@Test
+	void testLoadUserByUsername_unknownLogin() {
+		when(authPrincipalService.findByLogin("nobody@a.com")).thenReturn(java.util.Optional.empty());
+
+		UsernameNotFoundException e = assertThrows(UsernameNotFoundException.class,
+				() -> authenticationService.loadUserByUsername("nobody@a.com"));
+		assertEquals("Account not found with email: nobody@a.com", e.getMessage());
+	}
+
+	@Test
+	void testUpdatePassword_principalGetsNewHash() {
+		AuthPrincipal principal = principal(UserStatus.ACTIVE, true);
+
+		UserDetails updated = authenticationService.updatePassword(principal, "{bcrypt}$2a$12$new");
+
+		verify(userRepository).updatePassword(7L, "{bcrypt}$2a$12$new");
+		assertEquals("{bcrypt}$2a$12$new", updated.getPassword());
+		assertEquals(java.util.Set.of("MEMBER", "PROFILE_VIEW"), java.util.Set.copyOf(
+				updated.getAuthorities().stream().map(a -> a.getAuthority()).toList()));
+	}
+
+	@Test
+	void testLogin_issuesTokensWithoutLoadingUser() {
+		LoginRequest req = new LoginRequest();
+		req.setUsername("user");
+		req.setPassword("secret");
+		AuthPrincipal principal = principal(UserStatus.ACTIVE, true);
+		User reference = new User();
+		RefreshToken refreshToken = new RefreshToken();
+		refreshToken.setToken("refresh");
+		when(ipUtils.getRemoteAddress()).thenReturn("10.0.0.1");
+		when(authenticationManager.authenticate(any()))
+				.thenReturn(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+		when(userRepository.getReferenceById(7L)).thenReturn(reference);
+		when(refreshTokenService.createRefreshToken(reference)).thenReturn(refreshToken);
+		when(tokenService.generateTokenForPrincipal(principal)).thenReturn("access");
+
+		var response = authenticationService.login(req);
+
+		assertEquals("access", response.getToken());
+		assertEquals("refresh", response.getRefreshToken());
+		verify(loginThrottleService).recordSuccess("user", "10.0.0.1");
+		verify(userRepository, never()).findById(any());
+	}
+
+	@Test
+	void testLogin_unverifiedPrincipalIsRejected() {
+		LoginRequest req = new LoginRequest();
+		req.setUsername("user");
+		req.setPassword("secret");
+		AuthPrincipal principal = principal(UserStatus.ACTIVE, false);
+		when(authenticationManager.authenticate(any()))
+				.thenReturn(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+		assertThrows(ForbiddenException.class, () -> authenticationService.login(req));
+		verifyNoInteractions(refreshTokenService, tokenService);
+	}
+
+	@Test
+	void testAuthenticateWithGoogle_rejectedBySharedVerifier() throws Exception {
+		GoogleLoginRequest req = new GoogleLoginRequest();
+		req.setIdToken("eyJhbGciOiJSUzI1NiJ9.invalid");
+		when(googleIdTokenVerifier.verify("eyJhbGciOiJSUzI1NiJ9.invalid")).thenReturn(null);
+
+		assertThrows(UnauthorizedException.class, () -> authenticationService.authenticateWithGoogle(req));
+		verifyNoInteractions(userRepository, tokenService);
+	}
+
+	@Test
+	void testAuthenticateWithFacebook_openCircuitIsServiceUnavailable() {
+		when(outboundHttpClients.restClient(OutboundHttpClients.FACEBOOK))
+				.thenThrow(new OutboundCircuitOpenException(OutboundHttpClients.FACEBOOK));
+
+		ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+				() -> authenticationService.authenticateWithFacebook(new FacebookLoginRequest("EAAB-token")));
+		assertTrue(e.getMessage().contains("temporarily unavailable"));
+		verifyNoInteractions(userRepository, tokenService);
+	}
+
+	@Test
+	void testAuthenticateWithFacebookAsync_dbPartRunsOnWorkerAfterUserInfo() {
+		OutboundHttpClient facebook = mock(OutboundHttpClient.class);
+		when(outboundHttpClients.get(OutboundHttpClients.FACEBOOK)).thenReturn(facebook);
+		when(facebook.sendAsyncForJson(any(HttpRequest.class))).thenReturn(CompletableFuture.completedFuture(
+				Map.<String, Object>of("id", "42", "email", "fb@example.com", "name", "F B")));
+		when(socialLoginWorkers.supply(any())).thenAnswer(invocation ->
+				CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
+		User user = new User("fb", "hash", "F B", "fb@example.com", "", "");
+		user.setRoles(new java.util.HashSet<>(java.util.Set.of(Role.builder().name("MEMBER").build())));
+		user.setStatus(UserStatus.ACTIVE);
+		when(userRepository.findByEmail("fb@example.com")).thenReturn(java.util.Optional.of(user));
+		RefreshToken refreshToken = new RefreshToken();
+		refreshToken.setToken("refresh");
+		when(refreshTokenService.createRefreshToken(user)).thenReturn(refreshToken);
+		when(tokenService.generateTokenForUser(user)).thenReturn("access");
+
+		LoginResponse response = authenticationService.authenticateWithFacebookAsync(new FacebookLoginRequest("EAAB token")).join();
+
+		assertEquals("access", response.getToken());
+		verify(socialLoginWorkers).supply(any());
+		ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+		verify(facebook).sendAsyncForJson(request.capture());
+		assertTrue(request.getValue().uri().toString().endsWith("access_token=EAAB+token"));
+	}
+
+	@Test
+	void testAuthenticateWithGoogleAsync_openCircuitIsServiceUnavailable() {
+		OutboundHttpClient google = mock(OutboundHttpClient.class);
+		when(outboundHttpClients.get(OutboundHttpClients.GOOGLE)).thenReturn(google);
+		when(google.sendAsyncForJson(any(HttpRequest.class))).thenReturn(
+				CompletableFuture.failedFuture(new OutboundCircuitOpenException(OutboundHttpClients.GOOGLE)));
+		GoogleLoginRequest req = new GoogleLoginRequest();
+		req.setIdToken("ya29.access");
+
+		CompletionException e = assertThrows(CompletionException.class,
+				() -> authenticationService.authenticateWithGoogleAsync(req).join());
+
+		assertInstanceOf(ServiceUnavailableException.class, e.getCause());
+		verifyNoInteractions(socialLoginWorkers, userRepository);
+	}
+
+	private static AuthPrincipal principal(UserStatus status, boolean verified) {
+		return AuthPrincipal.builder()
+				.userId(7L)
+				.username("user")
+				.password("$2a$10$old")
+				.fullName("A")
+				.status(status)
+				.verified(verified)
+				.roleId(2L)
+				.roleName("MEMBER")
+				.authorityName("MEMBER")
+				.authorityName("PROFILE_VIEW")
+				.build();
+	}
 }
@@ -0,0 +1,97 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.exception.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceImplTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private LoginThrottleServiceImpl throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottleServiceImpl();
+        ReflectionTestUtils.setField(throttle, "windowMs", 10 * MINUTE);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerUsername", 3);
+        ReflectionTestUtils.setField(throttle, "maxFailuresPerIp", 5);
+        ReflectionTestUtils.setField(throttle, "baseLockoutMs", MINUTE);
+        ReflectionTestUtils.setField(throttle, "maxLockoutMs", 4 * MINUTE);
+        ReflectionTestUtils.setField(throttle, "maxEntries", 8);
+        ReflectionTestUtils.setField(throttle, "stripeCount", 2);
+        throttle.clock = now::get;
+        throttle.init();
+    }
+
+    @Test
+    void usernameLocksOutAfterLimitAndLockoutDoubles() {
+        failTimes("alice", "10.0.0.1", 3);
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("Alice", "10.0.0.2"));
+
+        now.addAndGet(MINUTE);
+        assertDoesNotThrow(() -> throttle.checkAllowed("alice", "10.0.0.2"));
+
+        failTimes("alice", "10.0.0.2", 3);
+        now.addAndGet(MINUTE + 1);
+        // Second lockout lasts two minutes
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("alice", "10.0.0.3"));
+        now.addAndGet(MINUTE);
+        assertDoesNotThrow(() -> throttle.checkAllowed("alice", "10.0.0.3"));
+    }
+
+    @Test
+    void ipLocksOutAcrossUsernames() {
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.9");
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkAllowed("someone-else", "10.0.0.9"));
+        assertTrue(e.getMessage().contains("60 seconds"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone-else", "10.0.0.10"));
+    }
+
+    @Test
+    void oldFailuresSlideOutOfTheWindow() {
+        failTimes("bob", "unknown", 2);
+        // Halfway through the next window only half of the previous window's failures still count
+        now.addAndGet(15 * MINUTE);
+        throttle.recordFailure("bob", "unknown");
+        assertDoesNotThrow(() -> throttle.checkAllowed("bob", "unknown"));
+
+        throttle.recordFailure("bob", "unknown");
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("bob", "unknown"));
+    }
+
+    @Test
+    void successClearsUsernameButNotIp() {
+        failTimes("carol", "10.0.0.4", 2);
+        throttle.recordSuccess("carol", "10.0.0.4");
+        failTimes("carol", "10.0.0.4", 2);
+        assertDoesNotThrow(() -> throttle.checkAllowed("carol", "10.0.0.4"));
+
+        throttle.recordFailure("dave", "10.0.0.4");
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("erin", "10.0.0.4"));
+    }
+
+    @Test
+    void trackedKeysStayBounded() {
+        for (int i = 0; i < 100; i++) {
+            throttle.recordFailure("user" + i, null);
+        }
+        assertTrue(throttle.trackedKeys() <= 8);
+    }
+
+    private void failTimes(String username, String clientIp, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.recordFailure(username, clientIp);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RolePermissionServiceImplTest {
+
+    private RoleRepository roleRepository;
+    private RolePermissionServiceImpl rolePermissionService;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(
+                role(1L, "MEMBER"),
+                role(2L, "ADMIN", "USER_VIEW", "ROLE_EDIT")));
+        rolePermissionService = new RolePermissionServiceImpl(roleRepository);
+    }
+
+    @Test
+    void authorities_areRoleNamesAndPermissionCodes() {
+        assertEquals(Set.of("MEMBER", "ADMIN", "USER_VIEW", "ROLE_EDIT"),
+                rolePermissionService.getAuthoritiesForRoleIds(List.of(1L, 2L)));
+        assertEquals(Set.of("ADMIN"), rolePermissionService.getRoleNamesForRoleIds(List.of(2L, 99L)));
+    }
+
+    @Test
+    void roles_areLoadedOnceAndServedFromMemory() {
+        rolePermissionService.getAuthoritiesForRoleIds(List.of(1L));
+        rolePermissionService.getAuthoritiesForRoleIds(List.of(2L));
+        rolePermissionService.getRoleNamesForRoleIds(List.of(1L));
+
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshRoles_picksUpChangedPermissions() {
+        assertEquals(Set.of("MEMBER"), rolePermissionService.getAuthoritiesForRoleIds(List.of(1L)));
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "MEMBER", "PROFILE_VIEW")));
+
+        rolePermissionService.refreshRoles();
+
+        assertEquals(Set.of("MEMBER", "PROFILE_VIEW"), rolePermissionService.getAuthoritiesForRoleIds(List.of(1L)));
+        assertTrue(rolePermissionService.getAuthoritiesForRoleIds(List.of(2L)).isEmpty());
+    }
+
+    private static Role role(Long id, String name, String... codes) {
+        Role role = Role.builder().id(id).name(name).build();
+        for (String code : codes) {
+            role.getPermissions().add(new Permission(code, code));
+        }
+        return role;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.User;
+import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.TokenVersionService;
+import com.example.demologin.utils.AccountUtils;
+import com.example.demologin.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SessionManagementServiceImplTest {
+
+    private TokenVersionService tokenVersionService;
+    private UserRepository userRepository;
+    private AccountUtils accountUtils;
+    private RefreshTokenRepository refreshTokenRepository;
+    private UserActivityLogRepository userActivityLogRepository;
+    private PlatformTransactionManager transactionManager;
+    private SessionManagementServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = mock(TokenVersionService.class);
+        userRepository = mock(UserRepository.class);
+        accountUtils = mock(AccountUtils.class);
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        service = new SessionManagementServiceImpl(tokenVersionService, userRepository, accountUtils,
+                mock(JwtUtil.class), refreshTokenRepository, userActivityLogRepository,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "deleteChunkSize", 500);
+    }
+
+    @Test
+    void logoutFromAllDevices_deletesLogChunksAfterTokensAreCommitted() {
+        User reference = new User();
+        when(accountUtils.getCurrentPrincipal())
+                .thenReturn(AuthPrincipal.builder().userId(5L).username("alice").build());
+        when(userRepository.getReferenceById(5L)).thenReturn(reference);
+
+        service.logoutFromAllDevices();
+
+        InOrder inOrder = inOrder(transactionManager, refreshTokenRepository, tokenVersionService, userActivityLogRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(refreshTokenRepository).deleteByUser(reference);
+        inOrder.verify(tokenVersionService).incrementTokenVersionByUserId(5L);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(userActivityLogRepository).deleteByUserIdInChunks(5L, 500);
+        verify(userRepository, never()).findById(any());
+    }
+}
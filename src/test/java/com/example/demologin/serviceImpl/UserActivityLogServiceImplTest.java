@@ -0,0 +1,219 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.archive.ActivityLogArchive;
+import com.example.demologin.dto.response.CursorPageResponse;
+import com.example.demologin.dto.response.UserActivityLogResponse;
+import com.example.demologin.entity.User;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.exception.exceptions.NotFoundException;
+import com.example.demologin.mapper.UserActivityLogMapper;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.service.ActivityLogDimensionService;
+import com.example.demologin.utils.AccountUtils;
+import com.example.demologin.utils.ActivityLogCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserActivityLogServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private UserActivityLogRepository userActivityLogRepository;
+    private AccountUtils accountUtils;
+    private UserRepository userRepository;
+    private ActivityLogArchive activityLogArchive;
+    private UserActivityLogServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        accountUtils = mock(AccountUtils.class);
+        userRepository = mock(UserRepository.class);
+        activityLogArchive = mock(ActivityLogArchive.class);
+        UserActivityLogMapper mapper = new UserActivityLogMapper(userRepository, mock(ActivityLogDimensionService.class));
+        service = new UserActivityLogServiceImpl(userActivityLogRepository, mapper, accountUtils, userRepository, activityLogArchive);
+    }
+
+    @Test
+    void getAllActivityLogsAfter_firstPageFetchesOneExtraRowForHasNext() {
+        when(userActivityLogRepository.findAllByOrderByTimestampDescIdDesc(PageRequest.of(0, 3)))
+                .thenReturn(List.of(log(9L, NOW), log(8L, NOW), log(7L, NOW.minusMinutes(1))));
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getAllActivityLogsAfter("", 2);
+
+        assertEquals(List.of(9L, 8L), page.getContent().stream().map(UserActivityLogResponse::getId).toList());
+        assertTrue(page.isHasNext());
+        assertEquals(new ActivityLogCursor(NOW, 8L), ActivityLogCursor.decode(page.getNextCursor()));
+        verify(userActivityLogRepository, never()).findAll(any(Pageable.class));
+        verify(userActivityLogRepository, never()).count();
+    }
+
+    @Test
+    void getAllActivityLogsAfter_seeksPastCursor() {
+        String cursor = new ActivityLogCursor(NOW, 8L).encode();
+        when(userActivityLogRepository.findAllBefore(NOW, 8L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(log(7L, NOW.minusMinutes(1))));
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getAllActivityLogsAfter(cursor, 2);
+
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getAllActivityLogsAfter_emptyPageAfterCursorIsNotAnError() {
+        String cursor = new ActivityLogCursor(NOW, 1L).encode();
+        when(userActivityLogRepository.findAllBefore(any(), any(), any())).thenReturn(List.of());
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getAllActivityLogsAfter(cursor, 20);
+
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void getAllActivityLogsAfter_emptyFirstPageThrows() {
+        when(userActivityLogRepository.findAllByOrderByTimestampDescIdDesc(any())).thenReturn(List.of());
+
+        assertThrows(NotFoundException.class, () -> service.getAllActivityLogsAfter("", 20));
+    }
+
+    @Test
+    void getAllActivityLogsAfter_rejectsInvalidSize() {
+        assertThrows(BadRequestException.class, () -> service.getAllActivityLogsAfter("", 0));
+    }
+
+    @Test
+    void getActivityLogsByTypeAfter_invalidType() {
+        assertThrows(NotFoundException.class, () -> service.getActivityLogsByTypeAfter("NOPE", "", 20));
+    }
+
+    @Test
+    void getActivityLogsByDateRangeAfter_usesRangeAndCursor() {
+        LocalDateTime start = NOW.minusDays(1);
+        String cursor = new ActivityLogCursor(NOW, 5L).encode();
+        when(userActivityLogRepository.findByTimestampBetweenBefore(start, NOW, NOW, 5L, PageRequest.of(0, 21)))
+                .thenReturn(List.of(log(4L, NOW.minusHours(1))));
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getActivityLogsByDateRangeAfter(start, NOW, cursor, 20);
+
+        assertEquals(4L, page.getContent().get(0).getId());
+    }
+
+    @Test
+    void getActivityLogsByUserIdAfter_continuesIntoArchiveWhenTableRunsOut() {
+        ActivityLogArchive.Query query = ActivityLogArchive.Query.byUser(3L);
+        when(userActivityLogRepository.findByUserIdOrderByTimestampDescIdDesc(3L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(log(9L, NOW)));
+        when(activityLogArchive.find(query, null, 0, 2))
+                .thenReturn(List.of(archived(4L, NOW.minusDays(40)), archived(3L, NOW.minusDays(41))));
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getActivityLogsByUserIdAfter(3L, null, 2);
+
+        assertEquals(List.of(9L, 4L), page.getContent().stream().map(UserActivityLogResponse::getId).toList());
+        assertTrue(page.isHasNext());
+        assertEquals(new ActivityLogCursor(NOW.minusDays(40), 4L), ActivityLogCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getActivityLogsByUserIdAfter_skipsArchiveWhileTableHasMoreRows() {
+        when(userActivityLogRepository.findByUserIdOrderByTimestampDescIdDesc(3L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(log(9L, NOW), log(8L, NOW)));
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getActivityLogsByUserIdAfter(3L, null, 1);
+
+        assertTrue(page.isHasNext());
+        verifyNoInteractions(activityLogArchive);
+    }
+
+    @Test
+    void getActivityLogsByUserId_offsetPagePastTableReadsArchive() {
+        ActivityLogArchive.Query query = ActivityLogArchive.Query.byUser(3L);
+        Pageable pageable = PageRequest.of(1, 2);
+        Page<UserActivityLog> hot = new PageImpl<>(List.of(log(9L, NOW)), pageable, 3);
+        when(userActivityLogRepository.findByUserIdOrderByTimestampDesc(3L, pageable)).thenReturn(hot);
+        when(activityLogArchive.count(query)).thenReturn(5L);
+        when(activityLogArchive.find(query, null, 0, 1)).thenReturn(List.of(archived(4L, NOW.minusDays(40))));
+
+        Page<UserActivityLogResponse> page = service.getActivityLogsByUserId(3L, 1, 2);
+
+        assertEquals(List.of(9L, 4L), page.getContent().stream().map(UserActivityLogResponse::getId).toList());
+        assertEquals(8, page.getTotalElements());
+    }
+
+    @Test
+    void getActivityLogsByDateRange_servesRangeOnlyInArchive() {
+        LocalDateTime start = NOW.minusDays(60);
+        LocalDateTime end = NOW.minusDays(45);
+        ActivityLogArchive.Query query = ActivityLogArchive.Query.between(start, end);
+        Pageable pageable = PageRequest.of(2, 10);
+        when(userActivityLogRepository.findByTimestampBetween(start, end, pageable))
+                .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+        when(activityLogArchive.count(query)).thenReturn(22L);
+        when(activityLogArchive.find(query, null, 20, 10))
+                .thenReturn(List.of(archived(2L, NOW.minusDays(59)), archived(1L, NOW.minusDays(60))));
+
+        Page<UserActivityLogResponse> page = service.getActivityLogsByDateRange(start, end, 2, 10);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(22, page.getTotalElements());
+    }
+
+    @Test
+    void getMyLoginHistoryAfter_filtersByCurrentUserAndLoginAttempt() {
+        when(accountUtils.getCurrentPrincipal()).thenReturn(AuthPrincipal.builder().userId(3L).build());
+        when(userActivityLogRepository.findByUserIdAndActivityTypeOrderByTimestampDescIdDesc(
+                3L, ActivityType.LOGIN_ATTEMPT, PageRequest.of(0, 21)))
+                .thenReturn(List.of(log(1L, NOW)));
+
+        CursorPageResponse<UserActivityLogResponse> page = service.getMyLoginHistoryAfter(null, 20);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(20, page.getPageSize());
+    }
+
+    @Test
+    void filterActivityLogs_resolvesUsernameAndRejectsUnknownSortField() {
+        User user = new User();
+        user.setUserId(11L);
+        when(userRepository.findByUsername("alice")).thenReturn(java.util.Optional.of(user));
+        com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest filter = new com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest();
+        filter.setUsername("alice");
+        filter.setSortBy("details");
+
+        assertThrows(BadRequestException.class, () -> service.filterActivityLogs(filter));
+        assertEquals(11L, filter.getUserId());
+    }
+
+    private static UserActivityLog log(Long id, LocalDateTime timestamp) {
+        return UserActivityLog.builder()
+                .id(id)
+                .activityType(ActivityType.LOGIN_ATTEMPT)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static UserActivityLogResponse archived(Long id, LocalDateTime timestamp) {
+        UserActivityLogResponse response = new UserActivityLogResponse();
+        response.setId(id);
+        response.setActivityType(ActivityType.LOGIN_ATTEMPT);
+        response.setTimestamp(timestamp);
+        return response;
+    }
+}
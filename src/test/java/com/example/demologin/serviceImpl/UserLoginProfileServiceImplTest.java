@@ -0,0 +1,206 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.entity.UserLoginProfile;
+import com.example.demologin.repository.UserLoginProfileRepository;
+import com.example.demologin.service.UserLoginProfileService.CountryLogin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserLoginProfileServiceImplTest {
+
+    private static final String CHROME_WINDOWS = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    private static final String CHROME_WINDOWS_UPDATED = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.109 Safari/537.36";
+    private static final String IPHONE = "Mozilla/5.0 (iPhone; CPU iPhone OS 14_6 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/14.1.1 Mobile/15E148 Safari/604.1";
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private UserLoginProfileRepository userLoginProfileRepository;
+    private UserLoginProfileServiceImpl profileService;
+    private final List<UserLoginProfile> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userLoginProfileRepository = mock(UserLoginProfileRepository.class);
+        when(userLoginProfileRepository.findById(any())).thenReturn(Optional.empty());
+        when(userLoginProfileRepository.save(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        profileService = newService();
+    }
+
+    @Test
+    void recordDevice_flagsOnlyUnseenDevicesAfterTheFirstLogin() {
+        assertFalse(profileService.recordDevice(1L, CHROME_WINDOWS, NOW));
+        assertFalse(profileService.recordDevice(1L, CHROME_WINDOWS, NOW.plusHours(1)));
+        // A browser update is the same device
+        assertFalse(profileService.recordDevice(1L, CHROME_WINDOWS_UPDATED, NOW.plusHours(2)));
+        assertTrue(profileService.recordDevice(1L, IPHONE, NOW.plusHours(3)));
+        assertFalse(profileService.recordDevice(1L, IPHONE, NOW.plusHours(4)));
+
+        // Loaded once, then served from memory
+        verify(userLoginProfileRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void recordCountry_ignoresUnresolvedLocations() {
+        assertFalse(profileService.recordCountry(1L, "Unknown", NOW));
+        assertFalse(profileService.recordCountry(1L, "LOCAL", NOW));
+        assertFalse(profileService.recordCountry(1L, "VN", NOW));
+        assertFalse(profileService.recordCountry(1L, "VN", NOW.plusDays(1)));
+        assertTrue(profileService.recordCountry(1L, "US", NOW.plusDays(2)));
+        assertFalse(profileService.recordCountry(null, "FR", NOW));
+    }
+
+    @Test
+    void findNewCountries_treatsEarlierLoginsAsRecordedWithoutChangingProfiles() {
+        profileService.recordCountry(1L, "VN", NOW);
+
+        Set<Long> newCountries = profileService.findNewCountries(List.of(
+                new CountryLogin(10L, 1L, "US", NOW.plusDays(1)),
+                new CountryLogin(11L, 1L, "US", NOW.plusDays(2)),
+                new CountryLogin(12L, 2L, "FR", NOW.plusDays(1)),
+                new CountryLogin(13L, 2L, "DE", NOW.plusDays(2)),
+                new CountryLogin(14L, 1L, "LOCAL", NOW.plusDays(3))));
+
+        assertEquals(Set.of(10L, 13L), newCountries);
+        // Nothing was recorded, so the first of those logins is still new when it is recorded
+        assertTrue(profileService.recordCountry(1L, "US", NOW.plusDays(1)));
+        assertFalse(profileService.recordCountry(2L, "FR", NOW.plusDays(1)));
+    }
+
+    @Test
+    void recordCountry_dropsLeastRecentlySeenBeyondMaxEntries() {
+        profileService.recordCountry(1L, "VN", NOW);
+        profileService.recordCountry(1L, "US", NOW.plusDays(1));
+        profileService.recordCountry(1L, "JP", NOW.plusDays(2));
+        profileService.recordCountry(1L, "VN", NOW.plusDays(3));
+        assertTrue(profileService.recordCountry(1L, "FR", NOW.plusDays(4)));
+
+        // US was seen least recently and has been forgotten
+        assertTrue(profileService.recordCountry(1L, "US", NOW.plusDays(5)));
+        assertFalse(profileService.recordCountry(1L, "FR", NOW.plusDays(6)));
+    }
+
+    @Test
+    void flushProfiles_persistsChangedProfilesOnce() {
+        profileService.recordCountry(1L, "VN", NOW);
+        profileService.recordDevice(1L, CHROME_WINDOWS, NOW);
+
+        profileService.flushProfiles();
+        profileService.flushProfiles();
+
+        assertEquals(1, saved.size());
+        UserLoginProfile row = saved.get(0);
+        assertEquals(1L, row.getUserId());
+        assertTrue(row.getCountries().startsWith("VN:"));
+        assertEquals(NOW, row.getLastLoginAt());
+        assertTrue(row.getDevices().matches("[0-9a-f]{16}:\\d+"));
+    }
+
+    @Test
+    void profile_survivesRestartThroughTheDatabase() {
+        profileService.recordCountry(1L, "VN", NOW);
+        profileService.recordDevice(1L, CHROME_WINDOWS, NOW);
+        profileService.flushProfiles();
+        when(userLoginProfileRepository.findById(1L)).thenReturn(Optional.of(saved.get(0)));
+
+        UserLoginProfileServiceImpl restarted = newService();
+
+        assertFalse(restarted.recordCountry(1L, "VN", NOW.plusDays(1)));
+        assertTrue(restarted.recordCountry(1L, "US", NOW.plusDays(1)));
+        assertFalse(restarted.recordDevice(1L, CHROME_WINDOWS, NOW.plusDays(1)));
+        assertTrue(restarted.recordDevice(1L, IPHONE, NOW.plusDays(1)));
+    }
+
+    @Test
+    void flushProfiles_retriesAfterFailure() {
+        profileService.recordCountry(1L, "VN", NOW);
+        doThrow(new DataAccessResourceFailureException("down")).when(userLoginProfileRepository).save(any());
+
+        profileService.flushProfiles();
+
+        doAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        }).when(userLoginProfileRepository).save(any());
+        profileService.flushProfiles();
+
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    void flushProfiles_profileBeingSavedIsNeitherEvictedNorMarkedClean() {
+        profileService.recordCountry(1L, "VN", NOW);
+        doAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            if (saved.size() == 1) {
+                // While user 1 is being saved the cache fills up, then user 1 logs in again
+                for (long userId = 2; userId <= 4; userId++) {
+                    profileService.recordCountry(userId, "VN", NOW);
+                }
+                profileService.recordCountry(1L, "US", NOW.plusDays(1));
+            }
+            return invocation.getArgument(0);
+        }).when(userLoginProfileRepository).save(any());
+
+        profileService.flushProfiles();
+        profileService.flushProfiles();
+
+        // Never evicted, so never reloaded; the login made during the save is flushed next time
+        verify(userLoginProfileRepository, times(1)).findById(1L);
+        List<UserLoginProfile> user1 = saved.stream().filter(row -> row.getUserId() == 1L).toList();
+        assertEquals(2, user1.size());
+        assertTrue(user1.get(1).getCountries().contains("VN:"));
+        assertTrue(user1.get(1).getCountries().contains("US:"));
+    }
+
+    @Test
+    void cache_keepsUnflushedProfilesWhenFull() {
+        for (long userId = 1; userId <= 3; userId++) {
+            profileService.recordCountry(userId, "VN", NOW);
+        }
+        profileService.recordCountry(4L, "VN", NOW);
+        profileService.flushProfiles();
+
+        assertEquals(4, saved.size());
+        verify(userLoginProfileRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void cache_evictsOnlyTheLeastRecentlyUsedSavedProfile() {
+        for (long userId = 1; userId <= 3; userId++) {
+            profileService.recordCountry(userId, "VN", NOW);
+        }
+        profileService.flushProfiles();
+        profileService.recordCountry(1L, "VN", NOW.plusDays(1));
+
+        profileService.recordCountry(4L, "VN", NOW);
+        profileService.recordCountry(1L, "VN", NOW.plusDays(2));
+        profileService.recordCountry(3L, "VN", NOW.plusDays(1));
+
+        // User 2 was the least recently used saved profile; the others stayed cached
+        verify(userLoginProfileRepository, times(1)).findById(1L);
+        verify(userLoginProfileRepository, times(1)).findById(3L);
+        profileService.recordCountry(2L, "VN", NOW.plusDays(1));
+        verify(userLoginProfileRepository, times(2)).findById(2L);
+    }
+
+    private UserLoginProfileServiceImpl newService() {
+        UserLoginProfileServiceImpl service = new UserLoginProfileServiceImpl(userLoginProfileRepository);
+        ReflectionTestUtils.setField(service, "maxEntries", 3);
+        ReflectionTestUtils.setField(service, "cacheSize", 3);
+        return service;
+    }
+}
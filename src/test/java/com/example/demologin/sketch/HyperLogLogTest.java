@@ -0,0 +1,60 @@
+package com.example.demologin.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_isExactEnoughForSmallSets() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long userId = 1; userId <= 100; userId++) {
+            sketch.add(HyperLogLog.mix(userId));
+            sketch.add(HyperLogLog.mix(userId));
+        }
+
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    void estimate_staysWithinErrorBoundForLargeSets() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 200_000; i++) {
+            sketch.add("10.0." + (i / 256) + "." + (i % 256) + "/" + i);
+        }
+
+        // Standard error is about 1.6% at precision 12; allow three of them
+        assertEquals(200_000, sketch.estimate(), 200_000 * 0.05);
+    }
+
+    @Test
+    void merge_estimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (long userId = 0; userId < 30_000; userId++) {
+            first.add(HyperLogLog.mix(userId));
+            second.add(HyperLogLog.mix(userId + 20_000));
+        }
+
+        first.merge(second);
+
+        assertEquals(50_000, first.estimate(), 50_000 * 0.05);
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void toBytes_roundTrips() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long userId = 0; userId < 5_000; userId++) {
+            sketch.add(HyperLogLog.mix(userId));
+        }
+
+        byte[] bytes = sketch.toBytes();
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        assertEquals(2 + 4096, bytes.length);
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(bytes, restored.toBytes());
+    }
+}
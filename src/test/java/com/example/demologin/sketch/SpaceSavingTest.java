@@ -0,0 +1,85 @@
+package com.example.demologin.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void top_isExactWhileItemsFit() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.offer("VN", 5);
+        sketch.offer("US");
+        sketch.offer("US");
+        sketch.offer("JP");
+
+        List<SpaceSaving.Entry> top = sketch.top(2);
+
+        assertEquals(List.of(new SpaceSaving.Entry("VN", 5, 0), new SpaceSaving.Entry("US", 2, 0)), top);
+    }
+
+    @Test
+    void offer_keepsHeavyHittersAmongManyRareItems() {
+        SpaceSaving sketch = new SpaceSaving(20);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.offer("10.0.0." + (i % 3));
+            sketch.offer("192.168." + i);
+        }
+
+        List<SpaceSaving.Entry> top = sketch.top(3);
+
+        assertEquals(3, top.size());
+        for (SpaceSaving.Entry entry : top) {
+            assertTrue(entry.item().startsWith("10.0.0."));
+            // The true count (1667) lies in [count - error, count]
+            assertTrue(entry.count() >= 1666 && entry.count() - entry.error() <= 1667);
+        }
+    }
+
+    @Test
+    void merge_addsCountsAcrossSummaries() {
+        SpaceSaving first = new SpaceSaving(10);
+        SpaceSaving second = new SpaceSaving(10);
+        first.offer("1.1.1.1", 4);
+        first.offer("2.2.2.2", 1);
+        second.offer("1.1.1.1", 3);
+        second.offer("3.3.3.3", 2);
+
+        first.merge(second);
+
+        assertEquals(List.of(
+                new SpaceSaving.Entry("1.1.1.1", 7, 0),
+                new SpaceSaving.Entry("3.3.3.3", 2, 0),
+                new SpaceSaving.Entry("2.2.2.2", 1, 0)), first.top(10));
+    }
+
+    @Test
+    void merge_boundsItemsMissingFromFullSummary() {
+        SpaceSaving full = new SpaceSaving(2);
+        full.offer("a", 5);
+        full.offer("b", 3);
+        SpaceSaving other = new SpaceSaving(2);
+        other.offer("c", 4);
+
+        other.merge(full);
+
+        List<SpaceSaving.Entry> top = other.top(2);
+        assertEquals(new SpaceSaving.Entry("c", 7, 3), top.get(0));
+        assertEquals(new SpaceSaving.Entry("a", 5, 0), top.get(1));
+    }
+
+    @Test
+    void toBytes_roundTrips() {
+        SpaceSaving sketch = new SpaceSaving(3);
+        for (String item : List.of("a", "b", "a", "c", "d", "a")) {
+            sketch.offer(item);
+        }
+
+        SpaceSaving restored = SpaceSaving.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.top(3), restored.top(3));
+    }
+}
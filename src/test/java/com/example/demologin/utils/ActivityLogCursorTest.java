@@ -0,0 +1,35 @@
+package com.example.demologin.utils;
+
+import com.example.demologin.exception.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLogCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        ActivityLogCursor cursor = new ActivityLogCursor(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000), 42L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("|"));
+        assertEquals(cursor, ActivityLogCursor.decode(token));
+    }
+
+    @Test
+    void testDecodeBlankMeansFirstPage() {
+        assertNull(ActivityLogCursor.decode(null));
+        assertNull(ActivityLogCursor.decode(""));
+        assertNull(ActivityLogCursor.decode("  "));
+    }
+
+    @Test
+    void testDecodeInvalidToken() {
+        assertThrows(BadRequestException.class, () -> ActivityLogCursor.decode("not a cursor!"));
+        assertThrows(BadRequestException.class, () -> ActivityLogCursor.decode("bm9zZXBhcmF0b3I"));
+        assertThrows(BadRequestException.class, () -> ActivityLogCursor.decode("MjAyNC0xMy0wMXwx"));
+    }
+}
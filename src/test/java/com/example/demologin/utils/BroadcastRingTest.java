@@ -0,0 +1,32 @@
+package com.example.demologin.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadcastRingTest {
+
+    @Test
+    void publish_assignsSequencesReadableUntilOverwritten() {
+        BroadcastRing<String> ring = new BroadcastRing<>(3);
+        assertEquals(-1, ring.published());
+        assertNull(ring.get(0));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, ring.publish("e" + i));
+        }
+
+        assertEquals(4, ring.published());
+        // Sequences 0 and 1 were lapped
+        assertNull(ring.get(0));
+        assertNull(ring.get(1));
+        assertEquals("e2", ring.get(2));
+        assertEquals("e4", ring.get(4));
+        assertNull(ring.get(5));
+    }
+
+    @Test
+    void rejectsEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BroadcastRing<>(0));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demologin.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpUtilsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void remoteAddress_ignoresForwardingHeaders() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertEquals("198.51.100.1", IpUtils.getClientIpAddress());
+        assertEquals("203.0.113.7", IpUtils.getRemoteAddress());
+    }
+
+    @Test
+    void remoteAddress_withoutRequest() {
+        assertEquals("unknown", IpUtils.getRemoteAddress());
+    }
+}
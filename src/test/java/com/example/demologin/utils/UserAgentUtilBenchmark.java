@@ -0,0 +1,75 @@
+package com.example.demologin.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User-agent parsing over a corpus of real browser, app and bot user agents
+ * (src/test/resources/benchmark/user-agents.txt).
+ *
+ * Run after {@code mvn test-compile}:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main UserAgentUtilBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAgentUtilBenchmark {
+
+    private String[] corpus;
+    private int next;
+
+    @Setup
+    public void loadCorpus() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                UserAgentUtilBenchmark.class.getResourceAsStream("/benchmark/user-agents.txt"), StandardCharsets.UTF_8))) {
+            corpus = reader.lines().filter(line -> !line.isBlank()).toArray(String[]::new);
+        }
+    }
+
+    private String nextUserAgent() {
+        String userAgent = corpus[next];
+        next = (next + 1) % corpus.length;
+        return userAgent;
+    }
+
+    @Benchmark
+    public UserAgentUtil.DeviceInfo parseLegacyRegex() {
+        return LegacyUserAgentParser.parse(nextUserAgent());
+    }
+
+    @Benchmark
+    public UserAgentUtil.DeviceInfo classifyUncached() {
+        return UserAgentClassifier.classify(nextUserAgent());
+    }
+
+    @Benchmark
+    public UserAgentUtil.DeviceInfo parseUserAgentCached() {
+        return UserAgentUtil.parseUserAgent(nextUserAgent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserAgentUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
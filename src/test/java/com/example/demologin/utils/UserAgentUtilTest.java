@@ -1,6 +1,13 @@
 package com.example.demologin.utils;
 
 import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UserAgentUtilTest {
@@ -104,4 +111,80 @@ class UserAgentUtilTest {
         String formatted = UserAgentUtil.formatDeviceInfo(deviceInfo);
         assertEquals("Google Chrome 91.0.4472.124 on Windows 10/11 (Desktop)", formatted);
     }
+
+    @Test
+    void testParseUserAgent_InternetExplorerAndOpera() {
+        UserAgentUtil.DeviceInfo ie11 = UserAgentUtil.parseUserAgent("Mozilla/5.0 (Windows NT 6.1; WOW64; Trident/7.0; rv:11.0) like Gecko");
+        assertEquals("Internet Explorer", ie11.getBrowser());
+        assertEquals("11.0", ie11.getBrowserVersion());
+        assertEquals("Windows 7", ie11.getOperatingSystem());
+
+        UserAgentUtil.DeviceInfo ie10 = UserAgentUtil.parseUserAgent("Mozilla/5.0 (compatible; MSIE 10.0; Windows NT 6.2; Trident/6.0)");
+        assertEquals("10.0", ie10.getBrowserVersion());
+        assertEquals("Windows 8", ie10.getOperatingSystem());
+
+        UserAgentUtil.DeviceInfo opera = UserAgentUtil.parseUserAgent("Opera/9.80 (Windows NT 6.3; WOW64) Presto/2.12.388 Version/12.18");
+        assertEquals("Opera", opera.getBrowser());
+        assertEquals("9.80", opera.getBrowserVersion());
+        assertEquals("Windows 8.1", opera.getOperatingSystem());
+    }
+
+    @Test
+    void testParseUserAgent_iPadAndAndroidTablet() {
+        UserAgentUtil.DeviceInfo iPad = UserAgentUtil.parseUserAgent("Mozilla/5.0 (iPad; CPU OS 17_4_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4.1 Mobile/15E148 Safari/604.1");
+        // iPadOS sends "CPU OS ... like Mac OS X" without an "iPhone OS" token
+        assertEquals("macOS", iPad.getOperatingSystem());
+        assertEquals("iPad", iPad.getDevice());
+        assertEquals("Mobile", iPad.getDeviceType());
+
+        UserAgentUtil.DeviceInfo tablet = UserAgentUtil.parseUserAgent("Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36");
+        assertEquals("Android 13", tablet.getOperatingSystem());
+        assertEquals("Android Tablet", tablet.getDevice());
+        assertEquals("Tablet", tablet.getDeviceType());
+    }
+
+    @Test
+    void testParseUserAgent_SafariVersionRequiresSafariToken() {
+        UserAgentUtil.DeviceInfo deviceInfo = UserAgentUtil.parseUserAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 Safari/605.1.15 Version/17.4");
+        assertEquals("Safari", deviceInfo.getBrowser());
+        assertEquals("Unknown", deviceInfo.getBrowserVersion());
+    }
+
+    @Test
+    void testParseUserAgent_NonBrowserClient() {
+        UserAgentUtil.DeviceInfo deviceInfo = UserAgentUtil.parseUserAgent("PostmanRuntime/7.37.3");
+        assertEquals("Unknown Browser", deviceInfo.getBrowser());
+        assertEquals("Unknown", deviceInfo.getBrowserVersion());
+        assertEquals("Unknown OS", deviceInfo.getOperatingSystem());
+        assertEquals("Unknown Device", deviceInfo.getDevice());
+        assertEquals("Desktop", deviceInfo.getDeviceType());
+    }
+
+    @Test
+    void testParseUserAgent_MemoizedAndInterned() {
+        String chrome124 = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36";
+        String chrome124Wow64 = "Mozilla/5.0 (Windows NT 10.0; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36";
+
+        UserAgentUtil.DeviceInfo first = UserAgentUtil.parseUserAgent(chrome124);
+        assertSame(first, UserAgentUtil.parseUserAgent(new String(chrome124)));
+        // Different strings with the same classification share one DeviceInfo
+        assertSame(first, UserAgentUtil.parseUserAgent(chrome124Wow64));
+    }
+
+    @Test
+    void classifierMatchesLegacyParserOnCorpus() throws IOException {
+        List<String> corpus;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/benchmark/user-agents.txt"), StandardCharsets.UTF_8))) {
+            corpus = reader.lines().filter(line -> !line.isBlank()).toList();
+        }
+        assertFalse(corpus.isEmpty());
+
+        for (String userAgent : corpus) {
+            assertEquals(LegacyUserAgentParser.parse(userAgent), UserAgentClassifier.classify(userAgent), userAgent);
+        }
+        // Blank user agents are answered by UserAgentUtil before they reach the classifier
+        assertEquals(LegacyUserAgentParser.parse(""), UserAgentUtil.parseUserAgent(""));
+        assertEquals(LegacyUserAgentParser.parse(null), UserAgentUtil.parseUserAgent(null));
+    }
 }
@@ -0,0 +1,89 @@
+package com.example.demologin.wal;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityEventCodecTest {
+
+    @Test
+    void encodeDecode_roundTripsRawColumns() throws Exception {
+        UserActivityLog activityLog = UserActivityLog.builder()
+                .activityType(ActivityType.LOGIN_SUCCESS)
+                .userId(5L)
+                .fullName("Nguyễn Văn A")
+                .status("SUCCESS")
+                .timestamp(LocalDateTime.of(2025, 6, 1, 9, 30, 15, 123_000_000))
+                .details("LOGIN_SUCCESS - login")
+                .ipAddress("203.0.113.9")
+                .userAgent("Mozilla/5.0")
+                .browser("Chrome")
+                .enrichmentPending(true)
+                .newDevice(true)
+                .build();
+
+        UserActivityLog decoded = ActivityEventCodec.decode(ActivityEventCodec.encode(activityLog));
+
+        assertEquals(ActivityType.LOGIN_SUCCESS, decoded.getActivityType());
+        assertEquals(5L, decoded.getUserId());
+        assertEquals("Nguyễn Văn A", decoded.getFullName());
+        assertEquals("SUCCESS", decoded.getStatus());
+        assertEquals(activityLog.getTimestamp(), decoded.getTimestamp());
+        assertEquals("LOGIN_SUCCESS - login", decoded.getDetails());
+        assertEquals("203.0.113.9", decoded.getIpAddress());
+        assertEquals("Mozilla/5.0", decoded.getUserAgent());
+        assertTrue(decoded.getEnrichmentPending());
+        assertTrue(decoded.getNewDevice());
+        // Device and location are left to enrichment
+        assertNull(decoded.getBrowser());
+        assertNull(decoded.getId());
+    }
+
+    @Test
+    void encodeDecode_keepsNulls() throws Exception {
+        UserActivityLog activityLog = UserActivityLog.builder()
+                .activityType(ActivityType.LOGIN_ATTEMPT)
+                .status("FAILED")
+                .build();
+
+        UserActivityLog decoded = ActivityEventCodec.decode(ActivityEventCodec.encode(activityLog));
+
+        assertNull(decoded.getUserId());
+        assertNull(decoded.getFullName());
+        assertNull(decoded.getTimestamp());
+        assertNull(decoded.getIpAddress());
+        assertFalse(decoded.getEnrichmentPending());
+        assertNull(decoded.getNewDevice());
+    }
+
+    @Test
+    void decode_readsVersionOneEvents() throws Exception {
+        UserActivityLog activityLog = UserActivityLog.builder()
+                .activityType(ActivityType.LOGIN_ATTEMPT)
+                .userId(5L)
+                .status("SUCCESS")
+                .enrichmentPending(true)
+                .newDevice(false)
+                .build();
+        byte[] encoded = ActivityEventCodec.encode(activityLog);
+        // Version 1 had no new-device byte at the end
+        byte[] versionOne = java.util.Arrays.copyOf(encoded, encoded.length - 1);
+        versionOne[0] = 1;
+
+        UserActivityLog decoded = ActivityEventCodec.decode(versionOne);
+
+        assertEquals(5L, decoded.getUserId());
+        assertTrue(decoded.getEnrichmentPending());
+        assertNull(decoded.getNewDevice());
+    }
+
+    @Test
+    void decode_rejectsUnknownVersion() {
+        assertThrows(IOException.class, () -> ActivityEventCodec.decode(new byte[]{99, 0, 0, 0, 0}));
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.demologin.wal;
+
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.UserActivityLogRepository;
+import com.example.demologin.service.ActivityLogDimensionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityEventReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    private UserActivityLogRepository userActivityLogRepository;
+    private ActivityLogDimensionService dimensionService;
+    private ActivityEventWal activityEventWal;
+    private ActivityEventReplayer replayer;
+    private final List<UserActivityLog> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userActivityLogRepository = mock(UserActivityLogRepository.class);
+        when(userActivityLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<UserActivityLog> rows = invocation.getArgument(0);
+            saved.addAll(rows);
+            return rows;
+        });
+        dimensionService = mock(ActivityLogDimensionService.class);
+        when(dimensionService.internUserAgent("Mozilla")).thenReturn(55L);
+        activityEventWal = openWal();
+        replayer = newReplayer(activityEventWal);
+    }
+
+    @Test
+    void replay_savesBufferedEventsInBatchesAndAcknowledgesThem() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            activityEventWal.append(event(null, "10.0.0." + i));
+        }
+
+        assertEquals(5, replayer.replay());
+        assertEquals(0, replayer.replay());
+
+        verify(userActivityLogRepository, times(3)).saveAll(anyList());
+        assertEquals(5, saved.size());
+        assertEquals("10.0.0.4", saved.get(4).getIpAddress());
+        assertTrue(saved.get(0).getEnrichmentPending());
+        // Only the dictionary id of the user agent reaches the log row, interned once per batch
+        assertEquals(55L, saved.get(0).getUserAgentId());
+        assertNull(saved.get(0).getUserAgent());
+        verify(dimensionService, times(3)).internUserAgent("Mozilla");
+    }
+
+    @Test
+    void replay_keepsEventsWhileDatabaseIsDown() throws Exception {
+        activityEventWal.append(event(null, "10.0.0.1"));
+        when(userActivityLogRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenAnswer(invocation -> {
+                    saved.addAll(invocation.getArgument(0));
+                    return invocation.getArgument(0);
+                });
+
+        assertThrows(DataAccessResourceFailureException.class, () -> replayer.replay());
+        assertEquals(1, replayer.replay());
+
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    void replay_resumesAfterRestart() throws Exception {
+        activityEventWal.append(event(null, "10.0.0.1"));
+        activityEventWal.append(event(null, "10.0.0.2"));
+        newReplayer(activityEventWal).replay();
+        activityEventWal.append(event(null, "10.0.0.3"));
+        activityEventWal.close();
+        saved.clear();
+
+        ActivityEventReplayer restarted = newReplayer(openWal());
+
+        assertEquals(1, restarted.replay());
+        assertEquals("10.0.0.3", saved.get(0).getIpAddress());
+    }
+
+    @Test
+    void replay_foldsRepeatIntoLatestRow() throws Exception {
+        UserActivityLog existing = event(7L, "10.0.0.1");
+        existing.setId(42L);
+        existing.setLocationId(9L);
+        when(userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentIdOrderByTimestampDesc(
+                7L, ActivityType.LOGIN_SUCCESS, "10.0.0.1", 55L)).thenReturn(existing);
+        UserActivityLog repeat = event(7L, "10.0.0.1");
+        repeat.setTimestamp(LocalDateTime.of(2025, 3, 1, 12, 0));
+        repeat.setDetails("again");
+        activityEventWal.append(repeat);
+
+        replayer.replay();
+
+        assertEquals(1, saved.size());
+        assertSame(existing, saved.get(0));
+        assertEquals(LocalDateTime.of(2025, 3, 1, 12, 0), existing.getTimestamp());
+        assertEquals("again", existing.getDetails());
+        assertEquals(9L, existing.getLocationId());
+    }
+
+    @Test
+    void replay_foldsRepeatsWithinOneBatch() throws Exception {
+        activityEventWal.append(event(7L, "10.0.0.1"));
+        UserActivityLog repeat = event(7L, "10.0.0.1");
+        repeat.setDetails("second");
+        activityEventWal.append(repeat);
+
+        replayer.replay();
+
+        assertEquals(1, saved.size());
+        assertEquals("second", saved.get(0).getDetails());
+        verify(userActivityLogRepository, times(1))
+                .findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentIdOrderByTimestampDesc(any(), any(), any(), any());
+    }
+
+    @Test
+    void replay_dropsOnlyRowsTheDatabaseRejects() throws Exception {
+        activityEventWal.append(event(null, "10.0.0.1"));
+        activityEventWal.append(event(null, "bad"));
+        when(userActivityLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<UserActivityLog> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> "bad".equals(row.getIpAddress()))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            saved.addAll(rows);
+            return rows;
+        });
+
+        assertEquals(2, replayer.replay());
+
+        assertEquals(1, saved.size());
+        assertEquals("10.0.0.1", saved.get(0).getIpAddress());
+        assertEquals(0, replayer.replay());
+    }
+
+    @Test
+    void replayPeriodically_swallowsFailures() throws Exception {
+        activityEventWal.append(event(null, "10.0.0.1"));
+        when(userActivityLogRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertDoesNotThrow(() -> replayer.replayPeriodically());
+        ArgumentCaptor<List<UserActivityLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userActivityLogRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+    }
+
+    private ActivityEventWal openWal() throws Exception {
+        ActivityEventWal wal = new ActivityEventWal();
+        ReflectionTestUtils.setField(wal, "directory", directory.toString());
+        ReflectionTestUtils.setField(wal, "segmentSize", 512);
+        wal.open();
+        return wal;
+    }
+
+    private ActivityEventReplayer newReplayer(ActivityEventWal wal) {
+        ActivityEventReplayer eventReplayer = new ActivityEventReplayer(wal, userActivityLogRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), dimensionService);
+        ReflectionTestUtils.setField(eventReplayer, "batchSize", 2);
+        return eventReplayer;
+    }
+
+    private static UserActivityLog event(Long userId, String ipAddress) {
+        return UserActivityLog.builder()
+                .activityType(ActivityType.LOGIN_SUCCESS)
+                .userId(userId)
+                .status("SUCCESS")
+                .timestamp(LocalDateTime.of(2025, 1, 1, 8, 0))
+                .details("login")
+                .ipAddress(ipAddress)
+                .userAgent("Mozilla")
+                .enrichmentPending(true)
+                .build();
+    }
+}
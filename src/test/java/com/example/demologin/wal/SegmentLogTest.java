@@ -0,0 +1,135 @@
+package com.example.demologin.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendAndRead_roundTripsRecordsAcrossSegments() throws Exception {
+        SegmentLog segmentLog = new SegmentLog(directory, 64);
+        for (int i = 0; i < 10; i++) {
+            segmentLog.append(bytes("event-" + i));
+        }
+
+        List<SegmentLog.Entry> entries = segmentLog.read(segmentLog.checkpoint(), 100);
+
+        assertEquals(10, entries.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("event-" + i, text(entries.get(i).payload()));
+        }
+        assertTrue(segmentCount() > 1);
+        assertEquals(segmentLog.writePosition(), entries.get(9).next());
+    }
+
+    @Test
+    void read_honoursMaxAndResumesFromPosition() throws Exception {
+        SegmentLog segmentLog = new SegmentLog(directory, 64);
+        for (int i = 0; i < 5; i++) {
+            segmentLog.append(bytes("event-" + i));
+        }
+
+        List<SegmentLog.Entry> first = segmentLog.read(segmentLog.checkpoint(), 2);
+        List<SegmentLog.Entry> rest = segmentLog.read(first.get(1).next(), 100);
+
+        assertEquals(List.of("event-0", "event-1"), first.stream().map(entry -> text(entry.payload())).toList());
+        assertEquals(List.of("event-2", "event-3", "event-4"), rest.stream().map(entry -> text(entry.payload())).toList());
+    }
+
+    @Test
+    void acknowledge_deletesConsumedSegmentsAndSurvivesReopen() throws Exception {
+        SegmentLog segmentLog = new SegmentLog(directory, 64);
+        for (int i = 0; i < 10; i++) {
+            segmentLog.append(bytes("event-" + i));
+        }
+        List<SegmentLog.Entry> entries = segmentLog.read(segmentLog.checkpoint(), 7);
+        int before = segmentCount();
+
+        segmentLog.acknowledge(entries.get(6).next());
+        segmentLog.close();
+
+        assertTrue(segmentCount() < before);
+        SegmentLog reopened = new SegmentLog(directory, 64);
+        assertEquals(entries.get(6).next(), reopened.checkpoint());
+        List<SegmentLog.Entry> remaining = reopened.read(reopened.checkpoint(), 100);
+        assertEquals(List.of("event-7", "event-8", "event-9"), remaining.stream().map(entry -> text(entry.payload())).toList());
+    }
+
+    @Test
+    void reopen_continuesAfterLastRecord() throws Exception {
+        SegmentLog segmentLog = new SegmentLog(directory, 1024);
+        segmentLog.append(bytes("before-restart"));
+        segmentLog.close();
+
+        SegmentLog reopened = new SegmentLog(directory, 1024);
+        reopened.append(bytes("after-restart"));
+
+        List<SegmentLog.Entry> entries = reopened.read(reopened.checkpoint(), 100);
+        assertEquals(List.of("before-restart", "after-restart"), entries.stream().map(entry -> text(entry.payload())).toList());
+    }
+
+    @Test
+    void reopen_truncatesTornTailAndOverwritesIt() throws Exception {
+        SegmentLog segmentLog = new SegmentLog(directory, 1024);
+        segmentLog.append(bytes("first"));
+        SegmentLog.Position afterFirst = segmentLog.writePosition();
+        segmentLog.append(bytes("second"));
+        segmentLog.append(bytes("third"));
+        segmentLog.close();
+
+        // Flip a payload byte of "second": its checksum no longer matches
+        try (RandomAccessFile file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            int offset = afterFirst.offset() + SegmentLog.FRAME_HEADER;
+            file.seek(offset);
+            int value = file.read();
+            file.seek(offset);
+            file.write(value ^ 0xFF);
+        }
+
+        SegmentLog reopened = new SegmentLog(directory, 1024);
+        assertEquals(afterFirst, reopened.writePosition());
+        reopened.append(bytes("fourth"));
+
+        List<SegmentLog.Entry> entries = reopened.read(reopened.checkpoint(), 100);
+        assertEquals(List.of("first", "fourth"), entries.stream().map(entry -> text(entry.payload())).toList());
+    }
+
+    @Test
+    void append_rejectsRecordLargerThanSegment() throws Exception {
+        SegmentLog segmentLog = new SegmentLog(directory, 64);
+
+        assertThrows(IllegalArgumentException.class, () -> segmentLog.append(new byte[64]));
+    }
+
+    private int segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.filter(file -> file.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private Path onlySegment() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}